@@ -0,0 +1,129 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.benchmark;
+
+import com.blazebit.persistence.Criteria;
+import com.blazebit.persistence.CriteriaBuilderFactory;
+import com.blazebit.persistence.benchmark.model.Document;
+import com.blazebit.persistence.benchmark.model.Person;
+import com.blazebit.persistence.benchmark.view.DocumentCollectionView;
+import com.blazebit.persistence.benchmark.view.DocumentEntityFlushView;
+import com.blazebit.persistence.benchmark.view.DocumentFlatView;
+import com.blazebit.persistence.benchmark.view.DocumentMultisetView;
+import com.blazebit.persistence.benchmark.view.DocumentNestedView;
+import com.blazebit.persistence.benchmark.view.DocumentQueryFlushView;
+import com.blazebit.persistence.benchmark.view.PersonView;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The shared state of all benchmarks that need a database. Boots the persistence unit against an in-memory H2 database
+ * and creates a fixed data set, so that results are comparable between runs.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+@State(Scope.Benchmark)
+public class BenchmarkContext {
+
+    public static final int PERSON_COUNT = 100;
+    public static final int DOCUMENT_COUNT = 100;
+    public static final int CONTACTS_PER_DOCUMENT = 3;
+
+    private EntityManagerFactory emf;
+    private CriteriaBuilderFactory cbf;
+    private EntityViewManager evm;
+    private List<Long> documentIds;
+
+    @Setup
+    public void setup() {
+        emf = Persistence.createEntityManagerFactory("Benchmark");
+        cbf = Criteria.getDefault().createCriteriaBuilderFactory(emf);
+
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.addEntityView(PersonView.class);
+        cfg.addEntityView(DocumentFlatView.class);
+        cfg.addEntityView(DocumentNestedView.class);
+        cfg.addEntityView(DocumentCollectionView.class);
+        cfg.addEntityView(DocumentMultisetView.class);
+        cfg.addEntityView(DocumentQueryFlushView.class);
+        cfg.addEntityView(DocumentEntityFlushView.class);
+        evm = cfg.createEntityViewManager(cbf);
+
+        documentIds = createData();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (emf != null) {
+            emf.close();
+        }
+    }
+
+    private List<Long> createData() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            List<Person> persons = new ArrayList<>(PERSON_COUNT);
+            for (int i = 0; i < PERSON_COUNT; i++) {
+                Person person = new Person("Person " + i, 18 + i % 50);
+                em.persist(person);
+                persons.add(person);
+            }
+            List<Long> ids = new ArrayList<>(DOCUMENT_COUNT);
+            for (int i = 0; i < DOCUMENT_COUNT; i++) {
+                Document document = new Document("Document " + i, i % 30, persons.get(i % PERSON_COUNT));
+                for (int j = 1; j <= CONTACTS_PER_DOCUMENT; j++) {
+                    document.getContacts().add(persons.get((i + j) % PERSON_COUNT));
+                }
+                em.persist(document);
+                ids.add(document.getId());
+            }
+            em.getTransaction().commit();
+            return ids;
+        } finally {
+            em.close();
+        }
+    }
+
+    public EntityManager createEntityManager() {
+        return emf.createEntityManager();
+    }
+
+    public CriteriaBuilderFactory getCriteriaBuilderFactory() {
+        return cbf;
+    }
+
+    public EntityViewManager getEntityViewManager() {
+        return evm;
+    }
+
+    public List<Long> getDocumentIds() {
+        return documentIds;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.benchmark;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.CriteriaBuilderFactory;
+import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.benchmark.model.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.Tuple;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building criteria builders and rendering the query strings as well as the creation of the
+ * id, count and object queries of a paginated criteria builder.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CriteriaBuilderBenchmark {
+
+    private CriteriaBuilderFactory cbf;
+    private EntityManager em;
+
+    @Setup
+    public void setup(BenchmarkContext context) {
+        cbf = context.getCriteriaBuilderFactory();
+        em = context.createEntityManager();
+    }
+
+    @TearDown
+    public void tearDown() {
+        em.close();
+    }
+
+    @Benchmark
+    public String queryString() {
+        return createCriteriaBuilder().getQueryString();
+    }
+
+    @Benchmark
+    public Query query() {
+        return createCriteriaBuilder().getQuery();
+    }
+
+    @Benchmark
+    public String paginatedIdQueryString() {
+        return createPaginatedCriteriaBuilder().getPageIdQueryString();
+    }
+
+    @Benchmark
+    public String paginatedCountQueryString() {
+        return createPaginatedCriteriaBuilder().getPageCountQueryString();
+    }
+
+    @Benchmark
+    public String paginatedObjectQueryString() {
+        return createPaginatedCriteriaBuilder().getQueryString();
+    }
+
+    @Benchmark
+    public Query paginatedQuery() {
+        return createPaginatedCriteriaBuilder().getQuery();
+    }
+
+    private CriteriaBuilder<Tuple> createCriteriaBuilder() {
+        return cbf.create(em, Tuple.class)
+            .from(Document.class, "d")
+            .innerJoin("d.owner", "owner")
+            .leftJoin("d.contacts", "contact")
+            .select("d.id")
+            .select("d.name")
+            .select("owner.name")
+            .select("COUNT(contact.id)")
+            .where("d.age").geExpression(":minAge")
+            .where("UPPER(owner.name)").like().expression(":ownerName").noEscape()
+            .groupBy("d.id")
+            .groupBy("d.name")
+            .groupBy("owner.name")
+            .orderByAsc("d.name")
+            .orderByAsc("d.id")
+            .setParameter("minAge", 10L)
+            .setParameter("ownerName", "PERSON%");
+    }
+
+    private PaginatedCriteriaBuilder<Document> createPaginatedCriteriaBuilder() {
+        return cbf.create(em, Document.class, "d")
+            .leftJoinFetch("d.contacts", "contact")
+            .where("d.age").geExpression(":minAge")
+            .where("contact.name").like().expression(":contactName").noEscape()
+            .orderByAsc("d.name")
+            .orderByAsc("d.id")
+            .setParameter("minAge", 10L)
+            .setParameter("contactName", "Person%")
+            .page(0, 10);
+    }
+}
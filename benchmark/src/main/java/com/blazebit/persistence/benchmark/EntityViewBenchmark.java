@@ -0,0 +1,150 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.benchmark;
+
+import com.blazebit.persistence.CriteriaBuilderFactory;
+import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.benchmark.model.Document;
+import com.blazebit.persistence.benchmark.view.DocumentCollectionView;
+import com.blazebit.persistence.benchmark.view.DocumentFlatView;
+import com.blazebit.persistence.benchmark.view.DocumentMultisetView;
+import com.blazebit.persistence.benchmark.view.DocumentNestedView;
+import com.blazebit.persistence.impl.query.ObjectBuilderTypedQuery;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures querying entity views and the transformation of the result tuples into entity view objects
+ * for views of different shapes. The {@link #execute()} and {@link #transform()} benchmarks measure the two parts of {@link #resultList()} separately.
+ * Run with <code>-prof gc</code> to see the allocations, where the <code>gc.alloc.rate.norm</code> of {@link #resultListPerView()}
+ * and {@link #transformPerView()} is the amount of bytes allocated per entity view object.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityViewBenchmark {
+
+    @Param({ "flat", "nested", "collection", "multiset" })
+    private String view;
+
+    private CriteriaBuilderFactory cbf;
+    private EntityViewManager evm;
+    private EntityManager em;
+    private EntityViewSetting<?, ?> setting;
+    private TypedQuery<Object> tupleQuery;
+    private ObjectBuilder<Object> objectBuilder;
+    private List<Object[]> tuples;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup(BenchmarkContext context) {
+        cbf = context.getCriteriaBuilderFactory();
+        evm = context.getEntityViewManager();
+        em = context.createEntityManager();
+        switch (view) {
+            case "flat":
+                setting = EntityViewSetting.create(DocumentFlatView.class);
+                break;
+            case "nested":
+                setting = EntityViewSetting.create(DocumentNestedView.class);
+                break;
+            case "collection":
+                setting = EntityViewSetting.create(DocumentCollectionView.class);
+                break;
+            case "multiset":
+                setting = EntityViewSetting.create(DocumentMultisetView.class);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported view: " + view);
+        }
+        ObjectBuilderTypedQuery<Object> query = (ObjectBuilderTypedQuery<Object>) (TypedQuery<?>) evm.applySetting(setting, cbf.create(em, Document.class)).getQuery();
+        tupleQuery = query.getDelegate();
+        objectBuilder = query.getObjectBuilder();
+        List<Object> result = tupleQuery.getResultList();
+        tuples = new ArrayList<>(result.size());
+        for (Object tuple : result) {
+            tuples.add(tuple instanceof Object[] ? (Object[]) tuple : new Object[]{ tuple });
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        em.close();
+    }
+
+    @Benchmark
+    public List<?> resultList() {
+        return evm.applySetting(setting, cbf.create(em, Document.class)).getResultList();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkContext.DOCUMENT_COUNT)
+    public List<?> resultListPerView() {
+        return evm.applySetting(setting, cbf.create(em, Document.class)).getResultList();
+    }
+
+    @Benchmark
+    public List<?> execute() {
+        return tupleQuery.getResultList();
+    }
+
+    @Benchmark
+    public List<?> transform() {
+        return transformTuples();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkContext.DOCUMENT_COUNT)
+    public List<?> transformPerView() {
+        return transformTuples();
+    }
+
+    private List<Object> transformTuples() {
+        // Like ObjectBuilderTypedQuery, but the tuples are copied since tuple transformers may replace the elements
+        int size = tuples.size();
+        List<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(objectBuilder.build(tuples.get(i).clone()));
+        }
+        return objectBuilder.buildList(list);
+    }
+}
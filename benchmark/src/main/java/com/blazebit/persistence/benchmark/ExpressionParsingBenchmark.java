@@ -0,0 +1,101 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.benchmark;
+
+import com.blazebit.persistence.parser.FunctionKind;
+import com.blazebit.persistence.parser.expression.BoundedExpressionCache;
+import com.blazebit.persistence.parser.expression.ConcurrentHashMapExpressionCache;
+import com.blazebit.persistence.parser.expression.ExpressionFactory;
+import com.blazebit.persistence.parser.expression.ExpressionFactoryImpl;
+import com.blazebit.persistence.parser.expression.SimpleCachingExpressionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing of typical select, where and order by expressions with and without an expression cache.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionParsingBenchmark {
+
+    private static final String[] SIMPLE_EXPRESSIONS = {
+        "d.name",
+        "d.owner.name",
+        "COALESCE(d.owner.name, d.name)",
+        "d.age + 1 * (d.owner.age - 2)",
+        "CASE WHEN d.age > 10 THEN 'old' WHEN d.age > 5 THEN 'middle' ELSE 'new' END",
+        "SIZE(d.contacts)"
+    };
+    private static final String[] BOOLEAN_EXPRESSIONS = {
+        "d.age > :minAge AND UPPER(d.owner.name) LIKE :name",
+        "d.owner.id IN :ownerIds OR d.name IS NULL",
+        "d.age BETWEEN 1 AND 10 AND d.owner.name <> d.name"
+    };
+
+    @Param({ "none", "concurrent", "bounded" })
+    private String cache;
+
+    private ExpressionFactory expressionFactory;
+
+    @Setup
+    public void setup() {
+        ExpressionFactory delegate = new ExpressionFactoryImpl(new HashMap<String, FunctionKind>(), true, true);
+        switch (cache) {
+            case "none":
+                expressionFactory = delegate;
+                break;
+            case "concurrent":
+                expressionFactory = new SimpleCachingExpressionFactory(delegate, new ConcurrentHashMapExpressionCache<>());
+                break;
+            case "bounded":
+                expressionFactory = new SimpleCachingExpressionFactory(delegate, new BoundedExpressionCache<>());
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported cache: " + cache);
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        for (String expression : SIMPLE_EXPRESSIONS) {
+            blackhole.consume(expressionFactory.createSimpleExpression(expression, false));
+        }
+        for (String expression : BOOLEAN_EXPRESSIONS) {
+            blackhole.consume(expressionFactory.createBooleanExpression(expression, false));
+        }
+    }
+}
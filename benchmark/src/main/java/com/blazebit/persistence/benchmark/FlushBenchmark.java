@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.benchmark;
+
+import com.blazebit.persistence.benchmark.view.DocumentEntityFlushView;
+import com.blazebit.persistence.benchmark.view.DocumentQueryFlushView;
+import com.blazebit.persistence.benchmark.view.DocumentUpdateView;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.FlushStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures flushing a dirty updatable entity view with the {@link FlushStrategy#QUERY} and {@link FlushStrategy#ENTITY} strategies.
+ * Loading the view happens before every invocation and is not part of the measurement.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlushBenchmark {
+
+    @Param({ "QUERY", "ENTITY" })
+    private FlushStrategy strategy;
+
+    private EntityViewManager evm;
+    private EntityManager em;
+    private Class<? extends DocumentUpdateView> viewClass;
+    private List<Long> documentIds;
+    private int invocation;
+    private DocumentUpdateView view;
+
+    @Setup
+    public void setup(BenchmarkContext context) {
+        evm = context.getEntityViewManager();
+        em = context.createEntityManager();
+        documentIds = context.getDocumentIds();
+        viewClass = strategy == FlushStrategy.QUERY ? DocumentQueryFlushView.class : DocumentEntityFlushView.class;
+    }
+
+    @TearDown
+    public void tearDown() {
+        em.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void loadView() {
+        em.clear();
+        em.getTransaction().begin();
+        view = evm.find(em, viewClass, documentIds.get(invocation++ % documentIds.size()));
+    }
+
+    @TearDown(Level.Invocation)
+    public void commit() {
+        em.getTransaction().commit();
+    }
+
+    @Benchmark
+    public void flush() {
+        view.setName("Document " + invocation);
+        view.setAge(view.getAge() + 1);
+        evm.save(em, view);
+        em.flush();
+    }
+}
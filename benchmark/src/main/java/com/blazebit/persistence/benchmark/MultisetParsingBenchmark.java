@@ -0,0 +1,140 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.benchmark;
+
+import com.blazebit.persistence.parser.JsonParser;
+import com.blazebit.persistence.parser.XmlParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing of MULTISET results as produced by the JSON and XML functions, comparing the string only JSON parser
+ * with the single pass parsers for character sequences and readers. Run with <code>-prof gc</code> to compare the allocation rates.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultisetParsingBenchmark {
+
+    private static final String[] FIELDS = { "f0", "f1", "f2", "f3", "f4" };
+    private static final String[] NESTED_FIELDS = { "f0", "f1" };
+
+    @Param({ "10", "1000" })
+    private int rows;
+
+    private String json;
+    private String xml;
+
+    @Setup
+    public void setup() {
+        StringBuilder jsonBuilder = new StringBuilder("[");
+        StringBuilder xmlBuilder = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            if (i != 0) {
+                jsonBuilder.append(',');
+            }
+            jsonBuilder.append("{\"f0\":\"").append(i)
+                .append("\",\"f1\":\"Document ").append(i)
+                .append("\",\"f2\":\"2022-01-01T00:00:00\",\"f3\":\"Line\\nwith \\\"quotes\\\"\",\"f4\":[");
+            xmlBuilder.append("<e><f0>").append(i)
+                .append("</f0><f1>Document ").append(i)
+                .append("</f1><f2>2022-01-01T00:00:00</f2><f3>Line with &lt;tags&gt;</f3><f4>");
+            for (int j = 0; j < 3; j++) {
+                if (j != 0) {
+                    jsonBuilder.append(',');
+                }
+                jsonBuilder.append("{\"f0\":\"").append(j).append("\",\"f1\":\"Person ").append(j).append("\"}");
+                xmlBuilder.append("&lt;e&gt;&lt;f0&gt;").append(j).append("&lt;/f0&gt;&lt;f1&gt;Person ").append(j).append("&lt;/f1&gt;&lt;/e&gt;");
+            }
+            jsonBuilder.append("]}");
+            xmlBuilder.append("</f4></e>");
+        }
+        jsonBuilder.append(']');
+        json = jsonBuilder.toString();
+        xml = xmlBuilder.toString();
+    }
+
+    @Benchmark
+    public Object jsonStringOnly() {
+        List<Object[]> result = JsonParser.parseStringOnly(json, FIELDS);
+        for (int i = 0; i < result.size(); i++) {
+            Object[] object = result.get(i);
+            object[4] = JsonParser.parseStringOnly((CharSequence) object[4], NESTED_FIELDS);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Object jsonSinglePass() {
+        List<Object[]> result = JsonParser.parse(json, FIELDS);
+        for (int i = 0; i < result.size(); i++) {
+            Object[] object = result.get(i);
+            object[4] = JsonParser.parse((CharSequence) object[4], NESTED_FIELDS);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Object jsonReader() throws IOException {
+        List<Object[]> result = JsonParser.parse(new StringReader(json), FIELDS);
+        for (int i = 0; i < result.size(); i++) {
+            Object[] object = result.get(i);
+            object[4] = JsonParser.parse((CharSequence) object[4], NESTED_FIELDS);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Object xmlSinglePass() {
+        List<Object[]> result = XmlParser.parse(xml, FIELDS);
+        for (int i = 0; i < result.size(); i++) {
+            Object[] object = result.get(i);
+            object[4] = XmlParser.parse((CharSequence) object[4], NESTED_FIELDS);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Object xmlReader() throws IOException {
+        List<Object[]> result = XmlParser.parse(new StringReader(xml), FIELDS);
+        for (int i = 0; i < result.size(); i++) {
+            Object[] object = result.get(i);
+            object[4] = XmlParser.parse((CharSequence) object[4], NESTED_FIELDS);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.benchmark;
+
+import com.blazebit.persistence.parser.FunctionKind;
+import com.blazebit.persistence.parser.expression.ExpressionFactory;
+import com.blazebit.persistence.parser.expression.ExpressionFactoryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing of typical entity view mappings and sort properties with the simple expression parser compared to the ANTLR based parser.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ViewMappingParsingBenchmark {
+
+    private static final String[] MAPPINGS = {
+        "id",
+        "name",
+        "age",
+        "owner",
+        "owner.name",
+        "owner.address.city",
+        "partnerDocument.owner.id",
+        "contacts",
+        "people.name",
+        ":param",
+        "'constant'",
+        "1"
+    };
+
+    @Param({ "simple", "antlr" })
+    private String parser;
+
+    private ExpressionFactory expressionFactory;
+    private String[] mappings;
+
+    @Setup
+    public void setup() {
+        expressionFactory = new ExpressionFactoryImpl(new HashMap<String, FunctionKind>(), true, true);
+        mappings = new String[MAPPINGS.length];
+        for (int i = 0; i < MAPPINGS.length; i++) {
+            switch (parser) {
+                case "simple":
+                    mappings[i] = MAPPINGS[i];
+                    break;
+                case "antlr":
+                    // The lexer skips the leading whitespace, but the simple parser declines such expressions
+                    mappings[i] = " " + MAPPINGS[i];
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported parser: " + parser);
+            }
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        for (String mapping : mappings) {
+            blackhole.consume(expressionFactory.createSimpleExpression(mapping, false));
+        }
+    }
+}
@@ -0,0 +1,8 @@
+#! /bin/bash
+
+DIR="$( cd "$( dirname "${BASH_SOURCE[0]}" )" >/dev/null 2>&1 && pwd )"
+
+java -version
+
+# Only compiles the JMH benchmarks, so that they don't break unnoticed since the module is not part of the default build
+exec $DIR/../mvnw -B -P benchmark -pl benchmark -am compile -Duser.country=US -Duser.language=en
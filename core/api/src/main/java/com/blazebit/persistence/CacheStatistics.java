@@ -0,0 +1,69 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence;
+
+/**
+ * Statistics about a cache that is maintained by a {@link CriteriaBuilderFactory}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ * @see CriteriaBuilderFactory#getCacheStatistics()
+ */
+public interface CacheStatistics {
+
+    /**
+     * Returns the name of the cache.
+     *
+     * @return The cache name
+     */
+    public String getName();
+
+    /**
+     * Returns the current size of the cache, which is the number of entries or the total weight of the entries for caches that are bounded by weight.
+     *
+     * @return The current size
+     */
+    public long getSize();
+
+    /**
+     * Returns the maximum size the cache may reach or <code>-1</code> if the cache is unbounded.
+     *
+     * @return The maximum size
+     */
+    public long getMaximumSize();
+
+    /**
+     * Returns the number of lookups that were answered by the cache.
+     *
+     * @return The hit count
+     */
+    public long getHitCount();
+
+    /**
+     * Returns the number of lookups that could not be answered by the cache.
+     *
+     * @return The miss count
+     */
+    public long getMissCount();
+
+    /**
+     * Returns the number of entries that were evicted from the cache to respect the maximum size.
+     *
+     * @return The eviction count
+     */
+    public long getEvictionCount();
+}
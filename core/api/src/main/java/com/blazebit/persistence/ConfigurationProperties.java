@@ -108,6 +108,17 @@ public final class ConfigurationProperties {
      */
     public static final String EXPRESSION_CACHE_CLASS = "com.blazebit.persistence.expression.cache_class";
 
+    /**
+     * The maximum weight of every named cache within the expression cache, where the weight of an entry is the length of the expression string.
+     * This configuration option only takes effect when the expression cache class is <code>com.blazebit.persistence.parser.expression.BoundedExpressionCache</code>.
+     * Valid values for this property are positive integers.
+     * Default is <code>262144</code>.
+     *
+     * @since 1.6.7
+     * @see CriteriaBuilderFactory#getCacheStatistics()
+     */
+    public static final String EXPRESSION_CACHE_MAXIMUM_WEIGHT = "com.blazebit.persistence.expression.cache_maximum_weight";
+
     /**
      * If set to false, tuples of a VALUES clause with all null values won't be filtered out.
      * Valid values for this property are <code>true</code> or <code>false</code>.
@@ -145,7 +156,8 @@ public final class ConfigurationProperties {
     /**
      * If set to true, the id query in a {@link PaginatedCriteriaBuilder} is inlined into the object query as subquery.
      * Valid values for this property are <code>true</code>, <code>false</code> or <code>auto</code>.
-     * Default is <code>auto</code> which will make use of inlining if the JPA provider and DBMS dialect support it.
+     * Default is <code>auto</code> which will make use of inlining if the JPA provider and DBMS dialect support it
+     * and no {@link com.blazebit.persistence.spi.CountCache} is configured.
      *
      * The property can be changed for a criteria builder before generating the query.
      *
@@ -157,7 +169,8 @@ public final class ConfigurationProperties {
     /**
      * If set to true, the count query in a {@link PaginatedCriteriaBuilder} is inlined into the id or object query as select item.
      * Valid values for this property are <code>true</code>, <code>false</code> or <code>auto</code>.
-     * Default is <code>auto</code> which will make use of inlining if the JPA provider and DBMS dialect support it.
+     * Default is <code>auto</code> which will make use of inlining if the JPA provider and DBMS dialect support it
+     * and no {@link com.blazebit.persistence.spi.CountCache} is configured.
      *
      * The property can be changed for a criteria builder before generating the query.
      *
@@ -192,6 +205,46 @@ public final class ConfigurationProperties {
      */
     public static final String QUERY_PLAN_CACHE_ENABLED = "com.blazebit.persistence.query_plan_cache_enabled";
 
+    /**
+     * Defines how the sizes of collection valued parameters used in IN predicates and of VALUES clauses are padded,
+     * so that the amount of distinct query strings and thus query plans stays small.
+     * Valid values for this property are <code>none</code>, <code>power_of_two</code> or a comma separated list of bucket sizes like <code>10,50,100</code>.
+     * Collection parameter values are padded by repeating the last element. VALUES clauses are padded with null rows,
+     * which is only done if {@link #VALUES_CLAUSE_FILTER_NULLS} is enabled.
+     * Sizes beyond the largest bucket are padded to a multiple of the largest bucket.
+     * Default is <code>none</code>.
+     *
+     * The property can be changed for a criteria builder before constructing a query.
+     *
+     * @since 1.6.7
+     */
+    public static final String PARAMETER_LIST_PADDING = "com.blazebit.persistence.parameter_list_padding";
+
+    /**
+     * If set to true, implicit left joins for single valued associations that are not referred to by any clause are omitted when rendering a query
+     * and paths like <code>alias.association.id</code> are rendered against the foreign key of the parent instead of requiring a join.
+     * Joins that are fetched, treated, have an ON clause or are used by other joins are always rendered.
+     * Valid values for this property are <code>true</code> or <code>false</code>.
+     * Default is <code>true</code>.
+     *
+     * The property can be changed for a criteria builder before constructing a query.
+     *
+     * @since 1.6.7
+     */
+    public static final String JOIN_ELIMINATION = "com.blazebit.persistence.join_elimination";
+
+    /**
+     * The timeout in milliseconds for queries that are executed asynchronously e.g. via {@link QueryBuilder#getResultListAsync()}.
+     * The timeout is passed to the JPA provider as <code>javax.persistence.query.timeout</code>, which providers apply to the JDBC statements.
+     * Valid values for this property are non-negative integers, where <code>0</code> means no timeout.
+     * Default is <code>0</code>.
+     *
+     * The property can be changed for a criteria builder before executing a query.
+     *
+     * @since 1.6.7
+     */
+    public static final String ASYNC_QUERY_TIMEOUT = "com.blazebit.persistence.async_query_timeout";
+
     /**
      * If set to true, JPA Criteria predicates are wrapped in a negation predicate instead of copied with negation being propagated.
      * Valid values for this property are <code>true</code> and <code>false</code>.
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence;
+
+/**
+ * An object builder that can create an equivalent object builder for a copy of the query builder it was applied to.
+ * Copies of a query builder that are created internally, like the one used for {@link PaginatedCriteriaBuilder#getPagedResultStream()},
+ * use {@link #copy(FullQueryBuilder)} to get an object builder that doesn't share any state with the object builder of the original query builder.
+ * Other object builders are shared with the copy.
+ *
+ * @param <T> The type that this builder produces
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public interface CopyableObjectBuilder<T> extends ObjectBuilder<T> {
+
+    /**
+     * Returns a new object builder for the given copy of the query builder to which this object builder was applied.
+     * The select items were already copied to the query builder, so the returned object builder must not be applied again.
+     *
+     * @param queryBuilder The copy of the query builder
+     * @return The object builder for the copy
+     */
+    public ObjectBuilder<T> copy(FullQueryBuilder<?, ?> queryBuilder);
+}
@@ -61,6 +61,24 @@ public interface CriteriaBuilder<T> extends FullQueryBuilder<T, CriteriaBuilder<
      */
     public String getQueryRootCountQueryString(long maximumCount);
 
+    /**
+     * Creates an immutable and thread-safe template of this query that can be used to create queries for any entity manager
+     * without building the query again. Changes to this criteria builder after creating the template don't affect the template.
+     *
+     * Note that templates are only supported for queries that can be expressed in plain JPQL i.e. queries that don't use
+     * CTEs, entity functions like VALUES or key restricted left joins. Since object builders are generally stateful and thus not
+     * thread-safe, only the builtin object builders for {@link javax.persistence.Tuple} results and {@link #selectNew(Class)}
+     * or {@link #selectNew(java.lang.reflect.Constructor)} are shared by the queries of a template. A {@link CopyableObjectBuilder},
+     * like the one of an entity view, is copied for every query that is created from the template, so that it is bound to the entity manager of that query,
+     * which is necessary because the object builders of entity views may execute further queries e.g. for correlated attributes.
+     * Other custom object builders aren't supported.
+     *
+     * @return The query template
+     * @throws IllegalStateException If the query can't be represented as template
+     * @since 1.6.7
+     */
+    public QueryTemplate<T> createQueryTemplate();
+
     @Override
     public <Y> CriteriaBuilder<Y> copy(Class<Y> resultClass);
 
@@ -39,6 +39,14 @@ public interface CriteriaBuilderFactory extends ServiceProvider, ConfigurationSo
      */
     public Map<String, JpqlFunction> getRegisteredFunctions();
 
+    /**
+     * Returns the statistics of the caches that are maintained by this factory as map of cache name to {@link CacheStatistics}.
+     *
+     * @return The cache statistics
+     * @since 1.6.7
+     */
+    public Map<String, CacheStatistics> getCacheStatistics();
+
     /**
      * Starts a criteria builder with a nested set operation builder.
      * Doing this is like starting a nested query that will be connected via a set operation.
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence;
+
+/**
+ * An object builder that builds the target objects from groups of adjacent tuples in {@link #buildList(java.util.List)},
+ * like e.g. an object with a join fetched collection. When streaming results, the tuples are grouped via {@link #getGroupKey(Object)}
+ * and every group is passed to {@link #buildList(java.util.List)} as soon as the first tuple of the next group is read.
+ * Only the key of the current group is retained, so the memory needed is bounded by the tuples of a single group.
+ * This requires that the tuples of a group are adjacent in the result, so the query must be ordered by the id of the target objects.
+ * Streaming a query without an ORDER BY clause fails with an {@link IllegalStateException}. Other orderings can't be detected
+ * and result in objects that are emitted multiple times, each built from a subset of the tuples.
+ *
+ * @param <T> The type that this builder produces
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public interface GroupingObjectBuilder<T> extends ObjectBuilder<T> {
+
+    /**
+     * Returns the key of the group to which the intermediate object as returned by {@link #build(Object[])} for a tuple belongs.
+     * The key must implement {@link Object#equals(Object)} and {@link Object#hashCode()}.
+     *
+     * @param object The intermediate object of a tuple
+     * @return The group key of the object
+     */
+    public Object getGroupKey(T object);
+}
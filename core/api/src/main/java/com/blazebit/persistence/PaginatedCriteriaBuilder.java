@@ -16,7 +16,11 @@
 
 package com.blazebit.persistence;
 
+import javax.persistence.EntityManagerFactory;
 import javax.persistence.TypedQuery;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 
 /**
  * A builder for paginated criteria queries.
@@ -204,6 +208,81 @@ public interface PaginatedCriteriaBuilder<T> extends FullQueryBuilder<T, Paginat
      */
     public boolean isWithInlineCountQuery();
 
+    /**
+     * Enables the concurrent execution of the count query on a separate entity manager created from the given entity manager factory.
+     * The count query is submitted to the given executor before the id or object query is executed and the result is awaited
+     * after the page has been fetched. This requires that the count query is not inlined, so enabling this also disables count query inlining.
+     *
+     * The separate entity manager only sees committed data i.e. changes of the current transaction are not visible to the count query.
+     * If the count query can't be executed concurrently, because the query uses CTEs, entity functions, a bounded count
+     * or navigates to the page of an entity, it is executed sequentially as usual.
+     *
+     * @param entityManagerFactory The entity manager factory to create the entity manager for the count query or null to disable concurrent execution
+     * @param executor The executor to run the count query on
+     * @return The query builder for chaining calls
+     * @since 1.6.7
+     */
+    public PaginatedCriteriaBuilder<T> withConcurrentCountQuery(EntityManagerFactory entityManagerFactory, Executor executor);
+
+    /**
+     * Returns whether the count query is executed concurrently.
+     *
+     * @return true when the count query is executed concurrently, false otherwise
+     * @since 1.6.7
+     */
+    public boolean isWithConcurrentCountQuery();
+
+    /**
+     * Enables or disables the use of the {@link com.blazebit.persistence.spi.CountCache} that is configured for the criteria builder factory.
+     * When enabled, the total count is looked up in the count cache by the count query and the bound parameter values
+     * and the count query is only executed if no count is cached. This requires that the count query is not inlined,
+     * so explicitly enabling this also disables count query inlining.
+     *
+     * The count cache is enabled by default if a count cache is configured. In that case, the count query is also not inlined by default,
+     * unless count query inlining is enabled explicitly via {@link ConfigurationProperties#INLINE_COUNT_QUERY} or {@link #withInlineCountQuery(boolean)},
+     * which prevents the use of the count cache.
+     * Queries that use CTEs, entity functions, a bounded count or navigate to the page of an entity, always execute the count query.
+     *
+     * @param withCountCache true to enable, false to disable the use of the count cache
+     * @return The query builder for chaining calls
+     * @throws IllegalStateException if enabled but no count cache is configured
+     * @since 1.6.7
+     */
+    public PaginatedCriteriaBuilder<T> withCountCache(boolean withCountCache);
+
+    /**
+     * Returns whether the count cache is used.
+     *
+     * @return true when the count cache is used, false otherwise
+     * @since 1.6.7
+     */
+    public boolean isWithCountCache();
+
+    /**
+     * Enables or disables the use of the database query planner's row count estimate as total size instead of executing the count query.
+     * The estimate is obtained by letting the database explain the count query as defined by {@link com.blazebit.persistence.spi.DbmsDialect#getRowCountEstimateSql(String)}.
+     * If the DBMS or the JPA provider can't provide an estimate, the count query is executed as usual.
+     * When the total size is estimated, {@link PagedArrayList#isTotalSizeEstimated()} of the returned paged list returns true.
+     * This requires that the count query is not inlined, so enabling this also disables count query inlining.
+     *
+     * Note that a cached count is preferred over an estimate and that an estimate is never put into the count cache.
+     * Queries that use CTEs, entity functions, a bounded count or navigate to the page of an entity, always execute the count query.
+     * Since the estimate is the number of joined rows, the count query is also always executed for queries that use DISTINCT, GROUP BY or collection joins.
+     *
+     * @param withEstimatedCount true to enable, false to disable the use of row count estimates
+     * @return The query builder for chaining calls
+     * @since 1.6.7
+     */
+    public PaginatedCriteriaBuilder<T> withEstimatedCount(boolean withEstimatedCount);
+
+    /**
+     * Returns whether the row count estimate is used as total size.
+     *
+     * @return true when the row count estimate is used, false otherwise
+     * @since 1.6.7
+     */
+    public boolean isWithEstimatedCount();
+
     /**
      * Creates and returns a new {@link CriteriaBuilder} that can be used to query the id values for the current page.
      *
@@ -212,6 +291,21 @@ public interface PaginatedCriteriaBuilder<T> extends FullQueryBuilder<T, Paginat
      */
     public CriteriaBuilder<Object[]> createPageIdQuery();
 
+    /**
+     * Creates an immutable and thread-safe template of this paginated query that can be used to create paginated queries for any entity manager
+     * without building the query again. Changes to this criteria builder after creating the template don't affect the template.
+     *
+     * Like for {@link CriteriaBuilder#createQueryTemplate()}, only queries that can be expressed in plain JPQL and only the builtin object builders
+     * for {@link javax.persistence.Tuple} results and {@link #selectNew(Class)} or a {@link CopyableObjectBuilder}, like the one of an entity view, are supported.
+     * Bounded counts and estimated counts aren't supported either, because these require query customizations that depend on the builder.
+     * The page can be changed when creating a query from the template via {@link PaginatedQueryTemplate#createQuery(javax.persistence.EntityManager, java.util.Map, KeysetPage, int, int)}.
+     *
+     * @return The paginated query template
+     * @throws IllegalStateException If the query can't be represented as template
+     * @since 1.6.7
+     */
+    public PaginatedQueryTemplate<T> createQueryTemplate();
+
     /**
      * Execute the query and return the result as a type PagedList.
      *
@@ -220,6 +314,30 @@ public interface PaginatedCriteriaBuilder<T> extends FullQueryBuilder<T, Paginat
     @Override
     public PagedList<T> getResultList();
 
+    /**
+     * Returns a lazy stream over all results starting with the current page.
+     * Pages are fetched one after another when the stream is consumed, so at most one page of results is held in memory.
+     * Every page after the first one is fetched with a keyset predicate based on the last element of the previous page
+     * instead of a growing offset. The count query is never executed.
+     *
+     * The pages are fetched with a copy of this query builder, so modifications of this query builder after this call don't affect the stream.
+     * The copy uses a new object builder if the object builder implements {@link CopyableObjectBuilder}, otherwise the object builder is shared.
+     * If the results are entities, the entities of a page are detached from the entity manager before the next page is fetched.
+     *
+     * @return The lazy stream of the results
+     * @since 1.6.7
+     */
+    public Stream<T> getPagedResultStream();
+
+    /**
+     * Like {@link #getResultListAsync()} but returns a completion stage for the paged list.
+     * The count, id and object queries of the page are all executed on the same separate entity manager.
+     *
+     * @return The completion stage for the paged list of the results
+     * @since 1.6.7
+     */
+    public CompletionStage<PagedList<T>> getPagedResultListAsync();
+
     @Override
     public <Y> PaginatedCriteriaBuilder<Y> copy(Class<Y> resultClass);
 
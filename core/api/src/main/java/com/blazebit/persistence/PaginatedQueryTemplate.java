@@ -0,0 +1,94 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence;
+
+import javax.persistence.EntityManager;
+import java.util.Map;
+
+/**
+ * An immutable and thread-safe template of a paginated query that was created from a fully built {@link PaginatedCriteriaBuilder}.
+ * The template holds the rendered count, id and object query strings, the parameter slots and the values that were bound at creation time.
+ * Every query created from the template has its own keyset extraction state, so the template can be shared between threads.
+ *
+ * @param <T> The query result type
+ * @author Christian Beikov
+ * @since 1.6.7
+ * @see PaginatedCriteriaBuilder#createQueryTemplate()
+ */
+public interface PaginatedQueryTemplate<T> extends QueryTemplate<T> {
+
+    /**
+     * Returns the query string of the object query of this template.
+     *
+     * @return The query string
+     */
+    @Override
+    public String getQueryString();
+
+    /**
+     * Like {@link #createQuery(EntityManager, Map)} but only binds the parameter values that were bound when creating the template.
+     *
+     * @param entityManager The entity manager to use for the query
+     * @return A new paginated query
+     */
+    @Override
+    public PaginatedTypedQuery<T> createQuery(EntityManager entityManager);
+
+    /**
+     * Creates a new paginated query for the given entity manager and binds the given parameter values to the count, id and object queries.
+     * Parameters that are not contained in the given map are bound to the values that were bound when creating the template.
+     *
+     * @param entityManager The entity manager to use for the query
+     * @param parameters The parameter values to bind
+     * @return A new paginated query
+     * @throws IllegalArgumentException If a parameter does not exist or was rendered as literal into the query strings
+     */
+    @Override
+    public PaginatedTypedQuery<T> createQuery(EntityManager entityManager, Map<String, Object> parameters);
+
+    /**
+     * Like {@link #createQuery(EntityManager, Map, KeysetPage, int, int)} but without a keyset page i.e. uses offset pagination.
+     *
+     * @param entityManager The entity manager to use for the query
+     * @param parameters The parameter values to bind
+     * @param firstResult The position of the first result to retrieve, numbered from 0
+     * @param maxResults The maximum number of results to retrieve
+     * @return A new paginated query
+     * @throws IllegalArgumentException If a parameter does not exist or was rendered as literal into the query strings
+     * @throws IllegalStateException If the template was created for a query that navigates to the page of an entity or uses an explicit keyset
+     */
+    public PaginatedTypedQuery<T> createQuery(EntityManager entityManager, Map<String, Object> parameters, int firstResult, int maxResults);
+
+    /**
+     * Like {@link #createQuery(EntityManager, Map)} but fetches the given page instead of the page of the criteria builder the template was created from.
+     * Like for {@link PaginatedCriteriaBuilder}, the keyset page is used to determine whether keyset pagination can be used for the requested page.
+     *
+     * A template only contains a keyset predicate if the criteria builder it was created from used keyset pagination.
+     * Keyset pagination is therefore only used if the given keyset page results in the same keyset mode, e.g. navigating to the next page,
+     * and has <code>null</code> elements at the same positions as the keyset of the criteria builder. Otherwise the page is fetched with offset pagination.
+     *
+     * @param entityManager The entity manager to use for the query
+     * @param parameters The parameter values to bind
+     * @param keysetPage The key set from a previous result, may be null
+     * @param firstResult The position of the first result to retrieve, numbered from 0
+     * @param maxResults The maximum number of results to retrieve
+     * @return A new paginated query
+     * @throws IllegalArgumentException If a parameter does not exist or was rendered as literal into the query strings
+     * @throws IllegalStateException If the template was created for a query that navigates to the page of an entity or uses an explicit keyset
+     */
+    public PaginatedTypedQuery<T> createQuery(EntityManager entityManager, Map<String, Object> parameters, KeysetPage keysetPage, int firstResult, int maxResults);
+}
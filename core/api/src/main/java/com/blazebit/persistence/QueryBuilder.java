@@ -18,6 +18,8 @@ package com.blazebit.persistence;
 
 
 import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
 
 /**
  * A base interface for builders that support normal query functionality.
@@ -37,4 +39,25 @@ public interface QueryBuilder<T, X extends QueryBuilder<T, X>> extends BaseQuery
      * @since 1.2.0
      */
     public EntityManager getEntityManager();
+
+    /**
+     * Executes the query asynchronously and returns a completion stage for the result list.
+     * The query is copied on the calling thread and then executed on a separate entity manager
+     * on the executor configured via {@link com.blazebit.persistence.spi.CriteriaBuilderConfiguration#withAsyncQueryExecutor(java.util.concurrent.Executor)}.
+     * The separate entity manager only sees committed data and the query timeout can be configured via {@link ConfigurationProperties#ASYNC_QUERY_TIMEOUT}.
+     *
+     * Asynchronous execution is not supported for queries that use object builders which aren't thread-safe, like entity view object builders.
+     *
+     * @return The completion stage for the list of the results
+     * @since 1.6.7
+     */
+    public CompletionStage<List<T>> getResultListAsync();
+
+    /**
+     * Like {@link #getResultListAsync()} but expects a single result.
+     *
+     * @return The completion stage for the single result
+     * @since 1.6.7
+     */
+    public CompletionStage<T> getSingleResultAsync();
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable and thread-safe template of a query that was created from a fully built {@link CriteriaBuilder}.
+ * The template holds the rendered query string, the parameter slots and the values that were bound at creation time,
+ * so that queries can be created for any {@link EntityManager} without building and rendering the query again.
+ * This allows to build queries for hot code paths once e.g. at application startup.
+ *
+ * @param <T> The query result type
+ * @author Christian Beikov
+ * @since 1.6.7
+ * @see CriteriaBuilder#createQueryTemplate()
+ */
+public interface QueryTemplate<T> {
+
+    /**
+     * Returns the query string of this template.
+     *
+     * @return The query string
+     */
+    public String getQueryString();
+
+    /**
+     * Returns the names of the parameters that can be bound when creating a query from this template.
+     *
+     * @return The parameter names
+     */
+    public Set<String> getParameterNames();
+
+    /**
+     * Like {@link #createQuery(EntityManager, Map)} but only binds the parameter values that were bound when creating the template.
+     *
+     * @param entityManager The entity manager to use for the query
+     * @return A new query
+     */
+    public TypedQuery<T> createQuery(EntityManager entityManager);
+
+    /**
+     * Creates a new query for the given entity manager and binds the given parameter values.
+     * Parameters that are not contained in the given map are bound to the values that were bound when creating the template.
+     * Value transformations that apply to parameters of the criteria builder, like converting transient entities to their ids, also apply to the given values.
+     *
+     * @param entityManager The entity manager to use for the query
+     * @param parameters The parameter values to bind
+     * @return A new query
+     * @throws IllegalArgumentException If a parameter does not exist or was rendered as literal into the query string
+     */
+    public TypedQuery<T> createQuery(EntityManager entityManager, Map<String, Object> parameters);
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.spi;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Executes queries asynchronously on the executor configured via {@link CriteriaBuilderConfiguration#withAsyncQueryExecutor(java.util.concurrent.Executor)}.
+ * Every query runs on a separate entity manager that is created from the entity manager factory of the criteria builder factory.
+ * Since entity managers aren't thread-safe, a query must be fully built for the separate entity manager on the calling thread
+ * and may only be executed by the submitted task. Note that the separate entity manager only sees committed data.
+ *
+ * An instance can be obtained via {@link com.blazebit.persistence.CriteriaBuilderFactory#getService(Class)}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public interface AsyncQueryExecutor {
+
+    /**
+     * Creates a new entity manager for an asynchronous query and applies the given query timeout.
+     * The entity manager must be passed to {@link #submit(EntityManager, Callable)} or closed by the caller.
+     *
+     * @param queryTimeout The query timeout in milliseconds or <code>0</code> for no timeout
+     * @return A new entity manager
+     */
+    public EntityManager createEntityManager(int queryTimeout);
+
+    /**
+     * Submits the given task to the executor. The entity manager is closed before the returned stage completes or when the task was cancelled before it started.
+     * Cancelling the returned stage via {@link java.util.concurrent.CompletableFuture#cancel(boolean)} with <code>mayInterruptIfRunning</code>
+     * cancels the statement that is currently executed via {@link JpaProvider#cancelQuery(EntityManager)}. The thread that runs the task is not interrupted,
+     * as interrupts during JDBC or NIO I/O may break the connection. Statements that can't be cancelled are bounded by the query timeout.
+     *
+     * @param entityManager The entity manager created via {@link #createEntityManager(int)} that the task uses
+     * @param task The task that executes the query
+     * @param <T> The result type
+     * @return The completion stage for the result of the task
+     */
+    public <T> CompletionStage<T> submit(EntityManager entityManager, Callable<T> task);
+}
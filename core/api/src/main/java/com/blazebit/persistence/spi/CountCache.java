@@ -0,0 +1,52 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+/**
+ * A cache for the total counts of paginated queries, which allows to skip the count query when fetching further pages of the same result.
+ * The keys are opaque objects that capture the count query along with the bound parameter values and implement
+ * {@link Object#equals(Object)} and {@link Object#hashCode()} accordingly.
+ * Implementations must be thread-safe as a single instance is shared by all queries of a criteria builder factory.
+ *
+ * Note that a cached count may be outdated, so a count cache should only be used when an approximate total count is acceptable.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public interface CountCache {
+
+    /**
+     * Returns the cached count for the given key or <code>null</code> if there is none.
+     *
+     * @param key The key of the count query
+     * @return The cached count or <code>null</code>
+     */
+    public Long get(Object key);
+
+    /**
+     * Caches the given count for the given key.
+     *
+     * @param key The key of the count query
+     * @param count The count
+     */
+    public void put(Object key, long count);
+
+    /**
+     * Removes all cached counts, which is useful after data changes that should become visible.
+     */
+    public void clear();
+}
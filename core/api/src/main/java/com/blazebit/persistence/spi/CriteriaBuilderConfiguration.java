@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 /**
  * A configuration for a {@link CriteriaBuilderFactory} which is mostly used in non Java EE environments.
@@ -41,6 +42,59 @@ public interface CriteriaBuilderConfiguration {
      */
     public CriteriaBuilderConfiguration withPackageOpener(PackageOpener packageOpener);
 
+    /**
+     * Sets the query instrumentation that receives timing events of the query lifecycle.
+     *
+     * @param queryInstrumentation The query instrumentation to use
+     * @return this for method chaining
+     * @since 1.6.7
+     */
+    public CriteriaBuilderConfiguration withQueryInstrumentation(QueryInstrumentation queryInstrumentation);
+
+    /**
+     * Returns the configured query instrumentation, which is {@link QueryInstrumentation#NOOP} by default.
+     *
+     * @return The query instrumentation
+     * @since 1.6.7
+     */
+    public QueryInstrumentation getQueryInstrumentation();
+
+    /**
+     * Sets the count cache that paginated queries use by default to skip count queries for further pages of a result.
+     *
+     * @param countCache The count cache to use or <code>null</code> to disable count caching
+     * @return this for method chaining
+     * @since 1.6.7
+     */
+    public CriteriaBuilderConfiguration withCountCache(CountCache countCache);
+
+    /**
+     * Returns the configured count cache, which is <code>null</code> by default.
+     *
+     * @return The count cache or <code>null</code>
+     * @since 1.6.7
+     */
+    public CountCache getCountCache();
+
+    /**
+     * Sets the executor on which queries are executed that are started via the asynchronous methods like {@link com.blazebit.persistence.QueryBuilder#getResultListAsync()}.
+     * If no executor is set, every query runs on a new virtual thread on Java 21+ and on a shared pool of daemon threads,
+     * bounded by the number of available processors, otherwise.
+     *
+     * @param executor The executor to use for asynchronous queries
+     * @return this for method chaining
+     * @since 1.6.7
+     */
+    public CriteriaBuilderConfiguration withAsyncQueryExecutor(Executor executor);
+
+    /**
+     * Returns the configured executor for asynchronous queries, which is <code>null</code> by default.
+     *
+     * @return The executor for asynchronous queries or <code>null</code>
+     * @since 1.6.7
+     */
+    public Executor getAsyncQueryExecutor();
+
     /**
      * Registers the given type under the given name. This makes the type usable for the <code>VALUES</code> clause.
      *
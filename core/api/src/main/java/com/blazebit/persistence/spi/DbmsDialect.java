@@ -466,4 +466,25 @@ public interface DbmsDialect {
      * @since 1.2.0
      */
     public ResultSet extractReturningResult(PreparedStatement ps) throws SQLException;
+
+    /**
+     * Returns the SQL for obtaining the query planner's estimate of the number of rows that are counted by the given count query,
+     * or null if the DBMS can't provide such an estimate.
+     * The returned SQL must use the same JDBC parameters as the given SQL.
+     *
+     * @param sql The SQL of the count query
+     * @return The SQL for obtaining the row count estimate or null if not supported
+     * @since 1.6.7
+     */
+    public String getRowCountEstimateSql(String sql);
+
+    /**
+     * Extracts the row count estimate from the result set of executing the SQL returned by {@link #getRowCountEstimateSql(String)}.
+     *
+     * @param resultSet The result set of the row count estimate SQL
+     * @return The estimated number of rows or -1 if no estimate could be extracted
+     * @throws SQLException When extracting from the result set fails
+     * @since 1.6.7
+     */
+    public long extractRowCountEstimate(ResultSet resultSet) throws SQLException;
 }
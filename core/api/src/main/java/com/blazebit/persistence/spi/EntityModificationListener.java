@@ -0,0 +1,37 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+/**
+ * A listener that is notified after a DML statement of a modification criteria builder was executed,
+ * which allows to invalidate caches that contain state of the modified entities.
+ * Implementations must be thread-safe as a single instance is shared by all queries of a criteria builder factory.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ * @see EntityModificationListenerRegistry
+ */
+public interface EntityModificationListener {
+
+    /**
+     * Is invoked after a DML statement that modified entities of the given type was executed.
+     * For collection DML statements, the entity type is the owner of the collection.
+     *
+     * @param entityClass The entity class of the modified entities
+     */
+    public void onEntityModification(Class<?> entityClass);
+}
@@ -151,4 +151,15 @@ public interface ExtendedQuerySupport {
      * @return The returning result of the query
      */
     public ReturningResult<Object[]> executeReturning(ServiceProvider serviceProvider, List<Query> participatingQueries, Query baseQuery, Query exampleQuery, String sqlOverride, boolean queryPlanCacheEnabled);
+
+    /**
+     * Returns the query planner's estimate of the number of rows that are counted by the given count query
+     * as determined through {@link DbmsDialect#getRowCountEstimateSql(String)}.
+     *
+     * @param serviceProvider The service provider to access {@linkplain EntityManager} and others
+     * @param countQuery The count query for which to estimate the counted rows
+     * @return The estimated number of rows or -1 if no estimate is available
+     * @since 1.6.7
+     */
+    public long getRowCountEstimate(ServiceProvider serviceProvider, Query countQuery);
 }
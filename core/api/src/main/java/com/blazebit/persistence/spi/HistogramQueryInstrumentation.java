@@ -0,0 +1,284 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A simple in-memory query instrumentation that records the durations of every phase and role into histograms
+ * with power of two nanosecond buckets. Recording is lock-free and a snapshot can be obtained at any time via
+ * {@link #getHistogram(QueryPhase, QueryRole)}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public class HistogramQueryInstrumentation implements QueryInstrumentation {
+
+    private static final int BUCKET_COUNT = 64;
+    private static final QueryPhase[] PHASES = QueryPhase.values();
+    private static final QueryRole[] ROLES = QueryRole.values();
+
+    private final Recorder[] recorders;
+    private final AtomicLongArray queryPlanCacheHits = new AtomicLongArray(ROLES.length);
+    private final AtomicLongArray queryPlanCacheMisses = new AtomicLongArray(ROLES.length);
+
+    /**
+     * Creates a new instrumentation with empty histograms.
+     */
+    public HistogramQueryInstrumentation() {
+        this.recorders = new Recorder[PHASES.length * ROLES.length];
+        for (int i = 0; i < recorders.length; i++) {
+            recorders[i] = new Recorder();
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void onPhase(QueryPhase phase, QueryRole role, long durationNanos, int rowCount) {
+        recorders[index(phase, role)].record(durationNanos, rowCount);
+    }
+
+    @Override
+    public void onQueryPlanCacheAccess(QueryRole role, boolean hit) {
+        if (hit) {
+            queryPlanCacheHits.incrementAndGet(role.ordinal());
+        } else {
+            queryPlanCacheMisses.incrementAndGet(role.ordinal());
+        }
+    }
+
+    /**
+     * Returns a snapshot of the histogram for the given phase and role.
+     *
+     * @param phase The phase
+     * @param role The role
+     * @return The histogram snapshot
+     */
+    public Histogram getHistogram(QueryPhase phase, QueryRole role) {
+        return recorders[index(phase, role)].snapshot();
+    }
+
+    /**
+     * Returns the number of query plan cache hits of all roles.
+     *
+     * @return The number of query plan cache hits
+     */
+    public long getQueryPlanCacheHits() {
+        return sum(queryPlanCacheHits);
+    }
+
+    /**
+     * Returns the number of query plan cache hits for queries of the given role.
+     *
+     * @param role The role
+     * @return The number of query plan cache hits
+     */
+    public long getQueryPlanCacheHits(QueryRole role) {
+        return queryPlanCacheHits.get(role.ordinal());
+    }
+
+    /**
+     * Returns the number of query plan cache misses of all roles.
+     *
+     * @return The number of query plan cache misses
+     */
+    public long getQueryPlanCacheMisses() {
+        return sum(queryPlanCacheMisses);
+    }
+
+    /**
+     * Returns the number of query plan cache misses for queries of the given role.
+     *
+     * @param role The role
+     * @return The number of query plan cache misses
+     */
+    public long getQueryPlanCacheMisses(QueryRole role) {
+        return queryPlanCacheMisses.get(role.ordinal());
+    }
+
+    /**
+     * Clears all recorded values.
+     */
+    public void reset() {
+        for (int i = 0; i < recorders.length; i++) {
+            recorders[i].reset();
+        }
+        for (int i = 0; i < ROLES.length; i++) {
+            queryPlanCacheHits.set(i, 0L);
+            queryPlanCacheMisses.set(i, 0L);
+        }
+    }
+
+    private static long sum(AtomicLongArray counts) {
+        long sum = 0L;
+        for (int i = 0; i < counts.length(); i++) {
+            sum += counts.get(i);
+        }
+        return sum;
+    }
+
+    private static int index(QueryPhase phase, QueryRole role) {
+        return phase.ordinal() * ROLES.length + role.ordinal();
+    }
+
+    /**
+     * Records durations into power of two buckets.
+     *
+     * @author Christian Beikov
+     * @since 1.6.7
+     */
+    private static final class Recorder {
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLong totalRows = new AtomicLong();
+
+        void record(long durationNanos, int rowCount) {
+            long duration = Math.max(0L, durationNanos);
+            buckets.incrementAndGet(bucket(duration));
+            count.incrementAndGet();
+            totalNanos.addAndGet(duration);
+            if (rowCount > 0) {
+                totalRows.addAndGet(rowCount);
+            }
+            long max;
+            do {
+                max = maxNanos.get();
+            } while (duration > max && !maxNanos.compareAndSet(max, duration));
+        }
+
+        Histogram snapshot() {
+            long[] counts = new long[BUCKET_COUNT];
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] = buckets.get(i);
+            }
+            return new Histogram(counts, count.get(), totalNanos.get(), maxNanos.get(), totalRows.get());
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                buckets.set(i, 0L);
+            }
+            count.set(0L);
+            totalNanos.set(0L);
+            maxNanos.set(0L);
+            totalRows.set(0L);
+        }
+
+        private static int bucket(long durationNanos) {
+            // Bucket i contains values in the range [2^(i-1), 2^i)
+            return BUCKET_COUNT - Long.numberOfLeadingZeros(durationNanos);
+        }
+    }
+
+    /**
+     * An immutable snapshot of the durations recorded for a phase and role.
+     *
+     * @author Christian Beikov
+     * @since 1.6.7
+     */
+    public static final class Histogram {
+
+        private final long[] bucketCounts;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long totalRows;
+
+        /**
+         * Creates a new histogram snapshot.
+         *
+         * @param bucketCounts The counts of the power of two buckets
+         * @param count The number of recorded durations
+         * @param totalNanos The sum of the recorded durations
+         * @param maxNanos The maximum recorded duration
+         * @param totalRows The sum of the recorded row counts
+         */
+        Histogram(long[] bucketCounts, long count, long totalNanos, long maxNanos, long totalRows) {
+            this.bucketCounts = bucketCounts;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.totalRows = totalRows;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public long getMeanNanos() {
+            return count == 0L ? 0L : totalNanos / count;
+        }
+
+        public long getTotalRows() {
+            return totalRows;
+        }
+
+        /**
+         * Returns an upper bound for the duration below which the given fraction of the recorded durations lie.
+         *
+         * @param percentile The percentile between 0 and 1
+         * @return The upper bound in nanoseconds
+         */
+        public long getPercentileNanos(double percentile) {
+            if (percentile < 0d || percentile > 1d) {
+                throw new IllegalArgumentException("Invalid percentile: " + percentile);
+            }
+            long total = 0L;
+            for (int i = 0; i < bucketCounts.length; i++) {
+                total += bucketCounts[i];
+            }
+            if (total == 0L) {
+                return 0L;
+            }
+            long threshold = (long) Math.ceil(total * percentile);
+            long seen = 0L;
+            for (int i = 0; i < bucketCounts.length; i++) {
+                seen += bucketCounts[i];
+                if (seen >= threshold && seen != 0L) {
+                    return Math.min(maxNanos, (1L << i) - 1);
+                }
+            }
+            return maxNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "Histogram{" +
+                    "count=" + count +
+                    ", meanNanos=" + getMeanNanos() +
+                    ", maxNanos=" + maxNanos +
+                    ", totalRows=" + totalRows +
+                    '}';
+        }
+    }
+}
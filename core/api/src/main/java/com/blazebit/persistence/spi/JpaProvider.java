@@ -695,6 +695,16 @@ public interface JpaProvider {
      */
     public JpaMetamodelAccessor getJpaMetamodelAccessor();
 
+    /**
+     * Cancels the statement that is currently executed by the given entity manager.
+     * This method is invoked by a thread that is different from the one that executes the statement.
+     *
+     * @param em The entity manager that executes a statement
+     * @return True if the cancellation was requested, false if the JPA provider does not support cancelling statements
+     * @since 1.6.7
+     */
+    public boolean cancelQuery(EntityManager em);
+
     /**
      * The possible locations of a constraint.
      *
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+/**
+ * A listener for timing events of the query lifecycle.
+ * Implementations must be thread-safe as a single instance is shared by all queries of a criteria builder factory.
+ *
+ * Callers only measure timings if {@link #isEnabled()} returns <code>true</code>,
+ * so the default {@link #NOOP} instrumentation does not cause any overhead.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public interface QueryInstrumentation {
+
+    /**
+     * A no-op query instrumentation.
+     */
+    public static final QueryInstrumentation NOOP = new QueryInstrumentation() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public void onPhase(QueryPhase phase, QueryRole role, long durationNanos, int rowCount) {
+        }
+
+        @Override
+        public void onQueryPlanCacheAccess(QueryRole role, boolean hit) {
+        }
+    };
+
+    /**
+     * Returns whether events should be reported to this instrumentation.
+     *
+     * @return Whether this instrumentation is enabled
+     */
+    public boolean isEnabled();
+
+    /**
+     * Is invoked after a phase of a query completed.
+     *
+     * @param phase The completed phase
+     * @param role The role of the query
+     * @param durationNanos The duration of the phase in nanoseconds
+     * @param rowCount The number of result rows or -1 if not applicable
+     */
+    public void onPhase(QueryPhase phase, QueryRole role, long durationNanos, int rowCount);
+
+    /**
+     * Is invoked when a query plan was looked up in the query plan cache of the JPA provider integration.
+     *
+     * @param role The role of the query for which the plan was looked up
+     * @param hit Whether the query plan was found in the cache
+     */
+    public void onQueryPlanCacheAccess(QueryRole role, boolean hit);
+}
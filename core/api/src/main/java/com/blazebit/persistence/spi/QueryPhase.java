@@ -0,0 +1,48 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+/**
+ * The phases of a query's lifecycle that are reported to a {@link QueryInstrumentation}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public enum QueryPhase {
+
+    /**
+     * Preparing a query builder for rendering, i.e. resolving aliases and implicit joins.
+     */
+    BUILD,
+    /**
+     * Rendering the JPQL query string of a prepared query builder.
+     */
+    RENDER,
+    /**
+     * Creating a query plan, e.g. translating HQL to SQL, for queries that require SQL replacement.
+     */
+    PLAN,
+    /**
+     * Executing a query against the database, excluding the transformation of the results.
+     */
+    EXECUTE,
+    /**
+     * Transforming the tuples of a query result with an object builder, e.g. to entity views.
+     */
+    TRANSFORM
+
+}
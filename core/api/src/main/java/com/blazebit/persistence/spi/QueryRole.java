@@ -0,0 +1,50 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.spi;
+
+/**
+ * The role of a query for which a {@link QueryInstrumentation} receives an event.
+ * The {@link ServiceProvider} that is passed to the {@link ExtendedQuerySupport} provides the role of the executed query
+ * and the resolved instrumentation via {@link ServiceProvider#getService(Class)}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public enum QueryRole {
+
+    /**
+     * A normal query or a query for which the role is unknown.
+     */
+    QUERY,
+    /**
+     * The count query of a paginated query.
+     */
+    COUNT,
+    /**
+     * The id query of a paginated query.
+     */
+    ID,
+    /**
+     * The object query of a paginated query.
+     */
+    OBJECT,
+    /**
+     * A batch of a correlated entity view attribute. The duration covers the whole batch, including the events of the correlation query.
+     */
+    CORRELATION
+
+}
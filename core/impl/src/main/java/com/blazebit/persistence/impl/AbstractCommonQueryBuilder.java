@@ -34,6 +34,7 @@ import com.blazebit.persistence.KeysetBuilder;
 import com.blazebit.persistence.LeafOngoingFinalSetOperationCTECriteriaBuilder;
 import com.blazebit.persistence.MultipleSubqueryInitiator;
 import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.QueryTemplate;
 import com.blazebit.persistence.Path;
 import com.blazebit.persistence.RestrictionBuilder;
 import com.blazebit.persistence.ReturningModificationCriteriaBuilderFactory;
@@ -74,6 +75,7 @@ import com.blazebit.persistence.impl.transform.SizeTransformationVisitor;
 import com.blazebit.persistence.impl.transform.SizeTransformerGroup;
 import com.blazebit.persistence.impl.transform.SubqueryRecursiveExpressionVisitor;
 import com.blazebit.persistence.impl.util.SetView;
+import com.blazebit.persistence.impl.util.SqlClauseIndex;
 import com.blazebit.persistence.impl.util.SqlUtils;
 import com.blazebit.persistence.parser.AliasReplacementVisitor;
 import com.blazebit.persistence.parser.EntityMetamodel;
@@ -105,6 +107,9 @@ import com.blazebit.persistence.spi.ExtendedAttribute;
 import com.blazebit.persistence.spi.ExtendedManagedType;
 import com.blazebit.persistence.spi.JpqlMacro;
 import com.blazebit.persistence.spi.LateralStyle;
+import com.blazebit.persistence.spi.QueryInstrumentation;
+import com.blazebit.persistence.spi.QueryPhase;
+import com.blazebit.persistence.spi.QueryRole;
 import com.blazebit.persistence.spi.ServiceProvider;
 import com.blazebit.persistence.spi.SetOperationType;
 import com.blazebit.persistence.spi.ValuesStrategy;
@@ -2810,8 +2815,60 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
     }
     
     protected String getBaseQueryStringWithCheck(StringBuilder lateralSb, JoinNode lateralJoinNode) {
+        QueryInstrumentation instrumentation = mainQuery.queryInstrumentation;
+        if (!isMainQuery || !instrumentation.isEnabled()) {
+            prepareAndCheck();
+            return getBaseQueryString(lateralSb, lateralJoinNode);
+        }
+
+        boolean build = needsCheck;
+        long start = System.nanoTime();
         prepareAndCheck();
-        return getBaseQueryString(lateralSb, lateralJoinNode);
+        long prepared = System.nanoTime();
+        if (build) {
+            instrumentation.onPhase(QueryPhase.BUILD, getQueryRole(), prepared - start, -1);
+        }
+        String queryString = getBaseQueryString(lateralSb, lateralJoinNode);
+        instrumentation.onPhase(QueryPhase.RENDER, getQueryRole(), System.nanoTime() - prepared, -1);
+        return queryString;
+    }
+
+    /**
+     * Returns the role of the query that is reported to the query instrumentation.
+     *
+     * @return The role of the query
+     */
+    protected QueryRole getQueryRole() {
+        return QueryRole.QUERY;
+    }
+
+    protected final <X> List<X> executeResultList(TypedQuery<X> query) {
+        QueryInstrumentation instrumentation = mainQuery.queryInstrumentation;
+        if (!instrumentation.isEnabled() || isSelfInstrumented(query)) {
+            return query.getResultList();
+        }
+
+        long start = System.nanoTime();
+        List<X> resultList = query.getResultList();
+        instrumentation.onPhase(QueryPhase.EXECUTE, getQueryRole(), System.nanoTime() - start, resultList.size());
+        return resultList;
+    }
+
+    private static boolean isSelfInstrumented(TypedQuery<?> query) {
+        // Object builder queries and paginated queries report the execution themselves
+        return query instanceof ObjectBuilderTypedQuery<?> || query instanceof PaginatedTypedQueryImpl<?>;
+    }
+
+    protected final <X> X executeSingleResult(TypedQuery<X> query) {
+        QueryInstrumentation instrumentation = mainQuery.queryInstrumentation;
+        if (!instrumentation.isEnabled() || isSelfInstrumented(query)) {
+            return query.getSingleResult();
+        }
+
+        long start = System.nanoTime();
+        X result = query.getSingleResult();
+        instrumentation.onPhase(QueryPhase.EXECUTE, getQueryRole(), System.nanoTime() - start, 1);
+        return result;
     }
 
     protected final TypedQuery<QueryResultType> getTypedQueryForFinalOperationBuilder() {
@@ -2894,6 +2951,48 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
         return applyObjectBuilder(query);
     }
 
+    protected QueryTemplate<QueryResultType> buildQueryTemplate() {
+        // NOTE: This must happen first because it generates implicit joins
+        String baseQueryString = getBaseQueryStringWithCheck(null, null);
+        if (isMainQuery && mainQuery.cteManager.hasCtes() || joinManager.hasEntityFunctions() || !getKeyRestrictedLeftJoins().isEmpty()) {
+            throw new IllegalStateException("Query templates are only supported for queries that can be expressed in JPQL, but the query uses CTEs, entity functions or key restricted left joins!");
+        }
+        QueryTemplateObjectBuilderFactory<QueryResultType> objectBuilderFactory = getQueryTemplateObjectBuilderFactory();
+
+        Class<?> expectedResultType = selectManager.getExpectedQueryResultType();
+        // Create the query once to validate it and to determine which parameters actually are part of the query string
+        TypedQuery<?> query = em.createQuery(baseQueryString, expectedResultType);
+        return new QueryTemplateImpl<>(
+                baseQueryString,
+                (Class<QueryResultType>) expectedResultType,
+                firstResult,
+                maxResults,
+                isCacheable() ? mainQuery.jpaProvider : null,
+                query.getParameters(),
+                parameterManager.getParameterImpls(),
+                parameterManager.getCriteriaNameMapping(),
+                objectBuilderFactory
+        );
+    }
+
+    /**
+     * Returns the factory for the object builders of the queries that are created from a query template of this query builder,
+     * or <code>null</code> if the query doesn't need an object builder.
+     *
+     * @return The object builder factory or <code>null</code>
+     * @throws IllegalStateException If the object builder of the select clause can't be used for a query template
+     */
+    QueryTemplateObjectBuilderFactory<QueryResultType> getQueryTemplateObjectBuilderFactory() {
+        if (selectManager.getSelectObjectBuilder() == null) {
+            return null;
+        }
+        ObjectBuilder<QueryResultType> objectBuilder = selectManager.getQueryTemplateObjectBuilder();
+        if (objectBuilder == null) {
+            throw new IllegalStateException("Query templates are not supported for queries that use a custom object builder that can't be copied, because such object builders are not necessarily thread-safe and may depend on the entity manager of the criteria builder!");
+        }
+        return QueryTemplateObjectBuilderFactory.shared(objectBuilder);
+    }
+
     protected List<String> getKeyRestrictedLeftJoinAliases(Query baseQuery, Set<JoinNode> keyRestrictedLeftJoins, Set<ClauseType> clauseExclusions) {
         List<String> keyRestrictedLeftJoinAliases = new ArrayList<String>();
         if (!keyRestrictedLeftJoins.isEmpty()) {
@@ -2959,7 +3058,8 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
             }
             StringBuilder whereClauseSb = new StringBuilder(exampleQuerySql.length());
             String filterNullsTableAlias = "fltr_nulls_tbl_als_";
-            String valuesAliases = getValuesAliases(exampleQuerySqlAlias, attributes.length, exampleQuerySql, whereClauseSb, filterNullsTableAlias, strategy, dummyTable);
+            SqlClauseIndex exampleQueryClauseIndex = SqlClauseIndex.of(exampleQuerySql);
+            String valuesAliases = getValuesAliases(exampleQuerySqlAlias, attributes.length, exampleQueryClauseIndex, whereClauseSb, filterNullsTableAlias, strategy, dummyTable);
 
             if (strategy == ValuesStrategy.SELECT_VALUES) {
                 valuesSb.insert(0, valuesAliases);
@@ -3006,7 +3106,7 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
             String valuesTableJoin = null;
             String pluralCollectionTableAlias = null;
             String pluralTableAlias = null;
-            String syntheticPredicate = exampleQuerySql.substring(SqlUtils.indexOfWhere(exampleQuerySql) + " where ".length());
+            String syntheticPredicate = exampleQuerySql.substring(exampleQueryClauseIndex.indexOfWhere() + " where ".length());
             if (baseQuery != null) {
                 valuesTableSqlAlias = cbf.getExtendedQuerySupport().getSqlAlias(em, baseQuery, node.getAlias());
                 syntheticPredicate = syntheticPredicate.replace(exampleQuerySqlAlias, valuesTableSqlAlias);
@@ -3065,7 +3165,7 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
                 StringBuilder lateralExampleQueryString = new StringBuilder();
                 buildLateralExampleQueryString(lateralExampleQueryString);
                 String sql = getQuerySpecification(cteInfo.nonRecursiveCriteriaBuilder.getLateralQuery(lateralExampleQueryString, lateralStyle ? null : lateInlineNode)).getSql();
-                int start = SqlUtils.indexOfWhere(sql);
+                int start = SqlClauseIndex.of(sql).indexOfWhere();
                 while (sql.charAt(start) != '(') {
                     start++;
                 }
@@ -3099,8 +3199,9 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
         return entityFunctionNodes;
     }
 
-    private String getValuesAliases(String tableAlias, int attributeCount, String exampleQuerySql, StringBuilder whereClauseSb, String filterNullsTableAlias, ValuesStrategy strategy, String dummyTable) {
-        int startIndex =  SqlUtils.indexOfSelect(exampleQuerySql);
+    private String getValuesAliases(String tableAlias, int attributeCount, SqlClauseIndex clauseIndex, StringBuilder whereClauseSb, String filterNullsTableAlias, ValuesStrategy strategy, String dummyTable) {
+        String exampleQuerySql = clauseIndex.getSql();
+        int startIndex = clauseIndex.indexOfSelect();
         int endIndex = exampleQuerySql.indexOf(" from ");
 
         StringBuilder sb;
@@ -3119,7 +3220,7 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
         }
 
         whereClauseSb.append(" where");
-        String[] columnNames = SqlUtils.getSelectItemColumns(exampleQuerySql, startIndex);
+        String[] columnNames = clauseIndex.getSelectItemColumns();
 
         for (int i = 0; i < attributeCount; i++) {
             whereClauseSb.append(' ');
@@ -3918,9 +4019,13 @@ public abstract class AbstractCommonQueryBuilder<QueryResultType, BuilderType, S
 
     @SuppressWarnings("unchecked")
     protected final TypedQuery<QueryResultType> applyObjectBuilder(TypedQuery<?> query) {
+        return applyObjectBuilder(query, getQueryRole());
+    }
+
+    protected final TypedQuery<QueryResultType> applyObjectBuilder(TypedQuery<?> query, QueryRole role) {
         ObjectBuilder<QueryResultType> selectObjectBuilder = selectManager.getSelectObjectBuilder();
         if (selectObjectBuilder != null) {
-            return new ObjectBuilderTypedQuery<>(query, query instanceof AbstractCustomQuery<?> ? null : parameterManager.getCriteriaNameMapping(), selectObjectBuilder);
+            return new ObjectBuilderTypedQuery<>(query, query instanceof AbstractCustomQuery<?> ? null : parameterManager.getCriteriaNameMapping(), selectObjectBuilder, mainQuery.queryInstrumentation, role);
         } else if (parameterManager.getCriteriaNameMapping() != null) {
             return new TypedQueryWrapper<>((TypedQuery<QueryResultType>) query, parameterManager.getCriteriaNameMapping());
         } else {
@@ -56,6 +56,7 @@ import com.blazebit.persistence.parser.util.TypeUtils;
 import com.blazebit.persistence.spi.AttributeAccessor;
 import com.blazebit.persistence.spi.JpaMetamodelAccessor;
 
+import javax.persistence.EntityManager;
 import javax.persistence.Parameter;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
@@ -151,13 +152,21 @@ public abstract class AbstractFullQueryBuilder<T, X extends FullQueryBuilder<T,
 
     @Override
     public <Y> CriteriaBuilderImpl<Y> copyCriteriaBuilder(Class<Y> resultClass, boolean copyOrderBy) {
+        return copyCriteriaBuilder(getEntityManager(), resultClass, copyOrderBy, false);
+    }
+
+    <Y> CriteriaBuilderImpl<Y> copyCriteriaBuilder(EntityManager entityManager, Class<Y> resultClass, boolean copyOrderBy, boolean removeImplicitRoot) {
         if (createdPaginatedBuilder) {
             throw new IllegalStateException("Calling copy() on a CriteriaBuilder that was transformed to a PaginatedCriteriaBuilder is not allowed.");
         }
         prepareAndCheck();
-        MainQuery mainQuery = cbf.createMainQuery(getEntityManager());
+        MainQuery mainQuery = cbf.createMainQuery(entityManager);
         mainQuery.copyConfiguration(this.mainQuery.getQueryConfiguration());
         CriteriaBuilderImpl<Y> newBuilder = new CriteriaBuilderImpl<Y>(mainQuery, true, resultClass, null);
+        // The roots are copied, so we have to revert the implicit root of an entity result class
+        if (removeImplicitRoot && newBuilder.joinManager.getRoots().size() > 0) {
+            newBuilder.joinManager.removeRoot();
+        }
         newBuilder.fromClassExplicitlySet = true;
 
         newBuilder.applyFrom(this, true, true, false, copyOrderBy, Collections.<ClauseType>emptySet(), Collections.<JoinNode>emptySet(), new IdentityHashMap<JoinManager, JoinManager>(), ExpressionCopyContext.EMPTY);
@@ -165,6 +174,49 @@ public abstract class AbstractFullQueryBuilder<T, X extends FullQueryBuilder<T,
         return newBuilder;
     }
 
+    @Override
+    protected AbstractQueryBuilder<T, ?, ?, ?, ?> copyForAsync(EntityManager entityManager) {
+        return copyCriteriaBuilderForAsync(entityManager);
+    }
+
+    CriteriaBuilderImpl<T> copyCriteriaBuilderForAsync(EntityManager entityManager) {
+        try {
+            if (!selectManager.isObjectBuilderSharable()) {
+                throw new IllegalStateException("Asynchronous execution is not supported for queries with a custom object builder!");
+            }
+            return copyCriteriaBuilderWithObjectBuilder(entityManager);
+        } catch (RuntimeException | Error ex) {
+            entityManager.close();
+            throw ex;
+        }
+    }
+
+    CriteriaBuilderImpl<T> copyCriteriaBuilderWithObjectBuilder(EntityManager entityManager) {
+        CriteriaBuilderImpl<T> copy = copyCriteriaBuilder(entityManager, resultType, true, true);
+        copy.selectManager.applyObjectBuilderFrom(selectManager, copy);
+        if (selectManager.isDistinct()) {
+            copy.selectManager.distinct();
+        }
+        return copy;
+    }
+
+    @Override
+    QueryTemplateObjectBuilderFactory<T> getQueryTemplateObjectBuilderFactory() {
+        if (selectManager.getSelectObjectBuilder() == null) {
+            return null;
+        }
+        ObjectBuilder<T> objectBuilder = selectManager.getQueryTemplateObjectBuilder();
+        if (objectBuilder != null) {
+            return QueryTemplateObjectBuilderFactory.shared(objectBuilder);
+        }
+        if (!selectManager.isObjectBuilderCopyable()) {
+            throw new IllegalStateException("Query templates are not supported for queries that use a custom object builder that can't be copied, because such object builders are not necessarily thread-safe and may depend on the entity manager of the criteria builder!");
+        }
+        // Object builders like the one of an entity view are bound to the criteria builder and its entity manager,
+        // so every query of the template gets the object builder of a copy for the entity manager of the query
+        return QueryTemplateObjectBuilderFactory.copying(copyCriteriaBuilderWithObjectBuilder(em));
+    }
+
     @Override
     public CriteriaBuilder<Object[]> createPageIdQuery(int firstResult, int maxResults, String identifierExpression) {
         return createPageIdQuery(null, firstResult, maxResults, getIdentifierExpressionsToUse(identifierExpression, null));
@@ -27,6 +27,7 @@ import com.blazebit.persistence.impl.query.CustomReturningSQLTypedQuery;
 import com.blazebit.persistence.impl.query.CustomSQLQuery;
 import com.blazebit.persistence.impl.query.EntityFunctionNode;
 import com.blazebit.persistence.impl.query.QuerySpecification;
+import com.blazebit.persistence.impl.util.SqlClauseIndex;
 import com.blazebit.persistence.impl.util.SqlUtils;
 import com.blazebit.persistence.parser.expression.ExpressionCopyContext;
 import com.blazebit.persistence.spi.DbmsModificationState;
@@ -215,7 +216,7 @@ public abstract class AbstractInsertCollectionCriteriaBuilder<T, X extends BaseI
         JoinTable joinTable = mainQuery.jpaProvider.getJoinTable(entityType, collectionName);
         int joinTableIndex = SqlUtils.indexOfTableName(insertExampleSql, joinTable.getTableName());
         String collectionAlias = SqlUtils.extractAlias(insertExampleSql, joinTableIndex + joinTable.getTableName().length());
-        String[] selectItemExpressions = SqlUtils.getSelectItemExpressions(insertExampleSql, SqlUtils.indexOfSelect(insertExampleSql));
+        String[] selectItemExpressions = SqlClauseIndex.of(insertExampleSql).getSelectItemExpressions();
 
         // Prepare a Map<EntityAlias.idColumnName, CollectionAlias.idColumnName>
         // This is used to replace references to id columns properly in the final sql query
@@ -245,7 +245,9 @@ public abstract class AbstractModificationCriteriaBuilder<T, X extends BaseModif
     }
 
     public int executeUpdate() {
-        return getQuery().executeUpdate();
+        int updateCount = getQuery().executeUpdate();
+        mainQuery.cbf.onEntityModification(entityType.getJavaType());
+        return updateCount;
     }
     
     @Override
@@ -311,7 +313,9 @@ public abstract class AbstractModificationCriteriaBuilder<T, X extends BaseModif
     }
 
     public ReturningResult<Tuple> executeWithReturning(String... attributes) {
-        return getWithReturningQuery(attributes).getSingleResult();
+        ReturningResult<Tuple> result = getWithReturningQuery(attributes).getSingleResult();
+        mainQuery.cbf.onEntityModification(entityType.getJavaType());
+        return result;
     }
 
     public TypedQuery<ReturningResult<Tuple>> getWithReturningQuery(String... attributes) {
@@ -330,7 +334,9 @@ public abstract class AbstractModificationCriteriaBuilder<T, X extends BaseModif
     }
 
     public <Z> ReturningResult<Z> executeWithReturning(String attribute, Class<Z> type) {
-        return getWithReturningQuery(attribute, type).getSingleResult();
+        ReturningResult<Z> result = getWithReturningQuery(attribute, type).getSingleResult();
+        mainQuery.cbf.onEntityModification(entityType.getJavaType());
+        return result;
     }
 
     @SuppressWarnings("unchecked")
@@ -362,7 +368,9 @@ public abstract class AbstractModificationCriteriaBuilder<T, X extends BaseModif
     }
 
     public <Z> ReturningResult<Z> executeWithReturning(ReturningObjectBuilder<Z> objectBuilder) {
-        return getWithReturningQuery(objectBuilder).getSingleResult();
+        ReturningResult<Z> result = getWithReturningQuery(objectBuilder).getSingleResult();
+        mainQuery.cbf.onEntityModification(entityType.getJavaType());
+        return result;
     }
 
     @SuppressWarnings({ "unchecked", "rawtypes" })
@@ -17,11 +17,15 @@
 package com.blazebit.persistence.impl;
 
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
 import java.util.stream.Stream;
 
+import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 
 import com.blazebit.persistence.FullQueryBuilder;
+import com.blazebit.persistence.GroupingObjectBuilder;
 import com.blazebit.persistence.Queryable;
 import com.blazebit.persistence.spi.DbmsStatementType;
 
@@ -55,17 +59,53 @@ public abstract class AbstractQueryBuilder<T, X extends Queryable<T, X>, Z, W, F
 
     @Override
     public List<T> getResultList() {
-        return getQuery().getResultList();
+        return executeResultList(getQuery());
     }
 
     @Override
     public T getSingleResult() {
-        return getQuery().getSingleResult();
+        return executeSingleResult(getQuery());
     }
 
     @Override
     public Stream<T> getResultStream() {
+        if (selectManager.getSelectObjectBuilder() instanceof GroupingObjectBuilder<?> && !orderByManager.hasOrderBys()) {
+            throw new IllegalStateException("Streaming objects that are built from multiple tuples requires the query to be ordered by the id of the objects!");
+        }
         return getQuery().getResultStream();
     }
 
+    public CompletionStage<List<T>> getResultListAsync() {
+        AsyncQueryExecutorImpl executor = cbf.getAsyncQueryExecutor();
+        EntityManager entityManager = executor.createEntityManager(mainQuery.getQueryConfiguration().getAsyncQueryTimeout());
+        final AbstractQueryBuilder<T, ?, ?, ?, ?> copy = copyForAsync(entityManager);
+        return executor.submit(entityManager, new Callable<List<T>>() {
+            @Override
+            public List<T> call() {
+                return copy.getResultList();
+            }
+        });
+    }
+
+    public CompletionStage<T> getSingleResultAsync() {
+        AsyncQueryExecutorImpl executor = cbf.getAsyncQueryExecutor();
+        EntityManager entityManager = executor.createEntityManager(mainQuery.getQueryConfiguration().getAsyncQueryTimeout());
+        final AbstractQueryBuilder<T, ?, ?, ?, ?> copy = copyForAsync(entityManager);
+        return executor.submit(entityManager, new Callable<T>() {
+            @Override
+            public T call() {
+                return copy.getSingleResult();
+            }
+        });
+    }
+
+    /**
+     * Copies this builder on the calling thread so that the copy can be executed on the given entity manager by a different thread.
+     * Implementations must close the entity manager if the copy fails.
+     *
+     * @param entityManager The entity manager for the copy
+     * @return The copy
+     */
+    protected abstract AbstractQueryBuilder<T, ?, ?, ?, ?> copyForAsync(EntityManager entityManager);
+
 }
@@ -45,6 +45,9 @@ public abstract class AbstractQueryConfiguration implements QueryConfiguration {
             case ConfigurationProperties.INLINE_COUNT_QUERY: return getInlineCountQueryEnabled() == null ? "auto" : Boolean.toString(getInlineCountQueryEnabled());
             case ConfigurationProperties.INLINE_CTES: return getInlineCtesEnabled() == null ? "auto" : Boolean.toString(getInlineCtesEnabled());
             case ConfigurationProperties.QUERY_PLAN_CACHE_ENABLED: return Boolean.toString(isQueryPlanCacheEnabled());
+            case ConfigurationProperties.PARAMETER_LIST_PADDING: return getParameterListPadding().toString();
+            case ConfigurationProperties.JOIN_ELIMINATION: return Boolean.toString(isJoinEliminationEnabled());
+            case ConfigurationProperties.ASYNC_QUERY_TIMEOUT: return Integer.toString(getAsyncQueryTimeout());
             default: return null;
         }
     }
@@ -66,6 +69,9 @@ public abstract class AbstractQueryConfiguration implements QueryConfiguration {
         properties.put(ConfigurationProperties.INLINE_COUNT_QUERY, getInlineCountQueryEnabled() == null ? "auto" : Boolean.toString(getInlineCountQueryEnabled()));
         properties.put(ConfigurationProperties.INLINE_CTES, getInlineCtesEnabled() == null ? "auto" : Boolean.toString(getInlineCtesEnabled()));
         properties.put(ConfigurationProperties.QUERY_PLAN_CACHE_ENABLED, Boolean.toString(isQueryPlanCacheEnabled()));
+        properties.put(ConfigurationProperties.PARAMETER_LIST_PADDING, getParameterListPadding().toString());
+        properties.put(ConfigurationProperties.JOIN_ELIMINATION, Boolean.toString(isJoinEliminationEnabled()));
+        properties.put(ConfigurationProperties.ASYNC_QUERY_TIMEOUT, Integer.toString(getAsyncQueryTimeout()));
         return properties;
     }
 
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.spi.AsyncQueryExecutor;
+import com.blazebit.persistence.spi.JpaProvider;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs queries on separate entity managers on the configured executor or on the default executor.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+final class AsyncQueryExecutorImpl implements AsyncQueryExecutor {
+
+    // The JPA hint that providers translate to a JDBC statement timeout
+    private static final String QUERY_TIMEOUT_HINT = "javax.persistence.query.timeout";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JpaProvider jpaProvider;
+    private final Executor executor;
+
+    public AsyncQueryExecutorImpl(EntityManagerFactory entityManagerFactory, JpaProvider jpaProvider, Executor executor) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jpaProvider = jpaProvider;
+        this.executor = executor == null ? DefaultExecutor.INSTANCE : executor;
+    }
+
+    @Override
+    public EntityManager createEntityManager(int queryTimeout) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        if (queryTimeout > 0) {
+            try {
+                entityManager.setProperty(QUERY_TIMEOUT_HINT, queryTimeout);
+            } catch (RuntimeException ex) {
+                entityManager.close();
+                throw ex;
+            }
+        }
+        return entityManager;
+    }
+
+    @Override
+    public <T> CompletionStage<T> submit(EntityManager entityManager, Callable<T> task) {
+        AsyncQuery<T> query = new AsyncQuery<>(entityManager, jpaProvider, task);
+        try {
+            executor.execute(query);
+        } catch (RuntimeException ex) {
+            query.cancel(false);
+            throw ex;
+        }
+        return query;
+    }
+
+    /**
+     * Starts a new virtual thread for every query on Java 21+. On older Java versions, queries run on a shared pool of daemon threads
+     * that is bounded by the number of available processors, because every running query holds its own connection and platform threads are expensive.
+     * Idle pool threads time out, so there is nothing to shut down when the criteria builder factory is discarded.
+     *
+     * @author Christian Beikov
+     * @since 1.6.7
+     */
+    private static final class DefaultExecutor implements Executor {
+
+        static final DefaultExecutor INSTANCE = new DefaultExecutor();
+        private static final long KEEP_ALIVE_SECONDS = 60L;
+
+        private final Method startVirtualThread;
+        private final AtomicInteger threadNumber = new AtomicInteger();
+        private volatile ThreadPoolExecutor platformThreadPool;
+
+        private DefaultExecutor() {
+            Method method;
+            try {
+                // Virtual threads are only available on Java 21+
+                method = Thread.class.getMethod("startVirtualThread", Runnable.class);
+            } catch (NoSuchMethodException ex) {
+                method = null;
+            }
+            this.startVirtualThread = method;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (startVirtualThread != null) {
+                try {
+                    startVirtualThread.invoke(null, command);
+                    return;
+                } catch (IllegalAccessException | InvocationTargetException ex) {
+                    // Fall back to a platform thread
+                }
+            }
+            getPlatformThreadPool().execute(command);
+        }
+
+        private ThreadPoolExecutor getPlatformThreadPool() {
+            ThreadPoolExecutor pool = platformThreadPool;
+            if (pool == null) {
+                synchronized (this) {
+                    pool = platformThreadPool;
+                    if (pool == null) {
+                        int threads = Runtime.getRuntime().availableProcessors();
+                        pool = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                            @Override
+                            public Thread newThread(Runnable r) {
+                                Thread thread = new Thread(r, "blaze-persistence-async-query-" + threadNumber.incrementAndGet());
+                                // Don't prevent the JVM from shutting down
+                                thread.setDaemon(true);
+                                return thread;
+                            }
+                        });
+                        pool.allowCoreThreadTimeOut(true);
+                        platformThreadPool = pool;
+                    }
+                }
+            }
+            return pool;
+        }
+    }
+
+    /**
+     * A query task that closes its entity manager when done. The entity manager is closed by whoever claims the task first,
+     * the executing thread or a cancelling thread.
+     *
+     * @param <T> The result type
+     * @author Christian Beikov
+     * @since 1.6.7
+     */
+    private static final class AsyncQuery<T> extends CompletableFuture<T> implements Runnable {
+
+        private final EntityManager entityManager;
+        private final JpaProvider jpaProvider;
+        private final Callable<T> task;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        // Guarded by this
+        private boolean running;
+
+        public AsyncQuery(EntityManager entityManager, JpaProvider jpaProvider, Callable<T> task) {
+            this.entityManager = entityManager;
+            this.jpaProvider = jpaProvider;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            T result = null;
+            Throwable failure = null;
+            try {
+                synchronized (this) {
+                    running = true;
+                }
+                result = task.call();
+            } catch (Exception | Error ex) {
+                failure = ex;
+            } finally {
+                synchronized (this) {
+                    running = false;
+                }
+            }
+            // Close the entity manager before completing so that dependent stages never race with the close
+            try {
+                entityManager.close();
+            } catch (RuntimeException ex) {
+                if (failure == null) {
+                    failure = ex;
+                } else {
+                    failure.addSuppressed(ex);
+                }
+            }
+            if (failure == null) {
+                complete(result);
+            } else {
+                completeExceptionally(failure);
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                if (claimed.compareAndSet(false, true)) {
+                    entityManager.close();
+                } else if (mayInterruptIfRunning) {
+                    // We don't interrupt the running thread, as an interrupt during JDBC or NIO I/O may close the underlying channel
+                    // and break the connection. A running statement is cancelled or bounded by the query timeout instead
+                    synchronized (this) {
+                        if (running) {
+                            try {
+                                jpaProvider.cancelQuery(entityManager);
+                            } catch (RuntimeException ex) {
+                                // The statement might have completed concurrently
+                            }
+                        }
+                    }
+                }
+            }
+            return cancelled;
+        }
+    }
+}
@@ -26,6 +26,7 @@ import com.blazebit.persistence.impl.query.CustomReturningSQLTypedQuery;
 import com.blazebit.persistence.impl.query.CustomSQLQuery;
 import com.blazebit.persistence.impl.query.DeleteModificationQuerySpecification;
 import com.blazebit.persistence.impl.query.QuerySpecification;
+import com.blazebit.persistence.impl.util.SqlClauseIndex;
 import com.blazebit.persistence.impl.util.SqlUtils;
 import com.blazebit.persistence.parser.expression.ExpressionCopyContext;
 import com.blazebit.persistence.spi.DbmsModificationState;
@@ -153,10 +154,11 @@ public abstract class BaseDeleteCriteriaBuilderImpl<T, X extends BaseDeleteCrite
         String tableToDelete = null;
         String tableAlias = null;
         boolean innerJoinOnly = false;
-        if (SqlUtils.indexOfSelect(sql) != -1) {
+        SqlClauseIndex clauseIndex = SqlClauseIndex.of(sql);
+        if (clauseIndex.indexOfSelect() != -1) {
             idColumns = getIdColumns(getMetamodel().getManagedType(ExtendedManagedType.class, entityType));
             innerJoinOnly = joinManager.getRoots().size() == 1 && !joinManager.getRootNodeOrFail(null).accept(InnerJoinOnlyAbortableResultJoinNodeVisitor.INSTANCE);
-            int fromIndex = SqlUtils.indexOfFrom(sql);
+            int fromIndex = clauseIndex.indexOfFrom();
             int tableStartIndex = fromIndex + SqlUtils.FROM.length();
             int tableEndIndex = sql.indexOf(" ", tableStartIndex);
             int tableAliasEndIndex = sql.indexOf(" ", tableEndIndex + 1);
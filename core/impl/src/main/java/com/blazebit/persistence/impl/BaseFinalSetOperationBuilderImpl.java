@@ -446,11 +446,11 @@ public abstract class BaseFinalSetOperationBuilderImpl<T, X extends BaseFinalSet
     }
 
     public List<T> getResultList() {
-        return getTypedQuery(null, null).getResultList();
+        return executeResultList(getTypedQuery(null, null));
     }
 
     public T getSingleResult() {
-        return getTypedQuery(null, null).getSingleResult();
+        return executeSingleResult(getTypedQuery(null, null));
     }
 
     public Stream<T> getResultStream() {
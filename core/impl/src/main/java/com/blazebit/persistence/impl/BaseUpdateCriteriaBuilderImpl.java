@@ -32,6 +32,7 @@ import com.blazebit.persistence.impl.query.CustomReturningSQLTypedQuery;
 import com.blazebit.persistence.impl.query.CustomSQLQuery;
 import com.blazebit.persistence.impl.query.QuerySpecification;
 import com.blazebit.persistence.impl.query.UpdateModificationQuerySpecification;
+import com.blazebit.persistence.impl.util.SqlClauseIndex;
 import com.blazebit.persistence.impl.util.SqlUtils;
 import com.blazebit.persistence.parser.SimpleQueryGenerator;
 import com.blazebit.persistence.parser.expression.Expression;
@@ -391,9 +392,10 @@ public abstract class BaseUpdateCriteriaBuilderImpl<T, X extends BaseUpdateCrite
         String tableAlias = null;
         if ((joinManager.getRoots().size() > 1 || rootNode.hasChildNodes()) && mainQuery.dbmsDialect.getUpdateJoinStyle() != UpdateJoinStyle.NONE) {
             String sql = getService(ExtendedQuerySupport.class).getSql(em, baseQuery);
-            if (SqlUtils.indexOfSelect(sql) != -1) {
+            SqlClauseIndex clauseIndex = SqlClauseIndex.of(sql);
+            if (clauseIndex.indexOfSelect() != -1) {
                 idColumns = getIdColumns(getMetamodel().getManagedType(ExtendedManagedType.class, entityType));
-                int fromIndex = SqlUtils.indexOfFrom(sql);
+                int fromIndex = clauseIndex.indexOfFrom();
                 int tableStartIndex = fromIndex + SqlUtils.FROM.length();
                 int tableEndIndex = sql.indexOf(" ", tableStartIndex);
                 tableToUpdate = sql.substring(tableStartIndex, tableEndIndex);
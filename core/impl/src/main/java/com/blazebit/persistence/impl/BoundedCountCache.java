@@ -0,0 +1,143 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.CacheStatistics;
+import com.blazebit.persistence.spi.CountCache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A count cache with a maximum number of entries that are evicted in LRU order and a time to live after which cached counts expire.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public class BoundedCountCache implements CountCache, CacheStatistics {
+
+    public static final String NAME = "count";
+
+    private final int maximumSize;
+    private final long timeToLiveNanos;
+    private final Map<Object, Entry> cache;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public BoundedCountCache(int maximumSize, long timeToLive, TimeUnit timeUnit) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("The maximum size must be positive but was: " + maximumSize);
+        }
+        if (timeToLive <= 0) {
+            throw new IllegalArgumentException("The time to live must be positive but was: " + timeToLive);
+        }
+        this.maximumSize = maximumSize;
+        this.timeToLiveNanos = timeUnit.toNanos(timeToLive);
+        this.cache = new LinkedHashMap<Object, Entry>(Math.min(maximumSize, 64), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                if (size() > BoundedCountCache.this.maximumSize) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public Long get(Object key) {
+        Entry entry;
+        synchronized (cache) {
+            entry = cache.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() <= 0) {
+                cache.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return entry.count;
+    }
+
+    @Override
+    public void put(Object key, long count) {
+        Entry entry = new Entry(count, System.nanoTime() + timeToLiveNanos);
+        synchronized (cache) {
+            cache.put(key, entry);
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public long getSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    @Override
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    @Override
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    @Override
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.6.7
+     */
+    private static final class Entry {
+        private final long count;
+        private final long expiresAt;
+
+        public Entry(long count, long expiresAt) {
+            this.count = count;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
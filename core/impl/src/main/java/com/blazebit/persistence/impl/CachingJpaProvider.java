@@ -441,4 +441,9 @@ public final class CachingJpaProvider implements JpaProvider {
     public JpaMetamodelAccessor getJpaMetamodelAccessor() {
         return jpaProvider.getJpaMetamodelAccessor();
     }
+
+    @Override
+    public boolean cancelQuery(EntityManager em) {
+        return jpaProvider.cancelQuery(em);
+    }
 }
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.impl.query.QueryWrapper;
+import com.blazebit.persistence.spi.QueryInstrumentation;
+import com.blazebit.persistence.spi.QueryPhase;
+import com.blazebit.persistence.spi.QueryRole;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Parameter;
+import javax.persistence.PersistenceException;
+import javax.persistence.Query;
+import javax.persistence.TemporalType;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Executes the count query of a paginated query on a separate entity manager so that it can run concurrently to the id and object query.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+final class ConcurrentCountQuery {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final Executor executor;
+    private final String countQueryString;
+    private final QueryInstrumentation instrumentation;
+
+    public ConcurrentCountQuery(EntityManagerFactory entityManagerFactory, Executor executor, String countQueryString, QueryInstrumentation instrumentation) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.executor = executor;
+        this.countQueryString = countQueryString;
+        this.instrumentation = instrumentation;
+    }
+
+    /**
+     * Submits the count query to the executor, using the parameter values bound on the given count query.
+     * The parameter values are captured on the calling thread, as the given query must not be accessed concurrently.
+     *
+     * @param countQuery The count query of the calling entity manager from which to copy the parameter values
+     * @param temporalTypes The temporal types of the parameters by name or position, as they can't be read from a query
+     * @return The future for the count
+     */
+    public Future<Long> execute(Query countQuery, Map<String, TemporalType> temporalTypes) {
+        if (countQuery instanceof QueryWrapper) {
+            countQuery = ((QueryWrapper) countQuery).getDelegate();
+        }
+        final List<Parameter<?>> parameters = new ArrayList<>(countQuery.getParameters().size());
+        final List<Object> values = new ArrayList<>(countQuery.getParameters().size());
+        final List<TemporalType> parameterTemporalTypes = new ArrayList<>(countQuery.getParameters().size());
+        for (Parameter<?> parameter : countQuery.getParameters()) {
+            if (countQuery.isBound(parameter)) {
+                parameters.add(parameter);
+                values.add(countQuery.getParameterValue(parameter));
+                parameterTemporalTypes.add(temporalTypes.get(parameter.getName() == null ? parameter.getPosition().toString() : parameter.getName()));
+            }
+        }
+
+        FutureTask<Long> task = new FutureTask<>(new Callable<Long>() {
+            @Override
+            public Long call() throws Exception {
+                EntityManager entityManager = entityManagerFactory.createEntityManager();
+                try {
+                    Query query = entityManager.createQuery(countQueryString);
+                    for (int i = 0; i < parameters.size(); i++) {
+                        bind(query, parameters.get(i), values.get(i), parameterTemporalTypes.get(i));
+                    }
+                    if (!instrumentation.isEnabled()) {
+                        return ((Number) query.getSingleResult()).longValue();
+                    }
+                    long start = System.nanoTime();
+                    long count = ((Number) query.getSingleResult()).longValue();
+                    instrumentation.onPhase(QueryPhase.EXECUTE, QueryRole.COUNT, System.nanoTime() - start, 1);
+                    return count;
+                } finally {
+                    entityManager.close();
+                }
+            }
+        });
+        executor.execute(task);
+        return task;
+    }
+
+    private static void bind(Query query, Parameter<?> parameter, Object value, TemporalType temporalType) {
+        if (temporalType == null) {
+            if (parameter.getName() == null) {
+                query.setParameter(parameter.getPosition(), value);
+            } else {
+                query.setParameter(parameter.getName(), value);
+            }
+        } else if (value instanceof Calendar) {
+            if (parameter.getName() == null) {
+                query.setParameter(parameter.getPosition(), (Calendar) value, temporalType);
+            } else {
+                query.setParameter(parameter.getName(), (Calendar) value, temporalType);
+            }
+        } else {
+            if (parameter.getName() == null) {
+                query.setParameter(parameter.getPosition(), (Date) value, temporalType);
+            } else {
+                query.setParameter(parameter.getName(), (Date) value, temporalType);
+            }
+        }
+    }
+
+    /**
+     * Waits for the result of a count query previously submitted via {@link #execute(Query, Map)}.
+     *
+     * @param future The future of the count query
+     * @return The count
+     */
+    public static long await(Future<Long> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new PersistenceException("Interrupted while waiting for the concurrent count query", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new PersistenceException("The concurrent count query failed", cause);
+        }
+    }
+}
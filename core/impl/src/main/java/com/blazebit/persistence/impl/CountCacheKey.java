@@ -0,0 +1,181 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.impl.query.QueryWrapper;
+import com.blazebit.persistence.parser.EntityMetamodel;
+
+import javax.persistence.Parameter;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The key for a count query in a {@link com.blazebit.persistence.spi.CountCache} consisting of the query string and the bound parameter values.
+ * Since the count cache is shared by all entity managers and outlives the query, the key holds a snapshot of the parameter values.
+ * Collections and mutable temporal values are copied, and entities are replaced by their identifier,
+ * so that a later modification of a parameter value doesn't change the key and no entity or persistence context is retained.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+final class CountCacheKey {
+
+    private static final Comparator<Parameter<?>> PARAMETER_COMPARATOR = new Comparator<Parameter<?>>() {
+        @Override
+        public int compare(Parameter<?> o1, Parameter<?> o2) {
+            return getParameterName(o1).compareTo(getParameterName(o2));
+        }
+    };
+
+    private final String countQueryString;
+    private final Object[] parameters;
+    private final int hashCode;
+
+    private CountCacheKey(String countQueryString, Object[] parameters) {
+        this.countQueryString = countQueryString;
+        this.parameters = parameters;
+        this.hashCode = 31 * countQueryString.hashCode() + Arrays.deepHashCode(parameters);
+    }
+
+    public static CountCacheKey of(String countQueryString, Query countQuery, Map<String, Object> parameterValues, EntityMetamodel metamodel, PersistenceUnitUtil persistenceUnitUtil) {
+        if (countQuery instanceof QueryWrapper) {
+            countQuery = ((QueryWrapper) countQuery).getDelegate();
+        }
+        List<Parameter<?>> parameterList = new ArrayList<>(countQuery.getParameters());
+        // Sort the parameters so that the key doesn't depend on the iteration order of the parameter set
+        Collections.sort(parameterList, PARAMETER_COMPARATOR);
+        Object[] parameters = new Object[parameterList.size() * 2];
+        for (int i = 0; i < parameterList.size(); i++) {
+            Parameter<?> parameter = parameterList.get(i);
+            String name = getParameterName(parameter);
+            Object value;
+            // Not every JPA provider returns the values of collection valued parameters, so we prefer the values set through the paginated query
+            if (parameterValues.containsKey(name)) {
+                value = parameterValues.get(name);
+            } else {
+                value = countQuery.isBound(parameter) ? countQuery.getParameterValue(parameter) : null;
+            }
+            parameters[i * 2] = name;
+            parameters[i * 2 + 1] = snapshot(value, metamodel, persistenceUnitUtil);
+        }
+        return new CountCacheKey(countQueryString, parameters);
+    }
+
+    private static Object snapshot(Object value, EntityMetamodel metamodel, PersistenceUnitUtil persistenceUnitUtil) {
+        if (value == null) {
+            return null;
+        } else if (value instanceof Collection<?>) {
+            Collection<?> collection = (Collection<?>) value;
+            List<Object> list = new ArrayList<>(collection.size());
+            for (Object element : collection) {
+                list.add(snapshot(element, metamodel, persistenceUnitUtil));
+            }
+            return Collections.unmodifiableList(list);
+        } else if (value instanceof Date) {
+            return ((Date) value).clone();
+        } else if (value instanceof Calendar) {
+            return ((Calendar) value).clone();
+        } else if (value instanceof byte[]) {
+            return ((byte[]) value).clone();
+        } else if (value instanceof char[]) {
+            return ((char[]) value).clone();
+        }
+        // Proxies are subclasses of the entity class
+        for (Class<?> clazz = value.getClass(); clazz != Object.class && clazz != null; clazz = clazz.getSuperclass()) {
+            if (metamodel.getEntity(clazz) != null) {
+                return new EntityReference(clazz, persistenceUnitUtil.getIdentifier(value));
+            }
+        }
+        return value;
+    }
+
+    private static String getParameterName(Parameter<?> parameter) {
+        return parameter.getName() == null ? parameter.getPosition().toString() : parameter.getName();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CountCacheKey)) {
+            return false;
+        }
+        CountCacheKey that = (CountCacheKey) o;
+        return hashCode == that.hashCode
+                && countQueryString.equals(that.countQueryString)
+                && Arrays.deepEquals(parameters, that.parameters);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return countQueryString + " " + Arrays.deepToString(parameters);
+    }
+
+    /**
+     * The identity of an entity parameter value.
+     *
+     * @author Christian Beikov
+     * @since 1.6.7
+     */
+    private static final class EntityReference {
+
+        private final Class<?> entityClass;
+        private final Object id;
+
+        public EntityReference(Class<?> entityClass, Object id) {
+            this.entityClass = entityClass;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof EntityReference)) {
+                return false;
+            }
+            EntityReference that = (EntityReference) o;
+            return entityClass == that.entityClass && (id == null ? that.id == null : id.equals(that.id));
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * entityClass.hashCode() + (id == null ? 0 : id.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return entityClass.getName() + "#" + id;
+        }
+    }
+}
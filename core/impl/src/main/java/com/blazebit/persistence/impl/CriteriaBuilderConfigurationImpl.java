@@ -518,6 +518,7 @@ import com.blazebit.persistence.impl.function.window.row.RowNumberFunction;
 import com.blazebit.persistence.impl.function.window.sum.SumFunction;
 import com.blazebit.persistence.impl.util.CriteriaBuilderConfigurationContributorComparator;
 import com.blazebit.persistence.parser.expression.ConcurrentHashMapExpressionCache;
+import com.blazebit.persistence.spi.CountCache;
 import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
 import com.blazebit.persistence.spi.CriteriaBuilderConfigurationContributor;
 import com.blazebit.persistence.spi.DbmsDialect;
@@ -529,6 +530,7 @@ import com.blazebit.persistence.spi.JpqlFunctionKind;
 import com.blazebit.persistence.spi.JpqlMacro;
 import com.blazebit.persistence.spi.LateralStyle;
 import com.blazebit.persistence.spi.PackageOpener;
+import com.blazebit.persistence.spi.QueryInstrumentation;
 import com.blazebit.persistence.spi.SetOperationType;
 
 import javax.persistence.EntityManagerFactory;
@@ -548,6 +550,7 @@ import java.util.Properties;
 import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.Executor;
 
 /**
  *
@@ -563,6 +566,9 @@ public class CriteriaBuilderConfigurationImpl implements CriteriaBuilderConfigur
     private final Map<String, JpqlMacro> macros = new HashMap<String, JpqlMacro>();
     private final List<EntityManagerFactoryIntegrator> entityManagerIntegrators = new ArrayList<EntityManagerFactoryIntegrator>();
     private PackageOpener packageOpener;
+    private QueryInstrumentation queryInstrumentation = QueryInstrumentation.NOOP;
+    private CountCache countCache;
+    private Executor asyncQueryExecutor;
     private Properties properties = new Properties();
     private ExtendedQuerySupport extendedQuerySupport;
 
@@ -1895,6 +1901,9 @@ public class CriteriaBuilderConfigurationImpl implements CriteriaBuilderConfigur
         properties.put(ConfigurationProperties.INLINE_ID_QUERY, "auto");
         properties.put(ConfigurationProperties.INLINE_COUNT_QUERY, "auto");
         properties.put(ConfigurationProperties.INLINE_CTES, "true");
+        properties.put(ConfigurationProperties.PARAMETER_LIST_PADDING, "none");
+        properties.put(ConfigurationProperties.JOIN_ELIMINATION, "true");
+        properties.put(ConfigurationProperties.ASYNC_QUERY_TIMEOUT, "0");
     }
 
     private void loadExtendedQuerySupport() {
@@ -1940,6 +1949,42 @@ public class CriteriaBuilderConfigurationImpl implements CriteriaBuilderConfigur
         return packageOpener;
     }
 
+    @Override
+    public CriteriaBuilderConfiguration withQueryInstrumentation(QueryInstrumentation queryInstrumentation) {
+        if (queryInstrumentation == null) {
+            throw new IllegalArgumentException("Invalid null query instrumentation! Use QueryInstrumentation.NOOP instead");
+        }
+        this.queryInstrumentation = queryInstrumentation;
+        return this;
+    }
+
+    @Override
+    public QueryInstrumentation getQueryInstrumentation() {
+        return queryInstrumentation;
+    }
+
+    @Override
+    public CriteriaBuilderConfiguration withCountCache(CountCache countCache) {
+        this.countCache = countCache;
+        return this;
+    }
+
+    @Override
+    public CountCache getCountCache() {
+        return countCache;
+    }
+
+    @Override
+    public CriteriaBuilderConfiguration withAsyncQueryExecutor(Executor executor) {
+        this.asyncQueryExecutor = executor;
+        return this;
+    }
+
+    @Override
+    public Executor getAsyncQueryExecutor() {
+        return asyncQueryExecutor;
+    }
+
     @Override
     public CriteriaBuilderConfiguration registerFunction(JpqlFunctionGroup jpqlFunctionGroup) {
         String functionName = jpqlFunctionGroup.getName().toLowerCase();
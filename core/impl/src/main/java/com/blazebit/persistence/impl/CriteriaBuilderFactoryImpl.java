@@ -16,6 +16,8 @@
 
 package com.blazebit.persistence.impl;
 
+import com.blazebit.persistence.CacheStatistics;
+import com.blazebit.persistence.ConfigurationProperties;
 import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.CriteriaBuilderFactory;
 import com.blazebit.persistence.DeleteCriteriaBuilder;
@@ -24,15 +26,22 @@ import com.blazebit.persistence.LeafOngoingFinalSetOperationCriteriaBuilder;
 import com.blazebit.persistence.StartOngoingSetOperationCriteriaBuilder;
 import com.blazebit.persistence.UpdateCriteriaBuilder;
 import com.blazebit.persistence.parser.FunctionKind;
+import com.blazebit.persistence.parser.expression.BoundedExpressionCache;
 import com.blazebit.persistence.parser.expression.ExpressionCache;
+import com.blazebit.persistence.parser.expression.ExpressionCacheStatistics;
 import com.blazebit.persistence.parser.expression.ExpressionFactory;
 import com.blazebit.persistence.parser.expression.ExpressionFactoryImpl;
 import com.blazebit.persistence.parser.expression.MacroConfiguration;
 import com.blazebit.persistence.parser.expression.SimpleCachingExpressionFactory;
+import com.blazebit.persistence.parser.expression.StatisticsAwareExpressionCache;
 import com.blazebit.persistence.parser.expression.SubqueryExpressionFactory;
+import com.blazebit.persistence.spi.AsyncQueryExecutor;
 import com.blazebit.persistence.spi.ConfigurationSource;
+import com.blazebit.persistence.spi.CountCache;
 import com.blazebit.persistence.spi.DbmsDialect;
 import com.blazebit.persistence.spi.EntityManagerFactoryIntegrator;
+import com.blazebit.persistence.spi.EntityModificationListener;
+import com.blazebit.persistence.spi.EntityModificationListenerRegistry;
 import com.blazebit.persistence.spi.ExtendedQuerySupport;
 import com.blazebit.persistence.spi.JpaProvider;
 import com.blazebit.persistence.spi.JpaProviderFactory;
@@ -40,23 +49,31 @@ import com.blazebit.persistence.spi.JpqlFunction;
 import com.blazebit.persistence.spi.JpqlFunctionGroup;
 import com.blazebit.persistence.spi.JpqlFunctionKind;
 import com.blazebit.persistence.spi.PackageOpener;
+import com.blazebit.persistence.spi.QueryInstrumentation;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.metamodel.Metamodel;
+import java.lang.reflect.Constructor;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  *
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
+public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory, EntityModificationListenerRegistry {
 
     private final PackageOpener packageOpener;
+    private final QueryInstrumentation queryInstrumentation;
+    private final CountCache countCache;
+    private final AsyncQueryExecutorImpl asyncQueryExecutor;
+    private final List<EntityModificationListener> entityModificationListeners = new CopyOnWriteArrayList<>();
     private final EntityManagerFactory entityManagerFactory;
     private final EntityMetamodelImpl metamodel;
     private final AssociationParameterTransformerFactory transientEntityParameterTransformerFactory;
@@ -64,6 +81,7 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
     private final Map<String, FunctionKind> functions;
     private final Map<Class<?>, String> namedTypes;
     private final ExpressionCache expressionCache;
+    private final ExpressionCache subqueryExpressionCache;
     private final ExpressionFactory expressionFactory;
     private final ExpressionFactory subqueryExpressionFactory;
     private final QueryConfiguration queryConfiguration;
@@ -97,6 +115,8 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
         }
 
         this.packageOpener = config.getPackageOpener();
+        this.queryInstrumentation = config.getQueryInstrumentation();
+        this.countCache = config.getCountCache();
         this.configuredDbms = dbms;
         this.configuredDbmsDialect = dialect;
         this.configuredRegisteredFunctions = registeredFunctions;
@@ -109,6 +129,7 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
         this.entityManagerFactory = entityManagerFactory;
         this.metamodel = new EntityMetamodelImpl(entityManagerFactory, configuredJpaProviderFactory);
         this.jpaProvider = new CachingJpaProvider(metamodel);
+        this.asyncQueryExecutor = new AsyncQueryExecutorImpl(entityManagerFactory, jpaProvider, config.getAsyncQueryExecutor());
 
         this.transientEntityParameterTransformerFactory = new TransientEntityAssociationParameterTransformerFactory(metamodel, new AssociationToIdParameterTransformer(jpaProvider));
         this.extendedQuerySupport = config.getExtendedQuerySupport();
@@ -117,23 +138,47 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
         this.namedTypes = resolveNamedTypes(config.getNamedTypes());
 
         ExpressionFactory originalExpressionFactory = new ExpressionFactoryImpl(functions, metamodel.getEntityTypes(), metamodel.getEnumTypes(), metamodel.getEnumTypesForLiterals(), !compatibleMode, optimize);
-        this.expressionCache = createCache(queryConfiguration.getExpressionCacheClass());
+        this.expressionCache = createCache(queryConfiguration.getExpressionCacheClass(), (Map<String, String>) (Map<?, ?>) config.getProperties());
+        // The subquery expression factory produces different expressions for the same cache names and keys, so it needs a separate cache instance
+        this.subqueryExpressionCache = createCache(queryConfiguration.getExpressionCacheClass(), (Map<String, String>) (Map<?, ?>) config.getProperties());
         ExpressionFactory cachingExpressionFactory = new SimpleCachingExpressionFactory(originalExpressionFactory, expressionCache);
-        ExpressionFactory cachingSubqueryExpressionFactory = new SimpleCachingExpressionFactory(new SubqueryExpressionFactory(functions, metamodel.getEntityTypes(), metamodel.getEnumTypes(), metamodel.getEnumTypesForLiterals(), !compatibleMode, optimize, originalExpressionFactory));
+        ExpressionFactory cachingSubqueryExpressionFactory = new SimpleCachingExpressionFactory(new SubqueryExpressionFactory(functions, metamodel.getEntityTypes(), metamodel.getEnumTypes(), metamodel.getEnumTypesForLiterals(), !compatibleMode, optimize, originalExpressionFactory), subqueryExpressionCache);
         this.macroConfiguration = MacroConfiguration.of(JpqlMacroAdapter.createMacros(config.getMacros(), cachingExpressionFactory));
         JpqlMacroStorage macroStorage = new JpqlMacroStorage(null, macroConfiguration);
         this.expressionFactory = new JpqlMacroAwareExpressionFactory(cachingExpressionFactory, macroStorage);
         this.subqueryExpressionFactory = new JpqlMacroAwareExpressionFactory(cachingSubqueryExpressionFactory, macroStorage);
     }
 
-    private ExpressionCache createCache(String className) {
+    private ExpressionCache createCache(String className, Map<String, String> properties) {
         try {
-            return (ExpressionCache) Class.forName(className).newInstance();
+            Class<?> cacheClass = Class.forName(className);
+            if (cacheClass == BoundedExpressionCache.class) {
+                return new BoundedExpressionCache<>(getExpressionCacheMaximumWeight(properties));
+            }
+            // Caches that are configurable receive the configuration properties
+            for (Constructor<?> constructor : cacheClass.getConstructors()) {
+                if (constructor.getParameterTypes().length == 1 && constructor.getParameterTypes()[0] == Map.class) {
+                    return (ExpressionCache) constructor.newInstance(properties);
+                }
+            }
+            return (ExpressionCache) cacheClass.newInstance();
         } catch (Exception ex) {
             throw new IllegalArgumentException("Could not instantiate expression cache: " + className, ex);
         }
     }
 
+    private static long getExpressionCacheMaximumWeight(Map<String, String> properties) {
+        String value = properties.get(ConfigurationProperties.EXPRESSION_CACHE_MAXIMUM_WEIGHT);
+        if (value == null || value.isEmpty()) {
+            return BoundedExpressionCache.DEFAULT_MAXIMUM_WEIGHT;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Illegal value '" + value + "' for property '" + ConfigurationProperties.EXPRESSION_CACHE_MAXIMUM_WEIGHT + "'", ex);
+        }
+    }
+
     private static Map<String, FunctionKind> resolveFunctions(Map<String, JpqlFunctionGroup> functions, Map<String, JpqlFunction> configuredFunctions) {
         Map<String, FunctionKind> map = new HashMap<>();
         for (Map.Entry<String, JpqlFunctionGroup> entry : functions.entrySet()) {
@@ -220,6 +265,34 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
         return namedTypes;
     }
 
+    public QueryInstrumentation getQueryInstrumentation() {
+        return queryInstrumentation;
+    }
+
+    public CountCache getCountCache() {
+        return countCache;
+    }
+
+    public AsyncQueryExecutorImpl getAsyncQueryExecutor() {
+        return asyncQueryExecutor;
+    }
+
+    @Override
+    public void addEntityModificationListener(EntityModificationListener listener) {
+        entityModificationListeners.add(listener);
+    }
+
+    @Override
+    public void removeEntityModificationListener(EntityModificationListener listener) {
+        entityModificationListeners.remove(listener);
+    }
+
+    public void onEntityModification(Class<?> entityClass) {
+        for (EntityModificationListener listener : entityModificationListeners) {
+            listener.onEntityModification(entityClass);
+        }
+    }
+
     public ExpressionCache getExpressionCache() {
         return expressionCache;
     }
@@ -237,6 +310,28 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
         return Collections.unmodifiableMap(configuredRegisteredFunctions);
     }
 
+    @Override
+    public Map<String, CacheStatistics> getCacheStatistics() {
+        Map<String, CacheStatistics> cacheStatistics = new LinkedHashMap<>();
+        if (countCache instanceof CacheStatistics) {
+            CacheStatistics countCacheStatistics = (CacheStatistics) countCache;
+            cacheStatistics.put(countCacheStatistics.getName(), countCacheStatistics);
+        }
+        addExpressionCacheStatistics(cacheStatistics, expressionCache, ExpressionCacheStatisticsAdapter.NAME_PREFIX);
+        addExpressionCacheStatistics(cacheStatistics, subqueryExpressionCache, ExpressionCacheStatisticsAdapter.SUBQUERY_NAME_PREFIX);
+        return cacheStatistics;
+    }
+
+    private static void addExpressionCacheStatistics(Map<String, CacheStatistics> cacheStatistics, ExpressionCache<?> expressionCache, String namePrefix) {
+        if (expressionCache instanceof StatisticsAwareExpressionCache<?>) {
+            Map<String, ExpressionCacheStatistics> expressionCacheStatistics = ((StatisticsAwareExpressionCache<?>) expressionCache).getStatistics();
+            for (ExpressionCacheStatistics statistics : expressionCacheStatistics.values()) {
+                ExpressionCacheStatisticsAdapter adapter = new ExpressionCacheStatisticsAdapter(namePrefix, statistics);
+                cacheStatistics.put(adapter.getName(), adapter);
+            }
+        }
+    }
+
     @Override
     public Map<String, String> getProperties() {
         return queryConfiguration.getProperties();
@@ -364,6 +459,14 @@ public class CriteriaBuilderFactoryImpl implements CriteriaBuilderFactory {
             return (T) configuredJpaProviderFactory;
         } else if (JpaProvider.class.equals(serviceClass)) {
             return (T) jpaProvider;
+        } else if (QueryInstrumentation.class.equals(serviceClass)) {
+            return (T) queryInstrumentation;
+        } else if (CountCache.class.equals(serviceClass)) {
+            return (T) countCache;
+        } else if (AsyncQueryExecutor.class.equals(serviceClass)) {
+            return (T) asyncQueryExecutor;
+        } else if (EntityModificationListenerRegistry.class.equals(serviceClass)) {
+            return (T) this;
         } else if (ExpressionCache.class.equals(serviceClass)) {
             return (T) expressionCache;
         } else if (Metamodel.class.isAssignableFrom(serviceClass)) {
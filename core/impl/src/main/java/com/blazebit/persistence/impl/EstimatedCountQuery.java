@@ -0,0 +1,64 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.impl.query.QueryWrapper;
+import com.blazebit.persistence.spi.ExtendedQuerySupport;
+import com.blazebit.persistence.spi.QueryInstrumentation;
+import com.blazebit.persistence.spi.QueryPhase;
+import com.blazebit.persistence.spi.QueryRole;
+import com.blazebit.persistence.spi.ServiceProvider;
+
+import javax.persistence.Query;
+
+/**
+ * Determines the query planner's row count estimate for the count query of a paginated query.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+final class EstimatedCountQuery {
+
+    private final ExtendedQuerySupport extendedQuerySupport;
+    private final ServiceProvider serviceProvider;
+    private final QueryInstrumentation instrumentation;
+
+    public EstimatedCountQuery(ExtendedQuerySupport extendedQuerySupport, ServiceProvider serviceProvider, QueryInstrumentation instrumentation) {
+        this.extendedQuerySupport = extendedQuerySupport;
+        this.serviceProvider = serviceProvider;
+        this.instrumentation = instrumentation;
+    }
+
+    /**
+     * Returns the row count estimate for the given count query.
+     *
+     * @param countQuery The count query for which to estimate the counted rows
+     * @return The estimated number of rows or -1 if no estimate is available
+     */
+    public long estimate(Query countQuery) {
+        if (countQuery instanceof QueryWrapper) {
+            countQuery = ((QueryWrapper) countQuery).getDelegate();
+        }
+        if (!instrumentation.isEnabled()) {
+            return extendedQuerySupport.getRowCountEstimate(serviceProvider, countQuery);
+        }
+        long start = System.nanoTime();
+        long estimate = extendedQuerySupport.getRowCountEstimate(serviceProvider, countQuery);
+        instrumentation.onPhase(QueryPhase.EXECUTE, QueryRole.COUNT, System.nanoTime() - start, estimate == -1L ? 0 : 1);
+        return estimate;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.CacheStatistics;
+import com.blazebit.persistence.parser.expression.ExpressionCacheStatistics;
+
+/**
+ * Exposes the statistics of a named expression cache as {@link CacheStatistics}.
+ * Since expression caches are bounded by weight, the size and maximum size are reported as weights.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public class ExpressionCacheStatisticsAdapter implements CacheStatistics {
+
+    public static final String NAME_PREFIX = "expression:";
+    public static final String SUBQUERY_NAME_PREFIX = "expression:subquery:";
+
+    private final ExpressionCacheStatistics statistics;
+    private final String name;
+
+    public ExpressionCacheStatisticsAdapter(String namePrefix, ExpressionCacheStatistics statistics) {
+        this.statistics = statistics;
+        this.name = namePrefix + statistics.getCacheName();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getSize() {
+        return statistics.getWeight();
+    }
+
+    @Override
+    public long getMaximumSize() {
+        return statistics.getMaximumWeight();
+    }
+
+    @Override
+    public long getHitCount() {
+        return statistics.getHitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return statistics.getMissCount();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return statistics.getEvictionCount();
+    }
+}
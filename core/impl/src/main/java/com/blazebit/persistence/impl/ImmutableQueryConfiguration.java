@@ -45,6 +45,9 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
     private final Boolean inlineCountQuery;
     private final Boolean inlineCtes;
     private final boolean queryPlanCacheEnabled;
+    private final ParameterListPadding parameterListPadding;
+    private final boolean joinEliminationEnabled;
+    private final int asyncQueryTimeout;
 
     public ImmutableQueryConfiguration(Map<String, String> properties) {
         this.compatibleModeEnabled = PropertyUtils.getAsBooleanProperty(properties, ConfigurationProperties.COMPATIBLE_MODE, false);
@@ -66,6 +69,9 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
         this.inlineCountQuery = "auto".equalsIgnoreCase(inlineCountQuery) ? null : Boolean.parseBoolean(inlineCountQuery);
         this.inlineCtes = "auto".equalsIgnoreCase(inlineCtes) ? null : Boolean.parseBoolean(inlineCtes);
         this.queryPlanCacheEnabled =                        getBooleanProperty(properties, ConfigurationProperties.QUERY_PLAN_CACHE_ENABLED,            "true");
+        this.parameterListPadding = ParameterListPadding.parse(properties.get(ConfigurationProperties.PARAMETER_LIST_PADDING));
+        this.joinEliminationEnabled =                       getBooleanProperty(properties, ConfigurationProperties.JOIN_ELIMINATION,                    "true");
+        this.asyncQueryTimeout =                            getIntegerProperty(properties, ConfigurationProperties.ASYNC_QUERY_TIMEOUT,                 "0");
     }
 
     @Override
@@ -153,6 +159,21 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
         return queryPlanCacheEnabled;
     }
 
+    @Override
+    public ParameterListPadding getParameterListPadding() {
+        return parameterListPadding;
+    }
+
+    @Override
+    public boolean isJoinEliminationEnabled() {
+        return joinEliminationEnabled;
+    }
+
+    @Override
+    public int getAsyncQueryTimeout() {
+        return asyncQueryTimeout;
+    }
+
     @Override
     public String getProperty(String name) {
         switch (name) {
@@ -171,6 +192,9 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
             case ConfigurationProperties.INLINE_COUNT_QUERY: return inlineIdQuery == null ? "auto" : Boolean.toString(inlineIdQuery);
             case ConfigurationProperties.INLINE_CTES: return inlineCtes == null ? "auto" : Boolean.toString(inlineCtes);
             case ConfigurationProperties.QUERY_PLAN_CACHE_ENABLED: return Boolean.toString(queryPlanCacheEnabled);
+            case ConfigurationProperties.PARAMETER_LIST_PADDING: return parameterListPadding.toString();
+            case ConfigurationProperties.JOIN_ELIMINATION: return Boolean.toString(joinEliminationEnabled);
+            case ConfigurationProperties.ASYNC_QUERY_TIMEOUT: return Integer.toString(asyncQueryTimeout);
             default: return null;
         }
     }
@@ -193,6 +217,9 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
         properties.put(ConfigurationProperties.INLINE_COUNT_QUERY, getInlineCountQueryEnabled() == null ? "auto" : Boolean.toString(getInlineCountQueryEnabled()));
         properties.put(ConfigurationProperties.INLINE_CTES, getInlineCtesEnabled() == null ? "auto" : Boolean.toString(getInlineCtesEnabled()));
         properties.put(ConfigurationProperties.QUERY_PLAN_CACHE_ENABLED, Boolean.toString(queryPlanCacheEnabled));
+        properties.put(ConfigurationProperties.PARAMETER_LIST_PADDING, parameterListPadding.toString());
+        properties.put(ConfigurationProperties.JOIN_ELIMINATION, Boolean.toString(joinEliminationEnabled));
+        properties.put(ConfigurationProperties.ASYNC_QUERY_TIMEOUT, Integer.toString(asyncQueryTimeout));
         return properties;
     }
 
@@ -212,6 +239,20 @@ public class ImmutableQueryConfiguration extends AbstractQueryConfiguration {
         return Boolean.parseBoolean(getProperty(properties, propertyName, defaultValue));
     }
 
+    private int getIntegerProperty(Map<String, String> properties, String propertyName, String defaultValue) {
+        String value = getProperty(properties, propertyName, defaultValue);
+        try {
+            int intValue = Integer.parseInt(value.trim());
+            if (intValue >= 0) {
+                return intValue;
+            }
+        } catch (NumberFormatException ex) {
+            // Fall through to the exception below
+        }
+
+        throw new IllegalArgumentException("Illegal value '" + value + "' for non-negative integer property '" + propertyName + "'");
+    }
+
     private String getProperty(Map<String, String> properties, String propertyName, String defaultValue) {
         String value = properties.get(propertyName);
         if (value == null) {
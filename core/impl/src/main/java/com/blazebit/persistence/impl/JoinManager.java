@@ -403,7 +403,10 @@ public class JoinManager extends AbstractManager<ExpressionModifier> {
         if (rootAlias == null) {
             throw new IllegalArgumentException("Illegal empty alias for the VALUES clause: " + valueHolderEntityClass.getName());
         }
-        // TODO: we should pad the value count to avoid filling query caches
+        // Pad the value count to avoid filling query caches, which is only possible if the null rows are filtered out
+        if (mainQuery.getQueryConfiguration().isValuesClauseFilterNullsEnabled()) {
+            valueCount = mainQuery.getQueryConfiguration().getParameterListPadding().pad(valueCount);
+        }
         EntityType<?> entityType = mainQuery.metamodel.getEntity(valueHolderEntityClass);
         Type<?> type = mainQuery.metamodel.type(valueClass);
 
@@ -952,6 +955,27 @@ public class JoinManager extends AbstractManager<ExpressionModifier> {
         return false;
     }
 
+    /**
+     * Resolves an id access through an omittable join node like <code>alias.id</code> against the parent node, so that the foreign key is used.
+     * That way, the join node might become unused and can be omitted.
+     */
+    private JoinResult resolveForeignKeyAccess(JoinResult result) {
+        JoinNode node = result.baseNode;
+        if (!result.hasField() || !mainQuery.jpaProvider.supportsSingleValuedAssociationIdExpressions() || node.getAliasInfo().getAliasOwner() != aliasManager
+                || !node.isOmittableIfUnused() || node.getParent().isQualifiedJoin() || node.getParent().getManagedType().getPersistenceType() == Type.PersistenceType.EMBEDDABLE) {
+            return result;
+        }
+        String[] fields = (node.getParentTreeNode().getRelationName() + "." + result.joinFields()).split("\\.");
+        List<PathElementExpression> pathElements = new ArrayList<>(fields.length);
+        for (String field : fields) {
+            pathElements.add(new PropertyExpression(field));
+        }
+        if (!isSingleValuedAssociationId(node.getParent(), new PathExpression(pathElements), 0)) {
+            return result;
+        }
+        return new JoinResult(node.getParent(), new ArrayList<>(Arrays.asList(fields)), result.type, -1, -1);
+    }
+
     private boolean isJoinable(JoinResult result, Expression finalExpression) {
         if (finalExpression instanceof PropertyExpression) {
             AttributeHolder attributeForJoining = JpaUtils.getAttributeForJoining(metamodel, result.baseNode.getNodeType(), finalExpression, null);
@@ -2269,6 +2293,10 @@ public class JoinManager extends AbstractManager<ExpressionModifier> {
         if (!clauseExclusions.isEmpty() && clauseExclusions.containsAll(node.getClauseDependencies()) && (ignoreCardinality || !node.isCardinalityMandatory()) && !alwaysIncludedNodes.contains(node)) {
             return;
         }
+        // Unused joins that don't affect the cardinality can always be skipped. If another join depends on it, it is rendered through renderReverseDependency
+        if (mainQuery.getQueryConfiguration().isJoinEliminationEnabled() && isUnused(node, nodesToFetch, alwaysIncludedNodes)) {
+            return;
+        }
 
         // We have to render any dependencies this join node has before actually rendering itself
         // Non-Default join nodes are rendered in insertion order but their dependencies doesn't include the parent,
@@ -2298,6 +2326,20 @@ public class JoinManager extends AbstractManager<ExpressionModifier> {
         }
     }
 
+    private boolean isUnused(JoinNode node, Set<JoinNode> nodesToFetch, Set<JoinNode> alwaysIncludedNodes) {
+        if (!node.isOmittableIfUnused() || !node.getClauseDependencies().isEmpty() || alwaysIncludedNodes.contains(node) || nodesToFetch != null && nodesToFetch.contains(node)) {
+            return false;
+        }
+        for (JoinTreeNode treeNode : node.getNodes().values()) {
+            for (JoinNode childNode : treeNode.getJoinNodes().values()) {
+                if (!isUnused(childNode, nodesToFetch, alwaysIncludedNodes)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     private boolean isExternal(TreatExpression treatExpression) {
         Expression treatPath = treatExpression.getExpression();
         if (treatPath instanceof QualifiedExpression) {
@@ -2961,6 +3003,8 @@ public class JoinManager extends AbstractManager<ExpressionModifier> {
 
             if (fetch) {
                 fetchPath(result.baseNode);
+            } else if (mainQuery.getQueryConfiguration().isJoinEliminationEnabled()) {
+                result = resolveForeignKeyAccess(result);
             }
 
             // Don't forget to update the clause dependencies, but only for normal attribute accesses, that way paginated queries can prevent joins in certain cases
@@ -353,6 +353,18 @@ public class JoinNode implements From, ExpressionModifier, BaseNode {
         return parent != null && parent.containsNode(n, joinRelationName);
     }
 
+    /**
+     * Returns whether this join node could be omitted if no clause refers to it without changing the semantics of the query.
+     * This is the case for unrestricted left joins of single valued associations, as these never change the cardinality.
+     *
+     * @return Whether the join node can be omitted if unused
+     */
+    public boolean isOmittableIfUnused() {
+        return joinType == JoinType.LEFT && !fetch && parent != null && parentTreeNode != null && !parentTreeNode.isCollection()
+                && treatType == null && qualificationExpression == null && !lateral && inlineCte == null && correlationParent == null
+                && isEmptyCondition() && treatedJoinNodes.isEmpty() && entityJoinNodes.isEmpty();
+    }
+
     private boolean isEmptyCondition() {
         return onPredicate == null || onPredicate.getChildren().isEmpty();
     }
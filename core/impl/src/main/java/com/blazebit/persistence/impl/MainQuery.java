@@ -18,10 +18,12 @@ package com.blazebit.persistence.impl;
 
 import com.blazebit.persistence.parser.expression.AbstractCachingExpressionFactory;
 import com.blazebit.persistence.parser.expression.ExpressionFactory;
+import com.blazebit.persistence.spi.CountCache;
 import com.blazebit.persistence.spi.DbmsDialect;
 import com.blazebit.persistence.spi.JpaProvider;
 import com.blazebit.persistence.spi.JpqlFunction;
 import com.blazebit.persistence.spi.JpqlMacro;
+import com.blazebit.persistence.spi.QueryInstrumentation;
 
 import javax.persistence.EntityManager;
 import java.util.Map;
@@ -44,6 +46,8 @@ public class MainQuery {
     final Map<String, String> registeredFunctionNames;
     final ParameterManager parameterManager;
     final CTEManager cteManager;
+    final QueryInstrumentation queryInstrumentation;
+    final CountCache countCache;
 
     private final JpqlMacroStorage macroStorage;
     private QueryConfiguration queryConfiguration;
@@ -63,7 +67,10 @@ public class MainQuery {
         this.registeredFunctions = registeredFunctions;
         this.registeredFunctionNames = registeredFunctionNames;
         this.parameterManager = parameterManager;
+        parameterManager.setMainQuery(this);
         this.cteManager = new CTEManager(this);
+        this.queryInstrumentation = cbf.getQueryInstrumentation();
+        this.countCache = cbf.getCountCache();
 
         if (jpaProvider.supportsTransientEntityAsParameter()) {
             this.parameterTransformerFactory = cbf.getTransientEntityParameterTransformerFactory();
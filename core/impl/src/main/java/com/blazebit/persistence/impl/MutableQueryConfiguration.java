@@ -44,6 +44,9 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
     private Boolean inlineCountQuery;
     private Boolean inlineCtes;
     private boolean queryPlanCacheEnabled;
+    private ParameterListPadding parameterListPadding;
+    private boolean joinEliminationEnabled;
+    private int asyncQueryTimeout;
 
     public MutableQueryConfiguration(QueryConfiguration queryConfiguration) {
         this.compatibleModeEnabled = queryConfiguration.isCompatibleModeEnabled();
@@ -61,6 +64,9 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
         this.inlineIdQuery = queryConfiguration.getInlineIdQueryEnabled();
         this.inlineCountQuery = queryConfiguration.getInlineCountQueryEnabled();
         this.inlineCtes = queryConfiguration.getInlineCtesEnabled();
+        this.parameterListPadding = queryConfiguration.getParameterListPadding();
+        this.joinEliminationEnabled = queryConfiguration.isJoinEliminationEnabled();
+        this.asyncQueryTimeout = queryConfiguration.getAsyncQueryTimeout();
     }
 
     @Override
@@ -148,6 +154,21 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
         return queryPlanCacheEnabled;
     }
 
+    @Override
+    public ParameterListPadding getParameterListPadding() {
+        return parameterListPadding;
+    }
+
+    @Override
+    public boolean isJoinEliminationEnabled() {
+        return joinEliminationEnabled;
+    }
+
+    @Override
+    public int getAsyncQueryTimeout() {
+        return asyncQueryTimeout;
+    }
+
     @Override
     public void setProperties(Map<String, String> properties) {
         for (Map.Entry<String, String> entry : properties.entrySet()) {
@@ -174,6 +195,9 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
             case ConfigurationProperties.INLINE_COUNT_QUERY:                    inlineCountQuery = "auto".equalsIgnoreCase(propertyValue) ? null : booleanOrFail(propertyName, propertyValue); break;
             case ConfigurationProperties.INLINE_CTES:                           inlineCtes = "auto".equalsIgnoreCase(propertyValue) ? null : booleanOrFail(propertyName, propertyValue); break;
             case ConfigurationProperties.QUERY_PLAN_CACHE_ENABLED:              queryPlanCacheEnabled = booleanOrFail(propertyName, propertyValue); break;
+            case ConfigurationProperties.PARAMETER_LIST_PADDING:                parameterListPadding = ParameterListPadding.parse(propertyValue); break;
+            case ConfigurationProperties.JOIN_ELIMINATION:                      joinEliminationEnabled = booleanOrFail(propertyName, propertyValue); break;
+            case ConfigurationProperties.ASYNC_QUERY_TIMEOUT:                   asyncQueryTimeout = nonNegativeIntOrFail(propertyName, propertyValue); break;
             default: break;
         }
         // CHECKSTYLE:ON: OneStatementPerLine
@@ -192,4 +216,17 @@ public class MutableQueryConfiguration extends AbstractQueryConfiguration {
 
         throw new IllegalArgumentException("Illegal value '" + propertyValue + "' for boolean property '" + propertyName + "'");
     }
+
+    private int nonNegativeIntOrFail(String propertyName, String propertyValue) {
+        try {
+            int intValue = Integer.parseInt(propertyValue.trim());
+            if (intValue >= 0) {
+                return intValue;
+            }
+        } catch (RuntimeException ex) {
+            // Fall through to the exception below
+        }
+
+        throw new IllegalArgumentException("Illegal value '" + propertyValue + "' for non-negative integer property '" + propertyName + "'");
+    }
 }
@@ -27,6 +27,7 @@ import com.blazebit.persistence.MultipleSubqueryInitiator;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.PagedList;
 import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.PaginatedQueryTemplate;
 import com.blazebit.persistence.RestrictionBuilder;
 import com.blazebit.persistence.SelectObjectBuilder;
 import com.blazebit.persistence.SimpleCaseWhenStarterBuilder;
@@ -42,6 +43,8 @@ import com.blazebit.persistence.impl.function.limit.LimitFunction;
 import com.blazebit.persistence.impl.function.pageposition.PagePositionFunction;
 import com.blazebit.persistence.impl.function.querywrapper.QueryWrapperFunction;
 import com.blazebit.persistence.impl.function.rowvalue.RowValueSubqueryComparisonFunction;
+import com.blazebit.persistence.impl.keyset.KeysetLink;
+import com.blazebit.persistence.impl.keyset.KeysetManager;
 import com.blazebit.persistence.impl.keyset.KeysetMode;
 import com.blazebit.persistence.impl.keyset.KeysetPaginationHelper;
 import com.blazebit.persistence.impl.keyset.SimpleKeysetLink;
@@ -65,7 +68,13 @@ import com.blazebit.persistence.parser.predicate.EqPredicate;
 import com.blazebit.persistence.parser.predicate.InPredicate;
 import com.blazebit.persistence.parser.predicate.Predicate;
 import com.blazebit.persistence.spi.AttributeAccessor;
+import com.blazebit.persistence.spi.CountCache;
+import com.blazebit.persistence.spi.QueryInstrumentation;
+import com.blazebit.persistence.spi.QueryPhase;
+import com.blazebit.persistence.spi.QueryRole;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 import javax.persistence.Parameter;
 import javax.persistence.TypedQuery;
 import java.util.AbstractMap;
@@ -75,9 +84,18 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  *
@@ -99,6 +117,10 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
     private boolean withInlineCountQuery;
     private long maximumCount = Long.MAX_VALUE;
     private int highestOffset = 0;
+    private EntityManagerFactory concurrentCountEntityManagerFactory;
+    private Executor concurrentCountExecutor;
+    private boolean withCountCache;
+    private boolean withEstimatedCount;
     private final KeysetPage keysetPage;
     private final ResolvedExpression[] identifierExpressions;
 
@@ -124,8 +146,10 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         this.entityId = entityId;
         this.maxResults = pageSize;
         this.identifierExpressions = identifierExpressions;
+        this.withCountCache = mainQuery.countCache != null;
         if (mainQuery.getQueryConfiguration().getInlineCountQueryEnabled() == null) {
-            this.withInlineCountQuery = entityId == null && mainQuery.jpaProvider.supportsSubqueryAliasShadowing();
+            // An inlined count query can't be skipped, so we prefer a separate count query if a count cache is configured
+            this.withInlineCountQuery = !withCountCache && entityId == null && mainQuery.jpaProvider.supportsSubqueryAliasShadowing();
         } else {
             this.withInlineCountQuery = mainQuery.getQueryConfiguration().getInlineCountQueryEnabled();
         }
@@ -146,8 +170,10 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         this.entityId = null;
         this.maxResults = pageSize;
         this.identifierExpressions = identifierExpressions;
+        this.withCountCache = mainQuery.countCache != null;
         if (mainQuery.getQueryConfiguration().getInlineCountQueryEnabled() == null) {
-            this.withInlineCountQuery = mainQuery.jpaProvider.supportsSubqueryAliasShadowing();
+            // An inlined count query can't be skipped, so we prefer a separate count query if a count cache is configured
+            this.withInlineCountQuery = !withCountCache && mainQuery.jpaProvider.supportsSubqueryAliasShadowing();
         } else {
             this.withInlineCountQuery = mainQuery.getQueryConfiguration().getInlineCountQueryEnabled();
         }
@@ -156,7 +182,35 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
 
     @Override
     public <Y> PaginatedCriteriaBuilder<Y> copy(Class<Y> resultClass) {
-        FullQueryBuilder<Y, ?> criteriaBuilder = super.copy(resultClass);
+        return copy(super.copy(resultClass));
+    }
+
+    @Override
+    protected PaginatedCriteriaBuilderImpl<T> copyForAsync(EntityManager entityManager) {
+        // The entity manager is already closed if this fails
+        CriteriaBuilderImpl<T> criteriaBuilder = copyCriteriaBuilderForAsync(entityManager);
+        try {
+            return (PaginatedCriteriaBuilderImpl<T>) copy(criteriaBuilder);
+        } catch (RuntimeException | Error ex) {
+            entityManager.close();
+            throw ex;
+        }
+    }
+
+    @Override
+    public CompletionStage<PagedList<T>> getPagedResultListAsync() {
+        AsyncQueryExecutorImpl executor = cbf.getAsyncQueryExecutor();
+        EntityManager entityManager = executor.createEntityManager(mainQuery.getQueryConfiguration().getAsyncQueryTimeout());
+        final PaginatedCriteriaBuilderImpl<T> copy = copyForAsync(entityManager);
+        return executor.submit(entityManager, new Callable<PagedList<T>>() {
+            @Override
+            public PagedList<T> call() {
+                return copy.getResultList();
+            }
+        });
+    }
+
+    private <Y> PaginatedCriteriaBuilder<Y> copy(FullQueryBuilder<Y, ?> criteriaBuilder) {
         PaginatedCriteriaBuilder<Y> builder;
         if (entityId != null) {
             builder = criteriaBuilder.pageAndNavigate(entityId, maxResults);
@@ -171,6 +225,15 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         builder.withCountQuery(withCountQuery);
         builder.withForceIdQuery(withForceIdQuery);
         builder.withHighestKeysetOffset(highestOffset);
+        if (concurrentCountEntityManagerFactory != null) {
+            builder.withConcurrentCountQuery(concurrentCountEntityManagerFactory, concurrentCountExecutor);
+        }
+        if (withCountCache != builder.isWithCountCache()) {
+            builder.withCountCache(withCountCache);
+        }
+        if (withEstimatedCount) {
+            builder.withEstimatedCount(true);
+        }
         return builder;
     }
 
@@ -398,6 +461,55 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         return this;
     }
 
+    @Override
+    public PaginatedCriteriaBuilder<T> withConcurrentCountQuery(EntityManagerFactory entityManagerFactory, Executor executor) {
+        if (entityManagerFactory != null) {
+            if (executor == null) {
+                throw new IllegalArgumentException("Invalid null executor for the concurrent count query!");
+            }
+            withInlineCountQuery(false);
+        }
+        this.concurrentCountEntityManagerFactory = entityManagerFactory;
+        this.concurrentCountExecutor = entityManagerFactory == null ? null : executor;
+        return this;
+    }
+
+    @Override
+    public boolean isWithConcurrentCountQuery() {
+        return concurrentCountEntityManagerFactory != null;
+    }
+
+    @Override
+    public PaginatedCriteriaBuilder<T> withCountCache(boolean withCountCache) {
+        if (withCountCache) {
+            if (mainQuery.countCache == null) {
+                throw new IllegalStateException("Can't use the count cache because no count cache is configured for the criteria builder factory!");
+            }
+            withInlineCountQuery(false);
+        }
+        this.withCountCache = withCountCache;
+        return this;
+    }
+
+    @Override
+    public boolean isWithCountCache() {
+        return withCountCache;
+    }
+
+    @Override
+    public PaginatedCriteriaBuilder<T> withEstimatedCount(boolean withEstimatedCount) {
+        if (withEstimatedCount) {
+            withInlineCountQuery(false);
+        }
+        this.withEstimatedCount = withEstimatedCount;
+        return this;
+    }
+
+    @Override
+    public boolean isWithEstimatedCount() {
+        return withEstimatedCount;
+    }
+
     @Override
     public PaginatedCriteriaBuilder<T> setProperty(String propertyName, String propertyValue) {
         super.setProperty(propertyName, propertyValue);
@@ -495,7 +607,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         }
         QuerySpecification querySpecification = new CustomQuerySpecification(
                 this, baseQuery, parameters, parameterListNames, null, null, keyRestrictedLeftJoinAliases, entityFunctionNodes,
-                mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes, mainQuery.getQueryConfiguration().isQueryPlanCacheEnabled(), null
+                mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes, mainQuery.getQueryConfiguration().isQueryPlanCacheEnabled(), null, QueryRole.COUNT
         );
 
         CustomSQLTypedQuery<X> countQuery = new CustomSQLTypedQuery<X>(
@@ -518,12 +630,20 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
 
     @Override
     public PaginatedTypedQueryImpl<T> getQuery() {
-        prepareAndCheck();
+        QueryInstrumentation instrumentation = mainQuery.queryInstrumentation;
+        if (instrumentation.isEnabled() && needsCheck) {
+            long start = System.nanoTime();
+            prepareAndCheck();
+            // Building is reported for the paginated query as a whole, the rendering for every query part
+            instrumentation.onPhase(QueryPhase.BUILD, QueryRole.QUERY, System.nanoTime() - start, -1);
+        } else {
+            prepareAndCheck();
+        }
         // We can only use the query directly if we have no ctes, entity functions or hibernate bugs
         Set<JoinNode> keyRestrictedLeftJoins = getKeyRestrictedLeftJoins();
         boolean normalQueryMode = !isMainQuery || (!mainQuery.cteManager.hasCtes() && !joinManager.hasEntityFunctions() && keyRestrictedLeftJoins.isEmpty());
         TypedQuery<?> countQuery;
-        String countQueryString = getPageCountQueryStringWithoutCheck();
+        String countQueryString = renderQueryString(QueryRole.COUNT);
         List<JoinNode> entityFunctions = null;
         Set<JoinNode> alwaysIncludedNodes = null;
         if (!normalQueryMode) {
@@ -555,8 +675,25 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         ObjectBuilder<T> objectBuilder;
         boolean inlinedIdQuery;
         boolean inlinedCountQuery = firstResult < maximumCount && withCountQuery && withInlineCountQuery;
+        ConcurrentCountQuery concurrentCountQuery = null;
+        // The count query can only be run on a separate entity manager if it doesn't require any query customizations
+        if (concurrentCountEntityManagerFactory != null && !inlinedCountQuery && normalQueryMode && maximumCount == Long.MAX_VALUE && entityId == null) {
+            concurrentCountQuery = new ConcurrentCountQuery(concurrentCountEntityManagerFactory, concurrentCountExecutor, countQueryString, mainQuery.queryInstrumentation);
+        }
+        CountCache countCache = null;
+        // Counts are only cached when the count query string and the parameters fully determine the count
+        if (withCountCache && !inlinedCountQuery && normalQueryMode && maximumCount == Long.MAX_VALUE && entityId == null) {
+            countCache = mainQuery.countCache;
+        }
+        EstimatedCountQuery estimatedCountQuery = null;
+        // Estimates are determined by explaining the SQL of the count query which requires the extended query support
+        // The planner estimates the number of joined rows, which is only the count for a count query without DISTINCT, GROUP BY or collection joins
+        if (withEstimatedCount && !inlinedCountQuery && normalQueryMode && maximumCount == Long.MAX_VALUE && entityId == null && mainQuery.supportsAdvancedSql()
+                && !hasGroupBy && !selectManager.isDistinct() && !joinManager.hasCollections()) {
+            estimatedCountQuery = new EstimatedCountQuery(cbf.getExtendedQuerySupport(), this, mainQuery.queryInstrumentation);
+        }
         if (!isWithInlineIdQuery() && (hasCollections || withForceIdQuery)) {
-            String idQueryString = getPageIdQueryStringWithoutCheck();
+            String idQueryString = renderQueryString(QueryRole.ID);
             if (normalQueryMode) {
                 entityFunctions = Collections.emptyList();
             } else {
@@ -603,16 +740,225 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
                 keysetPage,
                 forceFirstResult,
                 inlinedIdQuery,
-                inlinedCountQuery
+                inlinedCountQuery,
+                mainQuery.queryInstrumentation,
+                concurrentCountQuery,
+                countCache,
+                mainQuery.metamodel,
+                countCache == null ? null : em.getEntityManagerFactory().getPersistenceUnitUtil(),
+                countQueryString,
+                estimatedCountQuery
         );
         return query;
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public PaginatedQueryTemplate<T> createQueryTemplate() {
+        prepareAndCheck();
+        if (isMainQuery && mainQuery.cteManager.hasCtes() || joinManager.hasEntityFunctions() || !getKeyRestrictedLeftJoins().isEmpty()) {
+            throw new IllegalStateException("Query templates are only supported for queries that can be expressed in JPQL, but the query uses CTEs, entity functions or key restricted left joins!");
+        }
+        if (maximumCount != Long.MAX_VALUE) {
+            throw new IllegalStateException("Query templates are not supported for paginated queries with a bounded count!");
+        }
+        if (withEstimatedCount) {
+            throw new IllegalStateException("Query templates are not supported for paginated queries with an estimated count!");
+        }
+        QueryTemplateObjectBuilderFactory<T> objectBuilderFactory = getQueryTemplateObjectBuilderFactory();
+
+        String countQueryString = getPageCountQueryStringWithoutCheck();
+        QueryTemplateImpl<?> countTemplate = createQueryTemplatePart(countQueryString, entityId == null ? Long.class : Object[].class, null);
+        boolean inlinedCountQuery = firstResult < maximumCount && withCountQuery && withInlineCountQuery;
+        PaginatedQueryTemplateImpl.PageQueries<T> queries = createPageQueryTemplates(inlinedCountQuery);
+        PaginatedQueryTemplateImpl.PageQueries<T> offsetQueries = null;
+        Keyset keyset = null;
+        if (keysetMode == KeysetMode.NONE || keysetManager.getKeysetLink().getKeyset().getTuple() == null) {
+            if (entityId == null && !forceFirstResult) {
+                offsetQueries = queries;
+            }
+        } else {
+            keyset = keysetManager.getKeysetLink().getKeyset();
+            if (entityId == null && !forceFirstResult) {
+                // Render the queries without keyset predicate as well, for pages that can't use the keyset of this builder
+                KeysetLink keysetLink = keysetManager.getKeysetLink();
+                KeysetMode keysetMode = this.keysetMode;
+                this.keysetMode = KeysetMode.NONE;
+                keysetManager.setKeysetLink(null);
+                prepareForModification(ClauseType.WHERE);
+                try {
+                    prepareAndCheck();
+                    offsetQueries = createPageQueryTemplates(inlinedCountQuery);
+                } finally {
+                    this.keysetMode = keysetMode;
+                    keysetManager.setKeysetLink(keysetLink);
+                    prepareForModification(ClauseType.WHERE);
+                }
+            }
+        }
+
+        PaginatedQueryTemplateImpl.Settings<T> settings = new PaginatedQueryTemplateImpl.Settings<>();
+        settings.objectBuilderFactory = objectBuilderFactory;
+        settings.parameters = parameterManager.getParameterImpls();
+        settings.criteriaNameMapping = parameterManager.getCriteriaNameMapping();
+        settings.keysetExtraction = keysetExtraction;
+        settings.unwrapKeysetResult = selectManager.getExpectedQueryResultType() != Object[].class;
+        settings.withExtractAllKeysets = withExtractAllKeysets;
+        settings.withCount = firstResult < maximumCount && withCountQuery;
+        settings.highestOffset = highestOffset;
+        settings.entityId = entityId;
+        settings.firstResult = firstResult;
+        settings.maxResults = maxResults;
+        settings.identifierCount = getIdentifierExpressionsToUse().length;
+        settings.needsNewIdList = needsNewIdList;
+        settings.keysetToSelectIndexMapping = keysetToSelectIndexMapping == null ? null : keysetToSelectIndexMapping.clone();
+        settings.keysetMode = keysetMode;
+        settings.keysetPage = keysetPage;
+        settings.keyset = keyset;
+        if (keyset != null) {
+            int positionalOffset = parameterManager.getPositionalOffset();
+            String[] keysetParameterNames = new String[keyset.getTuple().length];
+            for (int i = 0; i < keysetParameterNames.length; i++) {
+                keysetParameterNames[i] = KeysetManager.getKeysetParameterName(i, positionalOffset);
+            }
+            settings.keysetParameterNames = keysetParameterNames;
+        }
+        settings.forceFirstResult = forceFirstResult;
+        settings.inlinedCountQuery = inlinedCountQuery;
+        settings.instrumentation = mainQuery.queryInstrumentation;
+        if (concurrentCountEntityManagerFactory != null && !inlinedCountQuery && entityId == null) {
+            settings.concurrentCountQuery = new ConcurrentCountQuery(concurrentCountEntityManagerFactory, concurrentCountExecutor, countQueryString, mainQuery.queryInstrumentation);
+        }
+        if (withCountCache && !inlinedCountQuery && entityId == null) {
+            settings.countCache = mainQuery.countCache;
+            settings.metamodel = mainQuery.metamodel;
+        }
+        return new PaginatedQueryTemplateImpl<>(countTemplate, queries, offsetQueries, settings);
+    }
+
+    @SuppressWarnings("unchecked")
+    private PaginatedQueryTemplateImpl.PageQueries<T> createPageQueryTemplates(boolean inlinedCountQuery) {
+        if (!isWithInlineIdQuery() && (hasCollections || withForceIdQuery)) {
+            QueryTemplateImpl<?> idTemplate = createQueryTemplatePart(getPageIdQueryStringWithoutCheck(), Object[].class, null);
+            String skippedParameterPrefix = getIdentifierExpressionsToUse().length == 1 ? ID_PARAM_NAME : ID_PARAM_NAME + "_";
+            QueryTemplateImpl<T> objectTemplate = createQueryTemplatePart(getBaseQueryString(null, null), (Class<T>) selectManager.getExpectedQueryResultType(), skippedParameterPrefix);
+            return new PaginatedQueryTemplateImpl.PageQueries<>(idTemplate, objectTemplate, false);
+        } else {
+            Class<?> expectedResultType;
+            // When the keyset is included the query obviously produces an array
+            if (keysetExtraction || inlinedCountQuery) {
+                expectedResultType = Object[].class;
+            } else {
+                expectedResultType = selectManager.getExpectedQueryResultType();
+            }
+            QueryTemplateImpl<T> objectTemplate = createQueryTemplatePart(getBaseQueryString(null, null), (Class<T>) expectedResultType, null);
+            return new PaginatedQueryTemplateImpl.PageQueries<>(null, objectTemplate, isWithInlineIdQuery() && (hasCollections || withForceIdQuery));
+        }
+    }
+
+    private <X> QueryTemplateImpl<X> createQueryTemplatePart(String queryString, Class<X> resultType, String skippedParameterPrefix) {
+        // Create the query once to validate it and to determine which parameters actually are part of the query string
+        TypedQuery<X> query = em.createQuery(queryString, resultType);
+        return new QueryTemplateImpl<>(
+                queryString,
+                resultType,
+                0,
+                Integer.MAX_VALUE,
+                isCacheable() ? mainQuery.jpaProvider : null,
+                query.getParameters(),
+                parameterManager.getParameterImpls(),
+                null,
+                null,
+                skippedParameterPrefix
+        );
+    }
+
     @Override
     public PagedList<T> getResultList() {
         return getQuery().getResultList();
     }
 
+    @Override
+    public Stream<T> getPagedResultStream() {
+        if (entityId != null) {
+            throw new IllegalStateException("Streaming pages is not supported for queries that navigate to the page of an entity!");
+        }
+        // The pages are fetched through a copy so that this builder is never modified, even if the stream is abandoned or fails
+        PaginatedCriteriaBuilderImpl<T> builder = (PaginatedCriteriaBuilderImpl<T>) copy(copyCriteriaBuilderWithObjectBuilder(getEntityManager()));
+        builder.withKeysetExtraction(true);
+        builder.withCountQuery(false);
+        builder.withHighestKeysetOffset(0);
+        boolean detachResults = builder.selectManager.getSelectObjectBuilder() == null && mainQuery.metamodel.getEntity(resultType) != null;
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new PageIterator<>(builder, detachResults), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Fetches page after page by applying the highest keyset of the previous page to a copy of the paginated criteria builder.
+     * If the results are entities, the entities of the previous page are detached before the next page is fetched
+     * so that the persistence context doesn't grow with every page.
+     *
+     * @param <T> The result type
+     * @author Christian Beikov
+     * @since 1.6.7
+     */
+    private static final class PageIterator<T> implements Iterator<T> {
+
+        private final PaginatedCriteriaBuilderImpl<T> builder;
+        private final boolean detachResults;
+        private PagedList<T> page;
+        private Iterator<T> pageIterator;
+        private boolean lastPage;
+
+        private PageIterator(PaginatedCriteriaBuilderImpl<T> builder, boolean detachResults) {
+            this.builder = builder;
+            this.detachResults = detachResults;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (pageIterator == null || !pageIterator.hasNext()) {
+                if (lastPage) {
+                    page = null;
+                    pageIterator = null;
+                    return false;
+                }
+                fetchPage();
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return pageIterator.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        private void fetchPage() {
+            if (detachResults && page != null) {
+                EntityManager em = builder.getEntityManager();
+                for (T entity : page) {
+                    em.detach(entity);
+                }
+            }
+            page = builder.getResultList();
+            pageIterator = page.iterator();
+            if (page.size() < builder.getMaxResults() || page.getKeysetPage() == null || page.getKeysetPage().getHighest() == null) {
+                lastPage = true;
+            } else {
+                // The keyset predicate replaces the offset, so we must reset the first result before applying the keyset
+                builder.setFirstResult(0);
+                builder.afterKeyset(page.getKeysetPage().getHighest());
+            }
+        }
+    }
+
     @Override
     public String getCountQueryString() {
         return getPageCountQueryString();
@@ -636,6 +982,27 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         return getExternalPageCountQueryString();
     }
 
+    private String renderQueryString(QueryRole role) {
+        QueryInstrumentation instrumentation = mainQuery.queryInstrumentation;
+        long start = instrumentation.isEnabled() ? System.nanoTime() : 0L;
+        String queryString;
+        switch (role) {
+            case COUNT:
+                queryString = getPageCountQueryStringWithoutCheck();
+                break;
+            case ID:
+                queryString = getPageIdQueryStringWithoutCheck();
+                break;
+            default:
+                queryString = getBaseQueryString(null, null);
+                break;
+        }
+        if (instrumentation.isEnabled()) {
+            instrumentation.onPhase(QueryPhase.RENDER, role, System.nanoTime() - start, -1);
+        }
+        return queryString;
+    }
+
     private String getPageCountQueryStringWithoutCheck() {
         if (cachedCountQueryString == null) {
             cachedCountQueryString = buildPageCountQueryString(false, false, maximumCount);
@@ -900,7 +1267,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
 
     @SuppressWarnings("unchecked")
     private Map.Entry<TypedQuery<T>, ObjectBuilder<T>> getObjectQuery(boolean normalQueryMode, Set<JoinNode> keyRestrictedLeftJoins, List<JoinNode> entityFunctions) {
-        String queryString = getBaseQueryString(null, null);
+        String queryString = renderQueryString(QueryRole.OBJECT);
         Class<?> expectedResultType;
 
         // When the keyset is included the query obviously produces an array
@@ -963,7 +1330,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
             }
             QuerySpecification querySpecification = new CustomQuerySpecification(
                     this, baseQuery, parameters, parameterListNames, null, null, keyRestrictedLeftJoinAliases, entityFunctionNodes,
-                    mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes, mainQuery.getQueryConfiguration().isQueryPlanCacheEnabled(), null
+                    mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes, mainQuery.getQueryConfiguration().isQueryPlanCacheEnabled(), null, QueryRole.OBJECT
             );
 
             query = new CustomSQLTypedQuery<T>(
@@ -1000,7 +1367,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         }
 
         if (transformerObjectBuilder != null) {
-            query = new ObjectBuilderTypedQuery<>(query, query instanceof AbstractCustomQuery<?> ? null : parameterManager.getCriteriaNameMapping(), transformerObjectBuilder);
+            query = new ObjectBuilderTypedQuery<>(query, query instanceof AbstractCustomQuery<?> ? null : parameterManager.getCriteriaNameMapping(), transformerObjectBuilder, mainQuery.queryInstrumentation, QueryRole.OBJECT);
         } else if (parameterManager.getCriteriaNameMapping() != null) {
             if (!(query instanceof CustomSQLTypedQuery<?>)) {
                 query = new TypedQueryWrapper<>(query, parameterManager.getCriteriaNameMapping());
@@ -1034,7 +1401,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         List<CTENode> ctes = shouldRenderCteNodes ? getCteNodes(false) : Collections.EMPTY_LIST;
         QuerySpecification querySpecification = new CustomQuerySpecification(
                 this, baseQuery, parameterManager.getParameterImpls(), parameterListNames, null, null, keyRestrictedLeftJoinAliases, entityFunctionNodes,
-                mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes, mainQuery.getQueryConfiguration().isQueryPlanCacheEnabled(), null
+                mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes, mainQuery.getQueryConfiguration().isQueryPlanCacheEnabled(), null, QueryRole.ID
         );
 
         CustomSQLTypedQuery<Object[]> idQuery = new CustomSQLTypedQuery<Object[]>(
@@ -1060,15 +1427,15 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         ResolvedExpression[] identifierExpressionsToUse = getIdentifierExpressionsToUse();
         String skippedParameterPrefix = identifierExpressionsToUse.length == 1 ? ID_PARAM_NAME : ID_PARAM_NAME + "_";
         if (normalQueryMode && isEmpty(keyRestrictedLeftJoins, OBJECT_QUERY_CLAUSE_EXCLUSIONS)) {
-            TypedQuery<T> query = (TypedQuery<T>) em.createQuery(getBaseQueryString(null, null), selectManager.getExpectedQueryResultType());
+            TypedQuery<T> query = (TypedQuery<T>) em.createQuery(renderQueryString(QueryRole.OBJECT), selectManager.getExpectedQueryResultType());
             if (isCacheable()) {
                 mainQuery.jpaProvider.setCacheable(query);
             }
             parameterManager.parameterizeQuery(query, skippedParameterPrefix);
-            return applyObjectBuilder(query);
+            return applyObjectBuilder(query, QueryRole.OBJECT);
         }
 
-        TypedQuery<T> baseQuery = (TypedQuery<T>) em.createQuery(getBaseQueryString(null, null), selectManager.getExpectedQueryResultType());
+        TypedQuery<T> baseQuery = (TypedQuery<T>) em.createQuery(renderQueryString(QueryRole.OBJECT), selectManager.getExpectedQueryResultType());
         Set<String> parameterListNames = parameterManager.getParameterListNames(baseQuery, ID_PARAM_NAME);
 
         if (identifierExpressionsToUse.length == 1) {
@@ -1088,7 +1455,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
         }
         QuerySpecification querySpecification = new CustomQuerySpecification(
                 this, baseQuery, parameters, parameterListNames, null, null, keyRestrictedLeftJoinAliases, entityFunctionNodes,
-                mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes, mainQuery.getQueryConfiguration().isQueryPlanCacheEnabled(), null
+                mainQuery.cteManager.isRecursive(), ctes, shouldRenderCteNodes, mainQuery.getQueryConfiguration().isQueryPlanCacheEnabled(), null, QueryRole.OBJECT
         );
 
         TypedQuery<T> query = new CustomSQLTypedQuery<T>(
@@ -1102,7 +1469,7 @@ public class PaginatedCriteriaBuilderImpl<T> extends AbstractFullQueryBuilder<T,
 
         parameterManager.parameterizeQuery(query, skippedParameterPrefix);
 
-        return applyObjectBuilder(query);
+        return applyObjectBuilder(query, QueryRole.OBJECT);
     }
 
     @Override
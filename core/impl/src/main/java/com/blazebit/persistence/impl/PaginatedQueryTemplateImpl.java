@@ -0,0 +1,342 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.Keyset;
+import com.blazebit.persistence.KeysetPage;
+import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.PaginatedQueryTemplate;
+import com.blazebit.persistence.PaginatedTypedQuery;
+import com.blazebit.persistence.impl.builder.object.CountExtractionObjectBuilder;
+import com.blazebit.persistence.impl.builder.object.DelegatingKeysetExtractionObjectBuilder;
+import com.blazebit.persistence.impl.builder.object.KeysetExtractionObjectBuilder;
+import com.blazebit.persistence.impl.keyset.KeysetMode;
+import com.blazebit.persistence.impl.keyset.KeysetPaginationHelper;
+import com.blazebit.persistence.impl.query.ObjectBuilderTypedQuery;
+import com.blazebit.persistence.impl.query.TypedQueryWrapper;
+import com.blazebit.persistence.parser.EntityMetamodel;
+import com.blazebit.persistence.spi.CountCache;
+import com.blazebit.persistence.spi.QueryInstrumentation;
+import com.blazebit.persistence.spi.QueryRole;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.ParameterExpression;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable snapshot of the count, id and object queries that were rendered by a paginated criteria builder.
+ * The stateful keyset and count extraction object builders are created for every query, so the template can be shared between threads.
+ *
+ * The id and object queries are rendered for the page of the builder and, if the builder used a keyset, once more without keyset predicate for offset pagination.
+ * A keyset passed to {@link #createQuery(EntityManager, Map, KeysetPage, int, int)} only uses the keyset queries if it results in the same keyset mode
+ * and has <code>null</code> elements at the same positions as the keyset of the builder. Otherwise the page is fetched with offset pagination.
+ *
+ * @param <T> The query result type
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public final class PaginatedQueryTemplateImpl<T> implements PaginatedQueryTemplate<T> {
+
+    private final QueryTemplateImpl<?> countTemplate;
+    private final PageQueries<T> queries;
+    private final PageQueries<T> offsetQueries;
+    private final Settings<T> settings;
+    private final Set<String> parameterNames;
+    private final Set<String> keysetParameterNames;
+    private final List<ParameterManager.ParameterImpl<?>> parameterDescriptors;
+    private final Map<ParameterExpression<?>, String> criteriaNameMapping;
+    private final boolean[] keysetNullElements;
+
+    PaginatedQueryTemplateImpl(QueryTemplateImpl<?> countTemplate, PageQueries<T> queries, PageQueries<T> offsetQueries, Settings<T> settings) {
+        this.countTemplate = countTemplate;
+        this.queries = queries;
+        this.offsetQueries = offsetQueries;
+        this.settings = settings;
+        this.criteriaNameMapping = settings.criteriaNameMapping == null ? null : Collections.unmodifiableMap(new HashMap<>(settings.criteriaNameMapping));
+
+        Set<String> keysetParameterNames = new LinkedHashSet<>();
+        if (settings.keyset == null) {
+            this.keysetNullElements = null;
+        } else {
+            Serializable[] key = settings.keyset.getTuple();
+            boolean[] keysetNullElements = new boolean[key.length];
+            for (int i = 0; i < key.length; i++) {
+                keysetNullElements[i] = key[i] == null;
+                keysetParameterNames.add(settings.keysetParameterNames[i]);
+            }
+            this.keysetNullElements = keysetNullElements;
+        }
+        this.keysetParameterNames = Collections.unmodifiableSet(keysetParameterNames);
+
+        Set<String> parameterNames = new LinkedHashSet<>(countTemplate.getParameterNames());
+        addParameterNames(parameterNames, queries);
+        addParameterNames(parameterNames, offsetQueries);
+        // The keyset parameters are bound from the keyset page, so they can't be bound by name
+        parameterNames.removeAll(keysetParameterNames);
+        this.parameterNames = Collections.unmodifiableSet(parameterNames);
+
+        // The paginated query only needs the parameter descriptors, so we must not retain the mutable parameters of the builder
+        List<ParameterManager.ParameterImpl<?>> parameterDescriptors = new ArrayList<>(settings.parameters.size());
+        for (ParameterManager.ParameterImpl<?> parameter : settings.parameters) {
+            parameterDescriptors.add(copyDescriptor(parameter));
+        }
+        this.parameterDescriptors = Collections.unmodifiableList(parameterDescriptors);
+    }
+
+    private static void addParameterNames(Set<String> parameterNames, PageQueries<?> queries) {
+        if (queries != null) {
+            if (queries.idTemplate != null) {
+                parameterNames.addAll(queries.idTemplate.getParameterNames());
+            }
+            parameterNames.addAll(queries.objectTemplate.getParameterNames());
+        }
+    }
+
+    private static <X> ParameterManager.ParameterImpl<X> copyDescriptor(ParameterManager.ParameterImpl<X> parameter) {
+        ParameterManager.ParameterImpl<X> descriptor;
+        if (parameter.getName() == null) {
+            descriptor = new ParameterManager.ParameterImpl<>(parameter.getPosition(), parameter.isCollectionValued(), parameter.isImplicit(), null, null);
+        } else {
+            descriptor = new ParameterManager.ParameterImpl<>(parameter.getName(), parameter.isCollectionValued(), parameter.isImplicit(), null, null);
+        }
+        if (parameter.getCriteriaParameter() == null) {
+            descriptor.setParameterType(parameter.getParameterType());
+        } else {
+            descriptor.setCriteriaParameter(parameter.getCriteriaParameter());
+        }
+        return descriptor;
+    }
+
+    @Override
+    public String getQueryString() {
+        return queries.objectTemplate.getQueryString();
+    }
+
+    @Override
+    public Set<String> getParameterNames() {
+        return parameterNames;
+    }
+
+    @Override
+    public PaginatedTypedQuery<T> createQuery(EntityManager entityManager) {
+        return createQuery(entityManager, Collections.<String, Object>emptyMap());
+    }
+
+    @Override
+    public PaginatedTypedQuery<T> createQuery(EntityManager entityManager, Map<String, Object> parameterValues) {
+        checkParameterNames(parameterValues);
+        return createQuery(entityManager, parameterValues, queries, settings.keysetMode, settings.keysetPage, settings.firstResult, settings.maxResults);
+    }
+
+    @Override
+    public PaginatedTypedQuery<T> createQuery(EntityManager entityManager, Map<String, Object> parameterValues, int firstResult, int maxResults) {
+        return createQuery(entityManager, parameterValues, null, firstResult, maxResults);
+    }
+
+    @Override
+    public PaginatedTypedQuery<T> createQuery(EntityManager entityManager, Map<String, Object> parameterValues, KeysetPage keysetPage, int firstResult, int maxResults) {
+        if (offsetQueries == null) {
+            throw new IllegalStateException("The page of a template can't be changed if the template was created for a query that navigates to the page of an entity or uses an explicit keyset!");
+        }
+        if (firstResult < 0) {
+            throw new IllegalArgumentException("firstResult may not be negative");
+        }
+        if (maxResults <= 0) {
+            throw new IllegalArgumentException("maxResults may not be zero or negative");
+        }
+        checkParameterNames(parameterValues);
+
+        KeysetMode keysetMode = KeysetPaginationHelper.getKeysetMode(keysetPage, null, firstResult, maxResults);
+        if (keysetMode != KeysetMode.NONE && settings.keyset != null && keysetMode == settings.keysetMode) {
+            Keyset keyset = keysetMode == KeysetMode.NEXT ? keysetPage.getHighest() : keysetPage.getLowest();
+            Serializable[] key = keyset.getTuple();
+            if (hasKeysetStructure(key)) {
+                Map<String, Object> values = new HashMap<>(parameterValues);
+                for (int i = 0; i < key.length; i++) {
+                    values.put(settings.keysetParameterNames[i], key[i]);
+                }
+                return createQuery(entityManager, values, queries, keysetMode, keysetPage, firstResult, maxResults);
+            }
+        }
+        // Keysets that don't fit the rendered keyset predicate are handled like for a builder whose keyset can't be used
+        return createQuery(entityManager, parameterValues, offsetQueries, KeysetMode.NONE, keysetPage, firstResult, maxResults);
+    }
+
+    private boolean hasKeysetStructure(Serializable[] key) {
+        if (key.length != keysetNullElements.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            // Null elements are rendered as IS NULL predicates, so the null elements must match the keyset of the template
+            if ((key[i] == null) != keysetNullElements[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void checkParameterNames(Map<String, Object> parameterValues) {
+        for (String parameterName : parameterValues.keySet()) {
+            if (!parameterNames.contains(parameterName)) {
+                if (keysetParameterNames.contains(parameterName)) {
+                    throw new IllegalArgumentException(String.format("Parameter \"%s\" is a keyset parameter and can only be bound through a keyset page", parameterName));
+                }
+                if (countTemplate.getLiteralParameterNames().contains(parameterName) || isLiteralParameter(queries, parameterName) || isLiteralParameter(offsetQueries, parameterName)) {
+                    throw new IllegalArgumentException(String.format("Parameter \"%s\" was rendered as literal into the query and can't be bound", parameterName));
+                }
+                throw new IllegalArgumentException(String.format("Parameter name \"%s\" does not exist", parameterName));
+            }
+        }
+    }
+
+    private static boolean isLiteralParameter(PageQueries<?> queries, String parameterName) {
+        return queries != null && (queries.objectTemplate.getLiteralParameterNames().contains(parameterName)
+                || queries.idTemplate != null && queries.idTemplate.getLiteralParameterNames().contains(parameterName));
+    }
+
+    @SuppressWarnings("unchecked")
+    private PaginatedTypedQuery<T> createQuery(EntityManager entityManager, Map<String, Object> parameterValues, PageQueries<T> pageQueries, KeysetMode keysetMode, KeysetPage keysetPage, int firstResult, int maxResults) {
+        TypedQuery<?> countQuery = wrap(countTemplate.createPlainQuery(entityManager, parameterValues));
+        TypedQuery<?> idQuery = null;
+        if (pageQueries.idTemplate != null) {
+            idQuery = wrap(pageQueries.idTemplate.createPlainQuery(entityManager, parameterValues));
+        }
+        TypedQuery<T> objectQuery = pageQueries.objectTemplate.createPlainQuery(entityManager, parameterValues);
+
+        // The extraction object builders are stateful, so every query needs fresh instances
+        ObjectBuilder<T> extractionObjectBuilder = null;
+        ObjectBuilder<T> transformerObjectBuilder = settings.objectBuilderFactory == null ? null : settings.objectBuilderFactory.apply(entityManager);
+        if (pageQueries.idTemplate == null) {
+            if (settings.keysetExtraction) {
+                if (transformerObjectBuilder == null) {
+                    extractionObjectBuilder = new KeysetExtractionObjectBuilder<T>(settings.keysetToSelectIndexMapping, keysetMode, maxResults, settings.highestOffset, settings.unwrapKeysetResult, settings.withExtractAllKeysets, settings.inlinedCountQuery);
+                } else {
+                    extractionObjectBuilder = new DelegatingKeysetExtractionObjectBuilder<T>(transformerObjectBuilder, settings.keysetToSelectIndexMapping, keysetMode, maxResults, settings.highestOffset, settings.withExtractAllKeysets, settings.inlinedCountQuery);
+                }
+                transformerObjectBuilder = extractionObjectBuilder;
+            } else if (settings.inlinedCountQuery && transformerObjectBuilder != null) {
+                transformerObjectBuilder = extractionObjectBuilder = new CountExtractionObjectBuilder<>(transformerObjectBuilder);
+            }
+        }
+
+        if (transformerObjectBuilder != null) {
+            objectQuery = new ObjectBuilderTypedQuery<>(objectQuery, criteriaNameMapping, transformerObjectBuilder, settings.instrumentation, QueryRole.OBJECT);
+        } else {
+            objectQuery = wrap(objectQuery);
+        }
+
+        return new PaginatedTypedQueryImpl<>(
+                settings.withExtractAllKeysets,
+                settings.withCount,
+                false,
+                settings.highestOffset,
+                countQuery,
+                idQuery,
+                objectQuery,
+                extractionObjectBuilder,
+                parameterDescriptors,
+                criteriaNameMapping,
+                settings.entityId,
+                firstResult,
+                maxResults,
+                settings.identifierCount,
+                settings.needsNewIdList,
+                settings.keysetToSelectIndexMapping,
+                keysetMode,
+                keysetPage,
+                settings.forceFirstResult,
+                pageQueries.inlinedIdQuery,
+                settings.inlinedCountQuery,
+                settings.instrumentation,
+                settings.concurrentCountQuery,
+                settings.countCache,
+                settings.metamodel,
+                settings.countCache == null ? null : entityManager.getEntityManagerFactory().getPersistenceUnitUtil(),
+                countTemplate.getQueryString(),
+                null
+        );
+    }
+
+    private <X> TypedQuery<X> wrap(TypedQuery<X> query) {
+        return criteriaNameMapping == null ? query : new TypedQueryWrapper<>(query, criteriaNameMapping);
+    }
+
+    /**
+     * The id and object query templates for one keyset mode.
+     *
+     * @param <T> The query result type
+     * @author Christian Beikov
+     * @since 1.6.7
+     */
+    static final class PageQueries<T> {
+
+        private final QueryTemplateImpl<?> idTemplate;
+        private final QueryTemplateImpl<T> objectTemplate;
+        private final boolean inlinedIdQuery;
+
+        PageQueries(QueryTemplateImpl<?> idTemplate, QueryTemplateImpl<T> objectTemplate, boolean inlinedIdQuery) {
+            this.idTemplate = idTemplate;
+            this.objectTemplate = objectTemplate;
+            this.inlinedIdQuery = inlinedIdQuery;
+        }
+    }
+
+    /**
+     * The pagination state of the criteria builder at the time the template was created.
+     * A new instance is populated for every template and must not be modified after passing it to the template.
+     *
+     * @param <T> The query result type
+     * @author Christian Beikov
+     * @since 1.6.7
+     */
+    static final class Settings<T> {
+
+        QueryTemplateObjectBuilderFactory<T> objectBuilderFactory;
+        Collection<ParameterManager.ParameterImpl<?>> parameters;
+        Map<ParameterExpression<?>, String> criteriaNameMapping;
+        boolean keysetExtraction;
+        boolean unwrapKeysetResult;
+        boolean withExtractAllKeysets;
+        boolean withCount;
+        int highestOffset;
+        Object entityId;
+        int firstResult;
+        int maxResults;
+        int identifierCount;
+        boolean needsNewIdList;
+        int[] keysetToSelectIndexMapping;
+        KeysetMode keysetMode;
+        KeysetPage keysetPage;
+        Keyset keyset;
+        String[] keysetParameterNames;
+        boolean forceFirstResult;
+        boolean inlinedCountQuery;
+        QueryInstrumentation instrumentation;
+        ConcurrentCountQuery concurrentCountQuery;
+        CountCache countCache;
+        EntityMetamodel metamodel;
+    }
+}
@@ -26,7 +26,13 @@ import com.blazebit.persistence.impl.builder.object.KeysetExtractionObjectBuilde
 import com.blazebit.persistence.impl.keyset.KeysetMode;
 import com.blazebit.persistence.DefaultKeysetPage;
 import com.blazebit.persistence.impl.keyset.KeysetPaginationHelper;
+import com.blazebit.persistence.impl.query.ObjectBuilderTypedQuery;
 import com.blazebit.persistence.impl.util.SetView;
+import com.blazebit.persistence.parser.EntityMetamodel;
+import com.blazebit.persistence.spi.CountCache;
+import com.blazebit.persistence.spi.QueryInstrumentation;
+import com.blazebit.persistence.spi.QueryPhase;
+import com.blazebit.persistence.spi.QueryRole;
 
 import javax.persistence.FlushModeType;
 import javax.persistence.LockModeType;
@@ -34,6 +40,7 @@ import javax.persistence.NoResultException;
 import javax.persistence.NonUniqueResultException;
 import javax.persistence.Parameter;
 import javax.persistence.PersistenceException;
+import javax.persistence.PersistenceUnitUtil;
 import javax.persistence.Query;
 import javax.persistence.TemporalType;
 import javax.persistence.TypedQuery;
@@ -50,6 +57,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Future;
 
 /**
  * @author Christian Beikov
@@ -67,6 +75,8 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
     private final ObjectBuilder<X> objectBuilder;
     private final Map<String, Parameter<?>> parameters;
     private final Map<String, ParameterLocation> parameterToQuery;
+    // The temporal types of parameters so that the concurrent count query can bind them the same way
+    private final Map<String, TemporalType> temporalTypes;
     private final Map<ParameterExpression<?>, String> criteriaNameMapping;
     private final Object entityId;
     private int firstResult;
@@ -81,9 +91,19 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
     private final boolean forceFirstResult;
     private final boolean inlinedIdQuery;
     private final boolean inlinedCountQuery;
+    private final QueryInstrumentation instrumentation;
+    private final ConcurrentCountQuery concurrentCountQuery;
+    private final CountCache countCache;
+    // Only needed to create the keys for the count cache
+    private final EntityMetamodel metamodel;
+    private final PersistenceUnitUtil persistenceUnitUtil;
+    private final Map<String, Object> parameterValues;
+    private final String countQueryString;
+    private final EstimatedCountQuery estimatedCountQuery;
 
     public PaginatedTypedQueryImpl(boolean withExtractAllKeysets, boolean withCount, boolean boundedCount, int highestOffset, TypedQuery<?> countQuery, TypedQuery<?> idQuery, TypedQuery<X> objectQuery, ObjectBuilder<X> objectBuilder, Collection<ParameterManager.ParameterImpl<?>> parameters, Map<ParameterExpression<?>, String> criteriaNameMapping,
-                                   Object entityId, int firstResult, int pageSize, int identifierCount, boolean needsNewIdList, int[] keysetToSelectIndexMapping, KeysetMode keysetMode, KeysetPage keysetPage, boolean forceFirstResult, boolean inlinedIdQuery, boolean inlinedCountQuery) {
+                                   Object entityId, int firstResult, int pageSize, int identifierCount, boolean needsNewIdList, int[] keysetToSelectIndexMapping, KeysetMode keysetMode, KeysetPage keysetPage, boolean forceFirstResult, boolean inlinedIdQuery, boolean inlinedCountQuery, QueryInstrumentation instrumentation,
+                                   ConcurrentCountQuery concurrentCountQuery, CountCache countCache, EntityMetamodel metamodel, PersistenceUnitUtil persistenceUnitUtil, String countQueryString, EstimatedCountQuery estimatedCountQuery) {
         this.withExtractAllKeysets = withExtractAllKeysets;
         this.withCount = withCount;
         this.boundedCount = boundedCount;
@@ -93,6 +113,7 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
         this.objectQuery = objectQuery;
         this.objectBuilder = objectBuilder;
         this.parameterToQuery = new HashMap<>(parameters.size());
+        this.temporalTypes = new HashMap<>();
         this.entityId = entityId;
         this.firstResult = firstResult;
         this.pageSize = pageSize;
@@ -104,6 +125,14 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
         this.forceFirstResult = forceFirstResult;
         this.inlinedIdQuery = inlinedIdQuery;
         this.inlinedCountQuery = inlinedCountQuery;
+        this.instrumentation = instrumentation;
+        this.concurrentCountQuery = concurrentCountQuery;
+        this.countCache = countCache;
+        this.metamodel = metamodel;
+        this.persistenceUnitUtil = persistenceUnitUtil;
+        this.parameterValues = countCache == null ? null : new HashMap<String, Object>(parameters.size());
+        this.countQueryString = countQueryString;
+        this.estimatedCountQuery = estimatedCountQuery;
         this.criteriaNameMapping = criteriaNameMapping;
 
         Map<String, Parameter<?>> params = new HashMap<>(parameters.size());
@@ -117,6 +146,12 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
             } else {
                 params.put(name, parameter.getCriteriaParameter());
             }
+            if (parameter.getTemporalType() != null) {
+                temporalTypes.put(name, parameter.getTemporalType());
+            }
+            if (parameterValues != null && parameter.isValueSet()) {
+                parameterValues.put(name, parameter.getValue());
+            }
         }
 
         this.parameters = Collections.unmodifiableMap(params);
@@ -174,16 +209,54 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
         return name;
     }
 
+    private Object getCountResult() {
+        if (!instrumentation.isEnabled()) {
+            return countQuery.getSingleResult();
+        }
+        long start = System.nanoTime();
+        Object result = countQuery.getSingleResult();
+        instrumentation.onPhase(QueryPhase.EXECUTE, QueryRole.COUNT, System.nanoTime() - start, 1);
+        return result;
+    }
+
+    private List<?> getIdResultList() {
+        if (!instrumentation.isEnabled()) {
+            return idQuery.getResultList();
+        }
+        long start = System.nanoTime();
+        List<?> resultList = idQuery.getResultList();
+        instrumentation.onPhase(QueryPhase.EXECUTE, QueryRole.ID, System.nanoTime() - start, resultList.size());
+        return resultList;
+    }
+
+    private List<X> getObjectResultList() {
+        // Object builder queries report the execution themselves
+        if (!instrumentation.isEnabled() || objectQuery instanceof ObjectBuilderTypedQuery<?>) {
+            return objectQuery.getResultList();
+        }
+        long start = System.nanoTime();
+        List<X> resultList = objectQuery.getResultList();
+        instrumentation.onPhase(QueryPhase.EXECUTE, QueryRole.OBJECT, System.nanoTime() - start, resultList.size());
+        return resultList;
+    }
+
     @Override
     public long getTotalCount() {
-        return ((Number) countQuery.getSingleResult()).longValue();
+        return ((Number) getCountResult()).longValue();
+    }
+
+    private long getTotalCount(Future<Long> countFuture) {
+        if (countFuture == null) {
+            return getTotalCount();
+        }
+        return ConcurrentCountQuery.await(countFuture);
     }
 
     @Override
     public List<X> getPageResultList() {
         int queryFirstResult = firstResult;
         int firstRow = firstResult;
-        return getResultList(queryFirstResult, firstRow, -1L);
+        return getResultList(queryFirstResult, firstRow, -1L, false, null);
     }
 
     @Override
@@ -192,11 +265,41 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
         int queryFirstResult = firstResult;
         int firstRow = firstResult;
         long totalSize = -1L;
+        boolean totalSizeEstimated = false;
         if (withCount && !inlinedCountQuery) {
-            if (entityId == null) {
-                totalSize = ((Number) countQuery.getSingleResult()).longValue();
+            CountCacheKey countCacheKey = null;
+            Long cachedCount = null;
+            if (countCache != null) {
+                countCacheKey = CountCacheKey.of(countQueryString, countQuery, parameterValues, metamodel, persistenceUnitUtil);
+                cachedCount = countCache.get(countCacheKey);
+            }
+            long estimatedCount;
+            if (cachedCount != null) {
+                totalSize = cachedCount;
+            } else if (estimatedCountQuery != null && (estimatedCount = estimatedCountQuery.estimate(countQuery)) != -1L) {
+                totalSize = estimatedCount;
+                totalSizeEstimated = true;
+            } else if (concurrentCountQuery != null) {
+                Future<Long> countFuture = concurrentCountQuery.execute(countQuery, temporalTypes);
+                PagedList<X> pagedList;
+                try {
+                    pagedList = getResultList(queryFirstResult, firstRow, totalSize, false, countFuture);
+                } finally {
+                    // Only has an effect if fetching the page failed
+                    countFuture.cancel(true);
+                }
+                if (countCacheKey != null && countFuture.isDone() && !countFuture.isCancelled()) {
+                    // The total size of the paged list might be derived from the page, so we cache the result of the count query
+                    countCache.put(countCacheKey, ConcurrentCountQuery.await(countFuture));
+                }
+                return pagedList;
+            } else if (entityId == null) {
+                totalSize = ((Number) getCountResult()).longValue();
+                if (countCacheKey != null) {
+                    countCache.put(countCacheKey, totalSize);
+                }
             } else {
-                Object[] result = (Object[]) countQuery.getSingleResult();
+                Object[] result = (Object[]) getCountResult();
                 totalSize = ((Number) result[0]).longValue();
 
                 if (result[1] == null) {
@@ -211,14 +314,15 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
             }
         }
 
-        if (totalSize == 0L) {
+        // An estimate of zero rows might be wrong, so we only skip fetching the page for exact counts
+        if (totalSize == 0L && !totalSizeEstimated) {
             return new PagedArrayList<X>(null, totalSize, queryFirstResult, pageSize);
         }
 
-        return getResultList(queryFirstResult, firstRow, totalSize);
+        return getResultList(queryFirstResult, firstRow, totalSize, totalSizeEstimated, null);
     }
 
-    private PagedList<X> getResultList(int queryFirstResult, int firstRow, long totalSize) {
+    private PagedList<X> getResultList(int queryFirstResult, int firstRow, long totalSize, boolean totalSizeEstimated, Future<Long> countFuture) {
         if (idQuery != null) {
             idQuery.setMaxResults(pageSize);
 
@@ -228,7 +332,7 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                 idQuery.setFirstResult(0);
             }
 
-            List<?> ids = idQuery.getResultList();
+            List<?> ids = getIdResultList();
 
             if (ids.isEmpty()) {
                 KeysetPage newKeysetPage = null;
@@ -238,7 +342,7 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                 }
                 long size;
                 if (withCount && totalSize == -1) {
-                    size = getTotalCount();
+                    size = getTotalCount(countFuture);
                 } else {
                     size = totalSize;
                 }
@@ -249,7 +353,12 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                         size = Math.max(size, firstRow);
                     }
                 }
-                return new PagedArrayList<X>(newKeysetPage, size, queryFirstResult, pageSize);
+                if (totalSizeEstimated && firstRow == 0 && (forceFirstResult || keysetMode == KeysetMode.NONE)) {
+                    // An empty first page means there are no rows at all
+                    size = 0L;
+                    totalSizeEstimated = false;
+                }
+                return new PagedArrayList<X>(newKeysetPage, size, totalSizeEstimated, queryFirstResult, pageSize);
             }
 
             Serializable[] lowest = null;
@@ -384,10 +493,18 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                 newKeyset = new DefaultKeysetPage(firstRow, pageSize, lowest, highest, keysets);
             }
 
+            List<X> queryResultList = getObjectResultList();
+            if (countFuture != null) {
+                totalSize = ConcurrentCountQuery.await(countFuture);
+            }
             totalSize = Math.max(totalSize, firstRow + ids.size());
-            List<X> queryResultList = objectQuery.getResultList();
+            if (totalSizeEstimated && ids.size() < pageSize && (forceFirstResult || keysetMode == KeysetMode.NONE)) {
+                // The last page determines the exact count
+                totalSize = firstRow + ids.size();
+                totalSizeEstimated = false;
+            }
 
-            PagedList<X> pagedResultList = new PagedArrayList<X>(queryResultList, newKeyset, totalSize, queryFirstResult, pageSize);
+            PagedList<X> pagedResultList = new PagedArrayList<X>(queryResultList, newKeyset, totalSize, totalSizeEstimated, queryFirstResult, pageSize);
             return pagedResultList;
         } else {
             if (!inlinedIdQuery) {
@@ -400,7 +517,7 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                 }
             }
 
-            List<X> result = objectQuery.getResultList();
+            List<X> result = getObjectResultList();
 
             if (result.isEmpty()) {
                 KeysetPage newKeysetPage = null;
@@ -413,7 +530,7 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                     if (inlinedCountQuery && firstRow == 0) {
                         totalSize = 0L;
                     } else if (withCount) {
-                        totalSize = getTotalCount();
+                        totalSize = getTotalCount(countFuture);
                     }
                 }
                 if (boundedCount) {
@@ -423,8 +540,13 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                         totalSize = Math.max(totalSize, firstRow);
                     }
                 }
+                if (totalSizeEstimated && firstRow == 0 && (forceFirstResult || keysetMode == KeysetMode.NONE)) {
+                    // An empty first page means there are no rows at all
+                    totalSize = 0L;
+                    totalSizeEstimated = false;
+                }
 
-                return new PagedArrayList<X>(newKeysetPage, totalSize, queryFirstResult, pageSize);
+                return new PagedArrayList<X>(newKeysetPage, totalSize, totalSizeEstimated, queryFirstResult, pageSize);
             }
 
             if (keysetMode == KeysetMode.PREVIOUS) {
@@ -463,9 +585,17 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
                 }
             }
 
+            if (countFuture != null) {
+                totalSize = ConcurrentCountQuery.await(countFuture);
+            }
             totalSize = Math.max(totalSize, firstRow + result.size());
+            if (totalSizeEstimated && result.size() < pageSize && (forceFirstResult || keysetMode == KeysetMode.NONE)) {
+                // The last page determines the exact count
+                totalSize = firstRow + result.size();
+                totalSizeEstimated = false;
+            }
 
-            PagedList<X> pagedResultList = new PagedArrayList<X>(result, newKeyset, totalSize, queryFirstResult, pageSize);
+            PagedList<X> pagedResultList = new PagedArrayList<X>(result, newKeyset, totalSize, totalSizeEstimated, queryFirstResult, pageSize);
             return pagedResultList;
         }
     }
@@ -528,6 +658,10 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
     @Override
     public <T> TypedQuery<X> setParameter(Parameter<T> param, T value) {
         String name = getParameterName(param);
+        temporalTypes.remove(name == null ? Integer.toString(param.getPosition()) : name);
+        if (parameterValues != null) {
+            parameterValues.put(name == null ? Integer.toString(param.getPosition()) : name, value);
+        }
         if (name == null) {
             List<Query> queries = parameterToQuery.get(Integer.toString(param.getPosition())).getQueries(countQuery, idQuery, objectQuery);
             for (Query query : queries) {
@@ -550,6 +684,10 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
     @Override
     public TypedQuery<X> setParameter(Parameter<Calendar> param, Calendar value, TemporalType temporalType) {
         String name = getParameterName(param);
+        temporalTypes.put(name == null ? Integer.toString(param.getPosition()) : name, temporalType);
+        if (parameterValues != null) {
+            parameterValues.put(name == null ? Integer.toString(param.getPosition()) : name, value);
+        }
         if (name == null) {
             List<Query> queries = parameterToQuery.get(Integer.toString(param.getPosition())).getQueries(countQuery, idQuery, objectQuery);
             for (Query query : queries) {
@@ -572,6 +710,10 @@ public class PaginatedTypedQueryImpl<X> implements PaginatedTypedQuery<X> {
     @Override
     public TypedQuery<X> setParameter(Parameter<Date> param, Date value, TemporalType temporalType) {
         String name = getParameterName(param);
+        temporalTypes.put(name == null ? Integer.toString(param.getPosition()) : name, temporalType);
+        if (parameterValues != null) {
+            parameterValues.put(name == null ? Integer.toString(param.getPosition()) : name, value);
+        }
         if (name == null) {
             List<Query> queries = parameterToQuery.get(Integer.toString(param.getPosition())).getQueries(countQuery, idQuery, objectQuery);
             for (Query query : queries) {
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Rounds up the size of parameter lists so that the amount of distinct query strings stays small.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ * @see ConfigurationProperties#PARAMETER_LIST_PADDING
+ */
+public final class ParameterListPadding {
+
+    public static final ParameterListPadding NONE = new ParameterListPadding("none", null);
+    public static final ParameterListPadding POWER_OF_TWO = new ParameterListPadding("power_of_two", null);
+
+    private final String value;
+    private final int[] buckets;
+
+    private ParameterListPadding(String value, int[] buckets) {
+        this.value = value;
+        this.buckets = buckets;
+    }
+
+    /**
+     * Parses the padding configuration which is either <code>none</code>, <code>power_of_two</code> or a comma separated list of bucket sizes.
+     *
+     * @param value The configuration value
+     * @return The parameter list padding
+     */
+    public static ParameterListPadding parse(String value) {
+        if (value == null || value.trim().isEmpty() || NONE.value.equalsIgnoreCase(value.trim())) {
+            return NONE;
+        } else if (POWER_OF_TWO.value.equalsIgnoreCase(value.trim())) {
+            return POWER_OF_TWO;
+        }
+        String[] parts = value.split(",");
+        int[] buckets = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            try {
+                buckets[i] = Integer.parseInt(parts[i].trim());
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Illegal value '" + value + "' for property '" + ConfigurationProperties.PARAMETER_LIST_PADDING + "'. Expected none, power_of_two or a comma separated list of positive integers!", ex);
+            }
+            if (buckets[i] < 1) {
+                throw new IllegalArgumentException("Illegal value '" + value + "' for property '" + ConfigurationProperties.PARAMETER_LIST_PADDING + "'. Expected none, power_of_two or a comma separated list of positive integers!");
+            }
+        }
+        Arrays.sort(buckets);
+        return new ParameterListPadding(value.trim(), buckets);
+    }
+
+    public boolean isEnabled() {
+        return this != NONE;
+    }
+
+    /**
+     * Returns the padded size for the given size. Sizes beyond the largest bucket are rounded up to a multiple of the largest bucket.
+     *
+     * @param size The size
+     * @return The padded size
+     */
+    public int pad(int size) {
+        if (size <= 1 || this == NONE) {
+            return size;
+        } else if (buckets == null) {
+            int highestOneBit = Integer.highestOneBit(size);
+            return highestOneBit == size ? size : highestOneBit << 1;
+        }
+        for (int i = 0; i < buckets.length; i++) {
+            if (size <= buckets[i]) {
+                return buckets[i];
+            }
+        }
+        int largestBucket = buckets[buckets.length - 1];
+        return ((size + largestBucket - 1) / largestBucket) * largestBucket;
+    }
+
+    /**
+     * Returns the given collection padded to the padded size by repeating the last element, or the collection itself if no padding is necessary.
+     *
+     * @param collection The collection to pad
+     * @return The padded collection
+     */
+    public Collection<?> pad(Collection<?> collection) {
+        int size = collection.size();
+        int paddedSize = pad(size);
+        if (paddedSize == size) {
+            return collection;
+        }
+        List<Object> list = new ArrayList<>(paddedSize);
+        list.addAll(collection);
+        Object lastElement = list.get(size - 1);
+        for (int i = size; i < paddedSize; i++) {
+            list.add(lastElement);
+        }
+        return list;
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
@@ -72,6 +72,7 @@ public class ParameterManager {
     private final ParameterUnregistrationVisitor parameterUnregistrationVisitor;
     private Map<javax.persistence.criteria.ParameterExpression<?>, String> criteriaNameMapping;
     private int positionalOffset = -1; // Records the last positional parameter index that was used
+    private MainQuery mainQuery;
 
     public ParameterManager(JpaProvider jpaProvider, EntityMetamodel entityMetamodel) {
         this.jpaProvider = jpaProvider;
@@ -80,6 +81,10 @@ public class ParameterManager {
         this.parameterUnregistrationVisitor = new ParameterUnregistrationVisitor(this);
     }
 
+    void setMainQuery(MainQuery mainQuery) {
+        this.mainQuery = mainQuery;
+    }
+
     public ParameterRegistrationVisitor getParameterRegistrationVisitor() {
         return parameterRegistrationVisitor;
     }
@@ -215,6 +220,7 @@ public class ParameterManager {
 
     void parameterizeQuery(Query q, String skippedParameterPrefix) {
         Set<String> requestedValueParameters = new HashSet<String>();
+        ParameterListPadding parameterListPadding = mainQuery == null ? ParameterListPadding.NONE : mainQuery.getQueryConfiguration().getParameterListPadding();
         for (Parameter<?> p : q.getParameters()) {
             String parameterName = p.getName();
             // In case of positional parameters, we convert the position to a string and look it up instead
@@ -244,6 +250,9 @@ public class ParameterManager {
                 if (parameter.getValue() != null) {
                     q.setParameter(parameterName, parameter.getValue());
                 }
+            } else if (parameterListPadding.isEnabled() && parameter.isCollectionValued() && parameter.getValue() instanceof Collection<?>) {
+                // Single valued parameters may have collection values for collection typed basic attributes which must not change
+                parameter.bind(q, parameterListPadding.pad((Collection<?>) parameter.getValue()));
             } else {
                 parameter.bind(q);
             }
@@ -658,6 +667,15 @@ public class ParameterManager {
             return null;
         }
 
+        public TemporalType getTemporalType() {
+            if (value instanceof TemporalDateParameterWrapper) {
+                return ((TemporalDateParameterWrapper) value).type;
+            } else if (value instanceof TemporalCalendarParameterWrapper) {
+                return ((TemporalCalendarParameterWrapper) value).type;
+            }
+            return null;
+        }
+
         public boolean isImplicit() {
             return implicit;
         }
@@ -724,6 +742,14 @@ public class ParameterManager {
             }
         }
 
+        public void bind(Query q, Object value) {
+            if (name == null) {
+                q.setParameter(position, value);
+            } else {
+                q.setParameter(name, value);
+            }
+        }
+
         public void bind(Query q) {
             if (valueSet) {
                 if (value instanceof ParameterValue) {
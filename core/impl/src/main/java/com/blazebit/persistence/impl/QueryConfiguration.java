@@ -66,4 +66,10 @@ public interface QueryConfiguration {
     public boolean isCacheable();
 
     public boolean isQueryPlanCacheEnabled();
+
+    public ParameterListPadding getParameterListPadding();
+
+    public boolean isJoinEliminationEnabled();
+
+    public int getAsyncQueryTimeout();
 }
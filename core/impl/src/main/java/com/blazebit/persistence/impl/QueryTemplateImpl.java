@@ -0,0 +1,245 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.QueryTemplate;
+import com.blazebit.persistence.impl.query.ObjectBuilderTypedQuery;
+import com.blazebit.persistence.impl.query.TypedQueryWrapper;
+import com.blazebit.persistence.spi.JpaProvider;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Parameter;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.ParameterExpression;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable snapshot of a JPQL query that was rendered by a criteria builder.
+ * All state is copied when the template is created, so the template can be shared between threads.
+ *
+ * @param <T> The query result type
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public final class QueryTemplateImpl<T> implements QueryTemplate<T> {
+
+    private final String queryString;
+    private final Class<T> resultType;
+    private final int firstResult;
+    private final int maxResults;
+    private final JpaProvider cacheableJpaProvider;
+    private final Map<String, TemplateParameter> parameters;
+    private final Set<String> literalParameterNames;
+    private final Map<ParameterExpression<?>, String> criteriaNameMapping;
+    private final QueryTemplateObjectBuilderFactory<T> objectBuilderFactory;
+
+    QueryTemplateImpl(String queryString, Class<T> resultType, int firstResult, int maxResults, JpaProvider cacheableJpaProvider, Set<Parameter<?>> queryParameters,
+                      Collection<ParameterManager.ParameterImpl<?>> parameterImpls, Map<ParameterExpression<?>, String> criteriaNameMapping, QueryTemplateObjectBuilderFactory<T> objectBuilderFactory) {
+        this(queryString, resultType, firstResult, maxResults, cacheableJpaProvider, queryParameters, parameterImpls, criteriaNameMapping, objectBuilderFactory, null);
+    }
+
+    QueryTemplateImpl(String queryString, Class<T> resultType, int firstResult, int maxResults, JpaProvider cacheableJpaProvider, Set<Parameter<?>> queryParameters,
+                      Collection<ParameterManager.ParameterImpl<?>> parameterImpls, Map<ParameterExpression<?>, String> criteriaNameMapping, QueryTemplateObjectBuilderFactory<T> objectBuilderFactory,
+                      String skippedParameterPrefix) {
+        this.queryString = queryString;
+        this.resultType = resultType;
+        this.firstResult = firstResult;
+        this.maxResults = maxResults;
+        this.cacheableJpaProvider = cacheableJpaProvider;
+        this.criteriaNameMapping = criteriaNameMapping == null ? null : Collections.unmodifiableMap(new HashMap<>(criteriaNameMapping));
+        this.objectBuilderFactory = objectBuilderFactory;
+
+        Map<String, ParameterManager.ParameterImpl<?>> parameterImplMap = new HashMap<>(parameterImpls.size());
+        for (ParameterManager.ParameterImpl<?> parameter : parameterImpls) {
+            parameterImplMap.put(parameter.getName() == null ? parameter.getPosition().toString() : parameter.getName(), parameter);
+        }
+
+        Map<String, TemplateParameter> parameters = new LinkedHashMap<>(queryParameters.size());
+        for (Parameter<?> queryParameter : queryParameters) {
+            String parameterName = queryParameter.getName() == null ? queryParameter.getPosition().toString() : queryParameter.getName();
+            // Skipped parameters are bound by the caller of createPlainQuery e.g. the ids of the object query of a paginated query
+            if (skippedParameterPrefix != null && parameterName.startsWith(skippedParameterPrefix)) {
+                continue;
+            }
+            ParameterManager.ParameterImpl<?> parameter = parameterImplMap.remove(parameterName);
+            if (parameter == null) {
+                throw new IllegalArgumentException(String.format("Parameter name \"%s\" does not exist", parameterName));
+            }
+            parameters.put(parameterName, new TemplateParameter(parameter));
+        }
+        this.parameters = Collections.unmodifiableMap(parameters);
+        // The remaining parameters were rendered as literals into the query string and can't be changed anymore
+        this.literalParameterNames = Collections.unmodifiableSet(parameterImplMap.keySet());
+    }
+
+    @Override
+    public String getQueryString() {
+        return queryString;
+    }
+
+    @Override
+    public Set<String> getParameterNames() {
+        return parameters.keySet();
+    }
+
+    @Override
+    public TypedQuery<T> createQuery(EntityManager entityManager) {
+        return createQuery(entityManager, Collections.<String, Object>emptyMap());
+    }
+
+    @Override
+    public TypedQuery<T> createQuery(EntityManager entityManager, Map<String, Object> parameterValues) {
+        for (String parameterName : parameterValues.keySet()) {
+            if (!parameters.containsKey(parameterName)) {
+                if (literalParameterNames.contains(parameterName)) {
+                    throw new IllegalArgumentException(String.format("Parameter \"%s\" was rendered as literal into the query and can't be bound", parameterName));
+                }
+                throw new IllegalArgumentException(String.format("Parameter name \"%s\" does not exist", parameterName));
+            }
+        }
+
+        TypedQuery<T> query = createPlainQuery(entityManager, parameterValues);
+        if (objectBuilderFactory != null) {
+            return new ObjectBuilderTypedQuery<>(query, criteriaNameMapping, objectBuilderFactory.apply(entityManager));
+        } else if (criteriaNameMapping != null) {
+            return new TypedQueryWrapper<>(query, criteriaNameMapping);
+        } else {
+            return query;
+        }
+    }
+
+    Set<String> getLiteralParameterNames() {
+        return literalParameterNames;
+    }
+
+    /**
+     * Creates a query for the given entity manager without wrapping it and binds the values for the parameters of this template.
+     * Values for parameters that aren't part of this template are ignored.
+     *
+     * @param entityManager The entity manager to use for the query
+     * @param parameterValues The parameter values to bind
+     * @return A new query
+     */
+    TypedQuery<T> createPlainQuery(EntityManager entityManager, Map<String, Object> parameterValues) {
+        TypedQuery<T> query = entityManager.createQuery(queryString, resultType);
+        if (firstResult != 0) {
+            query.setFirstResult(firstResult);
+        }
+        if (maxResults != Integer.MAX_VALUE) {
+            query.setMaxResults(maxResults);
+        }
+        if (cacheableJpaProvider != null) {
+            cacheableJpaProvider.setCacheable(query);
+        }
+
+        for (Map.Entry<String, TemplateParameter> entry : parameters.entrySet()) {
+            TemplateParameter parameter = entry.getValue();
+            if (parameterValues.containsKey(entry.getKey())) {
+                parameter.bind(query, parameterValues.get(entry.getKey()));
+            } else {
+                parameter.bindDefault(query);
+            }
+        }
+        return query;
+    }
+
+    /**
+     * A frozen copy of a parameter of the criteria builder.
+     *
+     * @author Christian Beikov
+     * @since 1.6.7
+     */
+    private static final class TemplateParameter {
+
+        private final String name;
+        private final Integer position;
+        private final ParameterValueTransformer transformer;
+        private final boolean valueSet;
+        private final Object value;
+
+        public TemplateParameter(ParameterManager.ParameterImpl<?> parameter) {
+            this.name = parameter.getName();
+            this.position = parameter.getPosition();
+            this.transformer = parameter.getTransformer();
+            this.valueSet = parameter.isValueSet();
+            ParameterManager.ParameterValue parameterValue = parameter.getParameterValue();
+            if (parameterValue == null) {
+                Object value = parameter.getValue();
+                if (value instanceof Collection<?>) {
+                    value = Collections.unmodifiableList(new ArrayList<>((Collection<?>) value));
+                }
+                this.value = value;
+            } else {
+                this.value = parameterValue.copy();
+            }
+        }
+
+        public void bindDefault(Query query) {
+            if (valueSet) {
+                bindValue(query, value);
+            }
+        }
+
+        public void bind(Query query, Object value) {
+            if (transformer != null) {
+                value = transform(value);
+            }
+            if (this.value instanceof ParameterManager.ParameterValue) {
+                // Temporal parameters keep their temporal type, but we must not modify the shared wrapper
+                value = ((ParameterManager.ParameterValue) this.value).copy().withValue(value);
+            }
+            bindValue(query, value);
+        }
+
+        private void bindValue(Query query, Object value) {
+            if (value instanceof ParameterManager.ParameterValue) {
+                if (name == null) {
+                    ((ParameterManager.ParameterValue) value).bind(query, position);
+                } else {
+                    ((ParameterManager.ParameterValue) value).bind(query, name);
+                }
+            } else {
+                if (name == null) {
+                    query.setParameter(position, value);
+                } else {
+                    query.setParameter(name, value);
+                }
+            }
+        }
+
+        private Object transform(Object value) {
+            if (value instanceof Collection<?>) {
+                Collection<?> values = (Collection<?>) value;
+                List<Object> list = new ArrayList<>(values.size());
+                for (Object o : values) {
+                    list.add(transformer.transform(o));
+                }
+                return list;
+            } else {
+                return transformer.transform(value);
+            }
+        }
+    }
+}
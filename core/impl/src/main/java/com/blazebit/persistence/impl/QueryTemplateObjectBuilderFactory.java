@@ -0,0 +1,104 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl;
+
+import com.blazebit.persistence.ObjectBuilder;
+
+import javax.persistence.EntityManager;
+import java.util.function.Function;
+
+/**
+ * Provides the object builder for a query that is created from a query template for an entity manager.
+ *
+ * @param <T> The query result type
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+abstract class QueryTemplateObjectBuilderFactory<T> implements Function<EntityManager, ObjectBuilder<T>> {
+
+    /**
+     * Returns a factory that always returns the given thread-safe object builder.
+     *
+     * @param objectBuilder The object builder to share
+     * @param <T> The query result type
+     * @return The factory
+     */
+    static <T> QueryTemplateObjectBuilderFactory<T> shared(ObjectBuilder<T> objectBuilder) {
+        return new Shared<>(objectBuilder);
+    }
+
+    /**
+     * Returns a factory that creates a new object builder for every query by copying the given query builder for the entity manager of the query.
+     * The query builder must be a copy that isn't exposed, so it is never modified after the template was created.
+     *
+     * @param snapshot The copy of the query builder that defines the select clause
+     * @param <T> The query result type
+     * @return The factory
+     */
+    static <T> QueryTemplateObjectBuilderFactory<T> copying(AbstractFullQueryBuilder<T, ?, ?, ?, ?> snapshot) {
+        return new Copying<>(snapshot);
+    }
+
+    /**
+     * A factory for object builders that are stateless and don't depend on the entity manager.
+     *
+     * @param <T> The query result type
+     * @author Christian Beikov
+     * @since 1.6.7
+     */
+    private static final class Shared<T> extends QueryTemplateObjectBuilderFactory<T> {
+
+        private final ObjectBuilder<T> objectBuilder;
+
+        private Shared(ObjectBuilder<T> objectBuilder) {
+            this.objectBuilder = objectBuilder;
+        }
+
+        @Override
+        public ObjectBuilder<T> apply(EntityManager entityManager) {
+            return objectBuilder;
+        }
+    }
+
+    /**
+     * A factory for object builders like the one of an entity view that may be stateful or execute further queries,
+     * e.g. for correlated attributes, through the criteria builder to which they are applied.
+     * Every query gets the object builder of a new copy of the snapshot that is bound to the entity manager of the query.
+     *
+     * @param <T> The query result type
+     * @author Christian Beikov
+     * @since 1.6.7
+     */
+    private static final class Copying<T> extends QueryTemplateObjectBuilderFactory<T> {
+
+        private final AbstractFullQueryBuilder<T, ?, ?, ?, ?> snapshot;
+
+        private Copying(AbstractFullQueryBuilder<T, ?, ?, ?, ?> snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public ObjectBuilder<T> apply(EntityManager entityManager) {
+            CriteriaBuilderImpl<T> copy;
+            // Copying reads the state of the snapshot which isn't thread-safe, even if it is never modified
+            synchronized (snapshot) {
+                copy = snapshot.copyCriteriaBuilderWithObjectBuilder(entityManager);
+            }
+            return copy.selectManager.getSelectObjectBuilder();
+        }
+    }
+}
@@ -17,7 +17,9 @@
 package com.blazebit.persistence.impl;
 
 import com.blazebit.persistence.CaseWhenStarterBuilder;
+import com.blazebit.persistence.CopyableObjectBuilder;
 import com.blazebit.persistence.FullQueryBuilder;
+import com.blazebit.persistence.GroupingObjectBuilder;
 import com.blazebit.persistence.MultipleSubqueryInitiator;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.SelectObjectBuilder;
@@ -33,6 +35,7 @@ import com.blazebit.persistence.impl.builder.expression.SuperExpressionSubqueryB
 import com.blazebit.persistence.impl.builder.object.ClassObjectBuilder;
 import com.blazebit.persistence.impl.builder.object.ConstructorObjectBuilder;
 import com.blazebit.persistence.impl.builder.object.DelegatingTupleObjectBuilder;
+import com.blazebit.persistence.impl.builder.object.GroupingPreProcessingObjectBuilder;
 import com.blazebit.persistence.impl.builder.object.MultisetTransformingObjectBuilder;
 import com.blazebit.persistence.impl.builder.object.PreProcessingObjectBuilder;
 import com.blazebit.persistence.impl.builder.object.SelectObjectBuilderImpl;
@@ -146,11 +149,72 @@ public class SelectManager<T> extends AbstractManager<SelectInfo> {
                 }
             }
         } else if (!jpqlFunctionProcessors.isEmpty()) {
-            builder = new PreProcessingObjectBuilder<>(new MultisetTransformingObjectBuilder(jpqlFunctionProcessors, selectInfos), builder);
+            if (builder instanceof GroupingObjectBuilder<?>) {
+                builder = new GroupingPreProcessingObjectBuilder<>(new MultisetTransformingObjectBuilder(jpqlFunctionProcessors, selectInfos), (GroupingObjectBuilder<T>) builder);
+            } else {
+                builder = new PreProcessingObjectBuilder<>(new MultisetTransformingObjectBuilder(jpqlFunctionProcessors, selectInfos), builder);
+            }
         }
         return builder;
     }
 
+    /**
+     * Returns an object builder that can be used concurrently and is independent of later changes to the select clause,
+     * or <code>null</code> if the object builder of the select clause can't be used that way.
+     *
+     * @return The object builder for a query template or <code>null</code>
+     */
+    ObjectBuilder<T> getQueryTemplateObjectBuilder() {
+        if (!jpqlFunctionProcessors.isEmpty()) {
+            return null;
+        }
+        if (objectBuilder == null) {
+            if (resultClazz.equals(Tuple.class)) {
+                return (ObjectBuilder<T>) new TupleObjectBuilder(selectInfos, new HashMap<>(selectAliasToPositionMap));
+            }
+            return null;
+        }
+        if (objectBuilder instanceof ClassObjectBuilder<?> || objectBuilder instanceof ConstructorObjectBuilder<?>) {
+            return objectBuilder;
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether the object builder of the select clause is stateless so that it can also be used by a copy of the query builder.
+     *
+     * @return Whether the object builder can be shared
+     */
+    boolean isObjectBuilderSharable() {
+        return objectBuilder == null || objectBuilder instanceof ClassObjectBuilder<?> || objectBuilder instanceof ConstructorObjectBuilder<?>;
+    }
+
+    /**
+     * Returns whether a copy of the query builder gets an object builder that is equivalent to the one of the select clause,
+     * either because the object builder is shared or because it is a {@link CopyableObjectBuilder}.
+     *
+     * @return Whether the object builder can be applied to a copy of the query builder
+     */
+    boolean isObjectBuilderCopyable() {
+        return isObjectBuilderSharable() || objectBuilder instanceof CopyableObjectBuilder<?>;
+    }
+
+    /**
+     * Applies the object builder of the given select manager to this select manager of a copied query builder.
+     * A {@link CopyableObjectBuilder} is copied for the given query builder, other object builders are shared.
+     *
+     * @param selectManager The select manager of the original query builder
+     * @param queryBuilder The copied query builder to which this select manager belongs
+     */
+    @SuppressWarnings("unchecked")
+    void applyObjectBuilderFrom(SelectManager<?> selectManager, FullQueryBuilder<?, ?> queryBuilder) {
+        if (selectManager.objectBuilder instanceof CopyableObjectBuilder<?>) {
+            this.objectBuilder = ((CopyableObjectBuilder<T>) selectManager.objectBuilder).copy(queryBuilder);
+        } else {
+            this.objectBuilder = (ObjectBuilder<T>) selectManager.objectBuilder;
+        }
+    }
+
     public List<SelectInfo> getSelectInfos() {
         return selectInfos;
     }
@@ -19,6 +19,8 @@ package com.blazebit.persistence.impl.builder.object;
 import java.lang.reflect.Constructor;
 import java.util.List;
 
+import com.blazebit.persistence.CopyableObjectBuilder;
+import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.SelectBuilder;
 
@@ -27,7 +29,7 @@ import com.blazebit.persistence.SelectBuilder;
  * @author Moritz Becker
  * @since 1.0.0
  */
-public class ClassObjectBuilder<T> implements ObjectBuilder<T> {
+public class ClassObjectBuilder<T> implements CopyableObjectBuilder<T> {
 
     private final Class<T> clazz;
     private Constructor<T> constructor;
@@ -85,4 +87,9 @@ public class ClassObjectBuilder<T> implements ObjectBuilder<T> {
     public <X extends SelectBuilder<X>> void applySelects(X queryBuilder) {
     }
 
+    @Override
+    public ObjectBuilder<T> copy(FullQueryBuilder<?, ?> queryBuilder) {
+        return new ClassObjectBuilder<T>(clazz);
+    }
+
 }
@@ -19,6 +19,8 @@ package com.blazebit.persistence.impl.builder.object;
 import java.lang.reflect.Constructor;
 import java.util.List;
 
+import com.blazebit.persistence.CopyableObjectBuilder;
+import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.SelectBuilder;
 
@@ -27,7 +29,7 @@ import com.blazebit.persistence.SelectBuilder;
  * @author Moritz Becker
  * @since 1.0.0
  */
-public class ConstructorObjectBuilder<T> implements ObjectBuilder<T> {
+public class ConstructorObjectBuilder<T> implements CopyableObjectBuilder<T> {
 
     private final Constructor<T> constructor;
 
@@ -57,4 +59,9 @@ public class ConstructorObjectBuilder<T> implements ObjectBuilder<T> {
     public <X extends SelectBuilder<X>> void applySelects(X queryBuilder) {
     }
 
+    @Override
+    public ObjectBuilder<T> copy(FullQueryBuilder<?, ?> queryBuilder) {
+        return new ConstructorObjectBuilder<T>(constructor);
+    }
+
 }
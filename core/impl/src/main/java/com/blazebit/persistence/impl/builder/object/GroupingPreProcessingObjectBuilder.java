@@ -0,0 +1,40 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.builder.object;
+
+import com.blazebit.persistence.GroupingObjectBuilder;
+import com.blazebit.persistence.ObjectBuilder;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public class GroupingPreProcessingObjectBuilder<T> extends PreProcessingObjectBuilder<T> implements GroupingObjectBuilder<T> {
+
+    private final GroupingObjectBuilder<T> objectBuilder;
+
+    public GroupingPreProcessingObjectBuilder(ObjectBuilder<Object[]> preProcessor, GroupingObjectBuilder<T> objectBuilder) {
+        super(preProcessor, objectBuilder);
+        this.objectBuilder = objectBuilder;
+    }
+
+    @Override
+    public Object getGroupKey(T object) {
+        return objectBuilder.getGroupKey(object);
+    }
+}
@@ -41,4 +41,10 @@ public class CockroachSQLDbmsDialect extends PostgreSQLDbmsDialect {
             appendEmulatedOrderByElementWithNulls(sqlSb, element, aliases);
         }
     }
+
+    @Override
+    public String getRowCountEstimateSql(String sql) {
+        // The plan output differs from the one of PostgreSQL
+        return null;
+    }
 }
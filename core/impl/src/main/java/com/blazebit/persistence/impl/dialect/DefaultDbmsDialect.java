@@ -26,6 +26,7 @@ import java.sql.Time;
 import java.sql.Timestamp;
 import java.util.*;
 
+import com.blazebit.persistence.impl.util.SqlClauseIndex;
 import com.blazebit.persistence.impl.util.SqlUtils;
 import com.blazebit.persistence.spi.DbmsDialect;
 import com.blazebit.persistence.spi.DbmsLimitHandler;
@@ -316,13 +317,14 @@ public class DefaultDbmsDialect implements DbmsDialect {
         }
 
         for (String operand : operands) {
+            SqlClauseIndex operandClauseIndex = SqlClauseIndex.of(operand);
             boolean wasFirst = false;
             if (first) {
                 first = false;
                 wasFirst = true;
                 if (emulate) {
                     if (aliases == null) {
-                        aliases = SqlUtils.getSelectItemAliases(operand, SqlUtils.indexOfSelect(operand));
+                        aliases = operandClauseIndex.getSelectItemAliases();
                     }
 
                     sqlSb.append(select);
@@ -342,8 +344,7 @@ public class DefaultDbmsDialect implements DbmsDialect {
             }
 
             if (emulate) {
-                int selectIndex = SqlUtils.indexOfSelect(operand);
-                String[] expressions = SqlUtils.getSelectItemExpressions(operand, selectIndex);
+                String[] expressions = operandClauseIndex.getSelectItemExpressions();
 
                 sqlSb.append(select);
                 sqlSb.append("row_number() over (partition by ");
@@ -362,7 +363,7 @@ public class DefaultDbmsDialect implements DbmsDialect {
                 sqlSb.append(operand, select.length(), operand.length());
             } else {
                 // Need a wrapper for operands that have an order by clause
-                boolean addWrapper = SqlUtils.indexOfOrderBy(operand) != -1;
+                boolean addWrapper = operandClauseIndex.indexOfOrderBy() != -1;
                 if (addWrapper) {
                     sqlSb.append("select * from (");
                 }
@@ -565,6 +566,16 @@ public class DefaultDbmsDialect implements DbmsDialect {
         return ps.getGeneratedKeys();
     }
 
+    @Override
+    public String getRowCountEstimateSql(String sql) {
+        return null;
+    }
+
+    @Override
+    public long extractRowCountEstimate(ResultSet resultSet) throws SQLException {
+        return -1L;
+    }
+
     public void appendLimit(StringBuilder sqlSb, boolean isSubquery, String limit, String offset) {
         createLimitHandler().applySql(sqlSb, isSubquery, limit, offset);
     }
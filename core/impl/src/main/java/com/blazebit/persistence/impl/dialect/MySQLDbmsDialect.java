@@ -23,6 +23,9 @@ import com.blazebit.persistence.spi.OrderByElement;
 import com.blazebit.persistence.spi.UpdateJoinStyle;
 import com.blazebit.persistence.spi.ValuesStrategy;
 
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -184,4 +187,41 @@ public class MySQLDbmsDialect extends DefaultDbmsDialect {
         return false;
     }
 
+    @Override
+    public String getRowCountEstimateSql(String sql) {
+        return "explain " + sql;
+    }
+
+    @Override
+    public long extractRowCountEstimate(ResultSet resultSet) throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        boolean hasFiltered = false;
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if ("filtered".equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                hasFiltered = true;
+                break;
+            }
+        }
+        // The estimate of a join is the product of the estimated rows of the tables of the top level select
+        double estimate = -1;
+        while (resultSet.next()) {
+            if (resultSet.getInt("id") != 1) {
+                continue;
+            }
+            long rows = resultSet.getLong("rows");
+            if (resultSet.wasNull()) {
+                continue;
+            }
+            double tableEstimate = rows;
+            if (hasFiltered) {
+                double filtered = resultSet.getDouble("filtered");
+                if (!resultSet.wasNull()) {
+                    tableEstimate = tableEstimate * filtered / 100d;
+                }
+            }
+            estimate = estimate == -1 ? tableEstimate : estimate * tableEstimate;
+        }
+        return estimate == -1 ? -1L : (long) Math.ceil(estimate);
+    }
+
 }
@@ -16,13 +16,15 @@
 
 package com.blazebit.persistence.impl.dialect;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
-import com.blazebit.persistence.impl.util.SqlUtils;
+import com.blazebit.persistence.impl.util.SqlClauseIndex;
 import com.blazebit.persistence.spi.DbmsLimitHandler;
 import com.blazebit.persistence.spi.DbmsModificationState;
 import com.blazebit.persistence.spi.DbmsStatementType;
@@ -232,7 +234,7 @@ public class PostgreSQLDbmsDialect extends DefaultDbmsDialect {
             }
 
             // Need a wrapper for operands that have an order by clause
-            if (hasOuterClause && !operand.startsWith("(") || SqlUtils.indexOfOrderBy(operand) != -1) {
+            if (hasOuterClause && !operand.startsWith("(") || SqlClauseIndex.of(operand).indexOfOrderBy() != -1) {
                 // Wrap operand so that the order by or limit has a clear target 
                 sqlSb.append('(');
                 sqlSb.append(operand);
@@ -301,4 +303,21 @@ public class PostgreSQLDbmsDialect extends DefaultDbmsDialect {
     public boolean supportsArbitraryLengthMultiset() {
         return true;
     }
+
+    @Override
+    public String getRowCountEstimateSql(String sql) {
+        return "explain (format json) " + sql;
+    }
+
+    @Override
+    public long extractRowCountEstimate(ResultSet resultSet) throws SQLException {
+        if (!resultSet.next()) {
+            return -1L;
+        }
+        String plan = resultSet.getString(1);
+        if (plan == null) {
+            return -1L;
+        }
+        return PostgreSQLExplainPlan.extractRowCountEstimate(plan);
+    }
 }
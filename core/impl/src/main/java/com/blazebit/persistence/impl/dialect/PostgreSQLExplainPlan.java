@@ -0,0 +1,253 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.dialect;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extracts the row count estimate from the JSON output of a PostgreSQL <code>EXPLAIN</code> of a count query.
+ * The aggregate at the top of the plan produces a single row, so the estimate is taken from the first node below the aggregates and gather nodes.
+ * Nodes below a gather node only estimate the rows per parallel worker, which is why such estimates are scaled by the parallel divisor of PostgreSQL.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+final class PostgreSQLExplainPlan {
+
+    private PostgreSQLExplainPlan() {
+    }
+
+    public static long extractRowCountEstimate(String json) {
+        Object root;
+        try {
+            root = new JsonReader(json).readValue();
+        } catch (RuntimeException ex) {
+            return -1L;
+        }
+        // The format is [ { "Plan": { ... } } ]
+        if (!(root instanceof List<?>) || ((List<?>) root).isEmpty() || !(((List<?>) root).get(0) instanceof Map<?, ?>)) {
+            return -1L;
+        }
+        Object node = ((Map<?, ?>) ((List<?>) root).get(0)).get("Plan");
+        int workers = 0;
+        while (node instanceof Map<?, ?>) {
+            Map<?, ?> plan = (Map<?, ?>) node;
+            Object nodeType = plan.get("Node Type");
+            if ("Gather".equals(nodeType) || "Gather Merge".equals(nodeType)) {
+                Object workersPlanned = plan.get("Workers Planned");
+                if (workersPlanned instanceof Number) {
+                    workers = ((Number) workersPlanned).intValue();
+                }
+            } else if (!"Aggregate".equals(nodeType)) {
+                Object rows = plan.get("Plan Rows");
+                if (!(rows instanceof Number)) {
+                    return -1L;
+                }
+                return Math.round(((Number) rows).doubleValue() * getParallelDivisor(workers));
+            }
+            node = getOuterChild(plan);
+        }
+        return -1L;
+    }
+
+    private static double getParallelDivisor(int workers) {
+        if (workers < 1) {
+            return 1d;
+        }
+        // Same as get_parallel_divisor() in PostgreSQL, assuming the default parallel_leader_participation
+        double divisor = workers;
+        double leaderContribution = 1d - 0.3d * workers;
+        if (leaderContribution > 0) {
+            divisor += leaderContribution;
+        }
+        return divisor;
+    }
+
+    private static Object getOuterChild(Map<?, ?> plan) {
+        Object plans = plan.get("Plans");
+        if (!(plans instanceof List<?>)) {
+            return null;
+        }
+        Object first = null;
+        for (Object child : (List<?>) plans) {
+            if (child instanceof Map<?, ?>) {
+                // Init plans and sub plans are listed as children as well, but the input of a node is its outer child
+                if ("Outer".equals(((Map<?, ?>) child).get("Parent Relationship"))) {
+                    return child;
+                }
+                if (first == null) {
+                    first = child;
+                }
+            }
+        }
+        return first;
+    }
+
+    /**
+     * A minimal reader for the JSON subset produced by PostgreSQL for plans.
+     *
+     * @author Christian Beikov
+     * @since 1.6.7
+     */
+    private static final class JsonReader {
+
+        private final String json;
+        private int index;
+
+        public JsonReader(String json) {
+            this.json = json;
+        }
+
+        public Object readValue() {
+            skipWhitespace();
+            char c = json.charAt(index);
+            switch (c) {
+                case '{':
+                    return readObject();
+                case '[':
+                    return readArray();
+                case '"':
+                    return readString();
+                case 't':
+                    return readLiteral("true", Boolean.TRUE);
+                case 'f':
+                    return readLiteral("false", Boolean.FALSE);
+                case 'n':
+                    return readLiteral("null", null);
+                default:
+                    return readNumber();
+            }
+        }
+
+        private Map<String, Object> readObject() {
+            Map<String, Object> object = new HashMap<>();
+            index++;
+            skipWhitespace();
+            if (json.charAt(index) == '}') {
+                index++;
+                return object;
+            }
+            while (true) {
+                skipWhitespace();
+                String key = readString();
+                skipWhitespace();
+                expect(':');
+                object.put(key, readValue());
+                skipWhitespace();
+                if (json.charAt(index) == '}') {
+                    index++;
+                    return object;
+                }
+                expect(',');
+            }
+        }
+
+        private List<Object> readArray() {
+            List<Object> array = new ArrayList<>();
+            index++;
+            skipWhitespace();
+            if (json.charAt(index) == ']') {
+                index++;
+                return array;
+            }
+            while (true) {
+                array.add(readValue());
+                skipWhitespace();
+                if (json.charAt(index) == ']') {
+                    index++;
+                    return array;
+                }
+                expect(',');
+            }
+        }
+
+        private String readString() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = json.charAt(index++);
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c == '\\') {
+                    c = json.charAt(index++);
+                    switch (c) {
+                        case 'n':
+                            sb.append('\n');
+                            break;
+                        case 't':
+                            sb.append('\t');
+                            break;
+                        case 'r':
+                            sb.append('\r');
+                            break;
+                        case 'b':
+                            sb.append('\b');
+                            break;
+                        case 'f':
+                            sb.append('\f');
+                            break;
+                        case 'u':
+                            sb.append((char) Integer.parseInt(json.substring(index, index + 4), 16));
+                            index += 4;
+                            break;
+                        default:
+                            sb.append(c);
+                            break;
+                    }
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+
+        private Object readLiteral(String literal, Object value) {
+            if (!json.startsWith(literal, index)) {
+                throw new IllegalArgumentException("Unexpected character at " + index + " in JSON: " + json);
+            }
+            index += literal.length();
+            return value;
+        }
+
+        private Number readNumber() {
+            int start = index;
+            while (index < json.length() && "+-0123456789.eE".indexOf(json.charAt(index)) != -1) {
+                index++;
+            }
+            if (start == index) {
+                throw new IllegalArgumentException("Unexpected character at " + index + " in JSON: " + json);
+            }
+            return Double.valueOf(json.substring(start, index));
+        }
+
+        private void expect(char c) {
+            if (json.charAt(index) != c) {
+                throw new IllegalArgumentException("Expected '" + c + "' at " + index + " in JSON: " + json);
+            }
+            index++;
+        }
+
+        private void skipWhitespace() {
+            while (index < json.length() && Character.isWhitespace(json.charAt(index))) {
+                index++;
+            }
+        }
+    }
+}
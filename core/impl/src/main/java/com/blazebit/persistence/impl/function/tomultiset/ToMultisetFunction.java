@@ -32,7 +32,7 @@ import java.util.List;
  * @author Christian Beikov
  * @since 1.5.0
  */
-public class ToMultisetFunction implements JpqlFunction, JpqlFunctionProcessor<CharSequence> {
+public class ToMultisetFunction implements JpqlFunction, JpqlFunctionProcessor<Object> {
 
     public static final String FUNCTION_NAME = "to_multiset";
 
@@ -60,7 +60,7 @@ public class ToMultisetFunction implements JpqlFunction, JpqlFunctionProcessor<C
     }
 
     @Override
-    public Object process(CharSequence result, List<Object> arguments) {
+    public Object process(Object result, List<Object> arguments) {
         SubqueryExpression subqueryExpression = (SubqueryExpression) arguments.get(0);
         Subquery subquery = subqueryExpression.getSubquery();
         String[] fields;
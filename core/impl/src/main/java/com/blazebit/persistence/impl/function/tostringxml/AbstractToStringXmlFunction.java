@@ -22,6 +22,11 @@ import com.blazebit.persistence.parser.XmlParser;
 import com.blazebit.persistence.spi.FunctionRenderContext;
 import com.blazebit.persistence.spi.JpqlFunction;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Clob;
+import java.sql.SQLException;
+
 /**
  * @author Christian Beikov
  * @since 1.5.0
@@ -64,11 +69,28 @@ public abstract class AbstractToStringXmlFunction implements JpqlFunction {
         render(context, fields, selectItemExpressions, subquery, fromIndex);
     }
 
-    public Object process(CharSequence result, String[] fields) {
+    public Object process(Object result, String[] fields) {
         if (result == null) {
             return null;
         }
-        return XmlParser.parse(result, fields);
+        if (result instanceof CharSequence) {
+            return XmlParser.parse((CharSequence) result, fields);
+        }
+        try {
+            if (result instanceof Clob) {
+                Reader reader = ((Clob) result).getCharacterStream();
+                try {
+                    return XmlParser.parse(reader, fields);
+                } finally {
+                    reader.close();
+                }
+            } else if (result instanceof Reader) {
+                return XmlParser.parse((Reader) result, fields);
+            }
+        } catch (IOException | SQLException ex) {
+            throw new RuntimeException("Could not read the XML result", ex);
+        }
+        throw new IllegalArgumentException("Unsupported XML result type: " + result.getClass().getName());
     }
 
     public abstract void render(FunctionRenderContext context, String[] fields, String[] selectItemExpressions, String subquery, int fromIndex);
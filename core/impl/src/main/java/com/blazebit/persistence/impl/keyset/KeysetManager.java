@@ -398,16 +398,21 @@ public class KeysetManager extends AbstractKeysetBuilderEndedListener {
     }
 
     private void applyKeysetParameter(StringBuilder sb, int position, Serializable keyElement, int positionalOffset) {
+        String parameterName = getKeysetParameterName(position, positionalOffset);
         if (positionalOffset > -1) {
             sb.append('?');
-            String parameterName = Integer.toString(position + positionalOffset);
-            sb.append(parameterName);
-            parameterManager.addParameterMapping(parameterName, keyElement, ClauseType.WHERE, queryBuilder);
         } else {
             sb.append(":");
-            String parameterName = new StringBuilder(KEY_SET_PARAMETER_NAME).append('_').append(position).toString();
-            sb.append(parameterName);
-            parameterManager.addParameterMapping(parameterName, keyElement, ClauseType.WHERE, queryBuilder);
+        }
+        sb.append(parameterName);
+        parameterManager.addParameterMapping(parameterName, keyElement, ClauseType.WHERE, queryBuilder);
+    }
+
+    public static String getKeysetParameterName(int position, int positionalOffset) {
+        if (positionalOffset > -1) {
+            return Integer.toString(position + positionalOffset);
+        } else {
+            return new StringBuilder(KEY_SET_PARAMETER_NAME).append('_').append(position).toString();
         }
     }
 
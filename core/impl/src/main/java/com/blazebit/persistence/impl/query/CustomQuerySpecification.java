@@ -21,12 +21,14 @@ import com.blazebit.persistence.impl.function.entity.EntityFunction;
 import com.blazebit.persistence.impl.plan.CustomSelectQueryPlan;
 import com.blazebit.persistence.impl.plan.ModificationQueryPlan;
 import com.blazebit.persistence.impl.plan.SelectQueryPlan;
+import com.blazebit.persistence.impl.util.SqlClauseIndex;
 import com.blazebit.persistence.impl.util.SqlUtils;
 import com.blazebit.persistence.spi.DbmsDialect;
 import com.blazebit.persistence.spi.DbmsModificationState;
 import com.blazebit.persistence.spi.DbmsStatementType;
 import com.blazebit.persistence.spi.ExtendedQuerySupport;
 import com.blazebit.persistence.spi.LateralStyle;
+import com.blazebit.persistence.spi.QueryRole;
 import com.blazebit.persistence.spi.ServiceProvider;
 
 import javax.persistence.EntityManager;
@@ -74,13 +76,21 @@ public class CustomQuerySpecification<T> implements QuerySpecification<T> {
     protected String sql;
     protected List<Query> participatingQueries;
     protected Map<String, String> addedCtes;
+    protected SqlClauseIndex baseQueryClauseIndex;
 
     public CustomQuerySpecification(AbstractCommonQueryBuilder<?, ?, ?, ?, ?> commonQueryBuilder, Query baseQuery, Collection<? extends Parameter<?>> parameters, Set<String> listParameters, String limit, String offset,
                                     List<String> keyRestrictedLeftJoinAliases, List<EntityFunctionNode> entityFunctionNodes, boolean recursive, List<CTENode> ctes, boolean shouldRenderCtes,
                                     boolean queryPlanCacheEnabled, Query countWrapperExampleQuery) {
+        this(commonQueryBuilder, baseQuery, parameters, listParameters, limit, offset, keyRestrictedLeftJoinAliases, entityFunctionNodes, recursive, ctes, shouldRenderCtes,
+                queryPlanCacheEnabled, countWrapperExampleQuery, QueryRole.QUERY);
+    }
+
+    public CustomQuerySpecification(AbstractCommonQueryBuilder<?, ?, ?, ?, ?> commonQueryBuilder, Query baseQuery, Collection<? extends Parameter<?>> parameters, Set<String> listParameters, String limit, String offset,
+                                    List<String> keyRestrictedLeftJoinAliases, List<EntityFunctionNode> entityFunctionNodes, boolean recursive, List<CTENode> ctes, boolean shouldRenderCtes,
+                                    boolean queryPlanCacheEnabled, Query countWrapperExampleQuery, QueryRole queryRole) {
         this.em = commonQueryBuilder.getEntityManager();
         this.dbmsDialect = commonQueryBuilder.getService(DbmsDialect.class);
-        this.serviceProvider = commonQueryBuilder;
+        this.serviceProvider = new QueryServiceProvider(commonQueryBuilder, queryRole);
         this.extendedQuerySupport = commonQueryBuilder.getService(ExtendedQuerySupport.class);
         this.statementType = commonQueryBuilder.getStatementType();
         this.baseQuery = baseQuery;
@@ -105,7 +115,7 @@ public class CustomQuerySpecification<T> implements QuerySpecification<T> {
             this.countPrefix = null;
         } else {
             String sqlQuery = extendedQuerySupport.getSql(em, countWrapperExampleQuery);
-            this.countPrefix = sqlQuery.substring(0, SqlUtils.indexOfFrom(sqlQuery) + SqlUtils.FROM.length() - 1) + "(";
+            this.countPrefix = sqlQuery.substring(0, SqlClauseIndex.of(sqlQuery).indexOfFrom() + SqlUtils.FROM.length() - 1) + "(";
         }
     }
 
@@ -187,6 +197,22 @@ public class CustomQuerySpecification<T> implements QuerySpecification<T> {
         this.dirty = false;
     }
 
+    /**
+     * Returns the clause index for the SQL of the base query. The index is kept with this specification and is reused
+     * when the specification is initialized again, e.g. after a collection parameter changed, as long as the SQL didn't change.
+     *
+     * @param baseQuerySql The SQL of the base query
+     * @return The clause index for the SQL
+     */
+    protected SqlClauseIndex getBaseQueryClauseIndex(String baseQuerySql) {
+        SqlClauseIndex clauseIndex = baseQueryClauseIndex;
+        if (clauseIndex == null || !clauseIndex.getSql().equals(baseQuerySql)) {
+            clauseIndex = SqlClauseIndex.of(baseQuerySql);
+            baseQueryClauseIndex = clauseIndex;
+        }
+        return clauseIndex;
+    }
+
     protected Map<String, String> applyExtendedSql(StringBuilder sqlSb, boolean isSubquery, boolean isEmbedded, StringBuilder withClause, String dmlAffectedTable, String[] returningColumns, Map<DbmsModificationState, String> includedModificationStates) {
         return dbmsDialect.appendExtendedSql(sqlSb, statementType, isSubquery, isEmbedded, withClause, limit, offset, dmlAffectedTable, returningColumns, includedModificationStates);
     }
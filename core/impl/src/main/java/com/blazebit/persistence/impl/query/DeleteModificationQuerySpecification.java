@@ -18,6 +18,7 @@ package com.blazebit.persistence.impl.query;
 
 import com.blazebit.persistence.ReturningObjectBuilder;
 import com.blazebit.persistence.impl.AbstractCommonQueryBuilder;
+import com.blazebit.persistence.impl.util.SqlClauseIndex;
 import com.blazebit.persistence.impl.util.SqlUtils;
 import com.blazebit.persistence.spi.DbmsModificationState;
 
@@ -63,13 +64,14 @@ public class DeleteModificationQuerySpecification<T> extends ModificationQuerySp
         String sql = extendedQuerySupport.getSql(em, baseQuery);
         StringBuilder sb = new StringBuilder(sql.length());
         String tableToDelete = this.tableToDelete;
+        SqlClauseIndex clauseIndex = getBaseQueryClauseIndex(sql);
         if (tableToDelete == null) {
             // Plain delete statement without joins
             sb.append(sql);
-            int fromIndex = SqlUtils.indexOfFrom(sql);
+            int fromIndex = clauseIndex.indexOfFrom();
             tableToDelete = sql.substring(fromIndex + SqlUtils.FROM.length(), sql.indexOf(' ', fromIndex + SqlUtils.FROM.length() + 1));
         } else {
-            int fromIndex = SqlUtils.indexOfFrom(sql);
+            int fromIndex = clauseIndex.indexOfFrom();
             int tableStartIndex = fromIndex + SqlUtils.FROM.length();
             int tableEndIndex = sql.indexOf(" ", tableStartIndex);
             int tableAliasEndIndex = sql.indexOf(" ", tableEndIndex + 1);
@@ -84,7 +86,7 @@ public class DeleteModificationQuerySpecification<T> extends ModificationQuerySp
                         sb.append(tableToDelete).append(' ').append(tableAlias);
                         sb.append(" using ");
                         int onClauseIndex = SqlUtils.indexOfOn(sql, tableAliasEndIndex);
-                        int onClauseEndIndex = SqlUtils.findEndOfOnClause(sql, onClauseIndex, SqlUtils.indexOfWhere(sql));
+                        int onClauseEndIndex = SqlUtils.findEndOfOnClause(sql, onClauseIndex, clauseIndex.indexOfWhere());
                         // The lower bound is the start of the table alias
                         int[] range = SqlUtils.rtrimBackwardsToFirstWhitespace(sql, onClauseIndex - 1);
                         // The new lower bound is the start of the table name
@@ -109,7 +111,7 @@ public class DeleteModificationQuerySpecification<T> extends ModificationQuerySp
                 case NONE:
                 case MERGE:
                     // This is only used for collection deletes and always uses an exists subquery
-                    int whereIndex = SqlUtils.indexOfWhere(sql);
+                    int whereIndex = clauseIndex.indexOfWhere();
                     sb.append("delete ").append(tableToDelete);
                     if (whereIndex != -1) {
                         sb.append(sql, whereIndex, sql.length());
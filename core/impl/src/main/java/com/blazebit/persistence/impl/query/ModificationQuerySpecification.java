@@ -116,7 +116,7 @@ public class ModificationQuerySpecification<T> extends CustomQuerySpecification<
         if (statementType == DbmsStatementType.UPDATE) {
             affectedDmlTable = sqlQuery.substring(sqlQuery.indexOf(' ') + 1, sqlQuery.indexOf(' ', sqlQuery.indexOf(' ') + 1));
         } else if (statementType == DbmsStatementType.DELETE) {
-            int fromIndex = SqlUtils.indexOfFrom(sqlQuery);
+            int fromIndex = getBaseQueryClauseIndex(sqlQuery).indexOfFrom();
             int endIndex = sqlQuery.indexOf(' ', fromIndex + SqlUtils.FROM.length() + 1);
             affectedDmlTable = sqlQuery.substring(fromIndex + SqlUtils.FROM.length(), endIndex == -1 ? sqlQuery.length() : endIndex);
         } else if (statementType == DbmsStatementType.INSERT) {
@@ -16,13 +16,22 @@
 
 package com.blazebit.persistence.impl.query;
 
+import com.blazebit.persistence.GroupingObjectBuilder;
 import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.spi.QueryInstrumentation;
+import com.blazebit.persistence.spi.QueryPhase;
+import com.blazebit.persistence.spi.QueryRole;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.persistence.NoResultException;
 import javax.persistence.NonUniqueResultException;
@@ -37,11 +46,23 @@ import javax.persistence.criteria.ParameterExpression;
 public class ObjectBuilderTypedQuery<X> extends TypedQueryWrapper<X> {
 
     private final ObjectBuilder<X> builder;
+    private final QueryInstrumentation instrumentation;
+    private final QueryRole role;
 
-    @SuppressWarnings("unchecked")
     public ObjectBuilderTypedQuery(TypedQuery<?> delegate, Map<ParameterExpression<?>, String> criteriaNameMapping, ObjectBuilder<X> builder) {
+        this(delegate, criteriaNameMapping, builder, QueryInstrumentation.NOOP, QueryRole.QUERY);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ObjectBuilderTypedQuery(TypedQuery<?> delegate, Map<ParameterExpression<?>, String> criteriaNameMapping, ObjectBuilder<X> builder, QueryInstrumentation instrumentation, QueryRole role) {
         super((TypedQuery<X>) delegate, criteriaNameMapping);
         this.builder = builder;
+        this.instrumentation = instrumentation;
+        this.role = role;
+    }
+
+    public ObjectBuilder<X> getObjectBuilder() {
+        return builder;
     }
 
     @Override
@@ -60,7 +81,23 @@ public class ObjectBuilderTypedQuery<X> extends TypedQueryWrapper<X> {
 
     @Override
     public List<X> getResultList() {
+        if (instrumentation.isEnabled()) {
+            return getInstrumentedResultList();
+        }
+        return transform(super.getResultList());
+    }
+
+    private List<X> getInstrumentedResultList() {
+        long start = System.nanoTime();
         List<X> list = super.getResultList();
+        long executed = System.nanoTime();
+        instrumentation.onPhase(QueryPhase.EXECUTE, role, executed - start, list.size());
+        List<X> result = transform(list);
+        instrumentation.onPhase(QueryPhase.TRANSFORM, role, System.nanoTime() - executed, list.size());
+        return result;
+    }
+
+    private List<X> transform(List<X> list) {
         int size = list.size();
         List<X> newList = new ArrayList<X>(size);
 
@@ -78,28 +115,159 @@ public class ObjectBuilderTypedQuery<X> extends TypedQueryWrapper<X> {
     }
 
     public Stream<X> getResultStream() {
+        boolean instrumented = instrumentation.isEnabled();
+        long start = instrumented ? System.nanoTime() : 0L;
         final Stream<X> resultStream = super.getResultStream();
-        return resultStream.map(new Function<X, X>() {
+        final ObjectBuilderSpliterator<X> spliterator = new ObjectBuilderSpliterator<>(resultStream.iterator(), builder, instrumented ? instrumentation : null, role);
+        if (instrumented) {
+            spliterator.executeNanos = System.nanoTime() - start;
+        }
+        return StreamSupport.stream(spliterator, false).onClose(new Runnable() {
             @Override
-            public X apply(X tuple) {
-                Object[] array;
-                if (tuple instanceof Object[]) {
-                    array = (Object[]) tuple;
-                } else {
-                    array = new Object[]{tuple};
+            public void run() {
+                try {
+                    resultStream.close();
+                } finally {
+                    spliterator.report();
                 }
+            }
+        });
+    }
+
+    /**
+     * Builds the objects of the tuples of a result stream. For a {@link GroupingObjectBuilder}, adjacent tuples that belong to the same group
+     * are collected and the objects of a group are built as soon as the first tuple of the next group is read.
+     * Only the key of the current group is retained, so that the memory is bounded by the tuples of a single group.
+     * This requires that the result is ordered by the group key, i.e. the id of the root objects.
+     *
+     * @author Christian Beikov
+     * @since 1.6.7
+     */
+    private static final class ObjectBuilderSpliterator<X> extends Spliterators.AbstractSpliterator<X> {
+
+        private final Iterator<X> iterator;
+        private final ObjectBuilder<X> builder;
+        private final GroupingObjectBuilder<X> groupingBuilder;
+        private final QueryInstrumentation instrumentation;
+        private final QueryRole role;
+        private List<X> group;
+        private Object groupKey;
+        private Iterator<X> groupResult;
+        private Object tuple;
+        private long executeNanos;
+        private long transformNanos;
+        private int rowCount;
+        private boolean reported;
+
+        @SuppressWarnings("unchecked")
+        public ObjectBuilderSpliterator(Iterator<X> iterator, ObjectBuilder<X> builder, QueryInstrumentation instrumentation, QueryRole role) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.iterator = iterator;
+            this.builder = builder;
+            this.instrumentation = instrumentation;
+            this.role = role;
+            if (builder instanceof GroupingObjectBuilder<?>) {
+                this.groupingBuilder = (GroupingObjectBuilder<X>) builder;
+                this.group = new ArrayList<>();
+            } else {
+                this.groupingBuilder = null;
+            }
+            this.groupResult = Collections.emptyIterator();
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super X> action) {
+            if (groupingBuilder == null) {
+                if (!nextTuple()) {
+                    report();
+                    return false;
+                }
+                long start = instrumentation == null ? 0L : System.nanoTime();
+                Object[] array = toArray(tuple);
                 X result = builder.build(array);
                 if (result == array) {
                     throw new UnsupportedOperationException("Object builder is not streaming capable: " + builder);
                 }
-                return result;
+                if (instrumentation != null) {
+                    transformNanos += System.nanoTime() - start;
+                }
+                action.accept(result);
+                return true;
             }
-        }).onClose(new Runnable() {
-            @Override
-            public void run() {
-                resultStream.close();
+            while (!groupResult.hasNext()) {
+                if (!nextGroup()) {
+                    report();
+                    return false;
+                }
             }
-        });
-    }
+            action.accept(groupResult.next());
+            return true;
+        }
 
+        private boolean nextGroup() {
+            while (nextTuple()) {
+                long start = instrumentation == null ? 0L : System.nanoTime();
+                X element = groupingBuilder.build(toArray(tuple));
+                Object key = groupingBuilder.getGroupKey(element);
+                boolean groupComplete = false;
+                if (group.isEmpty()) {
+                    groupKey = key;
+                } else if (groupKey == null ? key != null : !groupKey.equals(key)) {
+                    groupResult = groupingBuilder.buildList(group).iterator();
+                    group = new ArrayList<>();
+                    groupKey = key;
+                    groupComplete = true;
+                }
+                group.add(element);
+                if (instrumentation != null) {
+                    transformNanos += System.nanoTime() - start;
+                }
+                if (groupComplete) {
+                    return true;
+                }
+            }
+            if (group.isEmpty()) {
+                return false;
+            }
+            long start = instrumentation == null ? 0L : System.nanoTime();
+            groupResult = groupingBuilder.buildList(group).iterator();
+            group = new ArrayList<>();
+            groupKey = null;
+            if (instrumentation != null) {
+                transformNanos += System.nanoTime() - start;
+            }
+            return true;
+        }
+
+        private boolean nextTuple() {
+            long start = instrumentation == null ? 0L : System.nanoTime();
+            boolean hasNext = iterator.hasNext();
+            if (hasNext) {
+                tuple = iterator.next();
+                rowCount++;
+            }
+            if (instrumentation != null) {
+                executeNanos += System.nanoTime() - start;
+            }
+            return hasNext;
+        }
+
+        private static Object[] toArray(Object tuple) {
+            if (tuple instanceof Object[]) {
+                return (Object[]) tuple;
+            }
+            return new Object[]{ tuple };
+        }
+
+        /**
+         * Reports the time spent reading the tuples and building the objects, once the stream is exhausted or closed.
+         */
+        void report() {
+            if (instrumentation != null && !reported) {
+                reported = true;
+                instrumentation.onPhase(QueryPhase.EXECUTE, role, executeNanos, rowCount);
+                instrumentation.onPhase(QueryPhase.TRANSFORM, role, transformNanos, rowCount);
+            }
+        }
+    }
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.query;
+
+import com.blazebit.persistence.spi.QueryInstrumentation;
+import com.blazebit.persistence.spi.QueryRole;
+import com.blazebit.persistence.spi.ServiceProvider;
+
+/**
+ * The service provider for the queries of a query specification.
+ * The query instrumentation is resolved once for the specification and the role of the query is exposed,
+ * so that the extended query support can report the planning of a query without walking the service lookup chain.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public final class QueryServiceProvider implements ServiceProvider {
+
+    private final ServiceProvider delegate;
+    private final QueryInstrumentation instrumentation;
+    private final QueryRole role;
+
+    public QueryServiceProvider(ServiceProvider delegate, QueryRole role) {
+        QueryInstrumentation instrumentation = delegate.getService(QueryInstrumentation.class);
+        this.delegate = delegate;
+        this.instrumentation = instrumentation == null ? QueryInstrumentation.NOOP : instrumentation;
+        this.role = role;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getService(Class<T> serviceClass) {
+        if (QueryInstrumentation.class == serviceClass) {
+            return (T) instrumentation;
+        } else if (QueryRole.class == serviceClass) {
+            return (T) role;
+        }
+        return delegate.getService(serviceClass);
+    }
+}
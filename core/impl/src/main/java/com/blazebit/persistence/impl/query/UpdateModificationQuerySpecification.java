@@ -18,6 +18,7 @@ package com.blazebit.persistence.impl.query;
 
 import com.blazebit.persistence.ReturningObjectBuilder;
 import com.blazebit.persistence.impl.AbstractCommonQueryBuilder;
+import com.blazebit.persistence.impl.util.SqlClauseIndex;
 import com.blazebit.persistence.impl.util.SqlUtils;
 import com.blazebit.persistence.spi.DbmsModificationState;
 import com.blazebit.persistence.spi.UpdateJoinStyle;
@@ -70,12 +71,13 @@ public class UpdateModificationQuerySpecification<T> extends ModificationQuerySp
         String sql = extendedQuerySupport.getSql(em, baseQuery);
         StringBuilder sb = new StringBuilder(sql.length());
         String tableToUpdate = this.tableToUpdate;
-        if (SqlUtils.indexOfSelect(sql) == -1) {
+        SqlClauseIndex clauseIndex = getBaseQueryClauseIndex(sql);
+        if (clauseIndex.indexOfSelect() == -1) {
             // Plain update statement without joins
             sb.append(sql);
             tableToUpdate = sql.substring(sql.indexOf(' ') + 1, sql.indexOf(' ', sql.indexOf(' ') + 1));
         } else {
-            int fromIndex = SqlUtils.indexOfFrom(sql);
+            int fromIndex = clauseIndex.indexOfFrom();
             int groupByIndex;
             switch (dbmsDialect.getUpdateJoinStyle()) {
                 case FROM:
@@ -87,7 +89,7 @@ public class UpdateModificationQuerySpecification<T> extends ModificationQuerySp
                         sb.append(tableToUpdate);
                     }
                     sb.append(" set ");
-                    applySetClause(sb, Arrays.asList(SqlUtils.getSelectItemExpressions(sql, 0)));
+                    applySetClause(sb, Arrays.asList(clauseIndex.getSelectItemExpressions()));
                     sb.append(sql, fromIndex, sql.length());
                     if (dbmsDialect.getUpdateJoinStyle() == UpdateJoinStyle.FROM) {
                         sb.append(" and ").append(tableToUpdate).append('.').append(idColumns[0]).append(" = ").append(tableAlias).append(".").append(idColumns[0]);
@@ -98,7 +100,7 @@ public class UpdateModificationQuerySpecification<T> extends ModificationQuerySp
                     }
                     break;
                 case REFERENCE:
-                    groupByIndex = SqlUtils.indexOfGroupBy(sql, fromIndex);
+                    groupByIndex = clauseIndex.indexOfGroupBy();
                     sb.append("update ");
                     sb.append(tableToUpdate);
 
@@ -122,7 +124,7 @@ public class UpdateModificationQuerySpecification<T> extends ModificationQuerySp
 
                     break;
                 case MERGE:
-                    groupByIndex = SqlUtils.indexOfGroupBy(sql, fromIndex);
+                    groupByIndex = clauseIndex.indexOfGroupBy();
                     sb.append("merge into ");
                     sb.append(tableToUpdate);
 
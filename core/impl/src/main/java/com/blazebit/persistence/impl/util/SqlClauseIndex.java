@@ -0,0 +1,224 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.impl.util;
+
+import java.util.Arrays;
+
+/**
+ * An index of the toplevel clauses and select items of an SQL query that is built by a single quote and parenthesis aware pass over the query.
+ * The lookups are equivalent to the respective <code>indexOf*</code> methods of {@link SqlUtils} but don't have to scan the query again.
+ * Since the offsets are only valid for the indexed query string, a query specification keeps the index of its base query SQL
+ * and only reuses it when the base query SQL didn't change.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public final class SqlClauseIndex {
+
+    private static final int SELECT = 0;
+    private static final int FROM = 1;
+    private static final int WHERE = 2;
+    private static final int GROUP_BY = 3;
+    private static final int HAVING = 4;
+    private static final int ORDER_BY = 5;
+    private static final int LIMIT = 6;
+    private static final int FETCH_FIRST = 7;
+    private static final char[][] CLAUSES = {
+        SqlUtils.SELECT.toCharArray(),
+        SqlUtils.FROM.toCharArray(),
+        SqlUtils.WHERE.toCharArray(),
+        SqlUtils.GROUP_BY.toCharArray(),
+        SqlUtils.HAVING.toCharArray(),
+        SqlUtils.ORDER_BY.toCharArray(),
+        SqlUtils.LIMIT.toCharArray(),
+        SqlUtils.FETCH_FIRST.toCharArray()
+    };
+
+    private final String sql;
+    private final int[] clauseIndexes;
+    // The start index of every select item followed by the end index of the select item list
+    private final int[] selectItemBoundaries;
+
+    private SqlClauseIndex(String sql) {
+        this.sql = sql;
+        final int length = sql.length();
+        final int[] clauseIndexes = new int[CLAUSES.length];
+        Arrays.fill(clauseIndexes, -1);
+        int[] selectItemBoundaries = null;
+        int selectItemCount = 0;
+        int selectItemsEnd = -1;
+        int unresolvedClauses = CLAUSES.length;
+        int parenthesis = 0;
+        QuoteMode mode = QuoteMode.NONE;
+
+        for (int i = 0; i < length; i++) {
+            final char c = sql.charAt(i);
+            mode = mode.onChar(c);
+            if (mode != QuoteMode.NONE) {
+                continue;
+            }
+            if (c == '(') {
+                parenthesis++;
+            } else if (c == ')') {
+                parenthesis--;
+            } else if (parenthesis == 0) {
+                if (c == ',' && selectItemBoundaries != null && selectItemsEnd == -1) {
+                    if (selectItemCount == selectItemBoundaries.length) {
+                        selectItemBoundaries = Arrays.copyOf(selectItemBoundaries, selectItemCount << 1);
+                    }
+                    selectItemBoundaries[selectItemCount++] = i + 1;
+                } else if (unresolvedClauses != 0) {
+                    for (int j = 0; j < CLAUSES.length; j++) {
+                        if (clauseIndexes[j] == -1 && regionMatches(sql, i, CLAUSES[j])) {
+                            clauseIndexes[j] = i;
+                            unresolvedClauses--;
+                            if (j == SELECT) {
+                                selectItemBoundaries = new int[8];
+                                selectItemBoundaries[selectItemCount++] = i + CLAUSES[SELECT].length;
+                            }
+                        }
+                    }
+                }
+                // The select items end at the first toplevel FROM after the SELECT, even if an earlier FROM was found
+                if (c == ' ' && selectItemBoundaries != null && selectItemsEnd == -1 && i >= selectItemBoundaries[0] && regionMatches(sql, i, CLAUSES[FROM])) {
+                    selectItemsEnd = i;
+                }
+            }
+        }
+
+        if (selectItemBoundaries != null) {
+            if (selectItemCount == selectItemBoundaries.length) {
+                selectItemBoundaries = Arrays.copyOf(selectItemBoundaries, selectItemCount + 1);
+            }
+            // from-less query
+            selectItemBoundaries[selectItemCount++] = selectItemsEnd == -1 ? length : selectItemsEnd;
+            selectItemBoundaries = Arrays.copyOf(selectItemBoundaries, selectItemCount);
+        }
+        this.clauseIndexes = clauseIndexes;
+        this.selectItemBoundaries = selectItemBoundaries;
+    }
+
+    /**
+     * Creates the index for the given SQL query.
+     *
+     * @param sql The SQL query
+     * @return The index of the SQL query
+     */
+    public static SqlClauseIndex of(String sql) {
+        return new SqlClauseIndex(sql);
+    }
+
+    private static boolean regionMatches(String sql, int start, char[] pattern) {
+        if (start + pattern.length > sql.length()) {
+            return false;
+        }
+        for (int i = 0; i < pattern.length; i++) {
+            if (Character.toLowerCase(sql.charAt(start + i)) != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Returns the index of the toplevel SELECT keyword like {@link SqlUtils#indexOfSelect(CharSequence)}.
+     *
+     * @return The index of the SELECT keyword if found, or -1
+     */
+    public int indexOfSelect() {
+        return clauseIndexes[SELECT];
+    }
+
+    public int indexOfFrom() {
+        return clauseIndexes[FROM];
+    }
+
+    public int indexOfWhere() {
+        return clauseIndexes[WHERE];
+    }
+
+    public int indexOfGroupBy() {
+        return clauseIndexes[GROUP_BY];
+    }
+
+    public int indexOfHaving() {
+        return clauseIndexes[HAVING];
+    }
+
+    public int indexOfOrderBy() {
+        return clauseIndexes[ORDER_BY];
+    }
+
+    public int indexOfLimit() {
+        return clauseIndexes[LIMIT];
+    }
+
+    public int indexOfFetchFirst() {
+        return clauseIndexes[FETCH_FIRST];
+    }
+
+    public String[] getSelectItemAliases() {
+        return getSelectItems(SqlUtils.ALIAS_EXTRACTOR);
+    }
+
+    public String[] getSelectItemExpressions() {
+        return getSelectItems(SqlUtils.EXPRESSION_EXTRACTOR);
+    }
+
+    public String[] getSelectItemColumns() {
+        return getSelectItems(SqlUtils.COLUMN_EXTRACTOR);
+    }
+
+    /**
+     * Extracts the toplevel select items like {@link SqlUtils#getSelectItems(CharSequence, int, SqlUtils.SelectItemExtractor)}
+     * when invoked with the index of the toplevel SELECT keyword. If there is no toplevel SELECT keyword, the first one is used.
+     *
+     * @param extractor The extractor for the select items
+     * @return The extracted select items
+     */
+    public String[] getSelectItems(SqlUtils.SelectItemExtractor extractor) {
+        if (selectItemBoundaries == null) {
+            // Let SqlUtils look for a nested SELECT as it did before
+            return SqlUtils.getSelectItems(sql, 0, extractor);
+        }
+        final int itemCount = selectItemBoundaries.length - 1;
+        final String[] selectItems = new String[itemCount];
+        final StringBuilder sb = new StringBuilder();
+        int size = 0;
+        for (int i = 0; i < itemCount; i++) {
+            int start = selectItemBoundaries[i];
+            // Item ends before the comma, the last item ends at the end of the select item list
+            int end = i + 1 == itemCount ? selectItemBoundaries[i + 1] : selectItemBoundaries[i + 1] - 1;
+            while (start < end && Character.isWhitespace(sql.charAt(start))) {
+                start++;
+            }
+            sb.setLength(0);
+            sb.append(sql, start, end);
+            String item = extractor.extract(sb, i, end);
+            // Like for SqlUtils.getExpressionItems, an empty last item is dropped
+            if (i + 1 != itemCount || !item.isEmpty()) {
+                selectItems[size++] = item;
+            }
+        }
+        return size == itemCount ? selectItems : Arrays.copyOf(selectItems, size);
+    }
+}
@@ -75,21 +75,21 @@ public class SqlUtils {
         public String extract(StringBuilder sb, int index, int currentPosition);
     }
 
-    private static final SelectItemExtractor ALIAS_EXTRACTOR = new SelectItemExtractor() {
+    static final SelectItemExtractor ALIAS_EXTRACTOR = new SelectItemExtractor() {
         @Override
         public String extract(StringBuilder sb, int index, int currentPosition) {
             return extractAlias(sb);
         }
     };
 
-    private static final SelectItemExtractor EXPRESSION_EXTRACTOR = new SelectItemExtractor() {
+    static final SelectItemExtractor EXPRESSION_EXTRACTOR = new SelectItemExtractor() {
         @Override
         public String extract(StringBuilder sb, int index, int currentPosition) {
             return extractExpression(sb);
         }
     };
 
-    private static final SelectItemExtractor COLUMN_EXTRACTOR = new SelectItemExtractor() {
+    static final SelectItemExtractor COLUMN_EXTRACTOR = new SelectItemExtractor() {
         @Override
         public String extract(StringBuilder sb, int index, int currentPosition) {
             return extractColumn(sb);
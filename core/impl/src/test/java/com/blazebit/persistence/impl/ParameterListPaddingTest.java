@@ -0,0 +1,78 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.impl;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public class ParameterListPaddingTest {
+
+    @Test
+    public void testNone() {
+        ParameterListPadding padding = ParameterListPadding.parse("none");
+        assertSame(ParameterListPadding.NONE, padding);
+        assertEquals(3, padding.pad(3));
+    }
+
+    @Test
+    public void testPowerOfTwo() {
+        ParameterListPadding padding = ParameterListPadding.parse("power_of_two");
+        assertEquals(0, padding.pad(0));
+        assertEquals(1, padding.pad(1));
+        assertEquals(2, padding.pad(2));
+        assertEquals(4, padding.pad(3));
+        assertEquals(8, padding.pad(5));
+        assertEquals(1024, padding.pad(1000));
+    }
+
+    @Test
+    public void testBuckets() {
+        ParameterListPadding padding = ParameterListPadding.parse("50, 10");
+        assertEquals(10, padding.pad(2));
+        assertEquals(50, padding.pad(11));
+        assertEquals(50, padding.pad(50));
+        assertEquals(100, padding.pad(51));
+        assertEquals(150, padding.pad(101));
+    }
+
+    @Test
+    public void testPadCollection() {
+        ParameterListPadding padding = ParameterListPadding.parse("power_of_two");
+        List<Long> values = Arrays.asList(1L, 2L, 4L, 8L);
+        assertSame(values, padding.pad(values));
+        assertEquals(Arrays.asList(1L, 2L, 3L, 3L), padding.pad(Arrays.asList(1L, 2L, 3L)));
+        Collection<?> empty = Collections.emptyList();
+        assertSame(empty, padding.pad(empty));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBucket() {
+        ParameterListPadding.parse("10,abc");
+    }
+}
@@ -0,0 +1,309 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.impl.dialect;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests the row count estimate extraction of the dialects against real <code>EXPLAIN</code> outputs.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public class RowCountEstimateTest {
+
+    @Test
+    public void postgreSQLSequentialScan() throws SQLException {
+        String plan = "[\n" +
+            "  {\n" +
+            "    \"Plan\": {\n" +
+            "      \"Node Type\": \"Aggregate\",\n" +
+            "      \"Strategy\": \"Plain\",\n" +
+            "      \"Partial Mode\": \"Simple\",\n" +
+            "      \"Parallel Aware\": false,\n" +
+            "      \"Async Capable\": false,\n" +
+            "      \"Startup Cost\": 180.00,\n" +
+            "      \"Total Cost\": 180.01,\n" +
+            "      \"Plan Rows\": 1,\n" +
+            "      \"Plan Width\": 8,\n" +
+            "      \"Plans\": [\n" +
+            "        {\n" +
+            "          \"Node Type\": \"Seq Scan\",\n" +
+            "          \"Parent Relationship\": \"Outer\",\n" +
+            "          \"Parallel Aware\": false,\n" +
+            "          \"Async Capable\": false,\n" +
+            "          \"Relation Name\": \"document\",\n" +
+            "          \"Alias\": \"d1_0\",\n" +
+            "          \"Startup Cost\": 0.00,\n" +
+            "          \"Total Cost\": 155.00,\n" +
+            "          \"Plan Rows\": 10000,\n" +
+            "          \"Plan Width\": 0\n" +
+            "        }\n" +
+            "      ]\n" +
+            "    }\n" +
+            "  }\n" +
+            "]";
+        Assert.assertEquals(10000L, new PostgreSQLDbmsDialect().extractRowCountEstimate(resultSet(Arrays.asList("QUERY PLAN"), new Object[]{ plan })));
+    }
+
+    @Test
+    public void postgreSQLParallelSequentialScan() throws SQLException {
+        String plan = "[\n" +
+            "  {\n" +
+            "    \"Plan\": {\n" +
+            "      \"Node Type\": \"Aggregate\",\n" +
+            "      \"Strategy\": \"Plain\",\n" +
+            "      \"Partial Mode\": \"Finalize\",\n" +
+            "      \"Parallel Aware\": false,\n" +
+            "      \"Async Capable\": false,\n" +
+            "      \"Startup Cost\": 10633.55,\n" +
+            "      \"Total Cost\": 10633.56,\n" +
+            "      \"Plan Rows\": 1,\n" +
+            "      \"Plan Width\": 8,\n" +
+            "      \"Plans\": [\n" +
+            "        {\n" +
+            "          \"Node Type\": \"Gather\",\n" +
+            "          \"Parent Relationship\": \"Outer\",\n" +
+            "          \"Parallel Aware\": false,\n" +
+            "          \"Async Capable\": false,\n" +
+            "          \"Startup Cost\": 10633.33,\n" +
+            "          \"Total Cost\": 10633.54,\n" +
+            "          \"Plan Rows\": 2,\n" +
+            "          \"Plan Width\": 8,\n" +
+            "          \"Workers Planned\": 2,\n" +
+            "          \"Single Copy\": false,\n" +
+            "          \"Plans\": [\n" +
+            "            {\n" +
+            "              \"Node Type\": \"Aggregate\",\n" +
+            "              \"Strategy\": \"Plain\",\n" +
+            "              \"Partial Mode\": \"Partial\",\n" +
+            "              \"Parent Relationship\": \"Outer\",\n" +
+            "              \"Parallel Aware\": false,\n" +
+            "              \"Async Capable\": false,\n" +
+            "              \"Startup Cost\": 9633.33,\n" +
+            "              \"Total Cost\": 9633.34,\n" +
+            "              \"Plan Rows\": 1,\n" +
+            "              \"Plan Width\": 8,\n" +
+            "              \"Plans\": [\n" +
+            "                {\n" +
+            "                  \"Node Type\": \"Seq Scan\",\n" +
+            "                  \"Parent Relationship\": \"Outer\",\n" +
+            "                  \"Parallel Aware\": true,\n" +
+            "                  \"Async Capable\": false,\n" +
+            "                  \"Relation Name\": \"document\",\n" +
+            "                  \"Alias\": \"d1_0\",\n" +
+            "                  \"Startup Cost\": 0.00,\n" +
+            "                  \"Total Cost\": 8591.67,\n" +
+            "                  \"Plan Rows\": 416667,\n" +
+            "                  \"Plan Width\": 0\n" +
+            "                }\n" +
+            "              ]\n" +
+            "            }\n" +
+            "          ]\n" +
+            "        }\n" +
+            "      ]\n" +
+            "    }\n" +
+            "  }\n" +
+            "]";
+        // The scan estimates the rows per worker, which are scaled by the parallel divisor of 2.4 for two workers with leader participation
+        Assert.assertEquals(1000001L, new PostgreSQLDbmsDialect().extractRowCountEstimate(resultSet(Arrays.asList("QUERY PLAN"), new Object[]{ plan })));
+    }
+
+    @Test
+    public void postgreSQLParallelHashJoinWithInitPlan() throws SQLException {
+        String plan = "[\n" +
+            "  {\n" +
+            "    \"Plan\": {\n" +
+            "      \"Node Type\": \"Aggregate\",\n" +
+            "      \"Strategy\": \"Plain\",\n" +
+            "      \"Partial Mode\": \"Finalize\",\n" +
+            "      \"Parallel Aware\": false,\n" +
+            "      \"Startup Cost\": 31320.05,\n" +
+            "      \"Total Cost\": 31320.06,\n" +
+            "      \"Plan Rows\": 1,\n" +
+            "      \"Plan Width\": 8,\n" +
+            "      \"Plans\": [\n" +
+            "        {\n" +
+            "          \"Node Type\": \"Result\",\n" +
+            "          \"Parent Relationship\": \"InitPlan\",\n" +
+            "          \"Subplan Name\": \"InitPlan 1 (returns $0)\",\n" +
+            "          \"Parallel Aware\": false,\n" +
+            "          \"Startup Cost\": 0.00,\n" +
+            "          \"Total Cost\": 0.01,\n" +
+            "          \"Plan Rows\": 1,\n" +
+            "          \"Plan Width\": 4\n" +
+            "        },\n" +
+            "        {\n" +
+            "          \"Node Type\": \"Gather\",\n" +
+            "          \"Parent Relationship\": \"Outer\",\n" +
+            "          \"Parallel Aware\": false,\n" +
+            "          \"Startup Cost\": 31319.83,\n" +
+            "          \"Total Cost\": 31320.04,\n" +
+            "          \"Plan Rows\": 2,\n" +
+            "          \"Plan Width\": 8,\n" +
+            "          \"Workers Planned\": 2,\n" +
+            "          \"Params Evaluated\": [\"$0\"],\n" +
+            "          \"Single Copy\": false,\n" +
+            "          \"Plans\": [\n" +
+            "            {\n" +
+            "              \"Node Type\": \"Aggregate\",\n" +
+            "              \"Strategy\": \"Plain\",\n" +
+            "              \"Partial Mode\": \"Partial\",\n" +
+            "              \"Parent Relationship\": \"Outer\",\n" +
+            "              \"Parallel Aware\": false,\n" +
+            "              \"Startup Cost\": 30319.83,\n" +
+            "              \"Total Cost\": 30319.84,\n" +
+            "              \"Plan Rows\": 1,\n" +
+            "              \"Plan Width\": 8,\n" +
+            "              \"Plans\": [\n" +
+            "                {\n" +
+            "                  \"Node Type\": \"Hash Join\",\n" +
+            "                  \"Parent Relationship\": \"Outer\",\n" +
+            "                  \"Parallel Aware\": true,\n" +
+            "                  \"Join Type\": \"Inner\",\n" +
+            "                  \"Startup Cost\": 1804.00,\n" +
+            "                  \"Total Cost\": 29278.17,\n" +
+            "                  \"Plan Rows\": 208333,\n" +
+            "                  \"Plan Width\": 0,\n" +
+            "                  \"Inner Unique\": true,\n" +
+            "                  \"Hash Cond\": \"(d1_0.owner_id = o1_0.id)\",\n" +
+            "                  \"Plans\": [\n" +
+            "                    {\n" +
+            "                      \"Node Type\": \"Seq Scan\",\n" +
+            "                      \"Parent Relationship\": \"Outer\",\n" +
+            "                      \"Parallel Aware\": true,\n" +
+            "                      \"Relation Name\": \"document\",\n" +
+            "                      \"Alias\": \"d1_0\",\n" +
+            "                      \"Startup Cost\": 0.00,\n" +
+            "                      \"Total Cost\": 24826.67,\n" +
+            "                      \"Plan Rows\": 208333,\n" +
+            "                      \"Plan Width\": 8,\n" +
+            "                      \"Filter\": \"(age > $0)\"\n" +
+            "                    },\n" +
+            "                    {\n" +
+            "                      \"Node Type\": \"Hash\",\n" +
+            "                      \"Parent Relationship\": \"Inner\",\n" +
+            "                      \"Parallel Aware\": true,\n" +
+            "                      \"Startup Cost\": 1179.00,\n" +
+            "                      \"Total Cost\": 1179.00,\n" +
+            "                      \"Plan Rows\": 50000,\n" +
+            "                      \"Plan Width\": 8\n" +
+            "                    }\n" +
+            "                  ]\n" +
+            "                }\n" +
+            "              ]\n" +
+            "            }\n" +
+            "          ]\n" +
+            "        }\n" +
+            "      ]\n" +
+            "    }\n" +
+            "  }\n" +
+            "]";
+        Assert.assertEquals(499999L, new PostgreSQLDbmsDialect().extractRowCountEstimate(resultSet(Arrays.asList("QUERY PLAN"), new Object[]{ plan })));
+    }
+
+    @Test
+    public void postgreSQLInvalidPlan() throws SQLException {
+        Assert.assertEquals(-1L, new PostgreSQLDbmsDialect().extractRowCountEstimate(resultSet(Arrays.asList("QUERY PLAN"), new Object[]{ "[ { \"Plan\": { \"Node Type\": " })));
+        Assert.assertEquals(-1L, new PostgreSQLDbmsDialect().extractRowCountEstimate(resultSet(Arrays.asList("QUERY PLAN"))));
+    }
+
+    @Test
+    public void mySQLJoinWithFiltered() throws SQLException {
+        List<String> columns = Arrays.asList("id", "select_type", "table", "partitions", "type", "possible_keys", "key", "key_len", "ref", "rows", "filtered", "Extra");
+        ResultSet resultSet = resultSet(
+            columns,
+            new Object[]{ 1, "SIMPLE", "d1_0", null, "ALL", "FK_owner", null, null, null, 1000L, 33.33d, "Using where" },
+            new Object[]{ 1, "SIMPLE", "o1_0", null, "eq_ref", "PRIMARY", "PRIMARY", "8", "test.d1_0.owner_id", 1L, 100d, "Using index" },
+            new Object[]{ 2, "SUBQUERY", "p1_0", null, "ALL", null, null, null, null, 50L, 100d, null }
+        );
+        Assert.assertEquals(334L, new MySQLDbmsDialect().extractRowCountEstimate(resultSet));
+    }
+
+    @Test
+    public void mySQLWithoutFiltered() throws SQLException {
+        List<String> columns = Arrays.asList("id", "select_type", "table", "type", "possible_keys", "key", "key_len", "ref", "rows", "Extra");
+        ResultSet resultSet = resultSet(
+            columns,
+            new Object[]{ 1, "SIMPLE", "d1_0", "index", null, "PRIMARY", "8", null, 2500L, "Using index" }
+        );
+        Assert.assertEquals(2500L, new MySQLDbmsDialect().extractRowCountEstimate(resultSet));
+    }
+
+    private static ResultSet resultSet(final List<String> columns, final Object[]... rows) {
+        final ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(RowCountEstimateTest.class.getClassLoader(), new Class[]{ ResultSetMetaData.class }, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                switch (method.getName()) {
+                    case "getColumnCount":
+                        return columns.size();
+                    case "getColumnLabel":
+                    case "getColumnName":
+                        return columns.get((Integer) args[0] - 1);
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        });
+        return (ResultSet) Proxy.newProxyInstance(RowCountEstimateTest.class.getClassLoader(), new Class[]{ ResultSet.class }, new InvocationHandler() {
+            private int row = -1;
+            private boolean wasNull;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                switch (method.getName()) {
+                    case "next":
+                        return ++row < rows.length;
+                    case "getMetaData":
+                        return metaData;
+                    case "wasNull":
+                        return wasNull;
+                    case "getString":
+                        return get(args[0]);
+                    case "getInt":
+                        Number intValue = (Number) get(args[0]);
+                        return intValue == null ? 0 : intValue.intValue();
+                    case "getLong":
+                        Number longValue = (Number) get(args[0]);
+                        return longValue == null ? 0L : longValue.longValue();
+                    case "getDouble":
+                        Number doubleValue = (Number) get(args[0]);
+                        return doubleValue == null ? 0d : doubleValue.doubleValue();
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            }
+
+            private Object get(Object column) {
+                int index = column instanceof Integer ? (Integer) column - 1 : columns.indexOf(column);
+                Object value = rows[row][index];
+                wasNull = value == null;
+                return value;
+            }
+        });
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.impl.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SqlClauseIndexTest {
+
+    private static final String[] QUERIES = {
+        "select 1",
+        "select abc from asd",
+        "select (select 1 from asd) from asd",
+        "select 1 union all select 1",
+        "with a AS (select 1 from x where y = 1) select 1 from b",
+        "with a AS (select 1), b AS (select (select 1 from asd) from asd) select 1 one, two from abc union all select three from asd",
+        "select a.x as one, (select count(*) from b where b.y = a.y group by b.z) as two from a where a.id in (1, 2) group by a.x having count(*) > 1 order by a.x limit 10",
+        "select a.x from a order by a.x fetch first 10 rows only",
+        "select \" from \", ' where ', `, order by` as c from [ limit ] where a = ')'",
+        "SELECT a.x AS one, a.y two FROM a WHERE a.x = 1 GROUP BY a.x ORDER BY a.x",
+        "delete from a where exists (select 1 from b where b.id = a.id)",
+        "update a set x = 1 where id in (select id from b)",
+        "insert into abc(a,b) select 1,2 from dual",
+        "select testcte0_.id as col_0_0_, (select count(*) from TestCTE testcte1_ where testcte1_.nesting_level<2) as col_1_0_ from TestCTE testcte0_ where testcte0_.nesting_level<2 order by testcte0_.id ASC",
+    };
+
+    @Test
+    public void equivalentToSqlUtils() {
+        for (String sql : QUERIES) {
+            SqlClauseIndex index = SqlClauseIndex.of(sql);
+            Assert.assertEquals(sql, SqlUtils.indexOfSelect(sql), index.indexOfSelect());
+            Assert.assertEquals(sql, SqlUtils.indexOfFrom(sql), index.indexOfFrom());
+            Assert.assertEquals(sql, SqlUtils.indexOfWhere(sql), index.indexOfWhere());
+            Assert.assertEquals(sql, SqlUtils.indexOfGroupBy(sql, 0), index.indexOfGroupBy());
+            Assert.assertEquals(sql, SqlUtils.indexOfHaving(sql, 0), index.indexOfHaving());
+            Assert.assertEquals(sql, SqlUtils.indexOfOrderBy(sql), index.indexOfOrderBy());
+            Assert.assertEquals(sql, SqlUtils.indexOfLimit(sql), index.indexOfLimit());
+            Assert.assertEquals(sql, SqlUtils.indexOfFetchFirst(sql, 0), index.indexOfFetchFirst());
+            if (index.indexOfSelect() != -1) {
+                Assert.assertArrayEquals(sql, SqlUtils.getSelectItemAliases(sql, index.indexOfSelect()), index.getSelectItemAliases());
+                Assert.assertArrayEquals(sql, SqlUtils.getSelectItemExpressions(sql, index.indexOfSelect()), index.getSelectItemExpressions());
+                Assert.assertArrayEquals(sql, SqlUtils.getSelectItemColumns(sql, index.indexOfSelect()), index.getSelectItemColumns());
+            }
+        }
+    }
+
+    @Test
+    public void toplevelClauses() {
+        String sql = "select a.x as one, (select b.y from b where b.z = 'order by') as two from a where a.x = 1 order by a.x";
+        SqlClauseIndex index = SqlClauseIndex.of(sql);
+        Assert.assertEquals(0, index.indexOfSelect());
+        Assert.assertEquals(sql.indexOf(" from a "), index.indexOfFrom());
+        Assert.assertEquals(sql.indexOf(" where a.x"), index.indexOfWhere());
+        Assert.assertEquals(sql.lastIndexOf(" order by "), index.indexOfOrderBy());
+        Assert.assertEquals(-1, index.indexOfGroupBy());
+        Assert.assertArrayEquals(new String[]{ "one", "two" }, index.getSelectItemAliases());
+    }
+}
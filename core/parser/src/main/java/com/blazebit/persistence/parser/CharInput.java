@@ -0,0 +1,146 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A forward only character input over a {@link CharSequence} or a {@link Reader} used by the {@link JsonParser} and {@link XmlParser}.
+ * A reader is consumed through a fixed size buffer, so the input is never materialized as a whole.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+final class CharInput {
+
+    private static final int BUFFER_SIZE = 4096;
+
+    private final CharSequence sequence;
+    private final Reader reader;
+    private final char[] buffer;
+    private int offset;
+    private int position;
+    private int limit;
+
+    public CharInput(CharSequence sequence) {
+        this.sequence = sequence;
+        this.reader = null;
+        this.buffer = null;
+        this.limit = sequence.length();
+    }
+
+    public CharInput(Reader reader) {
+        this.sequence = null;
+        this.reader = reader;
+        this.buffer = new char[BUFFER_SIZE];
+    }
+
+    /**
+     * Returns the underlying character sequence or <code>null</code> if this input is backed by a reader.
+     * Values of a character sequence input can be referenced through a {@link SubSequence} instead of being copied.
+     *
+     * @return the underlying character sequence or <code>null</code>
+     */
+    public CharSequence getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Returns the position of the next character relative to the start of the input.
+     *
+     * @return the position of the next character
+     */
+    public int position() {
+        return offset + position;
+    }
+
+    /**
+     * Returns the next character or -1 if the end of the input was reached.
+     *
+     * @return the next character or -1
+     * @throws IOException if reading from the reader fails
+     */
+    public int read() throws IOException {
+        if (position == limit) {
+            if (reader == null) {
+                return -1;
+            }
+            offset += limit;
+            position = 0;
+            limit = reader.read(buffer, 0, buffer.length);
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+            return buffer[position++];
+        }
+        if (reader == null) {
+            return sequence.charAt(position++);
+        }
+        return buffer[position++];
+    }
+
+    /**
+     * Returns the next character or throws an exception if the end of the input was reached.
+     *
+     * @return the next character
+     * @throws IOException if reading from the reader fails
+     */
+    public char readRequired() throws IOException {
+        int c = read();
+        if (c == -1) {
+            throw new IllegalArgumentException("Unexpected end of input at position: " + position());
+        }
+        return (char) c;
+    }
+
+    /**
+     * Returns the next non-whitespace character or -1 if the end of the input was reached.
+     *
+     * @return the next non-whitespace character or -1
+     * @throws IOException if reading from the reader fails
+     */
+    public int readNonWhitespace() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c != -1 && Character.isWhitespace(c));
+        return c;
+    }
+
+    /**
+     * Returns whether the given region of the underlying character sequence equals the given string.
+     *
+     * @param start The start of the region in the sequence
+     * @param end The end of the region in the sequence
+     * @param string The string to compare with
+     * @return whether the region equals the string
+     */
+    public boolean regionEquals(int start, int end, String string) {
+        int length = end - start;
+        if (length != string.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (sequence.charAt(start + i) != string.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
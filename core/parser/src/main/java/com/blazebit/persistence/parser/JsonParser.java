@@ -16,6 +16,8 @@
 
 package com.blazebit.persistence.parser;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -134,6 +136,289 @@ public final class JsonParser {
         return list;
     }
 
+    /**
+     * Parses the JSON array of objects into an object array per element, with the values at the index of the respective field.
+     * In contrast to {@link #parseStringOnly(CharSequence, String...)}, the input is scanned once, unescaped string values aren't copied
+     * and field names are matched without allocating strings. Number and boolean values are returned in their textual representation,
+     * so that they can be converted like string values. Nested arrays are returned as {@link CharSequence}, as their fields are unknown here.
+     *
+     * @param json The JSON to parse
+     * @param fields The field names of the objects
+     * @return The list of object arrays
+     */
+    public static List<Object[]> parse(CharSequence json, String... fields) {
+        if (json == null || json.length() == 0) {
+            return new ArrayList<>();
+        }
+        try {
+            return new JsonTokenizer(new CharInput(json), fields).parse();
+        } catch (IOException ex) {
+            // Can't happen as we don't read from a reader
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Like {@link #parse(CharSequence, String...)}, but reads the JSON from the given reader through a fixed size buffer,
+     * so that e.g. the contents of a {@link java.sql.Clob} don't have to be materialized as a whole.
+     * All values are copied into strings.
+     *
+     * @param json The reader for the JSON to parse
+     * @param fields The field names of the objects
+     * @return The list of object arrays
+     * @throws IOException if reading from the reader fails
+     */
+    public static List<Object[]> parse(Reader json, String... fields) throws IOException {
+        return new JsonTokenizer(new CharInput(json), fields).parse();
+    }
+
+    /**
+     * A single pass tokenizer for the JSON structure produced by the JSON functions.
+     *
+     * @author Christian Beikov
+     * @since 1.6.7
+     */
+    private static final class JsonTokenizer {
+
+        private final CharInput input;
+        private final CharSequence sequence;
+        private final String[] fields;
+        private final StringBuilder sb = new StringBuilder();
+        private int valueStart;
+        private int valueEnd;
+
+        public JsonTokenizer(CharInput input, String[] fields) {
+            this.input = input;
+            this.sequence = input.getSequence();
+            this.fields = fields;
+        }
+
+        public List<Object[]> parse() throws IOException {
+            List<Object[]> list = new ArrayList<>();
+            int c;
+            do {
+                c = input.read();
+            } while (c != -1 && c != '[');
+            if (c == -1) {
+                return list;
+            }
+            c = input.readNonWhitespace();
+            if (c == ']') {
+                return list;
+            }
+            while (true) {
+                expect(c, '{');
+                Object[] object = new Object[fields.length];
+                c = input.readNonWhitespace();
+                int fieldIndex = -1;
+                while (c != '}') {
+                    expect(c, '"');
+                    fieldIndex = readFieldIndex(fieldIndex + 1);
+                    expect(input.readNonWhitespace(), ':');
+                    c = readValue(input.readNonWhitespace(), object, fieldIndex);
+                    if (c == ',') {
+                        c = input.readNonWhitespace();
+                    } else {
+                        expect(c, '}');
+                    }
+                }
+                list.add(object);
+                c = input.readNonWhitespace();
+                if (c == ']') {
+                    return list;
+                }
+                expect(c, ',');
+                c = input.readNonWhitespace();
+            }
+        }
+
+        private int readFieldIndex(int expectedIndex) throws IOException {
+            boolean copied = readString();
+            // The fields are usually rendered in order, so try the expected field first
+            if (expectedIndex < fields.length && fieldEquals(copied, fields[expectedIndex])) {
+                return expectedIndex;
+            }
+            for (int i = 0; i < fields.length; i++) {
+                if (fieldEquals(copied, fields[i])) {
+                    return i;
+                }
+            }
+            // Unknown fields are skipped
+            return -1;
+        }
+
+        private boolean fieldEquals(boolean copied, String field) {
+            if (copied) {
+                return field.contentEquals(sb);
+            }
+            return input.regionEquals(valueStart, valueEnd, field);
+        }
+
+        private int readValue(int c, Object[] object, int fieldIndex) throws IOException {
+            Object value;
+            switch (c) {
+                case '"':
+                    if (readString()) {
+                        value = sb.toString();
+                    } else {
+                        value = new SubSequence(sequence, valueStart, valueEnd);
+                    }
+                    c = input.readNonWhitespace();
+                    break;
+                case '[':
+                case '{':
+                    value = readNested(c);
+                    c = input.readNonWhitespace();
+                    break;
+                case 'n':
+                    expect(input.read(), 'u');
+                    expect(input.read(), 'l');
+                    expect(input.read(), 'l');
+                    value = null;
+                    c = input.readNonWhitespace();
+                    break;
+                case -1:
+                    throw new IllegalArgumentException("Unexpected end of input at position: " + input.position());
+                default:
+                    // Native number or boolean token
+                    int start = input.position() - 1;
+                    sb.setLength(0);
+                    do {
+                        if (sequence == null) {
+                            sb.append((char) c);
+                        }
+                        c = input.read();
+                    } while (c != -1 && c != ',' && c != '}' && !Character.isWhitespace(c));
+                    if (sequence == null) {
+                        value = sb.toString();
+                    } else {
+                        value = new SubSequence(sequence, start, input.position() - (c == -1 ? 0 : 1));
+                    }
+                    if (Character.isWhitespace(c)) {
+                        c = input.readNonWhitespace();
+                    }
+                    break;
+            }
+            if (fieldIndex != -1) {
+                object[fieldIndex] = value;
+            }
+            return c;
+        }
+
+        /**
+         * Reads a string after the opening quote. Returns <code>true</code> if the string was copied into the string builder
+         * because it contains escape sequences or the input is a reader, otherwise the string is within the bounds
+         * <code>valueStart</code> and <code>valueEnd</code> of the underlying sequence.
+         */
+        private boolean readString() throws IOException {
+            boolean copied = sequence == null;
+            sb.setLength(0);
+            valueStart = input.position();
+            while (true) {
+                char c = input.readRequired();
+                if (c == '"') {
+                    valueEnd = input.position() - 1;
+                    return copied;
+                } else if (c == '\\') {
+                    if (!copied) {
+                        sb.append(sequence, valueStart, input.position() - 1);
+                        copied = true;
+                    }
+                    sb.append(readEscape());
+                } else if (copied) {
+                    sb.append(c);
+                }
+            }
+        }
+
+        private char readEscape() throws IOException {
+            char c = input.readRequired();
+            switch (c) {
+                case 'b':
+                    return '\b';
+                case 'f':
+                    return '\f';
+                case 'r':
+                    return '\r';
+                case 'n':
+                    return '\n';
+                case 't':
+                    return '\t';
+                case 'u':
+                    int codePoint = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(input.readRequired(), 16);
+                        if (digit == -1) {
+                            throw new IllegalStateException("Unexpected escape sequence at position: " + input.position());
+                        }
+                        codePoint = (codePoint << 4) | digit;
+                    }
+                    return (char) codePoint;
+                case '"':
+                case '\\':
+                case '/':
+                    return c;
+                default:
+                    throw new IllegalStateException("Unexpected escape sequence at position: " + input.position());
+            }
+        }
+
+        private CharSequence readNested(int c) throws IOException {
+            int start = input.position() - 1;
+            int level = 1;
+            boolean quoteMode = false;
+            sb.setLength(0);
+            if (sequence == null) {
+                sb.append((char) c);
+            }
+            while (level != 0) {
+                c = input.readRequired();
+                if (sequence == null) {
+                    sb.append((char) c);
+                }
+                if (quoteMode) {
+                    if (c == '\\') {
+                        c = input.readRequired();
+                        if (sequence == null) {
+                            sb.append((char) c);
+                        }
+                    } else if (c == '"') {
+                        quoteMode = false;
+                    }
+                } else {
+                    switch (c) {
+                        case '"':
+                            quoteMode = true;
+                            break;
+                        case '[':
+                        case '{':
+                            level++;
+                            break;
+                        case ']':
+                        case '}':
+                            level--;
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            }
+            if (sequence == null) {
+                return sb.toString();
+            }
+            return new SubSequence(sequence, start, input.position());
+        }
+
+        private void expect(int c, char expected) {
+            if (c != expected) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Unexpected end of input at position: " + input.position() + ", expected: " + expected);
+                }
+                throw new IllegalArgumentException("Unexpected character '" + (char) c + "' at position: " + (input.position() - 1) + ", expected: " + expected);
+            }
+        }
+    }
+
     private static int findEnd(CharSequence json, int i) {
         int arrayLevel = 1;
         int end = json.length();
@@ -16,10 +16,10 @@
 
 package com.blazebit.persistence.parser;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * This is a specialized parser for the XML structure that will be produced by the XML functions in Blaze-Persistence.
@@ -34,77 +34,213 @@ public final class XmlParser {
     }
 
     public static List<Object[]> parse(CharSequence xml, String... fields) {
-        List<Object[]> list = new ArrayList<>();
-        StringBuilder sb = new StringBuilder();
-        if (xml != null && xml.length() != 0) {
-            Map<String, Integer> fieldMap = new HashMap<>(fields.length);
-            for (int i = 0; i < fields.length; i++) {
-                fieldMap.put(fields[i], i);
-            }
+        if (xml == null || xml.length() == 0) {
+            return new ArrayList<>();
+        }
+        try {
+            return new XmlTokenizer(new CharInput(xml), fields).parse();
+        } catch (IOException ex) {
+            // Can't happen as we don't read from a reader
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Like {@link #parse(CharSequence, String...)}, but reads the XML from the given reader through a fixed size buffer,
+     * so that e.g. the contents of a {@link java.sql.Clob} don't have to be materialized as a whole.
+     * All values are copied into strings.
+     *
+     * @param xml The reader for the XML to parse
+     * @param fields The element names of the fields
+     * @return The list of object arrays
+     * @throws IOException if reading from the reader fails
+     */
+    public static List<Object[]> parse(Reader xml, String... fields) throws IOException {
+        return new XmlTokenizer(new CharInput(xml), fields).parse();
+    }
 
-            for (int i = 0; i < xml.length(); i++) {
+    /**
+     * A single pass tokenizer for the XML structure produced by the XML functions.
+     * Unescaped text isn't copied and element names are matched without allocating strings.
+     *
+     * @author Christian Beikov
+     * @since 1.6.7
+     */
+    private static final class XmlTokenizer {
+
+        private final CharInput input;
+        private final CharSequence sequence;
+        private final String[] fields;
+        private final StringBuilder sb = new StringBuilder();
+
+        public XmlTokenizer(CharInput input, String[] fields) {
+            this.input = input;
+            this.sequence = input.getSequence();
+            this.fields = fields;
+        }
+
+        public List<Object[]> parse() throws IOException {
+            List<Object[]> list = new ArrayList<>();
+            while (true) {
+                int c;
+                do {
+                    c = input.read();
+                } while (c != -1 && c != '<');
+                if (c == -1) {
+                    return list;
+                }
+                skipTag();
                 Object[] object = new Object[fields.length];
-                boolean key = true;
-                boolean escape = false;
                 int fieldIndex = -1;
-                i = CharSequenceUtils.indexOf(xml, "<e>", i) + 3;
-                LOOP: for (; i < xml.length(); i++) {
-                    char c = xml.charAt(i);
-                    switch (c) {
-                        case '<':
-                            int endIndex = CharSequenceUtils.indexOf(xml, '>', i);
-                            if (key) {
-                                if (xml.charAt(i + 1) == '/') {
-                                    i = endIndex;
-                                    break LOOP;
-                                }
-                                String tag = xml.subSequence(i + 1, endIndex).toString();
-                                fieldIndex = fieldMap.get(tag);
-                                i = endIndex;
-                                key = false;
-                            } else {
-                                String tag = xml.subSequence(i + 2, endIndex).toString();
-                                if (xml.charAt(i + 1) != '/' || !tag.equals(fields[fieldIndex])) {
-                                    throw new IllegalStateException("Unexpected tag at position: " + i);
-                                }
-                                if (escape) {
-                                    object[fieldIndex] = sb.toString();
-                                } else {
-                                    object[fieldIndex] = new SubSequence(xml, i - sb.length(), i);
-                                }
-                                key = true;
-                                fieldIndex = -1;
-                                i = endIndex;
-                            }
-                            sb.setLength(0);
-                            break;
-                        case '&':
-                            escape = true;
-                            switch (xml.charAt(i + 1)) {
-                                case 'a':
-                                    sb.append('&');
-                                    i += 4;
-                                    break;
-                                case 'l':
-                                    sb.append('<');
-                                    i += 3;
-                                    break;
-                                case 'g':
-                                    sb.append('>');
-                                    i += 3;
-                                    break;
-                                default:
-                                    throw new IllegalStateException("Unexpected escape sequence at position: " + i);
-                            }
-                            break;
-                        default:
-                            sb.append(c);
+                while (true) {
+                    if (input.readRequired() != '<') {
+                        continue;
+                    }
+                    char first = input.readRequired();
+                    if (first == '/') {
+                        skipTag();
+                        break;
+                    }
+                    int tagStart = input.position() - 1;
+                    boolean empty = false;
+                    sb.setLength(0);
+                    char tagChar = first;
+                    int tagEnd;
+                    while (true) {
+                        if (tagChar == '>') {
+                            tagEnd = input.position() - 1;
                             break;
+                        }
+                        if (tagChar == '/') {
+                            empty = true;
+                        } else if (sequence == null) {
+                            sb.append(tagChar);
+                        }
+                        tagChar = input.readRequired();
+                    }
+                    if (empty) {
+                        tagEnd--;
+                    }
+                    fieldIndex = findFieldIndex(tagStart, tagEnd, fieldIndex + 1);
+                    if (!empty) {
+                        object[fieldIndex] = readText(fields[fieldIndex]);
                     }
                 }
                 list.add(object);
             }
         }
-        return list;
+
+        private int findFieldIndex(int start, int end, int expectedIndex) {
+            // The fields are usually rendered in order, so try the expected field first
+            if (expectedIndex < fields.length && fieldEquals(start, end, fields[expectedIndex])) {
+                return expectedIndex;
+            }
+            for (int i = 0; i < fields.length; i++) {
+                if (fieldEquals(start, end, fields[i])) {
+                    return i;
+                }
+            }
+            throw new IllegalStateException("Unexpected tag at position: " + start);
+        }
+
+        private boolean fieldEquals(int start, int end, String field) {
+            if (sequence == null) {
+                return field.contentEquals(sb);
+            }
+            return input.regionEquals(start, end, field);
+        }
+
+        private Object readText(String field) throws IOException {
+            boolean copied = sequence == null;
+            sb.setLength(0);
+            int start = input.position();
+            int end;
+            while (true) {
+                char c = input.readRequired();
+                if (c == '<') {
+                    end = input.position() - 1;
+                    break;
+                } else if (c == '&') {
+                    if (!copied) {
+                        sb.append(sequence, start, input.position() - 1);
+                        copied = true;
+                    }
+                    sb.append(readEntity());
+                } else if (copied) {
+                    sb.append(c);
+                }
+            }
+            if (input.readRequired() != '/') {
+                throw new IllegalStateException("Unexpected tag at position: " + end);
+            }
+            for (int i = 0; i < field.length(); i++) {
+                if (input.readRequired() != field.charAt(i)) {
+                    throw new IllegalStateException("Unexpected tag at position: " + end);
+                }
+            }
+            if (input.readRequired() != '>') {
+                throw new IllegalStateException("Unexpected tag at position: " + end);
+            }
+            if (copied) {
+                return sb.toString();
+            }
+            return new SubSequence(sequence, start, end);
+        }
+
+        private char readEntity() throws IOException {
+            int position = input.position() - 1;
+            char c = input.readRequired();
+            switch (c) {
+                case 'a':
+                    c = input.readRequired();
+                    if (c == 'm' && input.readRequired() == 'p' && input.readRequired() == ';') {
+                        return '&';
+                    } else if (c == 'p' && input.readRequired() == 'o' && input.readRequired() == 's' && input.readRequired() == ';') {
+                        return '\'';
+                    }
+                    break;
+                case 'l':
+                    if (input.readRequired() == 't' && input.readRequired() == ';') {
+                        return '<';
+                    }
+                    break;
+                case 'g':
+                    if (input.readRequired() == 't' && input.readRequired() == ';') {
+                        return '>';
+                    }
+                    break;
+                case 'q':
+                    if (input.readRequired() == 'u' && input.readRequired() == 'o' && input.readRequired() == 't' && input.readRequired() == ';') {
+                        return '"';
+                    }
+                    break;
+                case '#':
+                    int radix = 10;
+                    int codePoint = 0;
+                    c = input.readRequired();
+                    if (c == 'x') {
+                        radix = 16;
+                        c = input.readRequired();
+                    }
+                    while (c != ';') {
+                        int digit = Character.digit(c, radix);
+                        if (digit == -1) {
+                            throw new IllegalStateException("Unexpected escape sequence at position: " + position);
+                        }
+                        codePoint = codePoint * radix + digit;
+                        c = input.readRequired();
+                    }
+                    return (char) codePoint;
+                default:
+                    break;
+            }
+            throw new IllegalStateException("Unexpected escape sequence at position: " + position);
+        }
+
+        private void skipTag() throws IOException {
+            while (input.readRequired() != '>') {
+                // Skip until the end of the tag
+            }
+        }
     }
 }
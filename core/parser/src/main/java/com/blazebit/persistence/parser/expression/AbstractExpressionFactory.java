@@ -111,6 +111,7 @@ public abstract class AbstractExpressionFactory extends AbstractExpressionFactor
     private final int minEnumSegmentCount;
     private final int minEntitySegmentCount;
     private final ExpressionOptimizer optimizer = new ExpressionOptimizer();
+    private final SimpleExpressionParser simpleExpressionParser;
 
     protected AbstractExpressionFactory(Map<String, FunctionKind> functions, Map<String, Class<?>> entityTypes, Map<String, Class<Enum<?>>> enumTypes, Map<String, Class<Enum<?>>> enumTypesForLiterals, boolean optimize) {
         this.functions = functions;
@@ -152,15 +153,21 @@ public abstract class AbstractExpressionFactory extends AbstractExpressionFactor
             }
         }
         this.minEntitySegmentCount = minSegmentCount;
+        this.simpleExpressionParser = new SimpleExpressionParser(entityTypes, enumTypes, enumTypesForLiterals, minEnumSegmentCount, minEntitySegmentCount);
     }
 
-    private Expression createExpression(RuleInvoker ruleInvoker, String expression, boolean allowOuter, boolean allowQuantifiedPredicates, boolean allowObjectExpression, MacroConfiguration macroConfiguration, Set<String> usedMacros) {
+    private Expression createExpression(RuleInvoker ruleInvoker, int simpleExpressionKinds, String expression, boolean allowOuter, boolean allowQuantifiedPredicates, boolean allowObjectExpression, MacroConfiguration macroConfiguration, Set<String> usedMacros) {
         if (expression == null) {
             throw new NullPointerException("expression");
         }
         if (expression.isEmpty()) {
             throw new IllegalArgumentException("expression");
         }
+        // Most expressions are plain paths, parameters or literals which we can handle without going through ANTLR
+        Expression simpleExpression = simpleExpressionParser.parse(expression, simpleExpressionKinds);
+        if (simpleExpression != null) {
+            return simpleExpression;
+        }
         CharStream inputCharStream = CharStreams.fromString(expression);
         JPQLNextLexer l = new JPQLNextLexer(inputCharStream);
         configureLexer(l);
@@ -199,7 +206,7 @@ public abstract class AbstractExpressionFactory extends AbstractExpressionFactor
 
     @Override
     public Expression createPathExpression(String expression, MacroConfiguration macroConfiguration, Set<String> usedMacros) {
-        Expression expr = createExpression(PATH_RULE_INVOKER, expression, false, false, false, macroConfiguration, usedMacros);
+        Expression expr = createExpression(PATH_RULE_INVOKER, SimpleExpressionParser.PATH, expression, false, false, false, macroConfiguration, usedMacros);
         if (expr instanceof PathExpression) {
             return expr;
         } else if (expr instanceof PathElementExpression) {
@@ -223,7 +230,7 @@ public abstract class AbstractExpressionFactory extends AbstractExpressionFactor
 
     @Override
     public Expression createSimpleExpression(String expression, boolean allowOuter, boolean allowQuantifiedPredicates, boolean allowObjectExpression, MacroConfiguration macroConfiguration, Set<String> usedMacros) {
-        return createExpression(getSimpleExpressionRuleInvoker(), expression, allowOuter, allowQuantifiedPredicates, allowObjectExpression, macroConfiguration, usedMacros);
+        return createExpression(getSimpleExpressionRuleInvoker(), SimpleExpressionParser.PATH | SimpleExpressionParser.PARAMETER_OR_LITERAL, expression, allowOuter, allowQuantifiedPredicates, allowObjectExpression, macroConfiguration, usedMacros);
     }
 
     @Override
@@ -250,17 +257,17 @@ public abstract class AbstractExpressionFactory extends AbstractExpressionFactor
     
     @Override
     public Predicate createBooleanExpression(String expression, boolean allowQuantifiedPredicates, MacroConfiguration macroConfiguration, Set<String> usedMacros) {
-        return (Predicate) createExpression(PREDICATE_EXPRESSION_RULE_INVOKER, expression, false, allowQuantifiedPredicates, false, macroConfiguration, usedMacros);
+        return (Predicate) createExpression(PREDICATE_EXPRESSION_RULE_INVOKER, SimpleExpressionParser.NONE, expression, false, allowQuantifiedPredicates, false, macroConfiguration, usedMacros);
     }
 
     @Override
     public Expression createInItemExpression(String expression, MacroConfiguration macroConfiguration, Set<String> usedMacros) {
-        return createExpression(IN_ITEM_EXPRESSION_RULE_INVOKER, expression, false, false, false, macroConfiguration, usedMacros);
+        return createExpression(IN_ITEM_EXPRESSION_RULE_INVOKER, SimpleExpressionParser.PARAMETER_OR_LITERAL, expression, false, false, false, macroConfiguration, usedMacros);
     }
 
     @Override
     public Expression createInItemOrPathExpression(String expression, MacroConfiguration macroConfiguration, Set<String> usedMacros) {
-        return createExpression(IN_ITEM_OR_PATH_EXPRESSION_RULE_INVOKER, expression, false, false, false, macroConfiguration, usedMacros);
+        return createExpression(IN_ITEM_OR_PATH_EXPRESSION_RULE_INVOKER, SimpleExpressionParser.PATH | SimpleExpressionParser.PARAMETER_OR_LITERAL, expression, false, false, false, macroConfiguration, usedMacros);
     }
 
     protected void configureLexer(JPQLNextLexer lexer) {
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.parser.expression;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An expression cache that bounds every named cache by a maximum weight, where the weight of an entry is the length of the expression string.
+ * Lookups are lock-free. When a cache is full, a CLOCK policy picks eviction victims and a new entry is only admitted
+ * if it was requested more often than the victim, which is tracked with a small frequency sketch.
+ * This keeps hot expressions cached, while one-off expressions, like user supplied filter strings, can't flush the cache.
+ *
+ * @param <T> The value type
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public class BoundedExpressionCache<T> implements StatisticsAwareExpressionCache<T> {
+
+    /**
+     * The default maximum weight of a named cache.
+     */
+    public static final long DEFAULT_MAXIMUM_WEIGHT = 262144L;
+
+    private final long maximumWeight;
+    private final ConcurrentMap<String, Segment<T>> segments;
+
+    public BoundedExpressionCache() {
+        this(DEFAULT_MAXIMUM_WEIGHT);
+    }
+
+    public BoundedExpressionCache(long maximumWeight) {
+        if (maximumWeight < 1) {
+            throw new IllegalArgumentException("Illegal non-positive maximum weight: " + maximumWeight);
+        }
+        this.maximumWeight = maximumWeight;
+        this.segments = new ConcurrentHashMap<>();
+    }
+
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    @Override
+    public T get(String cacheName, Key key) {
+        return getSegment(cacheName).get(key);
+    }
+
+    @Override
+    public T putIfAbsent(String cacheName, Key key, T value) {
+        return getSegment(cacheName).putIfAbsent(key, value);
+    }
+
+    @Override
+    public Map<String, ExpressionCacheStatistics> getStatistics() {
+        Map<String, ExpressionCacheStatistics> statistics = new LinkedHashMap<>(segments.size());
+        for (Map.Entry<String, Segment<T>> entry : segments.entrySet()) {
+            statistics.put(entry.getKey(), entry.getValue());
+        }
+        return Collections.unmodifiableMap(statistics);
+    }
+
+    private Segment<T> getSegment(String cacheName) {
+        Segment<T> segment = segments.get(cacheName);
+        if (segment == null) {
+            segment = new Segment<>(cacheName, maximumWeight);
+            Segment<T> oldSegment = segments.putIfAbsent(cacheName, segment);
+            if (oldSegment != null) {
+                segment = oldSegment;
+            }
+        }
+        return segment;
+    }
+
+    /**
+     * A single named cache.
+     *
+     * @param <T> The value type
+     * @author Christian Beikov
+     * @since 1.6.7
+     */
+    private static final class Segment<T> implements ExpressionCacheStatistics {
+
+        private final String cacheName;
+        private final long maximumWeight;
+        private final ConcurrentHashMap<Key, Node<T>> map;
+        private final FrequencySketch sketch;
+        private final AtomicLong hitCount = new AtomicLong();
+        private final AtomicLong missCount = new AtomicLong();
+        private final AtomicLong evictionCount = new AtomicLong();
+        // Guarded by this
+        private final ArrayDeque<Node<T>> clock;
+        private volatile long weight;
+
+        public Segment(String cacheName, long maximumWeight) {
+            this.cacheName = cacheName;
+            this.maximumWeight = maximumWeight;
+            this.map = new ConcurrentHashMap<>();
+            // We assume an average expression length of 16 characters to estimate the number of entries
+            this.sketch = new FrequencySketch((int) Math.min(maximumWeight / 16L, 1 << 20));
+            this.clock = new ArrayDeque<>();
+        }
+
+        public T get(Key key) {
+            sketch.increment(key.hashCode());
+            Node<T> node = map.get(key);
+            if (node == null) {
+                missCount.incrementAndGet();
+                return null;
+            }
+            node.referenced = true;
+            hitCount.incrementAndGet();
+            return node.value;
+        }
+
+        public synchronized T putIfAbsent(Key key, T value) {
+            Node<T> node = map.get(key);
+            if (node != null) {
+                return node.value;
+            }
+            int entryWeight = Math.max(1, key.getExpression().length());
+            if (entryWeight > maximumWeight) {
+                return value;
+            }
+
+            if (weight + entryWeight > maximumWeight) {
+                int candidateFrequency = sketch.frequency(key.hashCode());
+                // Collect all victims before evicting any of them, so that nothing is evicted if the candidate isn't admitted
+                List<Node<T>> victims = new ArrayList<>();
+                long remainingWeight = weight;
+                do {
+                    Node<T> victim = nextVictim();
+                    victims.add(victim);
+                    if (sketch.frequency(victim.key.hashCode()) >= candidateFrequency) {
+                        // A victim is at least as popular as the candidate, so we keep the victims and don't admit the candidate
+                        for (int i = victims.size() - 1; i >= 0; i--) {
+                            clock.addFirst(victims.get(i));
+                        }
+                        return value;
+                    }
+                    remainingWeight -= victim.weight;
+                } while (remainingWeight + entryWeight > maximumWeight);
+
+                for (int i = 0; i < victims.size(); i++) {
+                    Node<T> victim = victims.get(i);
+                    map.remove(victim.key);
+                    weight -= victim.weight;
+                    evictionCount.incrementAndGet();
+                }
+            }
+
+            node = new Node<>(key, value, entryWeight);
+            map.put(key, node);
+            clock.addLast(node);
+            weight += entryWeight;
+            return value;
+        }
+
+        private Node<T> nextVictim() {
+            // Give referenced nodes a second chance, which terminates at the latest after one full round
+            while (true) {
+                Node<T> node = clock.pollFirst();
+                if (!node.referenced) {
+                    return node;
+                }
+                node.referenced = false;
+                clock.addLast(node);
+            }
+        }
+
+        @Override
+        public String getCacheName() {
+            return cacheName;
+        }
+
+        @Override
+        public long getSize() {
+            return map.size();
+        }
+
+        @Override
+        public long getWeight() {
+            return weight;
+        }
+
+        @Override
+        public long getMaximumWeight() {
+            return maximumWeight;
+        }
+
+        @Override
+        public long getHitCount() {
+            return hitCount.get();
+        }
+
+        @Override
+        public long getMissCount() {
+            return missCount.get();
+        }
+
+        @Override
+        public long getEvictionCount() {
+            return evictionCount.get();
+        }
+    }
+
+    /**
+     * A cache entry.
+     *
+     * @param <T> The value type
+     * @author Christian Beikov
+     * @since 1.6.7
+     */
+    private static final class Node<T> {
+        final Key key;
+        final T value;
+        final int weight;
+        volatile boolean referenced;
+
+        public Node(Key key, T value, int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * A count-min sketch with 4 bit saturating counters that halves all counters periodically,
+     * so that the frequency reflects recent popularity. Updates are not synchronized as approximate counts are good enough.
+     *
+     * @author Christian Beikov
+     * @since 1.6.7
+     */
+    private static final class FrequencySketch {
+
+        private static final int[] SEEDS = { 0x97cb3127, 0x9e3779b9, 0xc2b2ae35, 0x27d4eb2f };
+        private static final int MAXIMUM_COUNT = 15;
+
+        private final byte[][] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        public FrequencySketch(int expectedEntries) {
+            int width = Integer.highestOneBit(Math.max(64, expectedEntries - 1) << 1);
+            this.table = new byte[SEEDS.length][width];
+            this.mask = width - 1;
+            this.sampleSize = width * 10;
+        }
+
+        public int frequency(int hashCode) {
+            int frequency = MAXIMUM_COUNT;
+            for (int i = 0; i < SEEDS.length; i++) {
+                frequency = Math.min(frequency, table[i][indexOf(hashCode, i)]);
+            }
+            return frequency;
+        }
+
+        public void increment(int hashCode) {
+            boolean added = false;
+            for (int i = 0; i < SEEDS.length; i++) {
+                int index = indexOf(hashCode, i);
+                if (table[i][index] < MAXIMUM_COUNT) {
+                    table[i][index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        private synchronized void reset() {
+            if (additions < sampleSize) {
+                return;
+            }
+            for (int i = 0; i < table.length; i++) {
+                byte[] row = table[i];
+                for (int j = 0; j < row.length; j++) {
+                    row[j] = (byte) (row[j] >>> 1);
+                }
+            }
+            additions = additions >>> 1;
+        }
+
+        private int indexOf(int hashCode, int row) {
+            int hash = hashCode * SEEDS[row];
+            hash ^= hash >>> 16;
+            return hash & mask;
+        }
+    }
+}
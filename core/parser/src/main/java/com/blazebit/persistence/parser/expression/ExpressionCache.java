@@ -57,6 +57,10 @@ public interface ExpressionCache<T> {
             this.flags = flags;
         }
 
+        public String getExpression() {
+            return expression;
+        }
+
         public boolean isAllowOuter() {
             return (flags & ALLOW_OUTER_MASK) != 0;
         }
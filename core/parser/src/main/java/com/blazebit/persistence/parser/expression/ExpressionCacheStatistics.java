@@ -0,0 +1,40 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.parser.expression;
+
+/**
+ * Statistics of a single named cache within an {@link ExpressionCache}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public interface ExpressionCacheStatistics {
+
+    public String getCacheName();
+
+    public long getSize();
+
+    public long getWeight();
+
+    public long getMaximumWeight();
+
+    public long getHitCount();
+
+    public long getMissCount();
+
+    public long getEvictionCount();
+}
@@ -1132,8 +1132,12 @@ public class JPQLNextExpressionVisitorImpl extends JPQLNextParserBaseVisitor<Exp
         }
     }
 
-    @SuppressWarnings({ "rawtypes", "unchecked" })
     private Expression createEnumLiteral(String enumStr) {
+        return createEnumLiteral(enumStr, enums, enumsForLiterals);
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    static Expression createEnumLiteral(String enumStr, Map<String, Class<Enum<?>>> enums, Map<String, Class<Enum<?>>> enumsForLiterals) {
         int lastDotIdx = enumStr.lastIndexOf('.');
         if (lastDotIdx == -1) {
             return null;
@@ -1153,6 +1157,10 @@ public class JPQLNextExpressionVisitorImpl extends JPQLNextParserBaseVisitor<Exp
     }
 
     private Expression createEntityTypeLiteral(String entityLiteralStr) {
+        return createEntityTypeLiteral(entityLiteralStr, entities);
+    }
+
+    static Expression createEntityTypeLiteral(String entityLiteralStr, Map<String, Class<?>> entities) {
         Class<?> entityType = entities.get(entityLiteralStr);
         if (entityType == null) {
             return null;
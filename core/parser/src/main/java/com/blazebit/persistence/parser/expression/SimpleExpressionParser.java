@@ -0,0 +1,230 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.parser.expression;
+
+import com.blazebit.persistence.parser.JPQLNextLexer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A hand-written recognizer for the most common trivial expressions i.e. plain paths like <code>owner.address.city</code>,
+ * parameters and simple string or integer literals, that produces the same expression tree as the ANTLR based parser would, without its overhead.
+ * The recognizer is conservative and returns <code>null</code> for everything it doesn't understand, so the caller can fall back to the ANTLR parser.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public final class SimpleExpressionParser {
+
+    /**
+     * Nothing may be parsed by the simple parser.
+     */
+    public static final int NONE = 0;
+    /**
+     * Plain paths may be parsed by the simple parser.
+     */
+    public static final int PATH = 1;
+    /**
+     * Parameters and literals may be parsed by the simple parser.
+     */
+    public static final int PARAMETER_OR_LITERAL = 2;
+
+    private static final Set<String> KEYWORDS;
+    private static final Set<String> NON_IDENTIFIER_KEYWORDS;
+
+    static {
+        Set<String> keywords = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = JPQLNextLexer.AFTER; i <= JPQLNextLexer.WITHIN; i++) {
+            keywords.add(JPQLNextLexer.VOCABULARY.getSymbolicName(i));
+        }
+        KEYWORDS = keywords;
+        // The keywords that aren't allowed as non-initial path elements
+        Set<String> nonIdentifierKeywords = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        nonIdentifierKeywords.add(JPQLNextLexer.VOCABULARY.getSymbolicName(JPQLNextLexer.CURRENT_DATE));
+        nonIdentifierKeywords.add(JPQLNextLexer.VOCABULARY.getSymbolicName(JPQLNextLexer.CURRENT_INSTANT));
+        nonIdentifierKeywords.add(JPQLNextLexer.VOCABULARY.getSymbolicName(JPQLNextLexer.CURRENT_TIME));
+        nonIdentifierKeywords.add(JPQLNextLexer.VOCABULARY.getSymbolicName(JPQLNextLexer.CURRENT_TIMESTAMP));
+        nonIdentifierKeywords.add(JPQLNextLexer.VOCABULARY.getSymbolicName(JPQLNextLexer.NULL));
+        nonIdentifierKeywords.add(JPQLNextLexer.VOCABULARY.getSymbolicName(JPQLNextLexer.OLD));
+        nonIdentifierKeywords.add(JPQLNextLexer.VOCABULARY.getSymbolicName(JPQLNextLexer.WITHIN));
+        NON_IDENTIFIER_KEYWORDS = nonIdentifierKeywords;
+    }
+
+    private final Map<String, Class<?>> entityTypes;
+    private final Map<String, Class<Enum<?>>> enumTypes;
+    private final Map<String, Class<Enum<?>>> enumTypesForLiterals;
+    private final int minEnumSegmentCount;
+    private final int minEntitySegmentCount;
+
+    public SimpleExpressionParser(Map<String, Class<?>> entityTypes, Map<String, Class<Enum<?>>> enumTypes, Map<String, Class<Enum<?>>> enumTypesForLiterals, int minEnumSegmentCount, int minEntitySegmentCount) {
+        this.entityTypes = entityTypes;
+        this.enumTypes = enumTypes;
+        this.enumTypesForLiterals = enumTypesForLiterals;
+        this.minEnumSegmentCount = minEnumSegmentCount;
+        this.minEntitySegmentCount = minEntitySegmentCount;
+    }
+
+    /**
+     * Parses the given non-empty expression if it is a trivial expression of one of the allowed kinds.
+     *
+     * @param expression The expression to parse
+     * @param allowedKinds The bitmask of allowed kinds i.e. {@link #PATH} and {@link #PARAMETER_OR_LITERAL}
+     * @return The parsed expression or <code>null</code> if the ANTLR parser has to be used
+     */
+    public Expression parse(String expression, int allowedKinds) {
+        char c = expression.charAt(0);
+        if (isIdentifierStart(c)) {
+            return (allowedKinds & PATH) == 0 ? null : parsePath(expression);
+        }
+        if ((allowedKinds & PARAMETER_OR_LITERAL) == 0) {
+            return null;
+        }
+        switch (c) {
+            case ':':
+                return parseNamedParameter(expression);
+            case '?':
+                return parsePositionalParameter(expression);
+            case '\'':
+                return parseStringLiteral(expression);
+            default:
+                if (c >= '0' && c <= '9') {
+                    return parseIntegerLiteral(expression);
+                }
+                return null;
+        }
+    }
+
+    private Expression parsePath(String expression) {
+        int length = expression.length();
+        List<PathElementExpression> pathElementExpressions = new ArrayList<>(4);
+        int segmentStart = 0;
+        for (int i = 0; i <= length; i++) {
+            if (i == length || expression.charAt(i) == '.') {
+                if (segmentStart == i || !isIdentifierStart(expression.charAt(segmentStart))) {
+                    return null;
+                }
+                String segment = segmentStart == 0 && i == length ? expression : expression.substring(segmentStart, i);
+                // The lexer produces keyword tokens for these, so let the ANTLR parser decide
+                if ((segmentStart == 0 ? KEYWORDS : NON_IDENTIFIER_KEYWORDS).contains(segment)) {
+                    return null;
+                }
+                pathElementExpressions.add(new PropertyExpression(segment));
+                segmentStart = i + 1;
+            } else if (!isIdentifierPart(expression.charAt(i))) {
+                return null;
+            }
+        }
+
+        // Handle entity and enum literals the same way as JPQLNextExpressionVisitorImpl
+        int size = pathElementExpressions.size();
+        if (size >= minEnumSegmentCount) {
+            Expression literalExpression = JPQLNextExpressionVisitorImpl.createEnumLiteral(expression, enumTypes, enumTypesForLiterals);
+            if (literalExpression != null) {
+                return literalExpression;
+            }
+        } else if (size >= minEntitySegmentCount || size == 1) {
+            Expression literalExpression = JPQLNextExpressionVisitorImpl.createEntityTypeLiteral(expression, entityTypes);
+            if (literalExpression != null) {
+                return literalExpression;
+            }
+        }
+        return new PathExpression(pathElementExpressions);
+    }
+
+    private static Expression parseNamedParameter(String expression) {
+        int length = expression.length();
+        if (length == 1 || !isIdentifierStart(expression.charAt(1))) {
+            return null;
+        }
+        for (int i = 2; i < length; i++) {
+            if (!isIdentifierPart(expression.charAt(i))) {
+                return null;
+            }
+        }
+        String name = expression.substring(1);
+        if (KEYWORDS.contains(name)) {
+            return null;
+        }
+        return new ParameterExpression(name);
+    }
+
+    private static Expression parsePositionalParameter(String expression) {
+        int length = expression.length();
+        if (length == 1 || !isIntegerLiteral(expression, 1, length)) {
+            return null;
+        }
+        return new ParameterExpression(expression.substring(1));
+    }
+
+    private static Expression parseStringLiteral(String expression) {
+        int end = expression.length() - 1;
+        if (end == 0 || expression.charAt(end) != '\'') {
+            return null;
+        }
+        for (int i = 1; i < end; i++) {
+            char c = expression.charAt(i);
+            // Escaped quotes and escape sequences are left to the ANTLR parser
+            if (c == '\'' || c == '\\') {
+                return null;
+            }
+        }
+        return new StringLiteral(expression.substring(1, end));
+    }
+
+    private static Expression parseIntegerLiteral(String expression) {
+        int length = expression.length();
+        char last = expression.charAt(length - 1);
+        if (last == 'L' || last == 'l') {
+            if (length == 1 || !isIntegerLiteral(expression, 0, length - 1)) {
+                return null;
+            }
+            return new NumericLiteral(expression, NumericType.LONG);
+        }
+        if (!isIntegerLiteral(expression, 0, length)) {
+            return null;
+        }
+        return new NumericLiteral(expression, NumericType.INTEGER);
+    }
+
+    private static boolean isIntegerLiteral(String expression, int start, int end) {
+        // The lexer doesn't allow leading zeros
+        if (expression.charAt(start) == '0') {
+            return end - start == 1;
+        }
+        for (int i = start; i < end; i++) {
+            char c = expression.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isIdentifierStart(char c) {
+        // Only ASCII identifiers are handled, everything else is left to the ANTLR parser
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_';
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return isIdentifierStart(c) || c >= '0' && c <= '9' || c == '$';
+    }
+}
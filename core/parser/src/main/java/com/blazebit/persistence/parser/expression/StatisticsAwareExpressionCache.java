@@ -0,0 +1,35 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.parser.expression;
+
+import java.util.Map;
+
+/**
+ * An expression cache that keeps track of statistics per cache name.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public interface StatisticsAwareExpressionCache<T> extends ExpressionCache<T> {
+
+    /**
+     * Returns the statistics of the caches as map of cache name to statistics.
+     *
+     * @return The statistics per cache name
+     */
+    public Map<String, ExpressionCacheStatistics> getStatistics();
+}
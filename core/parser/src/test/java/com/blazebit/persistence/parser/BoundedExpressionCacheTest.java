@@ -0,0 +1,107 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.parser;
+
+import com.blazebit.persistence.parser.expression.BoundedExpressionCache;
+import com.blazebit.persistence.parser.expression.ExpressionCache;
+import com.blazebit.persistence.parser.expression.ExpressionCacheStatistics;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public class BoundedExpressionCacheTest {
+
+    private static final String CACHE_NAME = "test";
+
+    @Test
+    public void testWeightIsBounded() {
+        BoundedExpressionCache<String> cache = new BoundedExpressionCache<>(100);
+        for (int i = 0; i < 1000; i++) {
+            getOrPut(cache, "expression" + i);
+        }
+
+        ExpressionCacheStatistics statistics = cache.getStatistics().get(CACHE_NAME);
+        Assert.assertTrue(statistics.getWeight() <= 100);
+        Assert.assertEquals(1000, statistics.getMissCount());
+        Assert.assertEquals(0, statistics.getHitCount());
+        Assert.assertTrue(statistics.getEvictionCount() > 0);
+    }
+
+    @Test
+    public void testHotExpressionsSurviveScan() {
+        BoundedExpressionCache<String> cache = new BoundedExpressionCache<>(100);
+        for (int i = 0; i < 10; i++) {
+            getOrPut(cache, "hot" + i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            getOrPut(cache, "hot" + (i % 10));
+            getOrPut(cache, "cold" + i);
+        }
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertNotNull(cache.get(CACHE_NAME, key("hot" + i)));
+        }
+        ExpressionCacheStatistics statistics = cache.getStatistics().get(CACHE_NAME);
+        Assert.assertTrue(statistics.getHitCount() >= 1000);
+    }
+
+    @Test
+    public void testRejectedCandidateEvictsNothing() {
+        BoundedExpressionCache<String> cache = new BoundedExpressionCache<>(15);
+        getOrPut(cache, "aaaaa");
+        getOrPut(cache, "bbbbbbbbbb");
+        for (int i = 0; i < 4; i++) {
+            cache.get(CACHE_NAME, key("bbbbbbbbbb"));
+        }
+        // The candidate is more popular than the first victim, but less popular than the second one, so it must be rejected without evicting the first
+        cache.get(CACHE_NAME, key("cccccccccc"));
+        getOrPut(cache, "cccccccccc");
+
+        Assert.assertEquals(0, cache.getStatistics().get(CACHE_NAME).getEvictionCount());
+        Assert.assertNotNull(cache.get(CACHE_NAME, key("aaaaa")));
+        Assert.assertNotNull(cache.get(CACHE_NAME, key("bbbbbbbbbb")));
+        Assert.assertNull(cache.get(CACHE_NAME, key("cccccccccc")));
+    }
+
+    @Test
+    public void testCachesAreBoundedSeparately() {
+        BoundedExpressionCache<String> cache = new BoundedExpressionCache<>(10);
+        cache.putIfAbsent("a", key("expression"), "a");
+        cache.putIfAbsent("b", key("expression"), "b");
+
+        Assert.assertEquals("a", cache.get("a", key("expression")));
+        Assert.assertEquals("b", cache.get("b", key("expression")));
+        Assert.assertNull(cache.get("a", key("too long expression")));
+    }
+
+    private static String getOrPut(ExpressionCache<String> cache, String expression) {
+        ExpressionCache.Key key = key(expression);
+        String value = cache.get(CACHE_NAME, key);
+        if (value == null) {
+            value = cache.putIfAbsent(CACHE_NAME, key, expression);
+        }
+        return value;
+    }
+
+    private static ExpressionCache.Key key(String expression) {
+        return new ExpressionCache.Key(expression, false, false, false);
+    }
+}
@@ -19,6 +19,11 @@ package com.blazebit.persistence.parser;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.Assert.assertArrayEquals;
 
 /**
@@ -55,6 +60,64 @@ public class JsonParserTest {
         assertEquals(new Object[]{ "1", "test" }, JsonParser.parseStringOnly("[{\"age\": \"1\", \"name\": \"test\"}, {\"age\": \"1\", \"name\": \"test\"}]", "age", "name").get(1));
     }
 
+    @Test
+    public void testParse() throws IOException {
+        String json = "[{\"name\": \"test\", \"age\": \"1\"}, {\"age\": \"2\", \"name\": \"test\\\"\\\\\\/\\b\\f\\n\\r\\t\\uFFFF\"}]";
+        for (List<Object[]> result : Arrays.asList(JsonParser.parse(json, "name", "age"), JsonParser.parse(new StringReader(json), "name", "age"))) {
+            Assert.assertEquals(2, result.size());
+            assertEquals(new Object[]{ "test", "1" }, result.get(0));
+            assertEquals(new Object[]{ "test\"\\/\b\f\n\r\t\uFFFF", "2" }, result.get(1));
+        }
+    }
+
+    @Test
+    public void testParseNativeValues() throws IOException {
+        String json = "[{\"f0\":1,\"f1\":-2.5e3,\"f2\":true,\"f3\":null,\"f4\":false} , {\"f0\" : 2 , \"f4\" : true }]";
+        for (List<Object[]> result : Arrays.asList(JsonParser.parse(json, "f0", "f1", "f2", "f3", "f4"), JsonParser.parse(new StringReader(json), "f0", "f1", "f2", "f3", "f4"))) {
+            Assert.assertEquals(2, result.size());
+            assertEquals(new Object[]{ "1", "-2.5e3", "true", null, "false" }, result.get(0));
+            assertEquals(new Object[]{ "2", null, null, null, "true" }, result.get(1));
+        }
+    }
+
+    @Test
+    public void testParseNested() throws IOException {
+        String json = "[{\"f0\":\"1\",\"f1\":[{\"f0\":\"a]\\\"\"},{\"f0\":\"b\"}]},{\"f0\":\"2\",\"f1\":[]}]";
+        for (List<Object[]> result : Arrays.asList(JsonParser.parse(json, "f0", "f1"), JsonParser.parse(new StringReader(json), "f0", "f1"))) {
+            Assert.assertEquals(2, result.size());
+            assertEquals(new Object[]{ "1", "[{\"f0\":\"a]\\\"\"},{\"f0\":\"b\"}]" }, result.get(0));
+            assertEquals(new Object[]{ "2", "[]" }, result.get(1));
+            List<Object[]> nested = JsonParser.parse((CharSequence) result.get(0)[1], "f0");
+            Assert.assertEquals(2, nested.size());
+            assertEquals(new Object[]{ "a]\"" }, nested.get(0));
+            assertEquals(new Object[]{ "b" }, nested.get(1));
+        }
+    }
+
+    @Test
+    public void testParseLargeReader() throws IOException {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 1000; i++) {
+            if (i != 0) {
+                sb.append(',');
+            }
+            sb.append("{\"f0\":\"").append(i).append("\",\"f1\":\"value\\n").append(i).append("\"}");
+        }
+        sb.append(']');
+        List<Object[]> result = JsonParser.parse(new StringReader(sb.toString()), "f0", "f1");
+        Assert.assertEquals(1000, result.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(new Object[]{ Integer.toString(i), "value\n" + i }, result.get(i));
+        }
+    }
+
+    @Test
+    public void testParseEmpty() throws IOException {
+        Assert.assertTrue(JsonParser.parse("[]", "f0").isEmpty());
+        Assert.assertTrue(JsonParser.parse("", "f0").isEmpty());
+        Assert.assertTrue(JsonParser.parse(new StringReader(" [ ] "), "f0").isEmpty());
+    }
+
     private static void assertEquals(Object[] array1, Object[] array2) {
         Assert.assertEquals(array1.length, array2.length);
         for (int i = 0; i < array1.length; i++) {
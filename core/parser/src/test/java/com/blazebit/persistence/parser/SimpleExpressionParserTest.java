@@ -0,0 +1,153 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.parser;
+
+import com.blazebit.persistence.parser.expression.EntityLiteral;
+import com.blazebit.persistence.parser.expression.EnumLiteral;
+import com.blazebit.persistence.parser.expression.Expression;
+import com.blazebit.persistence.parser.expression.ExpressionFactory;
+import com.blazebit.persistence.parser.expression.NumericLiteral;
+import com.blazebit.persistence.parser.expression.NumericType;
+import com.blazebit.persistence.parser.expression.ParameterExpression;
+import com.blazebit.persistence.parser.expression.SimpleExpressionParser;
+import com.blazebit.persistence.parser.expression.StringLiteral;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public class SimpleExpressionParserTest extends AbstractParserTest {
+
+    private static final int ALL = SimpleExpressionParser.PATH | SimpleExpressionParser.PARAMETER_OR_LITERAL;
+
+    private final SimpleExpressionParser parser = new SimpleExpressionParser(Collections.<String, Class<?>>emptyMap(), Collections.<String, Class<Enum<?>>>emptyMap(),
+            Collections.<String, Class<Enum<?>>>emptyMap(), Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+    @Test
+    public void testPaths() {
+        assertEquals(path("name"), parser.parse("name", ALL));
+        assertEquals(path("owner", "address", "city"), parser.parse("owner.address.city", ALL));
+        assertEquals(path("a$b", "c_1"), parser.parse("a$b.c_1", ALL));
+        assertEquals(path("d", "type"), parser.parse("d.type", ALL));
+        assertEquals(path("d", "value"), parser.parse("d.value", ALL));
+        assertNull(parser.parse("owner.name", SimpleExpressionParser.PARAMETER_OR_LITERAL));
+    }
+
+    @Test
+    public void testParametersAndLiterals() {
+        assertEquals(new ParameterExpression("param"), parser.parse(":param", ALL));
+        assertEquals(new ParameterExpression("1"), parser.parse("?1", ALL));
+        assertEquals(new StringLiteral("abc"), parser.parse("'abc'", ALL));
+        assertEquals(new StringLiteral(""), parser.parse("''", ALL));
+        assertEquals(new NumericLiteral("0", NumericType.INTEGER), parser.parse("0", ALL));
+        assertEquals(new NumericLiteral("123", NumericType.INTEGER), parser.parse("123", ALL));
+        assertEquals(new NumericLiteral("123L", NumericType.LONG), parser.parse("123L", ALL));
+        assertNull(parser.parse(":param", SimpleExpressionParser.PATH));
+        assertNull(parser.parse("123", SimpleExpressionParser.PATH));
+    }
+
+    @Test
+    public void testUnsupportedExpressions() {
+        String[] expressions = {
+            "a.", ".a", "a..b", "a.1", "a[1]", "a.b c", "a(b)", "KEY(a)", "OUTER(a)", "a+1", "-1",
+            "01", "1.0", "1e2", "'a''b'", "'a\\nb'", "'a", "\"abc\"", ":", ":1", ":null", "?", "?01", "?a", "NULL", "true", "d.null", "d.current_date"
+        };
+        for (String expression : expressions) {
+            assertNull(expression, parser.parse(expression, ALL));
+            assertSameAsAntlr(expression);
+        }
+    }
+
+    @Test
+    public void testKeywordPathElements() {
+        for (int i = JPQLNextLexer.AFTER; i <= JPQLNextLexer.WITHIN; i++) {
+            String keyword = JPQLNextLexer.VOCABULARY.getSymbolicName(i);
+            assertNull(keyword, parser.parse(keyword, ALL));
+            assertNull(keyword, parser.parse(":" + keyword, ALL));
+            assertSameAsAntlr(keyword);
+            assertSameAsAntlr("d." + keyword);
+            assertSameAsAntlr("d." + keyword.toLowerCase() + ".id");
+        }
+    }
+
+    @Test
+    public void testSameAsAntlr() {
+        String[] expressions = {
+            "name", "owner.address.city", "a$b.c_1", "d.type", "d.key", "d.index", "d.true",
+            ":param", "?1", "'abc'", "''", "0", "123", "123L"
+        };
+        for (String expression : expressions) {
+            assertSameAsAntlr(expression);
+        }
+    }
+
+    @Test
+    public void testEntityAndEnumLiterals() {
+        entityTypes.put(TestEntity.class.getSimpleName(), TestEntity.class);
+        enumTypes.put(TestEnum.class.getName(), (Class<Enum<?>>) (Class<?>) TestEnum.class);
+        String enumLiteral = TestEnum.class.getName() + ".ABC";
+        assertEquals(new EntityLiteral(TestEntity.class, TestEntity.class.getSimpleName()), ef().createSimpleExpression(TestEntity.class.getSimpleName(), false));
+        assertEquals(new EnumLiteral(TestEnum.ABC, enumLiteral), ef().createSimpleExpression(enumLiteral, false));
+        assertSameAsAntlr(TestEntity.class.getSimpleName());
+        assertSameAsAntlr(TestEntity.class.getSimpleName() + ".id");
+        assertSameAsAntlr(enumLiteral);
+        assertSameAsAntlr(enumLiteral + ".name");
+        assertSameAsAntlr(TestEnum.class.getName() + ".GHI");
+    }
+
+    private void assertSameAsAntlr(String expression) {
+        ExpressionFactory ef = ef();
+        // The lexer skips the leading whitespace, but the simple parser declines such expressions
+        String antlrExpression = " " + expression;
+        assertEquals(expression, parse(ef, 0, antlrExpression), parse(ef, 0, expression));
+        assertEquals(expression, parse(ef, 1, antlrExpression), parse(ef, 1, expression));
+        assertEquals(expression, parse(ef, 2, antlrExpression), parse(ef, 2, expression));
+        assertEquals(expression, parse(ef, 3, antlrExpression), parse(ef, 3, expression));
+    }
+
+    private Object parse(ExpressionFactory ef, int kind, String expression) {
+        try {
+            switch (kind) {
+                case 0:
+                    return ef.createSimpleExpression(expression, false);
+                case 1:
+                    return ef.createPathExpression(expression);
+                case 2:
+                    return ef.createInItemExpression(expression);
+                default:
+                    return ef.createInItemOrPathExpression(expression);
+            }
+        } catch (RuntimeException ex) {
+            return ex.getClass();
+        }
+    }
+
+    static class TestEntity {
+    }
+
+    enum TestEnum {
+        ABC
+    }
+}
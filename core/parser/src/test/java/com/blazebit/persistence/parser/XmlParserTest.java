@@ -19,6 +19,11 @@ package com.blazebit.persistence.parser;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  *
  * @author Christian Beikov
@@ -53,6 +58,17 @@ public class XmlParserTest {
         assertEquals(new Object[]{ "1", "test" }, XmlParser.parse("<e><age>1</age><name>test</name></e><e><age>1</age><name>test</name></e>", "age", "name").get(1));
     }
 
+    @Test
+    public void testReader() throws IOException {
+        String xml = "<e><name>test&amp;&lt;&gt;&quot;&#65;&#x42;</name><age>1</age></e><e><age>2</age></e><e><name/><age>3</age></e>";
+        for (List<Object[]> result : Arrays.asList(XmlParser.parse(xml, "name", "age"), XmlParser.parse(new StringReader(xml), "name", "age"))) {
+            Assert.assertEquals(3, result.size());
+            assertEquals(new Object[]{ "test&<>\"AB", "1" }, result.get(0));
+            assertEquals(new Object[]{ null, "2" }, result.get(1));
+            assertEquals(new Object[]{ null, "3" }, result.get(2));
+        }
+    }
+
     private static void assertEquals(Object[] array1, Object[] array2) {
         Assert.assertEquals(array1.length, array2.length);
         for (int i = 0; i < array1.length; i++) {
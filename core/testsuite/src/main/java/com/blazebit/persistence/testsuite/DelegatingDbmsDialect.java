@@ -296,4 +296,14 @@ public class DelegatingDbmsDialect implements DbmsDialect {
     public ResultSet extractReturningResult(PreparedStatement ps) throws SQLException {
         return delegate.extractReturningResult(ps);
     }
+
+    @Override
+    public String getRowCountEstimateSql(String sql) {
+        return delegate.getRowCountEstimateSql(sql);
+    }
+
+    @Override
+    public long extractRowCountEstimate(ResultSet resultSet) throws SQLException {
+        return delegate.extractRowCountEstimate(resultSet);
+    }
 }
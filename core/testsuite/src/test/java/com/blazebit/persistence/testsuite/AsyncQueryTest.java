@@ -0,0 +1,180 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.ConfigurationProperties;
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.PagedList;
+import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.SelectBuilder;
+import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.model.DocumentViewModel;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public class AsyncQueryTest extends AbstractCoreTest {
+
+    private static final AtomicInteger EXECUTIONS = new AtomicInteger();
+    private static final Executor EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            EXECUTIONS.incrementAndGet();
+            new Thread(command).start();
+        }
+    };
+
+    @Override
+    protected boolean requiresCriteriaBuilderConfigurationCustomization() {
+        return true;
+    }
+
+    @Override
+    protected void configure(CriteriaBuilderConfiguration config) {
+        super.configure(config);
+        config.withAsyncQueryExecutor(EXECUTOR);
+    }
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person o1 = new Person("Karl1");
+                Person o2 = new Person("Karl2");
+                em.persist(o1);
+                em.persist(o2);
+                em.persist(new Document("doc1", o1));
+                em.persist(new Document("doc2", o1));
+                em.persist(new Document("doc3", o1));
+                em.persist(new Document("doc4", o2));
+            }
+        });
+    }
+
+    private static <T> T await(CompletionStage<T> stage) throws Exception {
+        return stage.toCompletableFuture().get(1, TimeUnit.MINUTES);
+    }
+
+    @Test
+    public void resultListIsSameAsSynchronous() throws Exception {
+        CriteriaBuilder<DocumentViewModel> cb = cbf.create(em, Document.class, "d")
+                .selectNew(DocumentViewModel.class).with("d.name").end()
+                .where("d.owner.name").eq("Karl1")
+                .orderByAsc("d.name");
+        int executions = EXECUTIONS.get();
+        CompletionStage<List<DocumentViewModel>> stage = cb.getResultListAsync();
+        // Changes after the call must not affect the running query
+        cb.where("d.name").eq("doc1");
+
+        List<DocumentViewModel> result = await(stage);
+        assertEquals(executions + 1, EXECUTIONS.get());
+        assertEquals(3, result.size());
+        assertEquals("doc1", result.get(0).getName());
+        assertEquals("doc2", result.get(1).getName());
+        assertEquals("doc3", result.get(2).getName());
+        assertEquals(1, cb.getResultList().size());
+    }
+
+    @Test
+    public void singleResult() throws Exception {
+        CriteriaBuilder<Long> cb = cbf.create(em, Long.class)
+                .from(Document.class, "d")
+                .select("COUNT(*)")
+                .setProperty(ConfigurationProperties.ASYNC_QUERY_TIMEOUT, "60000");
+        assertEquals(4L, (long) await(cb.getSingleResultAsync()));
+    }
+
+    @Test
+    public void pagedResultList() throws Exception {
+        PaginatedCriteriaBuilder<Document> cb = cbf.create(em, Document.class, "d")
+                .orderByAsc("d.id")
+                .page(1, 2);
+        PagedList<Document> expected = cb.getResultList();
+        PagedList<Document> result = await(cb.getPagedResultListAsync());
+        assertEquals(expected.getTotalSize(), result.getTotalSize());
+        assertEquals(expected.getFirstResult(), result.getFirstResult());
+        assertEquals(expected.size(), result.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), result.get(i).getId());
+        }
+    }
+
+    @Test
+    public void failureCompletesStageExceptionally() throws Exception {
+        CriteriaBuilder<Document> cb = cbf.create(em, Document.class, "d");
+        try {
+            await(cb.getSingleResultAsync());
+            fail("Expected failure");
+        } catch (java.util.concurrent.ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof javax.persistence.NonUniqueResultException);
+        }
+    }
+
+    @Test
+    public void rejectsCustomObjectBuilder() {
+        CriteriaBuilder<String> cb = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .selectNew(new ObjectBuilder<String>() {
+                    @Override
+                    public <X extends SelectBuilder<X>> void applySelects(X selectBuilder) {
+                        selectBuilder.select("d.name");
+                    }
+
+                    @Override
+                    public String build(Object[] tuple) {
+                        return (String) tuple[0];
+                    }
+
+                    @Override
+                    public List<String> buildList(List<String> list) {
+                        return list;
+                    }
+                });
+        try {
+            cb.getResultListAsync();
+            fail("Expected failure");
+        } catch (IllegalStateException ex) {
+            // Expected
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeTimeout() {
+        cbf.create(em, Document.class).setProperty(ConfigurationProperties.ASYNC_QUERY_TIMEOUT, "-1");
+    }
+}
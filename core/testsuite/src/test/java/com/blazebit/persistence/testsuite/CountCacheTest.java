@@ -0,0 +1,209 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.PagedList;
+import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.impl.BoundedCountCache;
+import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public class CountCacheTest extends AbstractCoreTest {
+
+    private static final BoundedCountCache COUNT_CACHE = new BoundedCountCache(16, 1, TimeUnit.MINUTES);
+
+    @Override
+    protected boolean requiresCriteriaBuilderConfigurationCustomization() {
+        return true;
+    }
+
+    @Override
+    protected void configure(CriteriaBuilderConfiguration config) {
+        super.configure(config);
+        config.withCountCache(COUNT_CACHE);
+    }
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person o1 = new Person("Karl1");
+                Person o2 = new Person("Karl2");
+                Person o3 = new Person("Karl3");
+                em.persist(o1);
+                em.persist(o2);
+                em.persist(o3);
+                em.persist(new Document("doc1", o1));
+                em.persist(new Document("doc2", o1));
+                em.persist(new Document("doc3", o1));
+                em.persist(new Document("doc4", o2));
+            }
+        });
+    }
+
+    @Before
+    public void clearCountCache() {
+        COUNT_CACHE.clear();
+    }
+
+    private PaginatedCriteriaBuilder<Document> page(String ownerName, int firstResult) {
+        return cbf.create(em, Document.class, "d")
+                .where("d.owner.name").eq(ownerName)
+                .orderByAsc("d.id")
+                .page(firstResult, 2);
+    }
+
+    @Test
+    public void reusesCountForFurtherPages() {
+        PaginatedCriteriaBuilder<Document> cb = page("Karl1", 0);
+        assertTrue(cb.isWithCountCache());
+        assertFalse(cb.isWithInlineCountQuery());
+
+        long hitCount = COUNT_CACHE.getHitCount();
+        PagedList<Document> result = cb.getResultList();
+        assertEquals(2, result.size());
+        assertEquals(3, result.getTotalSize());
+        assertEquals(hitCount, COUNT_CACHE.getHitCount());
+        assertEquals(1, COUNT_CACHE.getSize());
+
+        result = page("Karl1", 2).getResultList();
+        assertEquals(1, result.size());
+        assertEquals(3, result.getTotalSize());
+        assertEquals(hitCount + 1, COUNT_CACHE.getHitCount());
+        assertEquals(1, COUNT_CACHE.getSize());
+    }
+
+    @Test
+    public void skipsCacheForInlinedCountQuery() {
+        if (!jpaProvider.supportsSubqueryAliasShadowing()) {
+            return;
+        }
+        page("Karl1", 0).getResultList();
+        long hitCount = COUNT_CACHE.getHitCount();
+        PaginatedCriteriaBuilder<Document> cb = page("Karl1", 2).withInlineCountQuery(true);
+        PagedList<Document> result = cb.getResultList();
+        assertEquals(1, result.size());
+        assertEquals(3, result.getTotalSize());
+        assertEquals(hitCount, COUNT_CACHE.getHitCount());
+
+        cb.withCountCache(true);
+        assertFalse(cb.isWithInlineCountQuery());
+    }
+
+    @Test
+    public void distinguishesParameterValues() {
+        long hitCount = COUNT_CACHE.getHitCount();
+        assertEquals(3, page("Karl1", 0).getResultList().getTotalSize());
+        assertEquals(1, page("Karl2", 0).getResultList().getTotalSize());
+        assertEquals(hitCount, COUNT_CACHE.getHitCount());
+        assertEquals(2, COUNT_CACHE.getSize());
+    }
+
+    @Test
+    public void snapshotsCollectionParameters() {
+        List<String> names = new ArrayList<>();
+        names.add("Karl1");
+        long hitCount = COUNT_CACHE.getHitCount();
+        assertEquals(3, pageByOwnerNames(names, 0).getResultList().getTotalSize());
+        // Mutating the parameter value after the query must not alter the key of the cached count
+        names.add("Karl2");
+        assertEquals(4, pageByOwnerNames(names, 2).getResultList().getTotalSize());
+        assertEquals(hitCount, COUNT_CACHE.getHitCount());
+
+        List<String> originalNames = new ArrayList<>();
+        originalNames.add("Karl1");
+        assertEquals(3, pageByOwnerNames(originalNames, 2).getResultList().getTotalSize());
+        assertEquals(hitCount + 1, COUNT_CACHE.getHitCount());
+        assertEquals(2, COUNT_CACHE.getSize());
+    }
+
+    @Test
+    public void keysEntityParametersByIdentifier() {
+        Person owner = cbf.create(em, Person.class).where("name").eq("Karl1").getSingleResult();
+        assertEquals(3, pageByOwner(owner, 0).getResultList().getTotalSize());
+        long hitCount = COUNT_CACHE.getHitCount();
+
+        // A different instance of the same entity hits the cached count
+        em.clear();
+        owner = cbf.create(em, Person.class).where("name").eq("Karl1").getSingleResult();
+        assertEquals(3, pageByOwner(owner, 2).getResultList().getTotalSize());
+        assertEquals(hitCount + 1, COUNT_CACHE.getHitCount());
+        assertEquals(1, COUNT_CACHE.getSize());
+    }
+
+    private PaginatedCriteriaBuilder<Document> pageByOwnerNames(Collection<String> ownerNames, int firstResult) {
+        return cbf.create(em, Document.class, "d")
+                .where("d.owner.name").in(ownerNames)
+                .orderByAsc("d.id")
+                .page(firstResult, 2);
+    }
+
+    private PaginatedCriteriaBuilder<Document> pageByOwner(Person owner, int firstResult) {
+        return cbf.create(em, Document.class, "d")
+                .where("d.owner").eq(owner)
+                .orderByAsc("d.id")
+                .page(firstResult, 2);
+    }
+
+    @Test
+    public void skipsCacheWhenDisabled() {
+        page("Karl1", 0).getResultList();
+        long hitCount = COUNT_CACHE.getHitCount();
+        long missCount = COUNT_CACHE.getMissCount();
+        PagedList<Document> result = page("Karl1", 2).withCountCache(false).getResultList();
+        assertEquals(3, result.getTotalSize());
+        assertEquals(hitCount, COUNT_CACHE.getHitCount());
+        assertEquals(missCount, COUNT_CACHE.getMissCount());
+    }
+
+    @Test
+    public void servesStaleCountUntilCleared() {
+        // Use a separate owner as the data change is visible to other tests
+        assertEquals(0, page("Karl3", 0).getResultList().getTotalSize());
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person owner = cbf.create(em, Person.class).where("name").eq("Karl3").getSingleResult();
+                em.persist(new Document("doc5", owner));
+            }
+        });
+        assertEquals(0, page("Karl3", 0).getResultList().getTotalSize());
+        COUNT_CACHE.clear();
+        assertEquals(1, page("Karl3", 0).getResultList().getTotalSize());
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.PagedArrayList;
+import com.blazebit.persistence.PagedList;
+import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.impl.CriteriaBuilderConfigurationImpl;
+import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
+import com.blazebit.persistence.spi.DbmsDialect;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public class EstimatedCountTest extends AbstractCoreTest {
+
+    private static final long ESTIMATE = 1000L;
+
+    @Override
+    protected boolean requiresCriteriaBuilderConfigurationCustomization() {
+        return true;
+    }
+
+    @Override
+    protected void configure(CriteriaBuilderConfiguration config) {
+        super.configure(config);
+        Map<String, DbmsDialect> dbmsDialects = new HashMap<>(((CriteriaBuilderConfigurationImpl) config).getDbmsDialects());
+        for (Map.Entry<String, DbmsDialect> entry : dbmsDialects.entrySet()) {
+            config.registerDialect(entry.getKey(), new EstimatingDbmsDialect(entry.getValue()));
+        }
+    }
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person o1 = new Person("Karl1");
+                Person o2 = new Person("Karl2");
+                em.persist(o1);
+                em.persist(o2);
+                em.persist(new Document("doc1", o1));
+                em.persist(new Document("doc2", o1));
+                em.persist(new Document("doc3", o1));
+            }
+        });
+    }
+
+    private PaginatedCriteriaBuilder<Document> page(String ownerName, int firstResult) {
+        return cbf.create(em, Document.class, "d")
+                .where("d.owner.name").eq(ownerName)
+                .orderByAsc("d.id")
+                .page(firstResult, 2)
+                .withEstimatedCount(true);
+    }
+
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void usesEstimateForFullPage() {
+        PaginatedCriteriaBuilder<Document> cb = page("Karl1", 0);
+        assertTrue(cb.isWithEstimatedCount());
+        assertFalse(cb.isWithInlineCountQuery());
+
+        PagedList<Document> result = cb.getResultList();
+        assertEquals(2, result.size());
+        assertEquals(ESTIMATE, result.getTotalSize());
+        assertEquals(ESTIMATE / 2, result.getTotalPages());
+        assertTrue(((PagedArrayList<?>) result).isTotalSizeEstimated());
+    }
+
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void lastPageDeterminesExactCount() {
+        PagedList<Document> result = page("Karl1", 2).getResultList();
+        assertEquals(1, result.size());
+        assertEquals(3, result.getTotalSize());
+        assertFalse(((PagedArrayList<?>) result).isTotalSizeEstimated());
+    }
+
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void emptyFirstPageDeterminesExactCount() {
+        PagedList<Document> result = page("Karl2", 0).getResultList();
+        assertEquals(0, result.size());
+        assertEquals(0, result.getTotalSize());
+        assertFalse(((PagedArrayList<?>) result).isTotalSizeEstimated());
+    }
+
+    @Test
+    public void executesCountQueryForCollectionJoin() {
+        // The estimate would count the joined partner rows rather than the documents
+        PagedList<Document> result = cbf.create(em, Document.class, "d")
+                .leftJoin("d.partners", "p")
+                .where("d.owner.name").eq("Karl1")
+                .where("COALESCE(p.name, 'none')").notEq("Karl2")
+                .orderByAsc("d.id")
+                .page(0, 2)
+                .withEstimatedCount(true)
+                .getResultList();
+        assertEquals(2, result.size());
+        assertEquals(3, result.getTotalSize());
+        assertFalse(((PagedArrayList<?>) result).isTotalSizeEstimated());
+    }
+
+    @Test
+    public void executesCountQueryWhenDisabled() {
+        PagedList<Document> result = page("Karl1", 0).withEstimatedCount(false).getResultList();
+        assertEquals(2, result.size());
+        assertEquals(3, result.getTotalSize());
+        assertFalse(((PagedArrayList<?>) result).isTotalSizeEstimated());
+    }
+
+    /**
+     * A dialect that reports a fixed estimate but still executes the count query to verify the parameters are bound.
+     */
+    private static class EstimatingDbmsDialect extends DelegatingDbmsDialect {
+
+        public EstimatingDbmsDialect(DbmsDialect delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public String getRowCountEstimateSql(String sql) {
+            return "select " + ESTIMATE + " from (" + sql + ") estimate_tmp";
+        }
+
+        @Override
+        public long extractRowCountEstimate(ResultSet resultSet) throws SQLException {
+            return resultSet.next() ? resultSet.getLong(1) : -1L;
+        }
+    }
+}
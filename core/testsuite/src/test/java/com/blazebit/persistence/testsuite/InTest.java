@@ -23,13 +23,18 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import javax.persistence.EntityManager;
+
 import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate42;
 import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate43;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import com.blazebit.persistence.ConfigurationProperties;
 import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
 
 /**
  *
@@ -166,4 +171,31 @@ public class InTest extends AbstractCoreTest {
         criteria.setParameter("param", Collections.singletonList(1L));
         criteria.getResultList();
     }
+
+    @Test
+    public void testInCollectionParameterPadding(){
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person owner = new Person("owner");
+                em.persist(owner);
+                for (long age = 1; age <= 4; age++) {
+                    Document document = new Document("doc" + age, owner);
+                    document.setAge(age);
+                    em.persist(document);
+                }
+            }
+        });
+        CriteriaBuilder<Document> criteria = cbf.create(em, Document.class, "d")
+                .where("d.age").inCollectionExpression(":param")
+                .orderByAsc("d.age");
+        criteria.setProperty(ConfigurationProperties.PARAMETER_LIST_PADDING, "power_of_two");
+        assertEquals("SELECT d FROM Document d WHERE d.age IN " + listParameter("param") + " ORDER BY d.age ASC", criteria.getQueryString());
+        criteria.setParameter("param", Arrays.asList(1L, 2L, 3L));
+        // The list is padded to four elements by repeating the last one, so the document with age 4 must not match
+        List<Document> result = criteria.getResultList();
+        assertEquals(3, result.size());
+        assertEquals(3L, result.get(2).getAge());
+        assertEquals(Arrays.asList(1L, 2L, 3L), criteria.getParameterValue("param"));
+    }
 }
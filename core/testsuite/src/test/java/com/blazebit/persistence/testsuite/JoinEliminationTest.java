@@ -0,0 +1,148 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.ConfigurationProperties;
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.testsuite.entity.Document;
+import org.junit.Test;
+
+import javax.persistence.Tuple;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public class JoinEliminationTest extends AbstractCoreTest {
+
+    @Test
+    public void testUnusedLeftJoinIsOmitted() {
+        CriteriaBuilder<Document> criteria = cbf.create(em, Document.class, "d")
+                .leftJoin("d.owner", "o")
+                .leftJoin("o.friend", "f");
+
+        assertEquals("SELECT d FROM Document d", criteria.getQueryString());
+        criteria.getResultList();
+    }
+
+    @Test
+    public void testUsedLeftJoinIsRendered() {
+        CriteriaBuilder<Tuple> criteria = cbf.create(em, Tuple.class).from(Document.class, "d")
+                .leftJoin("d.owner", "o")
+                .leftJoin("o.friend", "f")
+                .select("f.name");
+
+        assertEquals("SELECT f.name FROM Document d LEFT JOIN d.owner o LEFT JOIN o.friend f", criteria.getQueryString());
+        criteria.getResultList();
+    }
+
+    @Test
+    public void testLeftJoinUsedInWhereIsRendered() {
+        CriteriaBuilder<Document> criteria = cbf.create(em, Document.class, "d")
+                .leftJoin("d.owner", "o")
+                .where("o.name").eq("abc");
+
+        assertEquals("SELECT d FROM Document d LEFT JOIN d.owner o WHERE o.name = :param_0", criteria.getQueryString());
+        criteria.getResultList();
+    }
+
+    @Test
+    public void testLeftJoinWithOnClauseIsRendered() {
+        CriteriaBuilder<Document> criteria = cbf.create(em, Document.class, "d")
+                .leftJoinOn("d.owner", "o").on("o.name").eqExpression("d.name").end();
+
+        assertEquals("SELECT d FROM Document d LEFT JOIN d.owner o" + onClause("o.name = d.name"), criteria.getQueryString());
+        criteria.getResultList();
+    }
+
+    @Test
+    public void testInnerJoinIsRendered() {
+        CriteriaBuilder<Document> criteria = cbf.create(em, Document.class, "d")
+                .innerJoin("d.owner", "o");
+
+        assertEquals("SELECT d FROM Document d JOIN d.owner o", criteria.getQueryString());
+        criteria.getResultList();
+    }
+
+    @Test
+    public void testCollectionLeftJoinIsRendered() {
+        CriteriaBuilder<Document> criteria = cbf.create(em, Document.class, "d")
+                .leftJoin("d.versions", "v");
+
+        assertEquals("SELECT d FROM Document d LEFT JOIN d.versions v", criteria.getQueryString());
+        criteria.getResultList();
+    }
+
+    @Test
+    public void testFetchedLeftJoinIsRendered() {
+        CriteriaBuilder<Document> criteria = cbf.create(em, Document.class, "d")
+                .leftJoinFetch("d.owner", "o");
+
+        assertEquals("SELECT d FROM Document d LEFT JOIN FETCH d.owner o", criteria.getQueryString());
+        criteria.getResultList();
+    }
+
+    @Test
+    public void testIdAccessUsesForeignKey() {
+        CriteriaBuilder<Tuple> criteria = cbf.create(em, Tuple.class).from(Document.class, "d")
+                .leftJoin("d.owner", "o")
+                .select("o.id")
+                .where("o.id").eq(1L);
+
+        assertEquals("SELECT " + singleValuedAssociationIdPath("d.owner.id", "o") + " FROM Document d" + singleValuedAssociationIdJoin("d.owner", "o", true)
+                + " WHERE " + singleValuedAssociationIdPath("d.owner.id", "o") + " = :param_0", criteria.getQueryString());
+        criteria.getResultList();
+    }
+
+    @Test
+    public void testIdNullnessUsesForeignKey() {
+        CriteriaBuilder<Document> criteria = cbf.create(em, Document.class, "d")
+                .leftJoin("d.owner", "o")
+                .where("o.id").isNull();
+
+        assertEquals("SELECT d FROM Document d" + singleValuedAssociationIdJoin("d.owner", "o", true)
+                + " WHERE " + singleValuedAssociationIdPath("d.owner.id", "o") + " IS NULL", criteria.getQueryString());
+        criteria.getResultList();
+    }
+
+    @Test
+    public void testIdAccessWithOtherAccessKeepsJoin() {
+        CriteriaBuilder<Tuple> criteria = cbf.create(em, Tuple.class).from(Document.class, "d")
+                .leftJoin("d.owner", "o")
+                .select("o.id")
+                .select("o.name");
+
+        assertEquals("SELECT " + singleValuedAssociationIdPath("d.owner.id", "o") + ", o.name FROM Document d LEFT JOIN d.owner o", criteria.getQueryString());
+        criteria.getResultList();
+    }
+
+    @Test
+    public void testJoinEliminationCanBeDisabled() {
+        CriteriaBuilder<Tuple> criteria = cbf.create(em, Tuple.class).from(Document.class, "d")
+                .setProperty(ConfigurationProperties.JOIN_ELIMINATION, "false")
+                .leftJoin("d.owner", "o")
+                .leftJoin("d.partners", "p")
+                .select("o.id");
+
+        assertEquals("SELECT o.id FROM Document d LEFT JOIN d.owner o LEFT JOIN d.partners p", criteria.getQueryString());
+        criteria.getResultList();
+    }
+}
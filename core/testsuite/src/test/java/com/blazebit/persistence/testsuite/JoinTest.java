@@ -39,6 +39,7 @@ import com.blazebit.persistence.testsuite.tx.TxVoidWork;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import com.blazebit.persistence.ConfigurationProperties;
 import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.JoinType;
 import com.blazebit.persistence.PaginatedCriteriaBuilder;
@@ -117,6 +118,7 @@ public class JoinTest extends AbstractCoreTest {
     @Test
     public void testLeftJoin() {
         CriteriaBuilder<Document> criteria = cbf.create(em, Document.class, "d");
+        criteria.setProperty(ConfigurationProperties.JOIN_ELIMINATION, "false");
         criteria.leftJoin("owner", "o");
         criteria.leftJoin("versions", "v");
 
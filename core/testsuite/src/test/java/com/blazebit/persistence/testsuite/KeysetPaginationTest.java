@@ -16,7 +16,9 @@
 
 package com.blazebit.persistence.testsuite;
 
+import com.blazebit.persistence.CopyableObjectBuilder;
 import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.KeysetPage;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.PagedList;
@@ -33,9 +35,15 @@ import org.junit.experimental.categories.Category;
 
 import javax.persistence.EntityManager;
 import javax.persistence.Tuple;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Christian Beikov
@@ -418,4 +426,120 @@ public class KeysetPaginationTest extends AbstractCoreTest {
         assertEquals(1, result.size());
         assertEquals("doc2 - Karl2", result.get(0));
     }
+
+    @Test
+    public void testPagedResultStream() {
+        PaginatedCriteriaBuilder<String> pcb = cbf.create(em, String.class).from(Document.class, "d")
+                .select("d.name")
+                .orderByDesc("d.owner.name")
+                .orderByAsc("d.name")
+                .orderByAsc("d.id")
+                .page(0, 4);
+
+        List<String> result = pcb.getPagedResultStream().collect(Collectors.<String>toList());
+        assertEquals(Arrays.asList("doc4", "doc5", "doc6", "doc3", "doc2", "doc1"), result);
+
+        // The builder can still be used for the first page afterwards
+        PagedList<String> firstPage = pcb.getResultList();
+        assertEquals(Arrays.asList("doc4", "doc5", "doc6", "doc3"), firstPage);
+        assertEquals(6, firstPage.getTotalSize());
+    }
+
+    @Test
+    public void testAbandonedPagedResultStreamDoesNotModifyBuilder() {
+        PaginatedCriteriaBuilder<String> pcb = cbf.create(em, String.class).from(Document.class, "d")
+                .select("d.name")
+                .orderByAsc("d.name")
+                .orderByAsc("d.id")
+                .page(0, 2);
+
+        // Consume the first element of the second page and abandon the stream without closing it
+        Iterator<String> iterator = pcb.getPagedResultStream().iterator();
+        for (int i = 0; i < 3; i++) {
+            iterator.next();
+        }
+        assertEquals("doc4", iterator.next());
+
+        PagedList<String> firstPage = pcb.getResultList();
+        assertEquals(Arrays.asList("doc1", "doc2"), firstPage);
+        assertEquals(6, firstPage.getTotalSize());
+    }
+
+    @Test
+    public void testPagedResultStreamExactPageSize() {
+        PaginatedCriteriaBuilder<String> pcb = cbf.create(em, String.class).from(Document.class, "d")
+                .select("d.name")
+                .orderByAsc("d.name")
+                .orderByAsc("d.id")
+                .page(0, 3);
+
+        List<String> result = pcb.getPagedResultStream().collect(Collectors.<String>toList());
+        assertEquals(Arrays.asList("doc1", "doc2", "doc3", "doc4", "doc5", "doc6"), result);
+    }
+
+    @Test
+    public void testPagedResultStreamDetachesPreviousPage() {
+        PaginatedCriteriaBuilder<Document> pcb = cbf.create(em, Document.class, "d")
+                .orderByAsc("d.name")
+                .orderByAsc("d.id")
+                .page(0, 2);
+
+        Iterator<Document> iterator = pcb.getPagedResultStream().iterator();
+        Document first = iterator.next();
+        assertTrue(em.contains(first));
+        iterator.next();
+        // Advancing to the second page detaches the entities of the first page
+        assertEquals("doc3", iterator.next().getName());
+        assertFalse(em.contains(first));
+    }
+
+    @Test
+    public void testPagedResultStreamCopiesObjectBuilder() {
+        final List<NameObjectBuilder> copies = new ArrayList<>();
+        NameObjectBuilder objectBuilder = new NameObjectBuilder(copies);
+        PaginatedCriteriaBuilder<String> pcb = cbf.create(em, Document.class, "d")
+                .selectNew(objectBuilder)
+                .orderByAsc("d.name")
+                .orderByAsc("d.id")
+                .page(0, 4);
+
+        List<String> result = pcb.getPagedResultStream().collect(Collectors.<String>toList());
+        assertEquals(Arrays.asList("doc1", "doc2", "doc3", "doc4", "doc5", "doc6"), result);
+        assertEquals(1, copies.size());
+        assertEquals(0, objectBuilder.builtObjects);
+        assertEquals(6, copies.get(0).builtObjects);
+    }
+
+    private static class NameObjectBuilder implements CopyableObjectBuilder<String> {
+
+        private final List<NameObjectBuilder> copies;
+        private int builtObjects;
+
+        public NameObjectBuilder(List<NameObjectBuilder> copies) {
+            this.copies = copies;
+        }
+
+        @Override
+        public <X extends SelectBuilder<X>> void applySelects(X selectBuilder) {
+            selectBuilder.select("d.name");
+        }
+
+        @Override
+        public String build(Object[] tuple) {
+            builtObjects++;
+            return (String) tuple[0];
+        }
+
+        @Override
+        public List<String> buildList(List<String> list) {
+            return list;
+        }
+
+        @Override
+        public ObjectBuilder<String> copy(FullQueryBuilder<?, ?> queryBuilder) {
+            NameObjectBuilder copy = new NameObjectBuilder(copies);
+            copies.add(copy);
+            return copy;
+        }
+    }
 }
@@ -44,6 +44,8 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.Assert.*;
 
@@ -296,6 +298,35 @@ public class PaginationTest extends AbstractCoreTest {
         cb.setParameter("contactNr", 1).getResultList();
     }
 
+    @Test
+    public void testConcurrentCountQuery() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            PaginatedCriteriaBuilder<Document> cb = cbf.create(em, Document.class, "d")
+                    .where("owner.name").eq("Karl2")
+                    .orderByAsc("id")
+                    .page(0, 2)
+                    .withConcurrentCountQuery(emf, executor);
+            assertTrue(cb.isWithConcurrentCountQuery());
+            assertFalse(cb.isWithInlineCountQuery());
+            PagedList<Document> result = cb.getResultList();
+            assertEquals(2, result.size());
+            assertEquals(4, result.getTotalSize());
+
+            result = cbf.create(em, Document.class, "d")
+                    .where("owner.name").eq("Karl2")
+                    .orderByAsc("id")
+                    .page(4, 2)
+                    .withForceIdQuery(true)
+                    .withConcurrentCountQuery(emf, executor)
+                    .getResultList();
+            assertEquals(0, result.size());
+            assertEquals(4, result.getTotalSize());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     public void testSelectEmptyResultList() {
         PaginatedCriteriaBuilder<Document> cb = cbf.create(em, Document.class, "d")
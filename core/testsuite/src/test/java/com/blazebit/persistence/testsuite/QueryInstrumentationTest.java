@@ -0,0 +1,217 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.PagedList;
+import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
+import com.blazebit.persistence.spi.HistogramQueryInstrumentation;
+import com.blazebit.persistence.spi.QueryPhase;
+import com.blazebit.persistence.spi.QueryRole;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate42;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate43;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate50;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate51;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate52;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.entity.PersonCTE;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public class QueryInstrumentationTest extends AbstractCoreTest {
+
+    private static final HistogramQueryInstrumentation INSTRUMENTATION = new HistogramQueryInstrumentation();
+
+    @Override
+    protected Class<?>[] getEntityClasses() {
+        return concat(super.getEntityClasses(), new Class<?>[] {
+            PersonCTE.class
+        });
+    }
+
+    @Override
+    protected boolean requiresCriteriaBuilderConfigurationCustomization() {
+        return true;
+    }
+
+    @Override
+    protected void configure(CriteriaBuilderConfiguration config) {
+        super.configure(config);
+        config.withQueryInstrumentation(INSTRUMENTATION);
+    }
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person o1 = new Person("Karl1");
+                em.persist(o1);
+                em.persist(new Document("doc1", o1));
+                em.persist(new Document("doc2", o1));
+                em.persist(new Document("doc3", o1));
+            }
+        });
+    }
+
+    @Before
+    public void resetInstrumentation() {
+        INSTRUMENTATION.reset();
+    }
+
+    @Test
+    public void reportsPhasesOfQuery() {
+        List<Tuple> result = cbf.create(em, Tuple.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .getResultList();
+
+        assertEquals(3, result.size());
+        assertEquals(1, INSTRUMENTATION.getHistogram(QueryPhase.BUILD, QueryRole.QUERY).getCount());
+        assertEquals(1, INSTRUMENTATION.getHistogram(QueryPhase.RENDER, QueryRole.QUERY).getCount());
+        assertEquals(1, INSTRUMENTATION.getHistogram(QueryPhase.EXECUTE, QueryRole.QUERY).getCount());
+        assertEquals(3, INSTRUMENTATION.getHistogram(QueryPhase.EXECUTE, QueryRole.QUERY).getTotalRows());
+        assertEquals(1, INSTRUMENTATION.getHistogram(QueryPhase.TRANSFORM, QueryRole.QUERY).getCount());
+    }
+
+    @Test
+    @Category({ NoHibernate42.class, NoHibernate43.class, NoHibernate50.class, NoHibernate51.class, NoHibernate52.class, NoDatanucleus.class, NoOpenJPA.class })
+    public void reportsPhasesOfStreamedQuery() {
+        List<Tuple> result;
+        try (Stream<Tuple> stream = cbf.create(em, Tuple.class).from(Document.class, "d").select("d.name").getResultStream()) {
+            result = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(3, result.size());
+        assertEquals(1, INSTRUMENTATION.getHistogram(QueryPhase.EXECUTE, QueryRole.QUERY).getCount());
+        assertEquals(3, INSTRUMENTATION.getHistogram(QueryPhase.EXECUTE, QueryRole.QUERY).getTotalRows());
+        assertEquals(1, INSTRUMENTATION.getHistogram(QueryPhase.TRANSFORM, QueryRole.QUERY).getCount());
+    }
+
+    @Test
+    public void reportsExecutionWithoutObjectBuilder() {
+        CriteriaBuilder<Document> cb = cbf.create(em, Document.class, "d");
+        assertEquals(3, cb.getResultList().size());
+        assertEquals(1, INSTRUMENTATION.getHistogram(QueryPhase.EXECUTE, QueryRole.QUERY).getCount());
+        assertEquals(0, INSTRUMENTATION.getHistogram(QueryPhase.TRANSFORM, QueryRole.QUERY).getCount());
+    }
+
+    @Test
+    public void reportsPaginationQueries() {
+        PagedList<Document> result = cbf.create(em, Document.class, "d")
+                .orderByAsc("d.id")
+                .page(0, 2)
+                .withInlineCountQuery(false)
+                .withInlineIdQuery(false)
+                .getResultList();
+
+        assertEquals(2, result.size());
+        assertEquals(3, result.getTotalSize());
+        assertEquals(1, INSTRUMENTATION.getHistogram(QueryPhase.EXECUTE, QueryRole.COUNT).getCount());
+        assertEquals(1, INSTRUMENTATION.getHistogram(QueryPhase.EXECUTE, QueryRole.OBJECT).getCount());
+        assertEquals(2, INSTRUMENTATION.getHistogram(QueryPhase.EXECUTE, QueryRole.OBJECT).getTotalRows());
+    }
+
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void reportsQueryPlanCacheAccess() {
+        for (int i = 0; i < 2; i++) {
+            cbf.create(em, Long.class)
+                    .fromValues(Long.class, "val", Arrays.asList(1L, 2L))
+                    .select("val")
+                    .getResultList();
+        }
+
+        // The query plan might already be cached by a previous test
+        assertEquals(2, INSTRUMENTATION.getQueryPlanCacheHits() + INSTRUMENTATION.getQueryPlanCacheMisses());
+        assertTrue(INSTRUMENTATION.getQueryPlanCacheHits() >= 1);
+        assertEquals(INSTRUMENTATION.getQueryPlanCacheMisses(), INSTRUMENTATION.getHistogram(QueryPhase.PLAN, QueryRole.QUERY).getCount());
+        assertEquals(2, INSTRUMENTATION.getQueryPlanCacheHits(QueryRole.QUERY) + INSTRUMENTATION.getQueryPlanCacheMisses(QueryRole.QUERY));
+    }
+
+    @Test
+    public void reportsBuildOfPaginationQueryAndRenderPerRole() {
+        PagedList<Document> result = cbf.create(em, Document.class, "d")
+                .orderByAsc("d.id")
+                .page(0, 2)
+                .withForceIdQuery(true)
+                .withInlineCountQuery(false)
+                .withInlineIdQuery(false)
+                .getResultList();
+
+        assertEquals(2, result.size());
+        assertEquals(1, INSTRUMENTATION.getHistogram(QueryPhase.BUILD, QueryRole.QUERY).getCount());
+        assertEquals(0, INSTRUMENTATION.getHistogram(QueryPhase.BUILD, QueryRole.OBJECT).getCount());
+        assertEquals(1, INSTRUMENTATION.getHistogram(QueryPhase.RENDER, QueryRole.COUNT).getCount());
+        assertEquals(1, INSTRUMENTATION.getHistogram(QueryPhase.RENDER, QueryRole.ID).getCount());
+        assertEquals(1, INSTRUMENTATION.getHistogram(QueryPhase.RENDER, QueryRole.OBJECT).getCount());
+        assertEquals(0, INSTRUMENTATION.getHistogram(QueryPhase.RENDER, QueryRole.QUERY).getCount());
+    }
+
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void reportsQueryPlanOfPaginationQueriesPerRole() {
+        PagedList<Document> result = cbf.create(em, Document.class, "d")
+                .with(PersonCTE.class, false)
+                    .from(Person.class, "p")
+                    .bind("id").select("p.id")
+                    .bind("name").select("p.name")
+                    .bind("age").select("p.age")
+                    .bind("idx").select("1")
+                    .bind("owner").select("NULL")
+                .end()
+                .where("d.owner.id").in().from(PersonCTE.class, "pc").select("pc.id").end()
+                .orderByAsc("d.id")
+                .page(0, 2)
+                .withInlineCountQuery(false)
+                .withInlineIdQuery(false)
+                .getResultList();
+
+        assertEquals(2, result.size());
+        long plannedQueries = INSTRUMENTATION.getHistogram(QueryPhase.PLAN, QueryRole.COUNT).getCount()
+                + INSTRUMENTATION.getHistogram(QueryPhase.PLAN, QueryRole.OBJECT).getCount();
+        // The query plans might already be cached by a previous run
+        assertEquals(2, INSTRUMENTATION.getQueryPlanCacheHits() + INSTRUMENTATION.getQueryPlanCacheMisses());
+        assertEquals(INSTRUMENTATION.getQueryPlanCacheMisses(), plannedQueries);
+        assertEquals(0, INSTRUMENTATION.getHistogram(QueryPhase.PLAN, QueryRole.QUERY).getCount());
+        assertEquals(1, INSTRUMENTATION.getQueryPlanCacheHits(QueryRole.COUNT) + INSTRUMENTATION.getQueryPlanCacheMisses(QueryRole.COUNT));
+        assertEquals(1, INSTRUMENTATION.getQueryPlanCacheHits(QueryRole.OBJECT) + INSTRUMENTATION.getQueryPlanCacheMisses(QueryRole.OBJECT));
+        assertEquals(0, INSTRUMENTATION.getQueryPlanCacheHits(QueryRole.QUERY) + INSTRUMENTATION.getQueryPlanCacheMisses(QueryRole.QUERY));
+    }
+}
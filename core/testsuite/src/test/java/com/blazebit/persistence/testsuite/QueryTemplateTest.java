@@ -0,0 +1,293 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.testsuite;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.DefaultKeysetPage;
+import com.blazebit.persistence.Keyset;
+import com.blazebit.persistence.KeysetPage;
+import com.blazebit.persistence.PagedList;
+import com.blazebit.persistence.PaginatedCriteriaBuilder;
+import com.blazebit.persistence.PaginatedQueryTemplate;
+import com.blazebit.persistence.QueryTemplate;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public class QueryTemplateTest extends AbstractCoreTest {
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                Person o1 = new Person("Karl1");
+                Person o2 = new Person("Karl2");
+                em.persist(o1);
+                em.persist(o2);
+
+                Document doc1 = new Document("doc1", o1);
+                Document doc2 = new Document("doc2", o1);
+                Document doc3 = new Document("doc3", o2);
+                em.persist(doc1);
+                em.persist(doc2);
+                em.persist(doc3);
+            }
+        });
+    }
+
+    @Test
+    public void queryTemplateIsIndependentOfBuilderAndEntityManager() {
+        CriteriaBuilder<String> cb = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .where("d.owner.name").eq("Karl1")
+                .orderByAsc("d.name");
+        QueryTemplate<String> template = cb.createQueryTemplate();
+        // Changing the builder afterwards must not affect the template
+        cb.where("d.name").eq("doc1");
+
+        assertEquals(Collections.singleton("param_0"), template.getParameterNames());
+        assertEquals(Arrays.asList("doc1", "doc2"), template.createQuery(em).getResultList());
+
+        EntityManager otherEm = emf.createEntityManager();
+        try {
+            Map<String, Object> parameters = Collections.<String, Object>singletonMap("param_0", "Karl2");
+            assertEquals(Collections.singletonList("doc3"), template.createQuery(otherEm, parameters).getResultList());
+        } finally {
+            otherEm.close();
+        }
+        assertEquals(Arrays.asList("doc1", "doc2"), template.createQuery(em).getResultList());
+    }
+
+    @Test
+    public void queryTemplateWithTupleResult() {
+        QueryTemplate<Tuple> template = cbf.create(em, Tuple.class)
+                .from(Document.class, "d")
+                .select("d.name", "docName")
+                .select("d.owner.name", "ownerName")
+                .where("d.name").eq("doc3")
+                .createQueryTemplate();
+
+        List<Tuple> result = template.createQuery(em).getResultList();
+        assertEquals(1, result.size());
+        assertEquals("doc3", result.get(0).get("docName"));
+        assertEquals("Karl2", result.get(0).get("ownerName"));
+    }
+
+    @Test
+    public void queryTemplateRejectsUnknownParameter() {
+        QueryTemplate<Document> template = cbf.create(em, Document.class, "d")
+                .where("d.name").eq("doc1")
+                .createQueryTemplate();
+        try {
+            template.createQuery(em, Collections.<String, Object>singletonMap("unknown", "doc1"));
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            assertTrue(ex.getMessage().contains("unknown"));
+        }
+    }
+
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void queryTemplateRejectsEntityFunctions() {
+        CriteriaBuilder<Long> cb = cbf.create(em, Long.class)
+                .fromValues(Long.class, "val", Arrays.asList(1L, 2L))
+                .select("val");
+        try {
+            cb.createQueryTemplate();
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ex) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void paginatedQueryTemplateIsIndependentOfBuilderAndEntityManager() {
+        PaginatedCriteriaBuilder<String> cb = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .where("d.owner.name").like().value("Karl%").noEscape()
+                .orderByAsc("d.name")
+                .orderByAsc("d.id")
+                .page(0, 2);
+        PaginatedQueryTemplate<String> template = cb.createQueryTemplate();
+        // Changing the builder afterwards must not affect the template
+        cb.withCountQuery(false);
+
+        PagedList<String> firstPage = template.createQuery(em).getResultList();
+        assertEquals(Arrays.asList("doc1", "doc2"), firstPage);
+        assertEquals(3, firstPage.getTotalSize());
+
+        EntityManager otherEm = emf.createEntityManager();
+        try {
+            Map<String, Object> parameters = Collections.<String, Object>singletonMap("param_0", "Karl2");
+            PagedList<String> otherPage = template.createQuery(otherEm, parameters).getResultList();
+            assertEquals(Collections.singletonList("doc3"), otherPage);
+            assertEquals(1, otherPage.getTotalSize());
+        } finally {
+            otherEm.close();
+        }
+    }
+
+    @Test
+    public void paginatedQueryTemplateWithIdQuery() {
+        PaginatedQueryTemplate<Document> template = cbf.create(em, Document.class, "d")
+                .where("d.owner.name").eq("Karl1")
+                .orderByAsc("d.name")
+                .orderByAsc("d.id")
+                .page(1, 1)
+                .withForceIdQuery(true)
+                .createQueryTemplate();
+
+        PagedList<Document> page = template.createQuery(em).getResultList();
+        assertEquals(1, page.size());
+        assertEquals("doc2", page.get(0).getName());
+        assertEquals(2, page.getTotalSize());
+    }
+
+    @Test
+    public void paginatedQueryTemplateExtractsKeysetPerQuery() {
+        PaginatedQueryTemplate<String> template = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .orderByAsc("d.name")
+                .orderByAsc("d.id")
+                .page(null, 0, 2)
+                .withKeysetExtraction(true)
+                .createQueryTemplate();
+
+        PagedList<String> firstPage = template.createQuery(em).getResultList();
+        PagedList<String> secondPage = template.createQuery(em).getResultList();
+        assertEquals(Arrays.asList("doc1", "doc2"), firstPage);
+        assertEquals(firstPage, secondPage);
+        assertNotNull(firstPage.getKeysetPage().getHighest());
+        assertEquals(firstPage.getKeysetPage().getHighest().getTuple()[0], secondPage.getKeysetPage().getHighest().getTuple()[0]);
+    }
+
+    @Test
+    public void paginatedQueryTemplateWithPageArguments() {
+        PaginatedQueryTemplate<String> template = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .orderByAsc("d.name")
+                .orderByAsc("d.id")
+                .page(0, 2)
+                .createQueryTemplate();
+
+        PagedList<String> secondPage = template.createQuery(em, Collections.<String, Object>emptyMap(), 2, 2).getResultList();
+        assertEquals(Collections.singletonList("doc3"), secondPage);
+        assertEquals(2, secondPage.getFirstResult());
+        assertEquals(3, secondPage.getTotalSize());
+    }
+
+    @Test
+    public void paginatedQueryTemplateWithKeysetArguments() {
+        PagedList<String> firstPage = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .orderByAsc("d.name")
+                .orderByAsc("d.id")
+                .page(null, 0, 1)
+                .withKeysetExtraction(true)
+                .getResultList();
+        // The template is created for the next page, so it contains the keyset predicate for navigating forward
+        PaginatedQueryTemplate<String> template = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .orderByAsc("d.name")
+                .orderByAsc("d.id")
+                .page(firstPage.getKeysetPage(), 1, 1)
+                .withKeysetExtraction(true)
+                .createQueryTemplate();
+
+        PagedList<String> secondPage = template.createQuery(em).getResultList();
+        assertEquals(Collections.singletonList("doc2"), secondPage);
+
+        // The positions don't match the data, so only a keyset predicate can produce the page after the keyset
+        Keyset highest = secondPage.getKeysetPage().getHighest();
+        KeysetPage keysetPage = new DefaultKeysetPage(5, 1, highest, highest);
+        PagedList<String> thirdPage = template.createQuery(em, Collections.<String, Object>emptyMap(), keysetPage, 6, 1).getResultList();
+        assertEquals(Collections.singletonList("doc3"), thirdPage);
+
+        // Navigating backwards needs a different keyset predicate, so offset pagination is used
+        Keyset lowest = thirdPage.getKeysetPage().getLowest();
+        keysetPage = new DefaultKeysetPage(2, 1, lowest, lowest);
+        PagedList<String> previousPage = template.createQuery(em, Collections.<String, Object>emptyMap(), keysetPage, 1, 1).getResultList();
+        assertEquals(Collections.singletonList("doc2"), previousPage);
+    }
+
+    @Test
+    public void paginatedQueryTemplateRejectsKeysetParameter() {
+        PagedList<String> firstPage = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .orderByAsc("d.id")
+                .page(null, 0, 1)
+                .withKeysetExtraction(true)
+                .getResultList();
+        PaginatedQueryTemplate<String> template = cbf.create(em, String.class)
+                .from(Document.class, "d")
+                .select("d.name")
+                .orderByAsc("d.id")
+                .page(firstPage.getKeysetPage(), 1, 1)
+                .createQueryTemplate();
+        try {
+            template.createQuery(em, Collections.<String, Object>singletonMap("_keysetParameter_0", 1L));
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void paginatedQueryTemplateRejectsBoundedCount() {
+        PaginatedCriteriaBuilder<Document> cb = cbf.create(em, Document.class, "d")
+                .orderByAsc("d.id")
+                .page(0, 1)
+                .withBoundedCount(2);
+        try {
+            cb.createQueryTemplate();
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ex) {
+            // Expected
+        }
+    }
+}
@@ -77,7 +77,7 @@ public class SingleValuedAssociationManyToOneTest extends AbstractCoreTest {
         CriteriaBuilder<Tuple> cb = cbf.create(em, Tuple.class).from(Document.class, "d")
                 .select("d.owner.id")
                 .leftJoinDefault("owner", "o");
-        String expectedQuery = "SELECT " + singleValuedAssociationIdPath("d.owner.id", "o") + " FROM Document d LEFT JOIN d.owner o";
+        String expectedQuery = "SELECT " + singleValuedAssociationIdPath("d.owner.id", "o") + " FROM Document d" + singleValuedAssociationIdJoin("d.owner", "o", true);
         Assert.assertEquals(expectedQuery, cb.getQueryString());
     }
     
@@ -86,7 +86,7 @@ public class SingleValuedAssociationManyToOneTest extends AbstractCoreTest {
         CriteriaBuilder<Tuple> cb = cbf.create(em, Tuple.class).from(Document.class, "d")
                 .select("o.id")
                 .leftJoinDefault("owner", "o");
-        String expectedQuery = "SELECT o.id FROM Document d LEFT JOIN d.owner o";
+        String expectedQuery = "SELECT " + singleValuedAssociationIdPath("d.owner.id", "o") + " FROM Document d" + singleValuedAssociationIdJoin("d.owner", "o", true);
         Assert.assertEquals(expectedQuery, cb.getQueryString());
     }
     
@@ -95,7 +95,7 @@ public class SingleValuedAssociationManyToOneTest extends AbstractCoreTest {
         CriteriaBuilder<Tuple> cb = cbf.create(em, Tuple.class).from(Document.class, "d")
                 .select("o.id")
                 .leftJoin("owner", "o");
-        String expectedQuery = "SELECT o.id FROM Document d LEFT JOIN d.owner o";
+        String expectedQuery = "SELECT " + singleValuedAssociationIdPath("d.owner.id", "o") + " FROM Document d" + singleValuedAssociationIdJoin("d.owner", "o", true);
         Assert.assertEquals(expectedQuery, cb.getQueryString());
     }
 }
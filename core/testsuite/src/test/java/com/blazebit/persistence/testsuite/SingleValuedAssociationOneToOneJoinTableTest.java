@@ -131,7 +131,7 @@ public class SingleValuedAssociationOneToOneJoinTableTest extends AbstractCoreTe
         CriteriaBuilder<Tuple> cb = cbf.create(em, Tuple.class).from(DocumentForOneToOneJoinTable.class, "d")
                 .select("d.documentInfoJoinTable.id")
                 .leftJoinDefault("documentInfoJoinTable", "o");
-        String expectedQuery = "SELECT d.documentInfoJoinTable.id FROM DocumentForOneToOneJoinTable d LEFT JOIN d.documentInfoJoinTable o";
+        String expectedQuery = "SELECT d.documentInfoJoinTable.id FROM DocumentForOneToOneJoinTable d";
         Assert.assertEquals(expectedQuery, cb.getQueryString());
         cb.getResultList(); // Execute the query to ensure the query actually executes with dereference
     }
@@ -141,7 +141,8 @@ public class SingleValuedAssociationOneToOneJoinTableTest extends AbstractCoreTe
         CriteriaBuilder<Tuple> cb = cbf.create(em, Tuple.class).from(DocumentForOneToOneJoinTable.class, "d")
                 .select("o.id")
                 .leftJoinDefault("documentInfoJoinTable", "o");
-        String expectedQuery = "SELECT o.id FROM DocumentForOneToOneJoinTable d LEFT JOIN d.documentInfoJoinTable o";
+        // With table group joins, the foreign key can be used and the join is omitted
+        String expectedQuery = supportsTableGroupJoins() ? "SELECT d.documentInfoJoinTable.id FROM DocumentForOneToOneJoinTable d" : "SELECT o.id FROM DocumentForOneToOneJoinTable d LEFT JOIN d.documentInfoJoinTable o";
         Assert.assertEquals(expectedQuery, cb.getQueryString());
     }
 
@@ -150,7 +151,8 @@ public class SingleValuedAssociationOneToOneJoinTableTest extends AbstractCoreTe
         CriteriaBuilder<Tuple> cb = cbf.create(em, Tuple.class).from(DocumentForOneToOneJoinTable.class, "d")
                 .select("o.id")
                 .leftJoin("documentInfoJoinTable", "o");
-        String expectedQuery = "SELECT o.id FROM DocumentForOneToOneJoinTable d LEFT JOIN d.documentInfoJoinTable o";
+        // With table group joins, the foreign key can be used and the join is omitted
+        String expectedQuery = supportsTableGroupJoins() ? "SELECT d.documentInfoJoinTable.id FROM DocumentForOneToOneJoinTable d" : "SELECT o.id FROM DocumentForOneToOneJoinTable d LEFT JOIN d.documentInfoJoinTable o";
         Assert.assertEquals(expectedQuery, cb.getQueryString());
     }
 
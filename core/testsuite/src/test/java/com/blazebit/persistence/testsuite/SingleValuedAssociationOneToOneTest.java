@@ -105,7 +105,7 @@ public class SingleValuedAssociationOneToOneTest extends AbstractCoreTest {
         CriteriaBuilder<Tuple> cb = cbf.create(em, Tuple.class).from(DocumentInfo.class, "d")
                 .select("d.document.id")
                 .leftJoinDefault("document", "o");
-        String expectedQuery = "SELECT " + singleValuedAssociationIdPath("d.document.id", "o") + " FROM DocumentInfo d LEFT JOIN d.document o";
+        String expectedQuery = "SELECT " + singleValuedAssociationIdPath("d.document.id", "o") + " FROM DocumentInfo d" + singleValuedAssociationIdJoin("d.document", "o", true);
         Assert.assertEquals(expectedQuery, cb.getQueryString());
     }
 
@@ -123,7 +123,7 @@ public class SingleValuedAssociationOneToOneTest extends AbstractCoreTest {
         CriteriaBuilder<Tuple> cb = cbf.create(em, Tuple.class).from(DocumentInfo.class, "d")
                 .select("o.id")
                 .leftJoinDefault("document", "o");
-        String expectedQuery = "SELECT o.id FROM DocumentInfo d LEFT JOIN d.document o";
+        String expectedQuery = "SELECT " + singleValuedAssociationIdPath("d.document.id", "o") + " FROM DocumentInfo d" + singleValuedAssociationIdJoin("d.document", "o", true);
         Assert.assertEquals(expectedQuery, cb.getQueryString());
     }
 
@@ -141,7 +141,7 @@ public class SingleValuedAssociationOneToOneTest extends AbstractCoreTest {
         CriteriaBuilder<Tuple> cb = cbf.create(em, Tuple.class).from(DocumentInfo.class, "d")
                 .select("o.id")
                 .leftJoin("document", "o");
-        String expectedQuery = "SELECT o.id FROM DocumentInfo d LEFT JOIN d.document o";
+        String expectedQuery = "SELECT " + singleValuedAssociationIdPath("d.document.id", "o") + " FROM DocumentInfo d" + singleValuedAssociationIdJoin("d.document", "o", true);
         Assert.assertEquals(expectedQuery, cb.getQueryString());
     }
 }
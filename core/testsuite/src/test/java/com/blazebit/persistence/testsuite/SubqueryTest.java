@@ -31,6 +31,7 @@ import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
 import com.blazebit.persistence.testsuite.tx.TxVoidWork;
 import org.junit.Test;
 
+import com.blazebit.persistence.ConfigurationProperties;
 import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.PaginatedCriteriaBuilder;
 import com.blazebit.persistence.impl.BuilderChainingException;
@@ -369,6 +370,7 @@ public class SubqueryTest extends AbstractCoreTest {
     @Category({ NoDatanucleus.class })
     public void testMultipleCorrelationsWithJoins() {
         CriteriaBuilder<Document> crit = cbf.create(em, Document.class, "d")
+                .setProperty(ConfigurationProperties.JOIN_ELIMINATION, "false")
                 .where("owner").in()
                 .from("d.people", "person")
                 .leftJoin("person.partnerDocument", "personDoc")
@@ -415,6 +417,7 @@ public class SubqueryTest extends AbstractCoreTest {
     @Category({ NoDatanucleus.class })
     public void testReorderExplicitJoins() {
         CriteriaBuilder<Document> crit = cbf.create(em, Document.class, "d")
+            .setProperty(ConfigurationProperties.JOIN_ELIMINATION, "false")
             .where("owner").in()
             .from("d.people", "person")
             .from("d.partners", "partner")
@@ -151,6 +151,44 @@ public class ValuesClauseTest extends AbstractCoreTest {
         assertEquals(1L, resultList.get(0).get(1));
     }
 
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void testValuesEntityFunctionPadding() {
+        CriteriaBuilder<Tuple> cb = cbf.create(em, Tuple.class);
+        cb.setProperty(ConfigurationProperties.PARAMETER_LIST_PADDING, "power_of_two");
+        cb.fromValues(Long.class, "allowedAge", Arrays.asList(1L, 2L, 3L));
+        cb.from(Document.class, "doc");
+        cb.where("doc.age").eqExpression("allowedAge");
+        cb.select("doc.name");
+        cb.select("allowedAge");
+
+        String expected = ""
+                + "SELECT doc.name, allowedAge FROM Long(4 VALUES) allowedAge, Document doc WHERE doc.age = allowedAge";
+
+        assertEquals(expected, cb.getQueryString());
+        List<Tuple> resultList = cb.getResultList();
+        assertEquals(1, resultList.size());
+        assertEquals("doc1", resultList.get(0).get(0));
+        assertEquals(1L, resultList.get(0).get(1));
+    }
+
+    @Test
+    @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
+    public void testValuesEntityFunctionNoPaddingWithoutNullFiltering() {
+        CriteriaBuilder<Tuple> cb = cbf.create(em, Tuple.class);
+        cb.setProperty(ConfigurationProperties.PARAMETER_LIST_PADDING, "power_of_two");
+        cb.setProperty(ConfigurationProperties.VALUES_CLAUSE_FILTER_NULLS, "false");
+        cb.fromValues(Long.class, "allowedAge", Arrays.asList(1L, 2L, 3L));
+        cb.from(Document.class, "doc");
+        cb.where("doc.age").eqExpression("allowedAge");
+        cb.select("doc.name");
+
+        String expected = ""
+                + "SELECT doc.name FROM Long(3 VALUES) allowedAge, Document doc WHERE doc.age = allowedAge";
+
+        assertEquals(expected, cb.getQueryString());
+    }
+
     @Test
     @Category({ NoDatanucleus.class, NoEclipselink.class, NoOpenJPA.class })
     public void testValuesEntityFunctionWithEmbeddable() {
@@ -23,6 +23,7 @@ import java.util.Calendar;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import com.blazebit.persistence.ConfigurationProperties;
 import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.impl.BuilderChainingException;
 import com.blazebit.persistence.testsuite.AbstractCoreTest;
@@ -205,6 +206,7 @@ public class WhereTest extends AbstractCoreTest {
     @Test
     public void testWhereExistsIssue776() {
         CriteriaBuilder<Document> crit = cbf.create(em, Document.class, "d");
+        crit.setProperty(ConfigurationProperties.JOIN_ELIMINATION, "false");
         crit.whereExists().from(Person.class, "p").leftJoin("p.friend", "f").select("1").where("name").eqExpression("d.name").end();
         String expected = "SELECT d FROM Document d WHERE EXISTS (SELECT 1 FROM Person p LEFT JOIN p.friend f WHERE p.name = d.name)";
 
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view;
+
+import java.util.List;
+
+/**
+ * Thrown when optimistic lock conflicts have been detected while saving multiple entity views at once.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public class BulkOptimisticLockException extends OptimisticLockException {
+
+    /**
+     * The entity view objects for which a conflict was detected.
+     */
+    private final List<Object> entityViews;
+    /**
+     * The ids of the entity view objects for which a conflict was detected.
+     */
+    private final List<Object> entityViewIds;
+
+    /**
+     * Constructs a new <code>BulkOptimisticLockException</code> with the given entity view objects and their ids.
+     *
+     * @param message The exception message
+     * @param entityViews The entity views that caused the exception
+     * @param entityViewIds The ids of the entity views that caused the exception
+     */
+    public BulkOptimisticLockException(String message, List<Object> entityViews, List<Object> entityViewIds) {
+        super(message, null, entityViews.isEmpty() ? null : entityViews.get(0));
+        this.entityViews = entityViews;
+        this.entityViewIds = entityViewIds;
+    }
+
+    /**
+     * Returns the entity view objects for which a conflict was detected.
+     *
+     * @return The entity views
+     */
+    public List<Object> getEntityViews() {
+        return entityViews;
+    }
+
+    /**
+     * Returns the ids of the entity view objects for which a conflict was detected.
+     *
+     * @return The entity view ids
+     */
+    public List<Object> getEntityViewIds() {
+        return entityViewIds;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Specifies that the objects of a non-updatable entity view with an id mapping are cached by the entity view manager.
+ * Cached objects are shared between all queries and threads, so they should be effectively immutable,
+ * which makes this mainly useful for reference data.
+ *
+ * The cache is consulted by {@link EntityViewManager#find(javax.persistence.EntityManager, Class, Object)} and by singular attributes
+ * that use the {@link FetchStrategy#SELECT} fetch strategy for correlating an entity view of this type.
+ * Cached objects are evicted when entities that the entity view depends on are modified through entity views
+ * or through DML statements of the criteria builder API.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ * @see ConfigurationProperties#VIEW_CACHE_STORE
+ */
+@Target({ ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CacheableEntityView {
+
+    /**
+     * The maximum amount of cached objects of this entity view type or <code>-1</code> to use the value of {@link ConfigurationProperties#VIEW_CACHE_MAXIMUM_SIZE}.
+     *
+     * @return The maximum amount of cached objects
+     */
+    public int maximumSize() default -1;
+
+    /**
+     * The time after which cached objects of this entity view type expire or <code>-1</code> to use the value of {@link ConfigurationProperties#VIEW_CACHE_TIME_TO_LIVE}.
+     *
+     * @return The time to live
+     */
+    public long timeToLive() default -1;
+
+    /**
+     * The unit of {@link #timeToLive()}.
+     *
+     * @return The time unit
+     */
+    public TimeUnit timeUnit() default TimeUnit.SECONDS;
+}
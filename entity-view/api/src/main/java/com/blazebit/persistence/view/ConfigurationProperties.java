@@ -239,6 +239,18 @@ public final class ConfigurationProperties {
      */
     public static final String STATIC_IMPLEMENTATION_SCANNING_DISABLED = "com.blazebit.persistence.view.static_implementation_scanning_disabled";
 
+    /**
+     * A boolean flag to make it possible to prefer static implementations annotated with {@link StaticImplementation} over unsafe proxies
+     * for entity view classes that define constructors. Unlike unsafe proxies, static implementations can't initialize the attribute fields
+     * before the entity view constructor runs, so getters invoked in the constructor return <code>null</code>.
+     * When preferred and static implementations exist for all entity views, no bytecode is generated at runtime.
+     * By default unsafe proxies are preferred i.e. the default value is <code>false</code>.
+     * Valid values for this property are <code>true</code> or <code>false</code>.
+     *
+     * @since 1.6.7
+     */
+    public static final String STATIC_IMPLEMENTATION_PREFERRED = "com.blazebit.persistence.view.static_implementation_preferred";
+
     /**
      * A boolean flag to make it possible to disable the scanning for static metmodels annotated with {@link StaticMetamodel}.
      * By default the scanning is enabled i.e. the default value is <code>false</code>.
@@ -257,6 +269,86 @@ public final class ConfigurationProperties {
      */
     public static final String CREATE_EMPTY_FLAT_VIEWS = "com.blazebit.persistence.view.create_empty_flat_views";
 
+    /**
+     * A {@link java.util.concurrent.Executor} on which the batches of SELECT fetched correlations are executed concurrently.
+     * Concurrent execution is only enabled if {@link #CORRELATION_ENTITY_MANAGER_FACTORY} is set as well and can be configured
+     * by setting this property via {@linkplain com.blazebit.persistence.view.EntityViewSetting#setProperty}.
+     *
+     * Every concurrently executed batch uses a separate entity manager, so the correlation queries only see committed data
+     * and correlated entities are detached. This is mainly useful for read only entity views with a batch size greater than 1.
+     * Only the batches of a single attribute are executed concurrently, different correlated attributes are still loaded one after another.
+     *
+     * @since 1.6.7
+     */
+    public static final String CORRELATION_EXECUTOR = "com.blazebit.persistence.view.correlation.executor";
+
+    /**
+     * A {@link javax.persistence.EntityManagerFactory} that is used to create the entity managers for the batches of SELECT fetched correlations
+     * that are executed concurrently on the {@link #CORRELATION_EXECUTOR}.
+     *
+     * @since 1.6.7
+     */
+    public static final String CORRELATION_ENTITY_MANAGER_FACTORY = "com.blazebit.persistence.view.correlation.entity_manager_factory";
+
+    /**
+     * A boolean flag to enable adaptive batching for attributes that use the {@link FetchStrategy#SELECT} fetch strategy.
+     * When enabled, the entity view manager records statistics about the executions of such attributes and chooses the batch size
+     * and the expected batch mode for subsequent executions of attributes for which neither is configured explicitly.
+     * The statistics and decisions are exposed via {@link EntityViewManager#getCorrelationBatchStatistics()}.
+     * By default adaptive batching is disabled i.e. the default value is <code>false</code>.
+     * Valid values for this property are <code>true</code> or <code>false</code>.
+     *
+     * @since 1.6.7
+     */
+    public static final String ADAPTIVE_BATCHING = "com.blazebit.persistence.view.adaptive_batching";
+
+    /**
+     * The path to a metamodel snapshot file that allows to skip the expression and managed type validation of the entity view metamodel on boot.
+     * The snapshot records a fingerprint of the bytecode of the type hierarchies of all entity view, JPA managed type, registered function, basic user type and type converter classes,
+     * of the JPA metamodel including XML mappings, of the entity view configuration properties and of other environment specifics that the validation depends on. When the fingerprint matches the fingerprint recorded in the snapshot file,
+     * the entity view metamodel is not validated again. Otherwise the metamodel is fully validated and the snapshot file is written after a successful validation.
+     * By default no snapshot is used.
+     * Valid values for this property are a {@link String}, a {@link java.io.File} or a {@link java.nio.file.Path}.
+     *
+     * @since 1.6.7
+     */
+    public static final String METAMODEL_SNAPSHOT = "com.blazebit.persistence.view.metamodel_snapshot";
+
+    /**
+     * An integer value that defines the amount of threads to use for bootstrapping the entity view manager.
+     * When greater than 1, the validation of the entity view types and the eager loading of templates via {@link #TEMPLATE_EAGER_LOADING}
+     * are done concurrently on a temporary thread pool of at most the given size.
+     * By default the bootstrap is done on the calling thread i.e. the default value is <code>1</code>.
+     *
+     * @since 1.6.7
+     */
+    public static final String BOOTSTRAP_THREADS = "com.blazebit.persistence.view.bootstrap_threads";
+
+    /**
+     * The store for the objects of entity views annotated with {@link CacheableEntityView}.
+     * By default, a bounded in-heap store is used that evicts the least recently used objects.
+     * Valid values for this property are an instance or the fully qualified class name of a {@link com.blazebit.persistence.view.spi.EntityViewCacheStore}.
+     *
+     * @since 1.6.7
+     */
+    public static final String VIEW_CACHE_STORE = "com.blazebit.persistence.view.view_cache_store";
+
+    /**
+     * The default maximum amount of cached objects per entity view type annotated with {@link CacheableEntityView}.
+     * By default the value is <code>1000</code>.
+     *
+     * @since 1.6.7
+     */
+    public static final String VIEW_CACHE_MAXIMUM_SIZE = "com.blazebit.persistence.view.view_cache_maximum_size";
+
+    /**
+     * The default time to live in seconds of cached objects of entity view types annotated with {@link CacheableEntityView}.
+     * By default the value is <code>300</code>.
+     *
+     * @since 1.6.7
+     */
+    public static final String VIEW_CACHE_TIME_TO_LIVE = "com.blazebit.persistence.view.view_cache_time_to_live";
+
     private ConfigurationProperties() {
     }
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view;
+
+/**
+ * Statistics about the executions of an attribute that uses the {@link FetchStrategy#SELECT} fetch strategy along with
+ * the batch size and batch mode that are chosen for subsequent executions when adaptive batching is enabled.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ * @see ConfigurationProperties#ADAPTIVE_BATCHING
+ * @see EntityViewManager#getCorrelationBatchStatistics()
+ */
+public interface CorrelationBatchStatistics {
+
+    /**
+     * Returns the entity view type that was queried.
+     *
+     * @return The queried entity view type
+     */
+    public Class<?> getViewType();
+
+    /**
+     * Returns the path of the attribute relative to the queried entity view type.
+     *
+     * @return The attribute path
+     */
+    public String getAttributePath();
+
+    /**
+     * Returns the number of times the attribute was loaded for a query result.
+     *
+     * @return The execution count
+     */
+    public long getExecutionCount();
+
+    /**
+     * Returns the number of correlation queries that were executed for the attribute.
+     *
+     * @return The query count
+     */
+    public long getQueryCount();
+
+    /**
+     * Returns the moving average of distinct correlation keys per execution.
+     *
+     * @return The average number of correlation keys
+     */
+    public double getAverageCorrelationKeys();
+
+    /**
+     * Returns the moving average of distinct view root or embedding view ids per execution,
+     * or <code>0</code> if the correlation doesn't use the <code>VIEW_ROOT</code> or <code>EMBEDDING_VIEW</code> functions.
+     *
+     * @return The average number of view ids
+     */
+    public double getAverageViewIds();
+
+    /**
+     * Returns the moving average of result rows per correlation key.
+     *
+     * @return The average number of rows per key
+     */
+    public double getAverageRowsPerKey();
+
+    /**
+     * Returns the moving average of the execution time of a single correlation query in nanoseconds.
+     *
+     * @return The average query time in nanoseconds
+     */
+    public double getAverageQueryNanos();
+
+    /**
+     * Returns the batch size that is used for the next execution.
+     *
+     * @return The chosen batch size
+     */
+    public int getBatchSize();
+
+    /**
+     * Returns the batch mode that is expected for the next execution, which is one of the values <code>values</code>,
+     * <code>view_roots</code> or <code>embedding_views</code> as documented for {@link ConfigurationProperties#EXPECT_BATCH_MODE}.
+     *
+     * @return The expected batch mode
+     */
+    public String getBatchMode();
+}
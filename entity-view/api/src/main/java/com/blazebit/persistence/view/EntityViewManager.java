@@ -16,6 +16,7 @@
 
 package com.blazebit.persistence.view;
 
+import com.blazebit.persistence.CacheStatistics;
 import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.PaginatedCriteriaBuilder;
@@ -24,7 +25,9 @@ import com.blazebit.persistence.view.change.SingularChangeModel;
 import com.blazebit.persistence.view.metamodel.ViewMetamodel;
 
 import javax.persistence.EntityManager;
+import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.CompletionStage;
 
 /**
  * An interface that gives access to the metamodel and object builders.
@@ -49,6 +52,33 @@ public interface EntityViewManager extends ServiceProvider {
      */
     public Map<String, Object> getOptionalParameters();
 
+    /**
+     * Returns the statistics of the attributes that use the {@link FetchStrategy#SELECT} fetch strategy as map of
+     * the queried entity view type name and attribute path, separated by a <code>#</code>, to {@link CorrelationBatchStatistics}.
+     * Statistics are only collected when {@link ConfigurationProperties#ADAPTIVE_BATCHING} is enabled.
+     *
+     * @return The correlation batch statistics
+     * @since 1.6.7
+     */
+    public Map<String, CorrelationBatchStatistics> getCorrelationBatchStatistics();
+
+    /**
+     * Returns the statistics of the cache regions of entity views annotated with {@link CacheableEntityView} as map of the entity view type name to {@link CacheStatistics}.
+     * Only regions that provide statistics are contained.
+     *
+     * @return The entity view cache statistics
+     * @since 1.6.7
+     */
+    public Map<String, CacheStatistics> getViewCacheStatistics();
+
+    /**
+     * Removes all cached objects of the given entity view type, or of all entity view types if <code>null</code> is given.
+     *
+     * @param entityViewClass The entity view class or <code>null</code>
+     * @since 1.6.7
+     */
+    public void evictViewCache(Class<?> entityViewClass);
+
     /**
      * Loads and returns an entity view of the given type having the given entity id.
      *
@@ -73,6 +103,33 @@ public interface EntityViewManager extends ServiceProvider {
      */
     public <T> T find(EntityManager entityManager, EntityViewSetting<T, CriteriaBuilder<T>> entityViewSetting, Object entityId);
 
+    /**
+     * Asynchronously loads an entity view of the given type having the given entity id.
+     * The query runs on the asynchronous query executor of the criteria builder factory with a separate entity manager,
+     * so it only sees committed data. The stage completes with <code>null</code> if no entity with the id exists.
+     *
+     * @param entityViewClass The entity view class to use
+     * @param entityId The id of the entity
+     * @param <T> The type of the entity view class
+     * @return A completion stage for the loaded instance of the given entity view type with the id
+     * @since 1.6.7
+     * @see com.blazebit.persistence.QueryBuilder#getResultListAsync()
+     */
+    public <T> CompletionStage<T> findAsync(Class<T> entityViewClass, Object entityId);
+
+    /**
+     * Asynchronously loads an entity view as determined by the given type {@link EntityViewSetting} having the given entity id.
+     * The setting is applied on the calling thread, so changes to it after this method returns don't affect the query.
+     *
+     * @param entityViewSetting The entity view setting to use
+     * @param entityId The id of the entity
+     * @param <T> The type of the entity view class
+     * @return A completion stage for the loaded instance of the given entity view type with the id
+     * @since 1.6.7
+     * @see #findAsync(Class, Object)
+     */
+    public <T> CompletionStage<T> findAsync(EntityViewSetting<T, CriteriaBuilder<T>> entityViewSetting, Object entityId);
+
     /**
      * Creates a reference instance of the entity view class for the given id and returns it.
      *
@@ -366,6 +423,29 @@ public interface EntityViewManager extends ServiceProvider {
      */
     public void saveFullTo(EntityManager entityManager, Object view, Object entity);
 
+    /**
+     * Saves the entities which the given entity views map to.
+     * Issues partial updates if enabled for the given views.
+     * When using the {@link FlushStrategy#QUERY} flush strategy, views of the same type that only have dirty basic attributes
+     * are grouped by their dirty attributes and every group is updated through a single update statement per batch.
+     * All views are flushed before optimistic lock conflicts are reported through a {@link BulkOptimisticLockException}.
+     *
+     * @param entityManager The entity manager to use for the save
+     * @param views The views to use for saving
+     * @since 1.6.7
+     */
+    public void saveAll(EntityManager entityManager, Collection<?> views);
+
+    /**
+     * Fully saves the entities which the given entity views map to.
+     * Like {@link #saveAll(EntityManager, Collection)} but flushes all attributes of the views.
+     *
+     * @param entityManager The entity manager to use for the save
+     * @param views The views to use for saving
+     * @since 1.6.7
+     */
+    public void saveAllFull(EntityManager entityManager, Collection<?> views);
+
     /**
      * Updates the entity which the given entity view maps to.
      * Issues a partial update if enabled for the given view.
@@ -16,6 +16,7 @@
 
 package com.blazebit.persistence.view;
 
+import com.blazebit.persistence.CacheStatistics;
 import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.view.change.SingularChangeModel;
@@ -24,7 +25,9 @@ import com.blazebit.persistence.view.metamodel.ViewMetamodel;
 import javax.persistence.EntityManager;
 import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.CompletionStage;
 
 /**
  * A serializable entity view manager implementation that accesses the actual entity view manager through a static field in the entity view implementation class.
@@ -74,6 +77,21 @@ public class SerializableEntityViewManager implements EntityViewManager, Seriali
         return getEvm().getOptionalParameters();
     }
 
+    @Override
+    public Map<String, CorrelationBatchStatistics> getCorrelationBatchStatistics() {
+        return getEvm().getCorrelationBatchStatistics();
+    }
+
+    @Override
+    public Map<String, CacheStatistics> getViewCacheStatistics() {
+        return getEvm().getViewCacheStatistics();
+    }
+
+    @Override
+    public void evictViewCache(Class<?> entityViewClass) {
+        getEvm().evictViewCache(entityViewClass);
+    }
+
     @Override
     public <T> T find(EntityManager entityManager, Class<T> entityViewClass, Object entityId) {
         return getEvm().find(entityManager, entityViewClass, entityId);
@@ -84,6 +102,16 @@ public class SerializableEntityViewManager implements EntityViewManager, Seriali
         return getEvm().find(entityManager, entityViewSetting, entityId);
     }
 
+    @Override
+    public <T> CompletionStage<T> findAsync(Class<T> entityViewClass, Object entityId) {
+        return getEvm().findAsync(entityViewClass, entityId);
+    }
+
+    @Override
+    public <T> CompletionStage<T> findAsync(EntityViewSetting<T, CriteriaBuilder<T>> entityViewSetting, Object entityId) {
+        return getEvm().findAsync(entityViewSetting, entityId);
+    }
+
     @Override
     public <T> T getReference(Class<T> entityViewClass, Object id) {
         return getEvm().getReference(entityViewClass, id);
@@ -209,6 +237,16 @@ public class SerializableEntityViewManager implements EntityViewManager, Seriali
         getEvm().saveFullTo(entityManager, view, entity);
     }
 
+    @Override
+    public void saveAll(EntityManager entityManager, Collection<?> views) {
+        getEvm().saveAll(entityManager, views);
+    }
+
+    @Override
+    public void saveAllFull(EntityManager entityManager, Collection<?> views) {
+        getEvm().saveAllFull(entityManager, views);
+    }
+
     @Override
     @Deprecated
     public void update(EntityManager entityManager, Object view) {
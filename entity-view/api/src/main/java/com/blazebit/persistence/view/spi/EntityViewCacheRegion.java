@@ -0,0 +1,51 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.spi;
+
+/**
+ * A cache region that holds the objects of a single entity view type.
+ * The keys are opaque objects that capture the constructor along with the id or correlation key of the object
+ * and implement {@link Object#equals(Object)} and {@link Object#hashCode()} accordingly.
+ * Implementations must be thread-safe as a region is shared by all queries of an entity view manager.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ * @see EntityViewCacheStore
+ */
+public interface EntityViewCacheRegion {
+
+    /**
+     * Returns the cached object for the given key or <code>null</code> if there is none.
+     *
+     * @param key The key
+     * @return The cached object or <code>null</code>
+     */
+    public Object get(Object key);
+
+    /**
+     * Caches the given object for the given key.
+     *
+     * @param key The key
+     * @param value The object
+     */
+    public void put(Object key, Object value);
+
+    /**
+     * Removes all cached objects of this region.
+     */
+    public void clear();
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.spi;
+
+import com.blazebit.persistence.view.CacheableEntityView;
+import com.blazebit.persistence.view.metamodel.ViewType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A store for the objects of entity views annotated with {@link CacheableEntityView}, which creates one region per entity view type.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ * @see com.blazebit.persistence.view.ConfigurationProperties#VIEW_CACHE_STORE
+ */
+public interface EntityViewCacheStore {
+
+    /**
+     * Creates the cache region for the given entity view type. This is invoked once per cacheable entity view type when the entity view manager is created.
+     *
+     * @param viewType The entity view type
+     * @param maximumSize The maximum amount of objects in the region
+     * @param timeToLive The time after which objects expire
+     * @param timeUnit The unit of the time to live
+     * @return The cache region
+     */
+    public EntityViewCacheRegion createRegion(ViewType<?> viewType, int maximumSize, long timeToLive, TimeUnit timeUnit);
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl;
+
+import com.blazebit.persistence.view.CorrelationBatchStatistics;
+
+/**
+ * Records exponential moving averages about the executions of a SELECT fetched attribute and derives the batch size and batch mode
+ * for subsequent executions from them. Batch sizes are powers of two so that only a few differently sized batch queries are generated.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public final class CorrelationBatchStatisticsImpl implements CorrelationBatchStatistics {
+
+    // The weight of the latest execution in the moving averages
+    private static final double SMOOTHING_FACTOR = 0.25;
+    // Keeps the amount of parameters of a batch query far below the limits of common DBMS
+    private static final int MAX_BATCH_SIZE = 512;
+    // The maximum amount of rows a batch query should return on average
+    private static final int MAX_ROWS_PER_QUERY = 10000;
+
+    private final Class<?> viewType;
+    private final String attributePath;
+    private long executionCount;
+    private long queryCount;
+    private double averageCorrelationKeys;
+    private double averageViewIds;
+    private double averageRowsPerKey;
+    private double averageQueryNanos;
+    private int batchSize = MAX_BATCH_SIZE;
+    private BatchCorrelationMode batchCorrelationMode = BatchCorrelationMode.VALUES;
+
+    public CorrelationBatchStatisticsImpl(Class<?> viewType, String attributePath) {
+        this.viewType = viewType;
+        this.attributePath = attributePath;
+    }
+
+    /**
+     * Returns the batch size to use for an execution with the given amount of tuples, which is an upper bound for the amount of batched keys.
+     *
+     * @param tupleCount The amount of tuples of the execution
+     * @return The batch size to use
+     */
+    public synchronized int getBatchSize(int tupleCount) {
+        return Math.min(batchSize, roundUpToPowerOfTwo(tupleCount));
+    }
+
+    /**
+     * Records an execution and updates the batch size and batch mode for subsequent executions.
+     *
+     * @param correlationKeys The amount of distinct correlation keys
+     * @param viewIds The amount of distinct view root or embedding view ids if batching is view id aware, otherwise 0
+     * @param batchCorrelationMode The batch mode that was used
+     * @param queries The amount of executed batch queries
+     * @param rows The total amount of rows returned by the batch queries
+     * @param queryNanos The total execution time of the batch queries in nanoseconds
+     */
+    public synchronized void record(int correlationKeys, int viewIds, BatchCorrelationMode batchCorrelationMode, long queries, long rows, long queryNanos) {
+        executionCount++;
+        queryCount += queries;
+        int batchedKeys = batchCorrelationMode == BatchCorrelationMode.VALUES ? correlationKeys : viewIds;
+        averageCorrelationKeys = average(averageCorrelationKeys, correlationKeys);
+        averageViewIds = average(averageViewIds, viewIds);
+        if (batchedKeys > 0) {
+            averageRowsPerKey = average(averageRowsPerKey, (double) rows / batchedKeys);
+        }
+        if (queries > 0) {
+            averageQueryNanos = average(averageQueryNanos, (double) queryNanos / queries);
+        }
+
+        double averageBatchedKeys = batchCorrelationMode == BatchCorrelationMode.VALUES ? averageCorrelationKeys : averageViewIds;
+        int size = roundUpToPowerOfTwo((int) Math.ceil(averageBatchedKeys));
+        if (averageRowsPerKey > 1) {
+            // Reduce the batch size for correlations that produce many rows per key to avoid huge result sets
+            size = Math.min(size, Math.max(1, Integer.highestOneBit((int) (MAX_ROWS_PER_QUERY / averageRowsPerKey))));
+        }
+        this.batchSize = size;
+        this.batchCorrelationMode = batchCorrelationMode;
+    }
+
+    private double average(double average, double value) {
+        if (executionCount == 1) {
+            return value;
+        }
+        return average + SMOOTHING_FACTOR * (value - average);
+    }
+
+    private static int roundUpToPowerOfTwo(int value) {
+        if (value >= MAX_BATCH_SIZE) {
+            return MAX_BATCH_SIZE;
+        } else if (value <= 1) {
+            return 1;
+        }
+        return Integer.highestOneBit(value - 1) << 1;
+    }
+
+    public synchronized BatchCorrelationMode getBatchCorrelationMode() {
+        return batchCorrelationMode;
+    }
+
+    @Override
+    public Class<?> getViewType() {
+        return viewType;
+    }
+
+    @Override
+    public String getAttributePath() {
+        return attributePath;
+    }
+
+    @Override
+    public synchronized long getExecutionCount() {
+        return executionCount;
+    }
+
+    @Override
+    public synchronized long getQueryCount() {
+        return queryCount;
+    }
+
+    @Override
+    public synchronized double getAverageCorrelationKeys() {
+        return averageCorrelationKeys;
+    }
+
+    @Override
+    public synchronized double getAverageViewIds() {
+        return averageViewIds;
+    }
+
+    @Override
+    public synchronized double getAverageRowsPerKey() {
+        return averageRowsPerKey;
+    }
+
+    @Override
+    public synchronized double getAverageQueryNanos() {
+        return averageQueryNanos;
+    }
+
+    @Override
+    public synchronized int getBatchSize() {
+        return batchSize;
+    }
+
+    @Override
+    public String getBatchMode() {
+        switch (getBatchCorrelationMode()) {
+            case VIEW_ROOTS:
+                return "view_roots";
+            case EMBEDDING_VIEWS:
+                return "embedding_views";
+            default:
+                return "values";
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CorrelationBatchStatistics[" + viewType.getName() + "#" + attributePath + ", batchSize=" + getBatchSize() + ", batchMode=" + getBatchMode() + "]";
+    }
+}
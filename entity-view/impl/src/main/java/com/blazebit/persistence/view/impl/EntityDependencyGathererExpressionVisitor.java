@@ -0,0 +1,135 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl;
+
+import com.blazebit.persistence.parser.EntityMetamodel;
+import com.blazebit.persistence.parser.expression.ArrayExpression;
+import com.blazebit.persistence.parser.expression.Expression;
+import com.blazebit.persistence.parser.expression.PathElementExpression;
+import com.blazebit.persistence.parser.expression.PathExpression;
+import com.blazebit.persistence.parser.expression.PropertyExpression;
+import com.blazebit.persistence.parser.expression.SubqueryExpression;
+import com.blazebit.persistence.parser.expression.TreatExpression;
+import com.blazebit.persistence.parser.expression.VisitorAdapter;
+import com.blazebit.persistence.parser.util.JpaMetamodelUtils;
+
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects the entity types that are reached by the paths of an expression, including the entity types of all associations along a path.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public class EntityDependencyGathererExpressionVisitor extends VisitorAdapter {
+
+    private final EntityMetamodel metamodel;
+    private final ManagedType<?> managedType;
+    private final Map<String, Type<?>> rootTypes;
+    private final Set<Class<?>> entityClasses;
+    private boolean unresolvable;
+
+    public EntityDependencyGathererExpressionVisitor(ManagedType<?> managedType, Map<String, Type<?>> rootTypes, EntityMetamodel metamodel, Set<Class<?>> entityClasses) {
+        this.metamodel = metamodel;
+        this.managedType = managedType;
+        this.rootTypes = rootTypes;
+        this.entityClasses = entityClasses;
+    }
+
+    /**
+     * Returns whether a visited expression refers to entity types that can't be determined, like a subquery does.
+     *
+     * @return Whether the dependencies of a visited expression are unknown
+     */
+    public boolean isUnresolvable() {
+        return unresolvable;
+    }
+
+    @Override
+    public void visit(SubqueryExpression expression) {
+        unresolvable = true;
+    }
+
+    @Override
+    public void visit(PropertyExpression expression) {
+        throw new UnsupportedOperationException("This method should never be called!");
+    }
+
+    @Override
+    public void visit(PathExpression expression) {
+        List<PathElementExpression> expressions = expression.getExpressions();
+        int size = expressions.size();
+        ManagedType<?> t = managedType;
+
+        for (int i = 0; i < size && t != null; i++) {
+            String baseName;
+            Expression e = expressions.get(i);
+            if (e instanceof TreatExpression) {
+                TreatExpression treatExpression = (TreatExpression) e;
+                treatExpression.getExpression().accept(this);
+                t = addManagedType(metamodel.getEntity(treatExpression.getType()));
+                continue;
+            } else if (e instanceof ArrayExpression) {
+                ArrayExpression arrayExpression = (ArrayExpression) e;
+                arrayExpression.getIndex().accept(this);
+                baseName = arrayExpression.getBase().toString();
+                if (i == 0 && getAttribute(t, baseName) == null) {
+                    // An entity join like Entity[predicate]
+                    t = addManagedType(metamodel.getEntity(baseName));
+                    continue;
+                }
+            } else {
+                baseName = e.toString();
+            }
+
+            if (i == 0 && rootTypes.containsKey(baseName)) {
+                Type<?> rootType = rootTypes.get(baseName);
+                t = rootType instanceof ManagedType<?> ? addManagedType((ManagedType<?>) rootType) : null;
+                continue;
+            }
+
+            // NOTE: Attribute could be null because this model might contain errors
+            Attribute<?, ?> jpaAttribute = getAttribute(t, baseName);
+            if (jpaAttribute == null) {
+                break;
+            }
+            t = addManagedType(metamodel.getManagedType(JpaMetamodelUtils.resolveFieldClass(t.getJavaType(), jpaAttribute)));
+        }
+    }
+
+    private ManagedType<?> addManagedType(ManagedType<?> type) {
+        if (type instanceof EntityType<?>) {
+            entityClasses.add(type.getJavaType());
+        }
+        return type;
+    }
+
+    private static Attribute<?, ?> getAttribute(ManagedType<?> type, String name) {
+        try {
+            return type.getAttribute(name);
+        } catch (IllegalArgumentException ex) {
+            // Ignore non existing attributes
+            return null;
+        }
+    }
+}
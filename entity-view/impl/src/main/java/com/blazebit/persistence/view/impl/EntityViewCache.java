@@ -0,0 +1,395 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl;
+
+import com.blazebit.persistence.CacheStatistics;
+import com.blazebit.persistence.CriteriaBuilderFactory;
+import com.blazebit.persistence.parser.EntityMetamodel;
+import com.blazebit.persistence.parser.expression.Expression;
+import com.blazebit.persistence.spi.EntityModificationListener;
+import com.blazebit.persistence.spi.EntityModificationListenerRegistry;
+import com.blazebit.persistence.view.CacheableEntityView;
+import com.blazebit.persistence.view.ConfigurationProperties;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.impl.metamodel.AbstractAttribute;
+import com.blazebit.persistence.view.impl.metamodel.ManagedViewTypeImplementor;
+import com.blazebit.persistence.view.metamodel.ManagedViewType;
+import com.blazebit.persistence.view.metamodel.MapAttribute;
+import com.blazebit.persistence.view.metamodel.MethodAttribute;
+import com.blazebit.persistence.view.metamodel.Type;
+import com.blazebit.persistence.view.metamodel.ViewMetamodel;
+import com.blazebit.persistence.view.metamodel.ViewType;
+import com.blazebit.persistence.view.spi.EntityViewCacheRegion;
+import com.blazebit.persistence.view.spi.EntityViewCacheStore;
+
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.ManagedType;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Manages the cache regions of the entity view types annotated with {@link CacheableEntityView} and evicts them
+ * when entities that the entity view types depend on are modified.
+ * The dependencies of an entity view type are the entity types reached by the mappings of the entity view, its inheritance subtypes, its subviews and its correlated entities.
+ * Entity view types with subquery or correlation providers depend on every entity type, since the entity types they use can't be determined.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public final class EntityViewCache implements EntityModificationListener {
+
+    private static final int DEFAULT_MAXIMUM_SIZE = 1000;
+    private static final long DEFAULT_TIME_TO_LIVE_SECONDS = 300;
+
+    private final EntityMetamodel entityMetamodel;
+    private final Map<Class<?>, Region> regions;
+
+    private EntityViewCache(EntityMetamodel entityMetamodel, Map<Class<?>, Region> regions) {
+        this.entityMetamodel = entityMetamodel;
+        this.regions = regions;
+    }
+
+    /**
+     * Creates the entity view cache for the cacheable entity view types of the given metamodel
+     * and registers it for entity modifications done through the criteria builder factory.
+     *
+     * @param metamodel The entity view metamodel
+     * @param properties The configuration properties
+     * @param cbf The criteria builder factory
+     * @return The entity view cache or <code>null</code> if there are no cacheable entity view types
+     */
+    public static EntityViewCache create(ViewMetamodel metamodel, Map<?, ?> properties, CriteriaBuilderFactory cbf) {
+        EntityViewCacheStore store = null;
+        int defaultMaximumSize = getInteger(properties, ConfigurationProperties.VIEW_CACHE_MAXIMUM_SIZE, DEFAULT_MAXIMUM_SIZE);
+        long defaultTimeToLive = getInteger(properties, ConfigurationProperties.VIEW_CACHE_TIME_TO_LIVE, (int) DEFAULT_TIME_TO_LIVE_SECONDS);
+        EntityMetamodel entityMetamodel = cbf.getService(EntityMetamodel.class);
+        Map<Class<?>, Region> regions = new HashMap<>();
+        for (ManagedViewType<?> managedViewType : metamodel.getManagedViews()) {
+            CacheableEntityView cacheableEntityView = managedViewType.getJavaType().getAnnotation(CacheableEntityView.class);
+            if (cacheableEntityView == null) {
+                continue;
+            }
+            if (!(managedViewType instanceof ViewType<?>)) {
+                throw new IllegalArgumentException("The entity view '" + managedViewType.getJavaType().getName() + "' is annotated with @CacheableEntityView but has no @IdMapping!");
+            }
+            if (store == null) {
+                store = getStore(properties.get(ConfigurationProperties.VIEW_CACHE_STORE));
+            }
+            int maximumSize = cacheableEntityView.maximumSize() == -1 ? defaultMaximumSize : cacheableEntityView.maximumSize();
+            long timeToLive;
+            TimeUnit timeUnit;
+            if (cacheableEntityView.timeToLive() == -1) {
+                timeToLive = defaultTimeToLive;
+                timeUnit = TimeUnit.SECONDS;
+            } else {
+                timeToLive = cacheableEntityView.timeToLive();
+                timeUnit = cacheableEntityView.timeUnit();
+            }
+            Set<Class<?>> entityClasses = new HashSet<>();
+            if (!collectEntityClasses(managedViewType, entityMetamodel, entityClasses, new HashSet<ManagedViewType<?>>(), managedViewType)) {
+                // The region depends on entity types we can't determine, so it has to be cleared on every modification
+                entityClasses = null;
+            }
+            EntityViewCacheRegion region = store.createRegion((ViewType<?>) managedViewType, maximumSize, timeToLive, timeUnit);
+            regions.put(managedViewType.getJavaType(), new Region(region, entityClasses));
+        }
+        if (regions.isEmpty()) {
+            return null;
+        }
+        EntityViewCache cache = new EntityViewCache(entityMetamodel, regions);
+        EntityModificationListenerRegistry registry = cbf.getService(EntityModificationListenerRegistry.class);
+        if (registry != null) {
+            registry.addEntityModificationListener(cache);
+        }
+        return cache;
+    }
+
+    private static int getInteger(Map<?, ?> properties, String key, int defaultValue) {
+        Object value = properties.get(key);
+        if (value == null) {
+            return defaultValue;
+        } else if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        try {
+            return Integer.parseInt(value.toString());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid value for the property " + key + ". Expected an integer but got: " + value, ex);
+        }
+    }
+
+    private static EntityViewCacheStore getStore(Object value) {
+        if (value == null) {
+            return new BoundedEntityViewCacheStore();
+        } else if (value instanceof EntityViewCacheStore) {
+            return (EntityViewCacheStore) value;
+        } else if (value instanceof String) {
+            try {
+                Class<?> storeClass = Thread.currentThread().getContextClassLoader().loadClass((String) value);
+                return (EntityViewCacheStore) storeClass.getConstructor().newInstance();
+            } catch (Exception ex) {
+                throw new IllegalArgumentException("Could not instantiate the entity view cache store: " + value, ex);
+            }
+        }
+        throw new IllegalArgumentException("Invalid value for the property " + ConfigurationProperties.VIEW_CACHE_STORE + ". Expected an instance or class name of " + EntityViewCacheStore.class.getName() + " but got: " + value);
+    }
+
+    /**
+     * Collects the entity types the given entity view type depends on, which are the entity types reached by any mapping
+     * of the entity view type, its inheritance subtypes and subviews, including all associations along the mapping paths.
+     * When a cached view type is given, the entity view types reachable from it are validated to be neither updatable nor creatable.
+     *
+     * @param managedViewType The entity view type
+     * @param metamodel The entity metamodel
+     * @param entityClasses The set to add the entity types to
+     * @param visited The already visited entity view types
+     * @param cachedViewType The entity view type for which the dependencies are collected for caching or <code>null</code>
+     * @return Whether all dependencies could be determined
+     */
+    private static boolean collectEntityClasses(ManagedViewType<?> managedViewType, EntityMetamodel metamodel, Set<Class<?>> entityClasses, Set<ManagedViewType<?>> visited, ManagedViewType<?> cachedViewType) {
+        if (!visited.add(managedViewType)) {
+            return true;
+        }
+        if (cachedViewType != null && (managedViewType.isUpdatable() || managedViewType.isCreatable())) {
+            if (managedViewType == cachedViewType) {
+                throw new IllegalArgumentException("The entity view '" + cachedViewType.getJavaType().getName() + "' is annotated with @CacheableEntityView but is updatable or creatable!");
+            }
+            throw new IllegalArgumentException("The entity view '" + cachedViewType.getJavaType().getName() + "' is annotated with @CacheableEntityView but contains the updatable or creatable entity view '" + managedViewType.getJavaType().getName() + "'!");
+        }
+        ManagedViewTypeImplementor<?> viewType = (ManagedViewTypeImplementor<?>) managedViewType;
+        Map<String, javax.persistence.metamodel.Type<?>> rootTypes = viewType.getEntityViewRootTypes();
+        entityClasses.add(managedViewType.getEntityClass());
+        for (javax.persistence.metamodel.Type<?> rootType : rootTypes.values()) {
+            if (rootType instanceof EntityType<?>) {
+                entityClasses.add(rootType.getJavaType());
+            }
+        }
+        boolean resolved = true;
+        for (ManagedViewType<?> subtype : managedViewType.getInheritanceSubtypes()) {
+            resolved &= collectEntityClasses(subtype, metamodel, entityClasses, visited, cachedViewType);
+        }
+        EntityDependencyGathererExpressionVisitor visitor = new EntityDependencyGathererExpressionVisitor(viewType.getJpaManagedType(), rootTypes, metamodel, entityClasses);
+        for (MethodAttribute<?, ?> attribute : managedViewType.getAttributes()) {
+            AbstractAttribute<?, ?> abstractAttribute = (AbstractAttribute<?, ?>) attribute;
+            if (abstractAttribute.isSubquery() || abstractAttribute.getCorrelationProvider() != null) {
+                // Subquery and correlation providers can refer to arbitrary entity types
+                resolved = false;
+            }
+            accept(abstractAttribute.getMappingExpression(), visitor);
+            accept(abstractAttribute.getKeyMappingExpression(), visitor);
+            accept(abstractAttribute.getMappingIndexExpression(), visitor);
+            accept(abstractAttribute.getCorrelationBasisExpression(), visitor);
+            if (abstractAttribute.getCorrelated() != null) {
+                entityClasses.add(abstractAttribute.getCorrelated());
+                ManagedType<?> correlatedType = metamodel.getManagedType(abstractAttribute.getCorrelated());
+                if (correlatedType != null) {
+                    EntityDependencyGathererExpressionVisitor correlatedVisitor = new EntityDependencyGathererExpressionVisitor(correlatedType, rootTypes, metamodel, entityClasses);
+                    accept(abstractAttribute.getCorrelationResultExpression(), correlatedVisitor);
+                    accept(abstractAttribute.getCorrelationPredicate(), correlatedVisitor);
+                    resolved &= !correlatedVisitor.isUnresolvable();
+                }
+            }
+            resolved &= collectEntityClasses(abstractAttribute.getElementType(), metamodel, entityClasses, visited, cachedViewType);
+            if (attribute instanceof MapAttribute<?, ?, ?>) {
+                resolved &= collectEntityClasses(((MapAttribute<?, ?, ?>) attribute).getKeyType(), metamodel, entityClasses, visited, cachedViewType);
+            }
+        }
+        return resolved && !visitor.isUnresolvable();
+    }
+
+    private static boolean collectEntityClasses(Type<?> type, EntityMetamodel metamodel, Set<Class<?>> entityClasses, Set<ManagedViewType<?>> visited, ManagedViewType<?> cachedViewType) {
+        if (type instanceof ManagedViewType<?>) {
+            return collectEntityClasses((ManagedViewType<?>) type, metamodel, entityClasses, visited, cachedViewType);
+        }
+        return true;
+    }
+
+    private static void accept(Expression expression, EntityDependencyGathererExpressionVisitor visitor) {
+        if (expression != null) {
+            expression.accept(visitor);
+        }
+    }
+
+    /**
+     * Returns whether the objects for the given setting can be served from the cache,
+     * which is only the case when nothing but the plain entity view is requested.
+     *
+     * @param setting The entity view setting
+     * @return Whether the cache can be used
+     */
+    public static boolean isCacheable(EntityViewSetting<?, ?> setting) {
+        return !setting.hasAttributeFilters() && !setting.hasViewFilters() && !setting.hasAttributeSorters() && !setting.hasOptionalParameters()
+                && setting.getFetches().isEmpty() && !setting.isPaginated();
+    }
+
+    /**
+     * Returns the cache region for the given entity view class or <code>null</code> if the entity view isn't cacheable.
+     *
+     * @param entityViewClass The entity view class
+     * @return The cache region or <code>null</code>
+     */
+    public EntityViewCacheRegion getRegion(Class<?> entityViewClass) {
+        Region region = regions.get(entityViewClass);
+        return region == null ? null : region.region;
+    }
+
+    /**
+     * Returns the cache key for an object that is loaded by id.
+     *
+     * @param constructorName The name of the constructor or <code>null</code>
+     * @param id The id of the object
+     * @return The cache key
+     */
+    public static Object idKey(String constructorName, Object id) {
+        return new Key(constructorName, null, id);
+    }
+
+    /**
+     * Returns the cache key for an object that is loaded through a correlated attribute.
+     *
+     * @param ownerViewClass The entity view class that owns the correlated attribute
+     * @param attributePath The path of the correlated attribute
+     * @param correlationKey The correlation key
+     * @return The cache key
+     */
+    public static Object correlationKey(Class<?> ownerViewClass, String attributePath, Object correlationKey) {
+        return new Key(null, ownerViewClass.getName() + '#' + attributePath, correlationKey);
+    }
+
+    /**
+     * Evicts the regions of the entity view types that depend on the entity types of the given entity view type.
+     *
+     * @param managedViewType The entity view type that is flushed
+     */
+    public void evict(ManagedViewType<?> managedViewType) {
+        Set<Class<?>> entityClasses = new HashSet<>();
+        collectEntityClasses(managedViewType, entityMetamodel, entityClasses, new HashSet<ManagedViewType<?>>(), null);
+        for (Class<?> entityClass : entityClasses) {
+            onEntityModification(entityClass);
+        }
+    }
+
+    /**
+     * Evicts the region of the given entity view class, or all regions if <code>null</code> is given.
+     *
+     * @param entityViewClass The entity view class or <code>null</code>
+     */
+    public void evict(Class<?> entityViewClass) {
+        if (entityViewClass == null) {
+            for (Region region : regions.values()) {
+                region.region.clear();
+            }
+        } else {
+            Region region = regions.get(entityViewClass);
+            if (region != null) {
+                region.region.clear();
+            }
+        }
+    }
+
+    @Override
+    public void onEntityModification(Class<?> entityClass) {
+        for (Region region : regions.values()) {
+            if (region.dependsOn(entityClass)) {
+                region.region.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns the statistics of the cache regions by entity view class name.
+     *
+     * @return The statistics of the cache regions
+     */
+    public Map<String, CacheStatistics> getStatistics() {
+        Map<String, CacheStatistics> map = new HashMap<>(regions.size());
+        for (Map.Entry<Class<?>, Region> entry : regions.entrySet()) {
+            if (entry.getValue().region instanceof CacheStatistics) {
+                map.put(entry.getKey().getName(), (CacheStatistics) entry.getValue().region);
+            }
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.6.7
+     */
+    private static final class Region {
+        private final EntityViewCacheRegion region;
+        private final Set<Class<?>> entityClasses;
+
+        public Region(EntityViewCacheRegion region, Set<Class<?>> entityClasses) {
+            this.region = region;
+            this.entityClasses = entityClasses;
+        }
+
+        public boolean dependsOn(Class<?> entityClass) {
+            if (entityClasses == null) {
+                return true;
+            }
+            for (Class<?> dependency : entityClasses) {
+                // Consider entity inheritance in both directions
+                if (dependency.isAssignableFrom(entityClass) || entityClass.isAssignableFrom(dependency)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.6.7
+     */
+    private static final class Key {
+        private final String constructorName;
+        private final String correlation;
+        private final Object id;
+
+        public Key(String constructorName, String correlation, Object id) {
+            this.constructorName = constructorName;
+            this.correlation = correlation;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Objects.equals(constructorName, key.constructorName) && Objects.equals(correlation, key.correlation) && id.equals(key.id);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = constructorName == null ? 0 : constructorName.hashCode();
+            result = 31 * result + (correlation == null ? 0 : correlation.hashCode());
+            result = 31 * result + id.hashCode();
+            return result;
+        }
+    }
+}
@@ -30,6 +30,7 @@ import com.blazebit.persistence.view.metamodel.ViewType;
 import com.blazebit.persistence.view.spi.EmbeddingViewJpqlMacro;
 import com.blazebit.persistence.view.spi.ViewJpqlMacro;
 
+import javax.persistence.EntityManagerFactory;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -37,6 +38,8 @@ import java.util.Map;
 import java.util.NavigableSet;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
 
 /**
  * @author Christian Beikov
@@ -53,18 +56,26 @@ public final class EntityViewConfiguration {
     private final NavigableSet<String> fetches;
     private final Map<String, Integer> batchSizeConfiguration;
     private final Map<String, BatchCorrelationMode> expectBatchCorrelationValuesConfiguration;
+    private final Executor correlationExecutor;
+    private final EntityManagerFactory correlationEntityManagerFactory;
+    private final ConcurrentMap<String, CorrelationBatchStatisticsImpl> correlationBatchStatistics;
+    private final EntityViewCache viewCache;
 
     public EntityViewConfiguration(FullQueryBuilder<?, ?> criteriaBuilder, ExpressionFactory expressionFactory, ViewJpqlMacro viewJpqlMacro, EmbeddingViewJpqlMacro embeddingViewJpqlMacro, Map<String, Object> optionalParameters, Map<String, Object> properties, Collection<String> fetches, String attributePath) {
-        this(criteriaBuilder, expressionFactory, viewJpqlMacro, embeddingViewJpqlMacro, optionalParameters, properties, getFetches(fetches, attributePath));
+        this(criteriaBuilder, expressionFactory, viewJpqlMacro, embeddingViewJpqlMacro, optionalParameters, properties, getFetches(fetches, attributePath), (ConcurrentMap<String, CorrelationBatchStatisticsImpl>) null, null);
     }
 
-    public EntityViewConfiguration(FullQueryBuilder<?, ?> criteriaBuilder, ExpressionFactory expressionFactory, ViewJpqlMacro viewJpqlMacro, EmbeddingViewJpqlMacro embeddingViewJpqlMacro, Map<String, Object> optionalParameters, Map<String, Object> properties, Collection<String> fetches, ManagedViewTypeImplementor<?> managedViewType) {
-        this(criteriaBuilder, expressionFactory, viewJpqlMacro, embeddingViewJpqlMacro, optionalParameters, properties, getFetches(fetches, managedViewType));
+    public EntityViewConfiguration(FullQueryBuilder<?, ?> criteriaBuilder, ExpressionFactory expressionFactory, ViewJpqlMacro viewJpqlMacro, EmbeddingViewJpqlMacro embeddingViewJpqlMacro, Map<String, Object> optionalParameters, Map<String, Object> properties, Collection<String> fetches, ManagedViewTypeImplementor<?> managedViewType,
+                                   ConcurrentMap<String, CorrelationBatchStatisticsImpl> correlationBatchStatistics, EntityViewCache viewCache) {
+        this(criteriaBuilder, expressionFactory, viewJpqlMacro, embeddingViewJpqlMacro, optionalParameters, properties, getFetches(fetches, managedViewType), correlationBatchStatistics, viewCache);
     }
 
-    private EntityViewConfiguration(FullQueryBuilder<?, ?> criteriaBuilder, ExpressionFactory expressionFactory, ViewJpqlMacro viewJpqlMacro, EmbeddingViewJpqlMacro embeddingViewJpqlMacro, Map<String, Object> optionalParameters, Map<String, Object> properties, NavigableSet<String> fetches) {
+    private EntityViewConfiguration(FullQueryBuilder<?, ?> criteriaBuilder, ExpressionFactory expressionFactory, ViewJpqlMacro viewJpqlMacro, EmbeddingViewJpqlMacro embeddingViewJpqlMacro, Map<String, Object> optionalParameters, Map<String, Object> properties, NavigableSet<String> fetches, ConcurrentMap<String, CorrelationBatchStatisticsImpl> correlationBatchStatistics,
+                                    EntityViewCache viewCache) {
         Map<String, Integer> batchSizeConfiguration = new HashMap<String, Integer>(properties.size());
         Map<String, BatchCorrelationMode> expectBatchCorrelationValuesConfiguration = new HashMap<>(properties.size());
+        Executor correlationExecutor = null;
+        EntityManagerFactory correlationEntityManagerFactory = null;
 
         for (Map.Entry<String, Object> entry : properties.entrySet()) {
             String key = entry.getKey();
@@ -98,6 +109,16 @@ public final class EntityViewConfiguration {
                     key = key.substring(ConfigurationProperties.EXPECT_BATCH_MODE.length() + 1);
                     expectBatchCorrelationValuesConfiguration.put(key, value);
                 }
+            } else if (key.equals(ConfigurationProperties.CORRELATION_EXECUTOR)) {
+                if (entry.getValue() != null && !(entry.getValue() instanceof Executor)) {
+                    throw new IllegalArgumentException("Invalid correlation executor configuration for key: " + key);
+                }
+                correlationExecutor = (Executor) entry.getValue();
+            } else if (key.equals(ConfigurationProperties.CORRELATION_ENTITY_MANAGER_FACTORY)) {
+                if (entry.getValue() != null && !(entry.getValue() instanceof EntityManagerFactory)) {
+                    throw new IllegalArgumentException("Invalid correlation entity manager factory configuration for key: " + key);
+                }
+                correlationEntityManagerFactory = (EntityManagerFactory) entry.getValue();
             }
         }
 
@@ -109,11 +130,19 @@ public final class EntityViewConfiguration {
         this.fetches = fetches;
         this.batchSizeConfiguration = Collections.unmodifiableMap(batchSizeConfiguration);
         this.expectBatchCorrelationValuesConfiguration = Collections.unmodifiableMap(expectBatchCorrelationValuesConfiguration);
+        this.correlationExecutor = correlationExecutor;
+        this.correlationEntityManagerFactory = correlationEntityManagerFactory;
+        this.correlationBatchStatistics = correlationBatchStatistics;
+        this.viewCache = viewCache;
         this.criteriaBuilder.registerMacro("view", viewJpqlMacro);
         this.criteriaBuilder.registerMacro("embedding_view", embeddingViewJpqlMacro);
     }
 
     private EntityViewConfiguration(EntityViewConfiguration original, FullQueryBuilder<?, ?> criteriaBuilder, NavigableSet<String> fetches, EmbeddingViewJpqlMacro embeddingViewJpqlMacro) {
+        this(original, criteriaBuilder, fetches, embeddingViewJpqlMacro, original.correlationExecutor, original.correlationEntityManagerFactory);
+    }
+
+    private EntityViewConfiguration(EntityViewConfiguration original, FullQueryBuilder<?, ?> criteriaBuilder, NavigableSet<String> fetches, EmbeddingViewJpqlMacro embeddingViewJpqlMacro, Executor correlationExecutor, EntityManagerFactory correlationEntityManagerFactory) {
         this.criteriaBuilder = criteriaBuilder;
         this.expressionFactory = original.expressionFactory;
         this.viewJpqlMacro = original.viewJpqlMacro;
@@ -122,6 +151,27 @@ public final class EntityViewConfiguration {
         this.fetches = fetches;
         this.batchSizeConfiguration = original.batchSizeConfiguration;
         this.expectBatchCorrelationValuesConfiguration = original.expectBatchCorrelationValuesConfiguration;
+        this.correlationExecutor = correlationExecutor;
+        this.correlationEntityManagerFactory = correlationEntityManagerFactory;
+        this.correlationBatchStatistics = original.correlationBatchStatistics;
+        this.viewCache = original.viewCache;
+    }
+
+    private EntityViewConfiguration(EntityViewConfiguration original, FullQueryBuilder<?, ?> criteriaBuilder, ViewJpqlMacro viewJpqlMacro, EmbeddingViewJpqlMacro embeddingViewJpqlMacro) {
+        this.criteriaBuilder = criteriaBuilder;
+        this.expressionFactory = original.expressionFactory;
+        this.viewJpqlMacro = viewJpqlMacro;
+        this.embeddingViewJpqlMacro = embeddingViewJpqlMacro;
+        this.optionalParameters = original.optionalParameters;
+        this.fetches = original.fetches;
+        this.batchSizeConfiguration = original.batchSizeConfiguration;
+        this.expectBatchCorrelationValuesConfiguration = original.expectBatchCorrelationValuesConfiguration;
+        this.correlationExecutor = original.correlationExecutor;
+        this.correlationEntityManagerFactory = original.correlationEntityManagerFactory;
+        this.correlationBatchStatistics = original.correlationBatchStatistics;
+        this.viewCache = original.viewCache;
+        this.criteriaBuilder.registerMacro("view", viewJpqlMacro);
+        this.criteriaBuilder.registerMacro("embedding_view", embeddingViewJpqlMacro);
     }
 
     private static NavigableSet<String> getFetches(Collection<String> fetches, String attributePath) {
@@ -218,6 +268,33 @@ public final class EntityViewConfiguration {
         return new EntityViewConfiguration(this, criteriaBuilder, getFetches(fetches, attributePath), embeddingViewJpqlMacro);
     }
 
+    /**
+     * Returns a copy of this configuration for the given copy of the query builder to which the entity view was applied.
+     * The macros of the copy are registered on the given query builder.
+     *
+     * @param criteriaBuilder The copy of the query builder
+     * @param viewJpqlMacro The view macro for the copy
+     * @param embeddingViewJpqlMacro The embedding view macro for the copy
+     * @return A configuration for the copy of the query builder
+     */
+    public EntityViewConfiguration forCopy(FullQueryBuilder<?, ?> criteriaBuilder, ViewJpqlMacro viewJpqlMacro, EmbeddingViewJpqlMacro embeddingViewJpqlMacro) {
+        return new EntityViewConfiguration(this, criteriaBuilder, viewJpqlMacro, embeddingViewJpqlMacro);
+    }
+
+    /**
+     * Returns a copy of this configuration that executes correlations sequentially.
+     * This is used for the queries of concurrently executed correlation batches, as nested correlations would otherwise
+     * block a thread of the executor while waiting for other tasks of the same executor.
+     *
+     * @return A configuration without concurrent correlation execution
+     */
+    public EntityViewConfiguration withoutConcurrentCorrelation() {
+        if (correlationExecutor == null && correlationEntityManagerFactory == null) {
+            return this;
+        }
+        return new EntityViewConfiguration(this, criteriaBuilder, fetches, embeddingViewJpqlMacro, null, null);
+    }
+
     public FullQueryBuilder<?, ?> getCriteriaBuilder() {
         return criteriaBuilder;
     }
@@ -250,6 +327,34 @@ public final class EntityViewConfiguration {
         return embeddingViewJpqlMacro;
     }
 
+    public Executor getCorrelationExecutor() {
+        return correlationExecutor;
+    }
+
+    public EntityManagerFactory getCorrelationEntityManagerFactory() {
+        return correlationEntityManagerFactory;
+    }
+
+    public EntityViewCache getViewCache() {
+        return viewCache;
+    }
+
+    public CorrelationBatchStatisticsImpl getCorrelationBatchStatistics(Class<?> viewType, String attributePath) {
+        if (correlationBatchStatistics == null) {
+            return null;
+        }
+        String key = viewType.getName() + '#' + attributePath;
+        CorrelationBatchStatisticsImpl statistics = correlationBatchStatistics.get(key);
+        if (statistics == null) {
+            statistics = new CorrelationBatchStatisticsImpl(viewType, attributePath);
+            CorrelationBatchStatisticsImpl old = correlationBatchStatistics.putIfAbsent(key, statistics);
+            if (old != null) {
+                statistics = old;
+            }
+        }
+        return statistics;
+    }
+
     public int getBatchSize() {
         return getBatchSize("");
     }
@@ -296,7 +401,7 @@ public final class EntityViewConfiguration {
         return getExpectBatchCorrelationValues(attributePath, BatchCorrelationMode.VALUES);
     }
 
-    private BatchCorrelationMode getExpectBatchCorrelationValues(String attributePath, BatchCorrelationMode defaultValue) {
+    public BatchCorrelationMode getExpectBatchCorrelationValues(String attributePath, BatchCorrelationMode defaultValue) {
         BatchCorrelationMode value = expectBatchCorrelationValuesConfiguration.get(attributePath);
         if (value == null) {
             value = expectBatchCorrelationValuesConfiguration.get("");
@@ -18,6 +18,7 @@ package com.blazebit.persistence.view.impl;
 
 import com.blazebit.exception.ExceptionUtils;
 import com.blazebit.lang.StringUtils;
+import com.blazebit.persistence.CacheStatistics;
 import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.CriteriaBuilderFactory;
 import com.blazebit.persistence.FullQueryBuilder;
@@ -29,15 +30,18 @@ import com.blazebit.persistence.parser.expression.ExpressionFactory;
 import com.blazebit.persistence.parser.expression.MacroConfiguration;
 import com.blazebit.persistence.parser.expression.MacroFunction;
 import com.blazebit.persistence.parser.util.JpaMetamodelUtils;
+import com.blazebit.persistence.spi.AsyncQueryExecutor;
 import com.blazebit.persistence.spi.DbmsDialect;
 import com.blazebit.persistence.spi.JpaProvider;
 import com.blazebit.persistence.spi.JpqlFunction;
 import com.blazebit.persistence.spi.JpqlMacro;
 import com.blazebit.persistence.spi.PackageOpener;
 import com.blazebit.persistence.view.AttributeFilterProvider;
+import com.blazebit.persistence.view.BulkOptimisticLockException;
 import com.blazebit.persistence.view.ConfigurationProperties;
 import com.blazebit.persistence.view.ConvertOperationBuilder;
 import com.blazebit.persistence.view.ConvertOption;
+import com.blazebit.persistence.view.CorrelationBatchStatistics;
 import com.blazebit.persistence.view.EntityViewBuilder;
 import com.blazebit.persistence.view.EntityViewManager;
 import com.blazebit.persistence.view.EntityViewSetting;
@@ -135,6 +139,7 @@ import com.blazebit.persistence.view.metamodel.PluralAttribute;
 import com.blazebit.persistence.view.metamodel.SingularAttribute;
 import com.blazebit.persistence.view.metamodel.ViewType;
 import com.blazebit.persistence.view.spi.EmbeddingViewJpqlMacro;
+import com.blazebit.persistence.view.spi.EntityViewCacheRegion;
 import com.blazebit.persistence.view.spi.TransactionSupport;
 import com.blazebit.persistence.view.spi.ViewJpqlMacro;
 import com.blazebit.persistence.view.spi.type.DirtyStateTrackable;
@@ -146,20 +151,27 @@ import javax.persistence.EntityManager;
 import javax.persistence.metamodel.EntityType;
 import javax.persistence.metamodel.ManagedType;
 import javax.persistence.metamodel.Metamodel;
+import javax.transaction.Synchronization;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -212,6 +224,8 @@ public class EntityViewManagerImpl implements EntityViewManager {
     private final Map<ViewBuilderKey, Constructor<? extends EntityViewBuilder<?>>> viewBuilderClasses;
     private final boolean unsafeDisabled;
     private final boolean strictCascadingCheck;
+    private final ConcurrentMap<String, CorrelationBatchStatisticsImpl> correlationBatchStatistics;
+    private final EntityViewCache viewCache;
 
     public EntityViewManagerImpl(EntityViewConfigurationImpl config, CriteriaBuilderFactory cbf) {
         this.cbf = cbf;
@@ -223,7 +237,13 @@ public class EntityViewManagerImpl implements EntityViewManager {
         this.entityIdAccessor = new EntityIdAttributeAccessor(jpaProvider);
         this.unsafeDisabled = !Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.PROXY_UNSAFE_ALLOWED)));
         this.strictCascadingCheck = Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.UPDATER_STRICT_CASCADING_CHECK)));
-        this.proxyFactory = new ProxyFactory(unsafeDisabled, strictCascadingCheck, packageOpener);
+        if (Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.ADAPTIVE_BATCHING)))) {
+            this.correlationBatchStatistics = new ConcurrentHashMap<>();
+        } else {
+            this.correlationBatchStatistics = null;
+        }
+        boolean staticImplementationPreferred = Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.STATIC_IMPLEMENTATION_PREFERRED)));
+        this.proxyFactory = new ProxyFactory(unsafeDisabled, staticImplementationPreferred, strictCascadingCheck, packageOpener);
         this.transactionSupport = config.getTransactionSupport();
         this.optionalParameters = Collections.unmodifiableMap(new HashMap<>(config.getOptionalParameters()));
         this.serializableDelegates = new ClassValue<EntityViewManager>() {
@@ -242,6 +262,7 @@ public class EntityViewManagerImpl implements EntityViewManager {
         boolean scanStaticBuilder = !Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.STATIC_BUILDER_SCANNING_DISABLED)));
         boolean scanStaticImplementations = !Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.STATIC_IMPLEMENTATION_SCANNING_DISABLED)));
         boolean scanStaticMetamodels = !Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.STATIC_METAMODEL_SCANNING_DISABLED)));
+        int bootstrapThreads = ParallelBootstrap.getThreads(config.getProperty(ConfigurationProperties.BOOTSTRAP_THREADS));
 
         Set<String> errors = config.getBootContext().getErrors();
         Map<String, JpqlFunction> functions = cbf.getRegisteredFunctions();
@@ -250,7 +271,7 @@ public class EntityViewManagerImpl implements EntityViewManager {
             registeredFunctions.put(entry.getKey().toLowerCase(), entry.getValue());
         }
 
-        MetamodelBuildingContext context = new MetamodelBuildingContextImpl(
+        final MetamodelBuildingContext context = new MetamodelBuildingContextImpl(
                 config.getProperties(),
                 new DefaultBasicUserTypeRegistry(config.getUserTypeRegistry(), cbf),
                 entityMetamodel,
@@ -266,9 +287,20 @@ public class EntityViewManagerImpl implements EntityViewManager {
         ViewMetamodelImpl viewMetamodel = null;
         RuntimeException exception = null;
         Map<Class<?>, Object> typeTestValues = config.getTypeTestValues();
+        ViewMetamodelSnapshot metamodelSnapshot = null;
+        if (validateExpressions || validateManagedTypes) {
+            metamodelSnapshot = ViewMetamodelSnapshot.create(config.getProperty(ConfigurationProperties.METAMODEL_SNAPSHOT), config.getBootContext().getViewMappingMap().keySet(), entityMetamodel,
+                    registeredFunctions, dbmsDialect, jpaProvider, typeTestValues.keySet(), context.getBasicUserTypeRegistry(), config.getProperties(), validateExpressions, validateManagedTypes);
+            if (metamodelSnapshot != null && metamodelSnapshot.isUpToDate()) {
+                // The same entity views were already validated successfully against the same entity model
+                validateExpressions = false;
+                validateManagedTypes = false;
+                metamodelSnapshot = null;
+            }
+        }
 
         try {
-            viewMetamodel = new ViewMetamodelImpl(entityMetamodel, context, typeTestValues, validateManagedTypes, validateExpressions);
+            viewMetamodel = new ViewMetamodelImpl(entityMetamodel, context, typeTestValues, validateManagedTypes, validateExpressions, bootstrapThreads);
         } catch (RuntimeException ex) {
             exception = ex;
         }
@@ -286,8 +318,12 @@ public class EntityViewManagerImpl implements EntityViewManager {
         } else if (exception != null) {
             throw new IllegalArgumentException("An error happened during entity view metamodel building!", exception);
         }
+        if (metamodelSnapshot != null) {
+            metamodelSnapshot.write();
+        }
 
         this.metamodel = viewMetamodel;
+        this.viewCache = EntityViewCache.create(viewMetamodel, config.getProperties(), cbf);
         this.supportsTransientReference = jpaProvider.supportsTransientEntityAsParameter();
         this.objectBuilderCache = new ConcurrentHashMap<>();
         this.entityViewUpdaterCache = new ConcurrentHashMap<>();
@@ -434,18 +470,26 @@ public class EntityViewManagerImpl implements EntityViewManager {
         this.listeners = listeners;
 
         if (Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.TEMPLATE_EAGER_LOADING)))) {
-            for (ViewTypeImpl<?> view : metamodel.views()) {
-                // TODO: Might be a good idea to let the view root be overridden or specified via the annotation
-                String probableViewRoot = StringUtils.firstToLower(view.getEntityClass().getSimpleName());
-                MacroConfigurationExpressionFactory macroAwareExpressionFactory = context.createMacroAwareExpressionFactory(probableViewRoot);
-                ViewJpqlMacro viewJpqlMacro = (ViewJpqlMacro) macroAwareExpressionFactory.getDefaultMacroConfiguration().get("VIEW").getState()[0];
-                EmbeddingViewJpqlMacro embeddingViewJpqlMacro = (EmbeddingViewJpqlMacro) macroAwareExpressionFactory.getDefaultMacroConfiguration().get("EMBEDDING_VIEW").getState()[0];
-                getTemplate(macroAwareExpressionFactory, view, null, null, viewJpqlMacro, null, embeddingViewJpqlMacro);
-
-                for (MappingConstructor<?> constructor : view.getConstructors()) {
-                    getTemplate(macroAwareExpressionFactory, view, (MappingConstructorImpl) constructor, null, viewJpqlMacro, null, embeddingViewJpqlMacro);
-                }
+            // Templates are built concurrently at runtime anyway, so building the templates of the view types concurrently is safe
+            List<Runnable> templateTasks = new ArrayList<>(metamodel.views().size());
+            for (final ViewTypeImpl<?> view : metamodel.views()) {
+                templateTasks.add(new Runnable() {
+                    @Override
+                    public void run() {
+                        // TODO: Might be a good idea to let the view root be overridden or specified via the annotation
+                        String probableViewRoot = StringUtils.firstToLower(view.getEntityClass().getSimpleName());
+                        MacroConfigurationExpressionFactory macroAwareExpressionFactory = context.createMacroAwareExpressionFactory(probableViewRoot);
+                        ViewJpqlMacro viewJpqlMacro = (ViewJpqlMacro) macroAwareExpressionFactory.getDefaultMacroConfiguration().get("VIEW").getState()[0];
+                        EmbeddingViewJpqlMacro embeddingViewJpqlMacro = (EmbeddingViewJpqlMacro) macroAwareExpressionFactory.getDefaultMacroConfiguration().get("EMBEDDING_VIEW").getState()[0];
+                        getTemplate(macroAwareExpressionFactory, view, null, null, viewJpqlMacro, null, embeddingViewJpqlMacro);
+
+                        for (MappingConstructor<?> constructor : view.getConstructors()) {
+                            getTemplate(macroAwareExpressionFactory, view, (MappingConstructorImpl) constructor, null, viewJpqlMacro, null, embeddingViewJpqlMacro);
+                        }
+                    }
+                });
             }
+            ParallelBootstrap.run(bootstrapThreads, templateTasks);
         } else if (Boolean.valueOf(String.valueOf(config.getProperty(ConfigurationProperties.PROXY_EAGER_LOADING)))) {
             // Loading template will always involve also loading the proxies, so we use else if
             for (ViewType<?> view : metamodel.getViews()) {
@@ -774,6 +818,37 @@ public class EntityViewManagerImpl implements EntityViewManager {
         return optionalParameters;
     }
 
+    @Override
+    public Map<String, CorrelationBatchStatistics> getCorrelationBatchStatistics() {
+        if (correlationBatchStatistics == null) {
+            return Collections.emptyMap();
+        }
+        return Collections.<String, CorrelationBatchStatistics>unmodifiableMap(correlationBatchStatistics);
+    }
+
+    public ConcurrentMap<String, CorrelationBatchStatisticsImpl> getCorrelationBatchStatisticsMap() {
+        return correlationBatchStatistics;
+    }
+
+    @Override
+    public Map<String, CacheStatistics> getViewCacheStatistics() {
+        if (viewCache == null) {
+            return Collections.emptyMap();
+        }
+        return viewCache.getStatistics();
+    }
+
+    @Override
+    public void evictViewCache(Class<?> entityViewClass) {
+        if (viewCache != null) {
+            viewCache.evict(entityViewClass);
+        }
+    }
+
+    public EntityViewCache getViewCache() {
+        return viewCache;
+    }
+
     public JpaProvider getJpaProvider() {
         return jpaProvider;
     }
@@ -798,12 +873,78 @@ public class EntityViewManagerImpl implements EntityViewManager {
     @Override
     public <T> T find(EntityManager entityManager, EntityViewSetting<T, CriteriaBuilder<T>> entityViewSetting, Object entityId) {
         ViewTypeImpl<T> managedViewType = metamodel.viewOrError(entityViewSetting.getEntityViewClass());
+        EntityViewCacheRegion cacheRegion = null;
+        Object cacheKey = null;
+        if (viewCache != null && EntityViewCache.isCacheable(entityViewSetting)) {
+            cacheRegion = viewCache.getRegion(managedViewType.getJavaType());
+            if (cacheRegion != null) {
+                cacheKey = EntityViewCache.idKey(entityViewSetting.getViewConstructorName(), entityId);
+                Object cachedView = cacheRegion.get(cacheKey);
+                if (cachedView != null) {
+                    return (T) cachedView;
+                }
+            }
+        }
         EntityType<?> entityType = (EntityType<?>) managedViewType.getJpaManagedType();
         javax.persistence.metamodel.SingularAttribute<?, ?> idAttribute = JpaMetamodelUtils.getSingleIdAttribute(entityType);
         CriteriaBuilder<?> cb = cbf.create(entityManager, managedViewType.getEntityClass())
                 .where(idAttribute.getName()).eq(entityId);
-        List<T> resultList = applySetting(entityViewSetting, cb).getResultList();
-        return resultList.isEmpty() ? null : resultList.get(0);
+        return getFindResult(applySetting(entityViewSetting, cb).getResultList(), cacheRegion, cacheKey);
+    }
+
+    @Override
+    public <T> CompletionStage<T> findAsync(Class<T> entityViewClass, Object entityId) {
+        return findAsync(EntityViewSetting.create(entityViewClass), entityId);
+    }
+
+    @Override
+    public <T> CompletionStage<T> findAsync(EntityViewSetting<T, CriteriaBuilder<T>> entityViewSetting, Object entityId) {
+        ViewTypeImpl<T> managedViewType = metamodel.viewOrError(entityViewSetting.getEntityViewClass());
+        EntityViewCacheRegion cacheRegion = null;
+        Object cacheKey = null;
+        if (viewCache != null && EntityViewCache.isCacheable(entityViewSetting)) {
+            cacheRegion = viewCache.getRegion(managedViewType.getJavaType());
+            if (cacheRegion != null) {
+                cacheKey = EntityViewCache.idKey(entityViewSetting.getViewConstructorName(), entityId);
+                Object cachedView = cacheRegion.get(cacheKey);
+                if (cachedView != null) {
+                    return CompletableFuture.completedFuture((T) cachedView);
+                }
+            }
+        }
+        EntityType<?> entityType = (EntityType<?>) managedViewType.getJpaManagedType();
+        javax.persistence.metamodel.SingularAttribute<?, ?> idAttribute = JpaMetamodelUtils.getSingleIdAttribute(entityType);
+        AsyncQueryExecutor asyncQueryExecutor = cbf.getService(AsyncQueryExecutor.class);
+        EntityManager entityManager = asyncQueryExecutor.createEntityManager(Integer.parseInt(cbf.getProperty(com.blazebit.persistence.ConfigurationProperties.ASYNC_QUERY_TIMEOUT)));
+        final FullQueryBuilder<T, ?> queryBuilder;
+        try {
+            // The setting is applied on the calling thread, only the query execution happens asynchronously
+            CriteriaBuilder<?> cb = cbf.create(entityManager, managedViewType.getEntityClass())
+                    .where(idAttribute.getName()).eq(entityId);
+            queryBuilder = applySetting(entityViewSetting, cb);
+        } catch (RuntimeException | Error ex) {
+            entityManager.close();
+            throw ex;
+        }
+        final EntityViewCacheRegion finalCacheRegion = cacheRegion;
+        final Object finalCacheKey = cacheKey;
+        return asyncQueryExecutor.submit(entityManager, new Callable<T>() {
+            @Override
+            public T call() {
+                return getFindResult(queryBuilder.getResultList(), finalCacheRegion, finalCacheKey);
+            }
+        });
+    }
+
+    private <T> T getFindResult(List<T> resultList, EntityViewCacheRegion cacheRegion, Object cacheKey) {
+        if (resultList.isEmpty()) {
+            return null;
+        }
+        T result = resultList.get(0);
+        if (cacheRegion != null) {
+            cacheRegion.put(cacheKey, result);
+        }
+        return result;
     }
 
     @Override
@@ -1085,6 +1226,16 @@ public class EntityViewManagerImpl implements EntityViewManager {
         updateTo(em, view, entity, true);
     }
 
+    @Override
+    public void saveAll(EntityManager em, Collection<?> views) {
+        updateAll(em, views, false);
+    }
+
+    @Override
+    public void saveAllFull(EntityManager em, Collection<?> views) {
+        updateAll(em, views, true);
+    }
+
     @Override
     public void remove(EntityManager entityManager, Object view) {
         remove(new DefaultUpdateContext(this, entityManager, false, false, true, null, view, null), view);
@@ -1114,6 +1265,7 @@ public class EntityViewManagerImpl implements EntityViewManager {
                 }
                 updater.remove(context, proxy);
             }
+            evictViewCache(context, viewType);
         } catch (Throwable t) {
             context.getTransactionAccess().markRollbackOnly();
             ExceptionUtils.doThrow(t);
@@ -1133,6 +1285,7 @@ public class EntityViewManagerImpl implements EntityViewManager {
         EntityViewUpdater updater = getUpdater(null, viewType, null, null, null);
         try {
             updater.remove(context, viewId);
+            evictViewCache(context, viewType);
         } catch (Throwable t) {
             context.getTransactionAccess().markRollbackOnly();
             ExceptionUtils.doThrow(t);
@@ -1153,6 +1306,10 @@ public class EntityViewManagerImpl implements EntityViewManager {
         update(new DefaultUpdateContext(this, em, forceFull, false, false, null, view, null), view);
     }
 
+    public void updateAll(EntityManager em, Collection<?> views, boolean forceFull) {
+        updateAll(new DefaultUpdateContext(this, em, forceFull, false, false, null, views, null), views);
+    }
+
     public void updateTo(EntityManager em, Object view, Object entity, boolean forceFull) {
         updateTo(new DefaultUpdateContext(this, em, forceFull, true, false, null, view, null), view, entity);
     }
@@ -1192,12 +1349,51 @@ public class EntityViewManagerImpl implements EntityViewManager {
             } else {
                 updater.executeUpdate(context, updatableProxy);
             }
+            evictViewCache(context, viewType);
         } catch (Throwable t) {
             context.getTransactionAccess().markRollbackOnly();
             ExceptionUtils.doThrow(t);
         }
     }
 
+    public void updateAll(UpdateContext context, Collection<?> views) {
+        Map<Class<?>, List<MutableStateTrackable>> viewsByType = new LinkedHashMap<>();
+        for (Object view : views) {
+            if (!(view instanceof MutableStateTrackable)) {
+                throw new IllegalArgumentException("Can't update non-updatable entity views: " + view);
+            }
+            MutableStateTrackable updatableProxy = (MutableStateTrackable) view;
+            List<MutableStateTrackable> typeViews = viewsByType.get(updatableProxy.$$_getEntityViewClass());
+            if (typeViews == null) {
+                typeViews = new ArrayList<>();
+                viewsByType.put(updatableProxy.$$_getEntityViewClass(), typeViews);
+            }
+            typeViews.add(updatableProxy);
+        }
+
+        List<MutableStateTrackable> failedViews = new ArrayList<>();
+        try {
+            for (Map.Entry<Class<?>, List<MutableStateTrackable>> entry : viewsByType.entrySet()) {
+                ManagedViewTypeImplementor<?> viewType = metamodel.managedViewOrError(entry.getKey());
+                EntityViewUpdater updater = getUpdater(null, viewType, null, null, null);
+                failedViews.addAll(updater.executeUpdates(context, entry.getValue()));
+                evictViewCache(context, viewType);
+            }
+        } catch (Throwable t) {
+            context.getTransactionAccess().markRollbackOnly();
+            ExceptionUtils.doThrow(t);
+        }
+
+        if (!failedViews.isEmpty()) {
+            context.getTransactionAccess().markRollbackOnly();
+            List<Object> failedViewIds = new ArrayList<>(failedViews.size());
+            for (MutableStateTrackable failedView : failedViews) {
+                failedViewIds.add(failedView.$$_getId());
+            }
+            throw new BulkOptimisticLockException("The update operation did not return the expected update count for the entity views with the ids: " + failedViewIds, new ArrayList<Object>(failedViews), failedViewIds);
+        }
+    }
+
     public void updateTo(UpdateContext context, Object view, Object entity) {
         if (!(view instanceof MutableStateTrackable)) {
             throw new IllegalArgumentException("Can't update non-updatable entity views: " + view);
@@ -1212,12 +1408,31 @@ public class EntityViewManagerImpl implements EntityViewManager {
         EntityViewUpdater updater = getUpdater(null, viewType, null, null, null);
         try {
             updater.executeUpdate(context, entity, updatableProxy);
+            evictViewCache(context, viewType);
         } catch (Throwable t) {
             context.getTransactionAccess().markRollbackOnly();
             ExceptionUtils.doThrow(t);
         }
     }
 
+    private void evictViewCache(UpdateContext context, final ManagedViewType<?> viewType) {
+        if (viewCache == null) {
+            return;
+        }
+        viewCache.evict(viewType);
+        // Concurrent transactions could cache the old state until this transaction completes, so evict again afterwards
+        context.getTransactionAccess().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                viewCache.evict(viewType);
+            }
+        });
+    }
+
     public Object persist(UpdateContext context, Object view) {
         if (!(view instanceof MutableStateTrackable)) {
             throw new IllegalArgumentException("Can't persist non-updatable entity views: " + view);
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl;
+
+import com.blazebit.persistence.view.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs independent tasks of the entity view manager bootstrap on a temporary pool of daemon threads.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ * @see ConfigurationProperties#BOOTSTRAP_THREADS
+ */
+public final class ParallelBootstrap {
+
+    private ParallelBootstrap() {
+    }
+
+    /**
+     * Returns the amount of threads configured via {@link ConfigurationProperties#BOOTSTRAP_THREADS}.
+     *
+     * @param value The configured value
+     * @return The amount of bootstrap threads
+     */
+    public static int getThreads(Object value) {
+        if (value == null) {
+            return 1;
+        }
+        int threads;
+        if (value instanceof Number) {
+            threads = ((Number) value).intValue();
+        } else {
+            try {
+                threads = Integer.parseInt(value.toString());
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("Invalid value for the property " + ConfigurationProperties.BOOTSTRAP_THREADS + ". Expected an integer but got: " + value, ex);
+            }
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid value for the property " + ConfigurationProperties.BOOTSTRAP_THREADS + ". Expected a positive integer but got: " + value);
+        }
+        return threads;
+    }
+
+    /**
+     * Runs the given tasks and waits for their completion. If at most one thread is requested, the tasks run on the calling thread.
+     * The first failure of a task is rethrown after all previous tasks completed.
+     *
+     * @param threads The maximum amount of threads to use
+     * @param tasks The tasks to run
+     */
+    public static void run(int threads, List<Runnable> tasks) {
+        int poolSize = Math.min(threads, tasks.size());
+        if (poolSize <= 1) {
+            for (Runnable task : tasks) {
+                task.run();
+            }
+            return;
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(poolSize, new ThreadFactory() {
+            private final AtomicInteger threadNumber = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "blaze-persistence-entity-view-bootstrap-" + threadNumber.incrementAndGet());
+                // Don't prevent the JVM from shutting down if the boot fails
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(tasks.size());
+            for (Runnable task : tasks) {
+                futures.add(executorService.submit(task));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted during the entity view bootstrap", e);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    } else if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new IllegalStateException("The entity view bootstrap failed", cause);
+                }
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl;
+
+import com.blazebit.persistence.parser.EntityMetamodel;
+import com.blazebit.persistence.parser.util.JpaMetamodelUtils;
+import com.blazebit.persistence.spi.DbmsDialect;
+import com.blazebit.persistence.spi.ExtendedAttribute;
+import com.blazebit.persistence.spi.ExtendedManagedType;
+import com.blazebit.persistence.spi.JpaProvider;
+import com.blazebit.persistence.spi.JpqlFunction;
+import com.blazebit.persistence.view.ConfigurationProperties;
+import com.blazebit.persistence.view.impl.type.BasicUserTypeRegistry;
+import com.blazebit.persistence.view.spi.type.BasicUserType;
+import com.blazebit.persistence.view.spi.type.TypeConverter;
+
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.ManagedType;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A snapshot file that records a fingerprint of an entity view metamodel that was successfully validated.
+ * The fingerprint covers the bytecode of the type hierarchies of all entity view, JPA managed type and registered function classes,
+ * the JPA metamodel as seen through the {@link ExtendedManagedType} which also reflects XML mappings, the registered basic user types and type converters,
+ * the entity view configuration properties, as well as everything else the validation depends on,
+ * so that the validation of the metamodel can be skipped on subsequent boots as long as nothing changed.
+ * If the bytecode of a class can't be read, no fingerprint is created and the metamodel is always validated.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ * @see ConfigurationProperties#METAMODEL_SNAPSHOT
+ */
+final class ViewMetamodelSnapshot {
+
+    private static final Logger LOG = Logger.getLogger(ViewMetamodelSnapshot.class.getName());
+    // "BPVS" in ASCII
+    private static final int MAGIC = 0x42505653;
+    private static final int FORMAT_VERSION = 1;
+    private static final String PROPERTY_PREFIX = "com.blazebit.persistence.view.";
+
+    private final Path path;
+    private final byte[] fingerprint;
+
+    private ViewMetamodelSnapshot(Path path, byte[] fingerprint) {
+        this.path = path;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Creates the snapshot for the given configuration value of {@link ConfigurationProperties#METAMODEL_SNAPSHOT}.
+     *
+     * @param snapshotPath The configured snapshot path
+     * @param viewClasses The entity view classes
+     * @param entityMetamodel The entity metamodel
+     * @param registeredFunctions The registered JPQL functions
+     * @param dbmsDialect The DBMS dialect
+     * @param jpaProvider The JPA provider
+     * @param typeTestValueTypes The types for which test values are registered
+     * @param basicUserTypeRegistry The registry of basic user types and type converters
+     * @param properties The entity view configuration properties
+     * @param validateExpressions Whether expressions are validated
+     * @param validateManagedTypes Whether JPA managed types are validated
+     * @return The snapshot or <code>null</code> if no snapshot path is configured
+     */
+    public static ViewMetamodelSnapshot create(Object snapshotPath, Collection<Class<?>> viewClasses, EntityMetamodel entityMetamodel, Map<String, JpqlFunction> registeredFunctions, DbmsDialect dbmsDialect,
+                                               JpaProvider jpaProvider, Collection<Class<?>> typeTestValueTypes, BasicUserTypeRegistry basicUserTypeRegistry,
+                                               Properties properties, boolean validateExpressions, boolean validateManagedTypes) {
+        Path path;
+        if (snapshotPath == null) {
+            return null;
+        } else if (snapshotPath instanceof Path) {
+            path = (Path) snapshotPath;
+        } else if (snapshotPath instanceof File) {
+            path = ((File) snapshotPath).toPath();
+        } else if (snapshotPath instanceof String) {
+            if (((String) snapshotPath).isEmpty()) {
+                return null;
+            }
+            path = Paths.get((String) snapshotPath);
+        } else {
+            throw new IllegalArgumentException("Invalid value for the property " + ConfigurationProperties.METAMODEL_SNAPSHOT + ". Expected a path but got: " + snapshotPath);
+        }
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Could not create digest for the entity view metamodel snapshot", ex);
+        }
+
+        Package implementationPackage = ViewMetamodelSnapshot.class.getPackage();
+        update(digest, implementationPackage == null ? null : implementationPackage.getImplementationVersion());
+        update(digest, Boolean.toString(validateExpressions));
+        update(digest, Boolean.toString(validateManagedTypes));
+        update(digest, dbmsDialect.getClass().getName());
+        update(digest, jpaProvider.getClass().getName());
+        Map<String, Class<?>> classes = new TreeMap<>();
+        for (Map.Entry<String, JpqlFunction> entry : new TreeMap<>(registeredFunctions).entrySet()) {
+            update(digest, entry.getKey());
+            update(digest, entry.getValue().getClass().getName());
+            addTypeHierarchy(classes, entry.getValue().getClass());
+        }
+        for (Class<?> typeTestValueType : typeTestValueTypes) {
+            update(digest, typeTestValueType.getName());
+        }
+        updateProperties(digest, properties);
+        for (Map.Entry<String, BasicUserType<?>> entry : sortByClassName(basicUserTypeRegistry.getBasicUserTypes()).entrySet()) {
+            update(digest, entry.getKey());
+            update(digest, entry.getValue().getClass().getName());
+            addTypeHierarchy(classes, entry.getValue().getClass());
+        }
+        for (Map.Entry<String, Map<Class<?>, TypeConverter<?, ?>>> entry : sortByClassName(basicUserTypeRegistry.getTypeConverters()).entrySet()) {
+            update(digest, entry.getKey());
+            for (Map.Entry<String, TypeConverter<?, ?>> converterEntry : sortByClassName(entry.getValue()).entrySet()) {
+                update(digest, converterEntry.getKey());
+                update(digest, converterEntry.getValue().getClass().getName());
+                addTypeHierarchy(classes, converterEntry.getValue().getClass());
+            }
+        }
+
+        for (Class<?> viewClass : viewClasses) {
+            addTypeHierarchy(classes, viewClass);
+        }
+        Map<String, ManagedType<?>> managedTypes = new TreeMap<>();
+        for (ManagedType<?> managedType : entityMetamodel.getManagedTypes()) {
+            if (managedType.getJavaType() == null) {
+                managedTypes.put(JpaMetamodelUtils.getTypeName(managedType), managedType);
+            } else {
+                managedTypes.put(managedType.getJavaType().getName(), managedType);
+                addTypeHierarchy(classes, managedType.getJavaType());
+            }
+        }
+        for (ManagedType<?> managedType : managedTypes.values()) {
+            updateManagedType(digest, entityMetamodel, managedType);
+        }
+        for (Class<?> clazz : classes.values()) {
+            update(digest, clazz.getName());
+            if (!updateClassBytes(digest, clazz)) {
+                LOG.fine("Could not read the bytecode of class '" + clazz.getName() + "' so the entity view metamodel snapshot can't be used");
+                return new ViewMetamodelSnapshot(path, null);
+            }
+        }
+
+        return new ViewMetamodelSnapshot(path, digest.digest());
+    }
+
+    private static <V> Map<String, V> sortByClassName(Map<Class<?>, V> map) {
+        Map<String, V> sortedMap = new TreeMap<>();
+        for (Map.Entry<Class<?>, V> entry : map.entrySet()) {
+            sortedMap.put(entry.getKey().getName(), entry.getValue());
+        }
+        return sortedMap;
+    }
+
+    private static void updateProperties(MessageDigest digest, Properties properties) {
+        // The metamodel building reads flags like the updater flush mode overrides that influence which errors are reported
+        Map<String, Object> entityViewProperties = new TreeMap<>();
+        for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+            String key = String.valueOf(entry.getKey());
+            if (key.startsWith(PROPERTY_PREFIX) && !ConfigurationProperties.METAMODEL_SNAPSHOT.equals(key)) {
+                entityViewProperties.put(key, entry.getValue());
+            }
+        }
+        for (Map.Entry<String, Object> entry : entityViewProperties.entrySet()) {
+            Object value = entry.getValue();
+            update(digest, entry.getKey());
+            if (value == null || value instanceof String || value instanceof Boolean || value instanceof Number || value instanceof Enum<?>) {
+                update(digest, value == null ? null : value.toString());
+            } else {
+                // Other objects might not have a stable string representation, so we only consider the type
+                update(digest, value.getClass().getName());
+            }
+        }
+    }
+
+    private static void addTypeHierarchy(Map<String, Class<?>> classes, Class<?> clazz) {
+        // Bootstrap classes don't change without a JVM change
+        if (clazz == null || clazz.getClassLoader() == null || classes.put(clazz.getName(), clazz) != null) {
+            return;
+        }
+        addTypeHierarchy(classes, clazz.getSuperclass());
+        for (Class<?> interfaceClass : clazz.getInterfaces()) {
+            addTypeHierarchy(classes, interfaceClass);
+        }
+    }
+
+    private static void updateManagedType(MessageDigest digest, EntityMetamodel entityMetamodel, ManagedType<?> managedType) {
+        // Mappings from orm.xml or hbm.xml files aren't visible in the bytecode, so we also hash the model the JPA provider built
+        update(digest, JpaMetamodelUtils.getTypeName(managedType));
+        update(digest, managedType.getPersistenceType().name());
+        ExtendedManagedType<?> extendedManagedType = entityMetamodel.getManagedType(ExtendedManagedType.class, managedType);
+        Map<String, ? extends ExtendedAttribute<?, ?>> attributes = new TreeMap<>(extendedManagedType.getAttributes());
+        for (Map.Entry<String, ? extends ExtendedAttribute<?, ?>> entry : attributes.entrySet()) {
+            ExtendedAttribute<?, ?> extendedAttribute = entry.getValue();
+            Attribute<?, ?> attribute = extendedAttribute.getAttribute();
+            update(digest, entry.getKey());
+            update(digest, attribute.getPersistentAttributeType().name());
+            update(digest, attribute.getJavaType() == null ? null : attribute.getJavaType().getName());
+            update(digest, extendedAttribute.getElementClass() == null ? null : extendedAttribute.getElementClass().getName());
+            update(digest, extendedAttribute.getMappedBy());
+            update(digest, extendedAttribute.getJoinTable() == null ? null : extendedAttribute.getJoinTable().getTableName());
+            update(digest, Arrays.toString(extendedAttribute.getColumnNames()));
+            update(digest, Arrays.toString(extendedAttribute.getColumnTypes()));
+            digest.update((byte) ((extendedAttribute.hasJoinCondition() ? 1 : 0)
+                    | (extendedAttribute.isForeignJoinColumn() ? 2 : 0)
+                    | (extendedAttribute.isColumnShared() ? 4 : 0)
+                    | (extendedAttribute.isBag() ? 8 : 0)
+                    | (extendedAttribute.isOrphanRemoval() ? 16 : 0)
+                    | (extendedAttribute.isDeleteCascaded() ? 32 : 0)));
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update((byte) 0);
+        } else {
+            digest.update((byte) 1);
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+    }
+
+    private static boolean updateClassBytes(MessageDigest digest, Class<?> clazz) {
+        try (InputStream is = clazz.getClassLoader().getResourceAsStream(clazz.getName().replace('.', '/') + ".class")) {
+            if (is == null) {
+                return false;
+            }
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return true;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns whether the snapshot file exists and was written for the same fingerprint.
+     *
+     * @return Whether the snapshot is up to date
+     */
+    public boolean isUpToDate() {
+        if (fingerprint == null || !Files.isRegularFile(path)) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return false;
+            }
+            byte[] storedFingerprint = new byte[in.readUnsignedShort()];
+            in.readFully(storedFingerprint);
+            return Arrays.equals(fingerprint, storedFingerprint);
+        } catch (IOException ex) {
+            LOG.log(Level.WARNING, "Could not read the entity view metamodel snapshot '" + path + "'. Falling back to a full validation", ex);
+            return false;
+        }
+    }
+
+    /**
+     * Writes the snapshot file for the fingerprint. Failures are only logged as they shouldn't prevent the boot.
+     */
+    public void write() {
+        if (fingerprint == null) {
+            return;
+        }
+        try {
+            Path directory = path.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            // Write to a temporary file first so that concurrent boots never see a partially written snapshot
+            Path temporaryFile = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(FORMAT_VERSION);
+                    out.writeShort(fingerprint.length);
+                    out.write(fingerprint);
+                }
+                try {
+                    Files.move(temporaryFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException ex) {
+                    Files.move(temporaryFile, path, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+        } catch (IOException ex) {
+            LOG.log(Level.WARNING, "Could not write the entity view metamodel snapshot '" + path + "'", ex);
+        }
+    }
+}
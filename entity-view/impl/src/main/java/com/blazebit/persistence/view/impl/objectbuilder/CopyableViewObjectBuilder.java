@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder;
+
+import com.blazebit.persistence.CopyableObjectBuilder;
+import com.blazebit.persistence.FullQueryBuilder;
+import com.blazebit.persistence.GroupingObjectBuilder;
+import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.view.impl.EntityViewConfiguration;
+import com.blazebit.persistence.view.impl.EntityViewManagerImpl;
+import com.blazebit.persistence.view.impl.macro.MutableEmbeddingViewJpqlMacro;
+import com.blazebit.persistence.view.impl.macro.MutableViewJpqlMacro;
+import com.blazebit.persistence.view.impl.metamodel.ManagedViewTypeImplementor;
+import com.blazebit.persistence.view.impl.metamodel.MappingConstructorImpl;
+
+/**
+ * The object builder for an entity view that is applied to a query builder, which creates a new object builder when the query builder is copied.
+ * The new object builder and its entity view configuration refer to the copy, so that e.g. correlations are executed through the copy.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public class CopyableViewObjectBuilder<T> extends DelegatingObjectBuilder<T> implements CopyableObjectBuilder<T> {
+
+    private final EntityViewManagerImpl evm;
+    private final ManagedViewTypeImplementor<?> viewType;
+    private final MappingConstructorImpl<?> mappingConstructor;
+    private final Class<?> rootType;
+    private final String entityViewRoot;
+    private final EntityViewConfiguration configuration;
+
+    private CopyableViewObjectBuilder(ObjectBuilder<T> delegate, EntityViewManagerImpl evm, ManagedViewTypeImplementor<?> viewType, MappingConstructorImpl<?> mappingConstructor, Class<?> rootType, String entityViewRoot, EntityViewConfiguration configuration) {
+        super(delegate);
+        this.evm = evm;
+        this.viewType = viewType;
+        this.mappingConstructor = mappingConstructor;
+        this.rootType = rootType;
+        this.entityViewRoot = entityViewRoot;
+        this.configuration = configuration;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> ObjectBuilder<T> create(EntityViewManagerImpl evm, ManagedViewTypeImplementor<?> viewType, MappingConstructorImpl<?> mappingConstructor, Class<?> rootType, String entityViewRoot, FullQueryBuilder<?, ?> criteriaBuilder, EntityViewConfiguration configuration) {
+        ObjectBuilder<T> delegate = (ObjectBuilder<T>) evm.createObjectBuilder(viewType, mappingConstructor, rootType, entityViewRoot, null, criteriaBuilder, configuration, 0, 0, false);
+        if (delegate instanceof GroupingObjectBuilder<?>) {
+            return new Grouping<>(delegate, evm, viewType, mappingConstructor, rootType, entityViewRoot, configuration);
+        }
+        return new CopyableViewObjectBuilder<>(delegate, evm, viewType, mappingConstructor, rootType, entityViewRoot, configuration);
+    }
+
+    @Override
+    public ObjectBuilder<T> copy(FullQueryBuilder<?, ?> queryBuilder) {
+        EntityViewConfiguration copyConfiguration = configuration.forCopy(queryBuilder, new MutableViewJpqlMacro(), new MutableEmbeddingViewJpqlMacro());
+        return create(evm, viewType, mappingConstructor, rootType, entityViewRoot, queryBuilder, copyConfiguration);
+    }
+
+    /**
+     * The copyable object builder for entity views that are built from groups of tuples.
+     *
+     * @author Christian Beikov
+     * @since 1.6.7
+     */
+    private static final class Grouping<T> extends CopyableViewObjectBuilder<T> implements GroupingObjectBuilder<T> {
+
+        private Grouping(ObjectBuilder<T> delegate, EntityViewManagerImpl evm, ManagedViewTypeImplementor<?> viewType, MappingConstructorImpl<?> mappingConstructor, Class<?> rootType, String entityViewRoot, EntityViewConfiguration configuration) {
+            super(delegate, evm, viewType, mappingConstructor, rootType, entityViewRoot, configuration);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object getGroupKey(T object) {
+            return ((GroupingObjectBuilder<T>) delegate).getGroupKey(object);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder;
+
+import com.blazebit.persistence.GroupingObjectBuilder;
+import com.blazebit.persistence.ObjectBuilder;
+import com.blazebit.persistence.ParameterHolder;
+import com.blazebit.persistence.view.impl.EntityViewConfiguration;
+import com.blazebit.persistence.view.impl.objectbuilder.transformator.TupleTransformatorFactory;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * A chaining collection object builder for views with an id, that groups the tuples by the view id,
+ * so that views with join fetched collections can be built while streaming an id ordered result.
+ * The tuples of a view must be adjacent in the result, which requires ordering by the view id.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public class GroupingChainingCollectionObjectBuilder<T> extends ChainingCollectionObjectBuilder<T> implements GroupingObjectBuilder<T> {
+
+    private final int[] idPositions;
+
+    public GroupingChainingCollectionObjectBuilder(TupleTransformatorFactory transformatorFactory, ObjectBuilder<T> objectBuilder, ParameterHolder<?> parameterHolder, Map<String, Object> optionalParameters, EntityViewConfiguration entityViewConfiguration, int[] idPositions) {
+        super(transformatorFactory, objectBuilder, parameterHolder, optionalParameters, entityViewConfiguration);
+        this.idPositions = idPositions;
+    }
+
+    @Override
+    public Object getGroupKey(T object) {
+        Object[] tuple = (Object[]) object;
+        if (idPositions.length == 1) {
+            return tuple[idPositions[0]];
+        }
+        Object[] key = new Object[idPositions.length];
+        for (int i = 0; i < idPositions.length; i++) {
+            key[i] = tuple[idPositions[i]];
+        }
+        return Arrays.asList(key);
+    }
+}
@@ -85,6 +85,8 @@ public class ReducerViewTypeObjectBuilder<T> extends DelegatingObjectBuilder<T>
         private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
 
         private Object[] array;
+        // A reusable array for when some elements were consumed, which usually happens for the same amount of elements on every row
+        private Object[] sizedArray;
         private int size;
 
         public FastArrayList(int initialSize) {
@@ -101,8 +103,13 @@ public class ReducerViewTypeObjectBuilder<T> extends DelegatingObjectBuilder<T>
                 return array;
             }
 
-            array = Arrays.copyOf(array, size);
-            return array;
+            // Don't shrink the buffer itself to avoid growing it again on the next row
+            Object[] sizedArray = this.sizedArray;
+            if (sizedArray == null || sizedArray.length != size) {
+                sizedArray = this.sizedArray = new Object[size];
+            }
+            System.arraycopy(array, 0, sizedArray, 0, size);
+            return sizedArray;
         }
 
         public void add(Object value) {
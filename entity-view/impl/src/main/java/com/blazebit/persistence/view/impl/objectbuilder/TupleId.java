@@ -51,49 +51,106 @@ public class TupleId {
         return true;
     }
 
+    /**
+     * Returns whether the id that would be extracted from the tuple via {@link #TupleId(int[], Object[])} is empty, without creating a {@link TupleId}.
+     *
+     * @param idPositions The positions of the id elements
+     * @param tuple The tuple
+     * @return Whether the id is empty
+     */
+    public static boolean isEmpty(int[] idPositions, Object[] tuple) {
+        for (int i = 0; i < idPositions.length; i++) {
+            int idPosition = idPositions[i];
+            if (idPosition < 0 || tuple[idPosition] != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hash code of the id that would be extracted from the tuple via {@link #TupleId(int[], Object[])}, without creating a {@link TupleId}.
+     *
+     * @param idPositions The positions of the id elements
+     * @param tuple The tuple
+     * @return The hash code of the id
+     */
+    public static int hashCode(int[] idPositions, Object[] tuple) {
+        int hash = 7;
+        int result = 1;
+        for (int i = 0; i < idPositions.length; i++) {
+            int idPosition = idPositions[i];
+            result = 31 * result + elementHashCode(idPosition < 0 ? Integer.valueOf(idPosition) : tuple[idPosition]);
+        }
+        hash = 53 * hash + result;
+        return hash;
+    }
+
+    /**
+     * Returns whether this id is equal to the id that would be extracted from the tuple via {@link #TupleId(int[], Object[])}, without creating a {@link TupleId}.
+     *
+     * @param idPositions The positions of the id elements
+     * @param tuple The tuple
+     * @return Whether the ids are equal
+     */
+    public boolean matches(int[] idPositions, Object[] tuple) {
+        Object[] a = id;
+        if (a.length != idPositions.length) {
+            return false;
+        }
+        for (int i = 0; i < a.length; i++) {
+            int idPosition = idPositions[i];
+            if (!elementEquals(a[i], idPosition < 0 ? Integer.valueOf(idPosition) : tuple[idPosition])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public int hashCode() {
         int hash = 7;
         int result = 1;
-        // Special handling for RecordingCollection and RecordingMap to avoid full equality checks
-        // We de-duplicate these objects by owner anyway, so no need to do a deep hashCode or equals check
         Object[] a = id;
         int length = a.length;
         for (int i = 0; i < length; i++) {
-            Object element = a[i];
-            int elementHash = 0;
-            if (element instanceof Object[]) {
-                elementHash = Arrays.deepHashCode((Object[]) element);
-            } else if (element instanceof byte[]) {
-                elementHash = Arrays.hashCode((byte[]) element);
-            } else if (element instanceof short[]) {
-                elementHash = Arrays.hashCode((short[]) element);
-            } else if (element instanceof int[]) {
-                elementHash = Arrays.hashCode((int[]) element);
-            } else if (element instanceof long[]) {
-                elementHash = Arrays.hashCode((long[]) element);
-            } else if (element instanceof char[]) {
-                elementHash = Arrays.hashCode((char[]) element);
-            } else if (element instanceof float[]) {
-                elementHash = Arrays.hashCode((float[]) element);
-            } else if (element instanceof double[]) {
-                elementHash = Arrays.hashCode((double[]) element);
-            } else if (element instanceof boolean[]) {
-                elementHash = Arrays.hashCode((boolean[]) element);
-            } else if (element instanceof RecordingCollection<?, ?>) {
-                elementHash = System.identityHashCode(element);
-            } else if (element instanceof RecordingMap<?, ?, ?>) {
-                elementHash = System.identityHashCode(element);
-            } else if (element != null) {
-                elementHash = element.hashCode();
-            }
-
-            result = 31 * result + elementHash;
+            result = 31 * result + elementHashCode(a[i]);
         }
         hash = 53 * hash + result;
         return hash;
     }
 
+    private static int elementHashCode(Object element) {
+        // Special handling for RecordingCollection and RecordingMap to avoid full equality checks
+        // We de-duplicate these objects by owner anyway, so no need to do a deep hashCode or equals check
+        if (element instanceof Object[]) {
+            return Arrays.deepHashCode((Object[]) element);
+        } else if (element instanceof byte[]) {
+            return Arrays.hashCode((byte[]) element);
+        } else if (element instanceof short[]) {
+            return Arrays.hashCode((short[]) element);
+        } else if (element instanceof int[]) {
+            return Arrays.hashCode((int[]) element);
+        } else if (element instanceof long[]) {
+            return Arrays.hashCode((long[]) element);
+        } else if (element instanceof char[]) {
+            return Arrays.hashCode((char[]) element);
+        } else if (element instanceof float[]) {
+            return Arrays.hashCode((float[]) element);
+        } else if (element instanceof double[]) {
+            return Arrays.hashCode((double[]) element);
+        } else if (element instanceof boolean[]) {
+            return Arrays.hashCode((boolean[]) element);
+        } else if (element instanceof RecordingCollection<?, ?>) {
+            return System.identityHashCode(element);
+        } else if (element instanceof RecordingMap<?, ?, ?>) {
+            return System.identityHashCode(element);
+        } else if (element != null) {
+            return element.hashCode();
+        }
+        return 0;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == null) {
@@ -114,52 +171,48 @@ public class TupleId {
             return false;
         }
 
-        // Special handling for RecordingCollection and RecordingMap to avoid full equality checks
-        // We de-duplicate these objects by owner anyway, so no need to do a deep hashCode or equals check
         for (int i = 0; i < length; i++) {
-            Object e1 = a1[i];
-            Object e2 = a2[i];
-
-            if (e1 == e2) {
-                continue;
-            }
-            if (e1 == null) {
+            if (!elementEquals(a1[i], a2[i])) {
                 return false;
             }
+        }
 
-            // Figure out whether the two elements are equal
-            boolean eq;
-            if (e1 instanceof Object[] && e2 instanceof Object[]) {
-                eq = Arrays.deepEquals((Object[]) e1, (Object[]) e2);
-            } else if (e1 instanceof byte[] && e2 instanceof byte[]) {
-                eq = Arrays.equals((byte[]) e1, (byte[]) e2);
-            } else if (e1 instanceof short[] && e2 instanceof short[]) {
-                eq = Arrays.equals((short[]) e1, (short[]) e2);
-            } else if (e1 instanceof int[] && e2 instanceof int[]) {
-                eq = Arrays.equals((int[]) e1, (int[]) e2);
-            } else if (e1 instanceof long[] && e2 instanceof long[]) {
-                eq = Arrays.equals((long[]) e1, (long[]) e2);
-            } else if (e1 instanceof char[] && e2 instanceof char[]) {
-                eq = Arrays.equals((char[]) e1, (char[]) e2);
-            } else if (e1 instanceof float[] && e2 instanceof float[]) {
-                eq = Arrays.equals((float[]) e1, (float[]) e2);
-            } else if (e1 instanceof double[] && e2 instanceof double[]) {
-                eq = Arrays.equals((double[]) e1, (double[]) e2);
-            } else if (e1 instanceof boolean[] && e2 instanceof boolean[]) {
-                eq = Arrays.equals((boolean[]) e1, (boolean[]) e2);
-            } else if (e1 instanceof RecordingCollection<?, ?> && e2 instanceof RecordingCollection<?, ?>) {
-                eq = e1 == e2;
-            } else if (e1 instanceof RecordingMap<?, ?, ?> && e2 instanceof RecordingMap<?, ?, ?>) {
-                eq = e1 == e2;
-            } else {
-                eq = e1.equals(e2);
-            }
+        return true;
+    }
 
-            if (!eq) {
-                return false;
-            }
+    private static boolean elementEquals(Object e1, Object e2) {
+        if (e1 == e2) {
+            return true;
+        }
+        if (e1 == null) {
+            return false;
         }
 
-        return true;
+        // Special handling for RecordingCollection and RecordingMap to avoid full equality checks
+        // We de-duplicate these objects by owner anyway, so no need to do a deep hashCode or equals check
+        if (e1 instanceof Object[] && e2 instanceof Object[]) {
+            return Arrays.deepEquals((Object[]) e1, (Object[]) e2);
+        } else if (e1 instanceof byte[] && e2 instanceof byte[]) {
+            return Arrays.equals((byte[]) e1, (byte[]) e2);
+        } else if (e1 instanceof short[] && e2 instanceof short[]) {
+            return Arrays.equals((short[]) e1, (short[]) e2);
+        } else if (e1 instanceof int[] && e2 instanceof int[]) {
+            return Arrays.equals((int[]) e1, (int[]) e2);
+        } else if (e1 instanceof long[] && e2 instanceof long[]) {
+            return Arrays.equals((long[]) e1, (long[]) e2);
+        } else if (e1 instanceof char[] && e2 instanceof char[]) {
+            return Arrays.equals((char[]) e1, (char[]) e2);
+        } else if (e1 instanceof float[] && e2 instanceof float[]) {
+            return Arrays.equals((float[]) e1, (float[]) e2);
+        } else if (e1 instanceof double[] && e2 instanceof double[]) {
+            return Arrays.equals((double[]) e1, (double[]) e2);
+        } else if (e1 instanceof boolean[] && e2 instanceof boolean[]) {
+            return Arrays.equals((boolean[]) e1, (boolean[]) e2);
+        } else if (e1 instanceof RecordingCollection<?, ?> && e2 instanceof RecordingCollection<?, ?>) {
+            return false;
+        } else if (e1 instanceof RecordingMap<?, ?, ?> && e2 instanceof RecordingMap<?, ?, ?>) {
+            return false;
+        }
+        return e1.equals(e2);
     }
 }
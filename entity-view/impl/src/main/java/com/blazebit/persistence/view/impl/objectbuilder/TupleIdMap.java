@@ -0,0 +1,122 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder;
+
+/**
+ * An open addressing hash map with linear probing for {@link TupleId} keys that are extracted from tuples.
+ * Lookups compare the id positions of a tuple directly against the stored keys, so a {@link TupleId}
+ * is only created for tuples with a new id and no entry objects are allocated at all.
+ *
+ * @param <V> The value type
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public final class TupleIdMap<V> {
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private final int[] idPositions;
+    private TupleId[] keys;
+    private int[] hashes;
+    private Object[] values;
+    private int size;
+    private int threshold;
+
+    public TupleIdMap(int[] idPositions, int expectedSize) {
+        this.idPositions = idPositions;
+        int capacity = 16;
+        // Keep the load factor at or below 0.5 so that probe sequences stay short
+        while (capacity < MAX_CAPACITY && capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new TupleId[capacity];
+        this.hashes = new int[capacity];
+        this.values = new Object[capacity];
+        this.threshold = capacity >> 1;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Returns the value for the id of the given tuple or <code>null</code> if there is none.
+     *
+     * @param tuple The tuple
+     * @return The value or <code>null</code>
+     */
+    @SuppressWarnings("unchecked")
+    public V get(Object[] tuple) {
+        int hash = TupleId.hashCode(idPositions, tuple);
+        int mask = keys.length - 1;
+        int index = spread(hash) & mask;
+        TupleId key;
+        while ((key = keys[index]) != null) {
+            if (hashes[index] == hash && key.matches(idPositions, tuple)) {
+                return (V) values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Associates the value with the id of the given tuple which must not be contained in this map yet.
+     *
+     * @param tuple The tuple
+     * @param value The value
+     */
+    public void putNew(Object[] tuple, V value) {
+        if (size >= threshold && keys.length < MAX_CAPACITY) {
+            rehash(keys.length << 1);
+        }
+        int hash = TupleId.hashCode(idPositions, tuple);
+        insert(new TupleId(idPositions, tuple), hash, value);
+        size++;
+    }
+
+    private void insert(TupleId key, int hash, Object value) {
+        int mask = keys.length - 1;
+        int index = spread(hash) & mask;
+        while (keys[index] != null) {
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        hashes[index] = hash;
+        values[index] = value;
+    }
+
+    private void rehash(int capacity) {
+        TupleId[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                insert(oldKeys[i], oldHashes[i], oldValues[i]);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -59,6 +59,46 @@ public class TupleRest {
         return hash;
     }
 
+    /**
+     * Returns the hash code of a tuple that is consistent with {@link #tupleEquals(Object[], Object[])}.
+     *
+     * @param tuple The tuple
+     * @return The hash code
+     */
+    public static int tupleHashCode(Object[] tuple) {
+        int hash = 7;
+        int result = 1;
+        for (int i = 0; i < tuple.length; i++) {
+            result = 31 * result + elementHashCode(tuple[i]);
+        }
+        hash = 53 * hash + result;
+        return hash;
+    }
+
+    /**
+     * Returns whether the elements of the two tuples are deeply equal.
+     *
+     * @param tuple1 The first tuple
+     * @param tuple2 The second tuple
+     * @return Whether the tuples are equal
+     */
+    public static boolean tupleEquals(Object[] tuple1, Object[] tuple2) {
+        if (tuple1 == tuple2) {
+            return true;
+        }
+        if (tuple1.length != tuple2.length) {
+            return false;
+        }
+        for (int i = 0; i < tuple1.length; i++) {
+            Object e1 = tuple1[i];
+            Object e2 = tuple2[i];
+            if (e1 != e2 && (e1 == null || !deepEquals0(e1, e2))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static int elementHashCode(Object element) {
         if (element instanceof Object[]) {
             return Arrays.deepHashCode((Object[]) element);
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder;
+
+/**
+ * An open addressing hash set with linear probing for tuples that compares tuples by their elements
+ * like {@link TupleRest} does, but without allocating wrapper or entry objects per tuple.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public final class TupleSet {
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private Object[][] tuples;
+    private int[] hashes;
+    private int size;
+    private int threshold;
+
+    public TupleSet(int expectedSize) {
+        int capacity = 16;
+        // Keep the load factor at or below 0.5 so that probe sequences stay short
+        while (capacity < MAX_CAPACITY && capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        this.tuples = new Object[capacity][];
+        this.hashes = new int[capacity];
+        this.threshold = capacity >> 1;
+    }
+
+    /**
+     * Adds the tuple to the set if no equal tuple is contained yet.
+     *
+     * @param tuple The tuple to add
+     * @return Whether the tuple was added
+     */
+    public boolean add(Object[] tuple) {
+        int hash = TupleRest.tupleHashCode(tuple);
+        int mask = tuples.length - 1;
+        int index = (hash ^ (hash >>> 16)) & mask;
+        Object[] existing;
+        while ((existing = tuples[index]) != null) {
+            if (hashes[index] == hash && TupleRest.tupleEquals(existing, tuple)) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        tuples[index] = tuple;
+        hashes[index] = hash;
+        if (++size >= threshold && tuples.length < MAX_CAPACITY) {
+            rehash(tuples.length << 1);
+        }
+        return true;
+    }
+
+    private void rehash(int capacity) {
+        Object[][] oldTuples = tuples;
+        int[] oldHashes = hashes;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldTuples.length; i++) {
+            if (oldTuples[i] != null) {
+                int hash = oldHashes[i];
+                int index = (hash ^ (hash >>> 16)) & mask;
+                while (tuples[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                tuples[index] = oldTuples[i];
+                hashes[index] = hash;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -16,15 +16,14 @@
 
 package com.blazebit.persistence.view.impl.objectbuilder.transformator;
 
-import com.blazebit.persistence.view.impl.objectbuilder.TupleRest;
+import com.blazebit.persistence.view.impl.objectbuilder.TupleSet;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleListTransformer;
 import com.blazebit.persistence.view.impl.objectbuilder.transformer.TupleTransformer;
 
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
-import java.util.Set;
+import java.util.RandomAccess;
 
 /**
  * @author Christian Beikov
@@ -43,11 +42,17 @@ public class TupleTransformator {
 
         for (int i = 0; i < transformatorLevels.size(); i++) {
             if (transformatorLevels.get(i).tupleTransformers.length != 0) {
-                ListIterator<Object[]> newTupleListIter = tupleList.listIterator();
-
-                while (newTupleListIter.hasNext()) {
-                    Object[] tuple = newTupleListIter.next();
-                    newTupleListIter.set(transform(i, tuple, updatableViewMap));
+                if (tupleList instanceof RandomAccess) {
+                    for (int j = 0; j < tupleList.size(); j++) {
+                        tupleList.set(j, transform(i, tupleList.get(j), updatableViewMap));
+                    }
+                } else {
+                    ListIterator<Object[]> newTupleListIter = tupleList.listIterator();
+
+                    while (newTupleListIter.hasNext()) {
+                        Object[] tuple = newTupleListIter.next();
+                        newTupleListIter.set(transform(i, tuple, updatableViewMap));
+                    }
                 }
             }
             tupleList = transform(i, tupleList);
@@ -55,13 +60,31 @@ public class TupleTransformator {
 
         // if we have multiple levels, we must filter duplicates afterwards
         if (transformatorLevels.size() > 1) {
-            Set<TupleRest> tupleSet = new HashSet<>(tupleList.size());
-
-            Iterator<Object[]> tupleListIter = tupleList.iterator();
+            TupleSet tupleSet = new TupleSet(tupleList.size());
+
+            if (tupleList instanceof RandomAccess) {
+                // Compact the list in place as removing elements one by one from an array based list is quadratic
+                int size = tupleList.size();
+                int newSize = 0;
+                for (int i = 0; i < size; i++) {
+                    Object[] tuple = tupleList.get(i);
+                    if (tupleSet.add(tuple)) {
+                        if (newSize != i) {
+                            tupleList.set(newSize, tuple);
+                        }
+                        newSize++;
+                    }
+                }
+                if (newSize != size) {
+                    tupleList.subList(newSize, size).clear();
+                }
+            } else {
+                Iterator<Object[]> tupleListIter = tupleList.iterator();
 
-            while (tupleListIter.hasNext()) {
-                if (!tupleSet.add(new TupleRest(tupleListIter.next(), 0, 0))) {
-                    tupleListIter.remove();
+                while (tupleListIter.hasNext()) {
+                    if (!tupleSet.add(tupleListIter.next())) {
+                        tupleListIter.remove();
+                    }
                 }
             }
         }
@@ -22,9 +22,14 @@ import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.ObjectBuilder;
 import com.blazebit.persistence.parser.expression.Expression;
 import com.blazebit.persistence.parser.expression.ExpressionFactory;
+import com.blazebit.persistence.spi.QueryInstrumentation;
+import com.blazebit.persistence.spi.QueryPhase;
+import com.blazebit.persistence.spi.QueryRole;
 import com.blazebit.persistence.view.CorrelationProvider;
 import com.blazebit.persistence.view.impl.BatchCorrelationMode;
 import com.blazebit.persistence.view.CorrelationProviderFactory;
+import com.blazebit.persistence.view.impl.CorrelationBatchStatisticsImpl;
+import com.blazebit.persistence.view.impl.EntityViewCache;
 import com.blazebit.persistence.view.impl.EntityViewConfiguration;
 import com.blazebit.persistence.view.impl.macro.CorrelatedSubqueryEmbeddingViewJpqlMacro;
 import com.blazebit.persistence.view.impl.macro.CorrelatedSubqueryViewRootJpqlMacro;
@@ -36,15 +41,19 @@ import com.blazebit.persistence.view.impl.objectbuilder.Limiter;
 import com.blazebit.persistence.view.impl.objectbuilder.TupleReuse;
 import com.blazebit.persistence.view.metamodel.ManagedViewType;
 import com.blazebit.persistence.view.metamodel.ViewType;
+import com.blazebit.persistence.view.spi.EntityViewCacheRegion;
 
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 import javax.persistence.Parameter;
 import javax.persistence.Query;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  *
@@ -56,9 +65,11 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
     public static final String CORRELATION_KEY_ALIAS = "correlationKey";
     private static final String CORRELATION_PARAM_PREFIX = "correlationParam_";
 
-    protected final int batchSize;
     protected final boolean correlatesThis;
     protected final BatchCorrelationMode expectBatchCorrelationMode;
+    protected final CorrelationBatchStatisticsImpl statistics;
+    protected final boolean adaptiveBatchSize;
+    protected int batchSize;
     protected final int valueIndex;
     protected final int keyIndex;
 
@@ -68,13 +79,32 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
     protected CorrelatedSubqueryViewRootJpqlMacro viewRootJpqlMacro;
     protected CorrelatedSubqueryEmbeddingViewJpqlMacro embeddingViewJpqlMacro;
     protected Query query;
+    protected QueryInstrumentation queryInstrumentation;
+    protected EntityViewCacheRegion viewCacheRegion;
+    private int correlationKeyCount;
+    private int viewIdCount;
+    private BatchCorrelationMode batchCorrelationMode;
+    private long queryCount;
+    private long resultCount;
+    private long queryNanos;
 
     public AbstractCorrelatedBatchTupleListTransformer(ExpressionFactory ef, Correlator correlator, ContainerAccumulator<?> containerAccumulator, ManagedViewTypeImplementor<?> viewRootType, ManagedViewTypeImplementor<?> embeddingViewType, Expression correlationResult, CorrelationProviderFactory correlationProviderFactory, String attributePath, String[] fetches, String[] indexFetches,
                                                        Expression indexExpression, Correlator indexCorrelator, boolean correlatesThis, int viewRootIndex, int embeddingViewIndex, int tupleIndex, int defaultBatchSize, Class<?> correlationBasisType, Class<?> correlationBasisEntity, Limiter limiter, EntityViewConfiguration entityViewConfiguration) {
         super(ef, correlator, containerAccumulator, viewRootType, embeddingViewType, correlationResult, correlationProviderFactory, attributePath, fetches, indexFetches, indexExpression, indexCorrelator, viewRootIndex, embeddingViewIndex, tupleIndex, correlationBasisType, correlationBasisEntity, limiter, entityViewConfiguration);
-        this.batchSize = entityViewConfiguration.getBatchSize(attributePath, defaultBatchSize);
+        int batchSize = entityViewConfiguration.getBatchSize(attributePath, defaultBatchSize);
+        BatchCorrelationMode expectBatchCorrelationMode = entityViewConfiguration.getExpectBatchCorrelationValues(attributePath, null);
+        this.statistics = entityViewConfiguration.getCorrelationBatchStatistics(viewRootType.getJavaType(), attributePath);
+        // Adaptive batching only kicks in for what isn't configured explicitly
+        this.adaptiveBatchSize = statistics != null && batchSize == -1;
+        this.batchSize = batchSize == -1 ? 1 : batchSize;
         this.correlatesThis = correlatesThis;
-        this.expectBatchCorrelationMode = entityViewConfiguration.getExpectBatchCorrelationValues(attributePath);
+        if (expectBatchCorrelationMode != null) {
+            this.expectBatchCorrelationMode = expectBatchCorrelationMode;
+        } else if (statistics != null) {
+            this.expectBatchCorrelationMode = statistics.getBatchCorrelationMode();
+        } else {
+            this.expectBatchCorrelationMode = BatchCorrelationMode.VALUES;
+        }
         this.valueIndex = correlator.getElementOffset();
         this.keyIndex = valueIndex + 1;
     }
@@ -97,6 +127,10 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
     }
 
     private String applyAndGetCorrelationRoot(BatchCorrelationMode batchCorrelationMode) {
+        return applyAndGetCorrelationRoot(batchCorrelationMode, entityViewConfiguration.getCriteriaBuilder().getEntityManager());
+    }
+
+    private String applyAndGetCorrelationRoot(BatchCorrelationMode batchCorrelationMode, EntityManager entityManager) {
         Class<?> viewRootEntityClass = viewRootType.getEntityClass();
         Class<?> embeddingViewEntityClass = embeddingViewType.getEntityClass();
         String viewRootIdAttributePath = getEntityIdName(viewRootEntityClass);
@@ -124,7 +158,11 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
             embeddingViewExpression = CORRELATION_KEY_ALIAS;
         }
 
-        this.criteriaBuilder = queryBuilder.getCriteriaBuilderFactory().create(queryBuilder.getEntityManager(), Object[].class);
+        this.criteriaBuilder = queryBuilder.getCriteriaBuilderFactory().create(entityManager, Object[].class);
+        this.queryInstrumentation = queryBuilder.getCriteriaBuilderFactory().getService(QueryInstrumentation.class);
+        if (queryInstrumentation == null) {
+            queryInstrumentation = QueryInstrumentation.NOOP;
+        }
         if (queryBuilder instanceof CTEBuilder<?>) {
             this.criteriaBuilder.withCtesFrom((CTEBuilder<?>) queryBuilder);
         }
@@ -191,6 +229,16 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
 
     @Override
     public List<Object[]> transform(List<Object[]> tuples) {
+        if (adaptiveBatchSize) {
+            batchSize = statistics.getBatchSize(tuples.size());
+        }
+        correlationKeyCount = 0;
+        viewIdCount = 0;
+        batchCorrelationMode = BatchCorrelationMode.VALUES;
+        queryCount = 0;
+        resultCount = 0;
+        queryNanos = 0;
+        viewCacheRegion = null;
         FixedArrayList correlationParams = new FixedArrayList(batchSize);
         // We have the correlation key on the first position if we do batching
         final int tupleOffset = (batchSize > 1 ? 1 : 0) + (indexCorrelator == null && indexExpression == null ? 0 : 1);
@@ -238,7 +286,14 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
             }
             populateParameters(criteriaBuilder);
             query = criteriaBuilder.getQuery();
+            viewCacheRegion = getViewCacheRegion();
 
+            Executor executor = entityViewConfiguration.getCorrelationExecutor();
+            EntityManagerFactory entityManagerFactory = entityViewConfiguration.getCorrelationEntityManagerFactory();
+            List<ConcurrentBatchLoad> concurrentBatchLoads = null;
+            if (batchSize > 1 && executor != null && entityManagerFactory != null) {
+                concurrentBatchLoads = new ArrayList<>();
+            }
             Map<Object, TuplePromise> correlationValues = new HashMap<>(tuples.size());
             while (tupleListIter.hasNext()) {
                 Object[] tuple = tupleListIter.next();
@@ -251,8 +306,13 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
                     tupleIndexValue.add(tuple);
                     correlationValues.put(correlationValue, tupleIndexValue);
 
+                    Object cachedResult;
                     // Can't correlate null
-                    if (correlationValue != null) {
+                    if (correlationValue == null) {
+                        // Nothing to load
+                    } else if (viewCacheRegion != null && (cachedResult = viewCacheRegion.get(getViewCacheKey(correlationValue))) != null) {
+                        tupleIndexValue.onResult(cachedResult, this);
+                    } else {
                         if (correlationBasisEntity != null) {
                             correlationParams.add(em.getReference(correlationBasisEntity, correlationValue));
                         } else {
@@ -260,13 +320,17 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
                         }
 
                         if (batchSize == correlationParams.realSize()) {
-                            Object defaultKey;
-                            if (correlationBasisEntity != null) {
-                                defaultKey = jpaProvider.getIdentifier(correlationParams.get(0));
+                            if (concurrentBatchLoads != null) {
+                                submitBatchLoad(concurrentBatchLoads, correlationParams, correlationRoot, tupleOffset, executor, entityManagerFactory);
                             } else {
-                                defaultKey = correlationParams.get(0);
+                                Object defaultKey;
+                                if (correlationBasisEntity != null) {
+                                    defaultKey = jpaProvider.getIdentifier(correlationParams.get(0));
+                                } else {
+                                    defaultKey = correlationParams.get(0);
+                                }
+                                batchLoad(correlationValues, correlationParams, null, defaultKey, viewRootJpqlMacro, BatchCorrelationMode.VALUES);
                             }
-                            batchLoad(correlationValues, correlationParams, null, defaultKey, viewRootJpqlMacro, BatchCorrelationMode.VALUES);
                         }
                     }
                 } else {
@@ -274,13 +338,37 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
                 }
             }
 
-            if (correlationParams.realSize() > 0) {
-                batchLoad(correlationValues, correlationParams, null, null, viewRootJpqlMacro, BatchCorrelationMode.VALUES);
+            if (concurrentBatchLoads == null) {
+                if (correlationParams.realSize() > 0) {
+                    batchLoad(correlationValues, correlationParams, null, null, viewRootJpqlMacro, BatchCorrelationMode.VALUES);
+                }
+            } else {
+                // The last batch is executed on the calling thread while the other batches are running
+                int i = 0;
+                try {
+                    if (correlationParams.realSize() > 0) {
+                        batchLoad(correlationValues, correlationParams, null, null, viewRootJpqlMacro, BatchCorrelationMode.VALUES);
+                    }
+                    for (; i < concurrentBatchLoads.size(); i++) {
+                        ConcurrentBatchLoad concurrentBatchLoad = concurrentBatchLoads.get(i);
+                        List<Object> resultList = concurrentBatchLoad.await();
+                        recordQuery(concurrentBatchLoad.getQueryNanos(), resultList.size());
+                        populateResult(correlationValues, null, resultList);
+                    }
+                } finally {
+                    for (; i < concurrentBatchLoads.size(); i++) {
+                        concurrentBatchLoads.get(i).cancel();
+                    }
+                }
             }
 
+            correlationKeyCount = correlationValues.size();
             fillDefaultValues(Collections.singletonMap(null, correlationValues));
         }
 
+        if (statistics != null && correlationKeyCount != 0) {
+            statistics.record(correlationKeyCount, viewIdCount, batchCorrelationMode, queryCount, resultCount, queryNanos);
+        }
         consumeTupleMacroViewValues(tuples);
         return tuples;
     }
@@ -362,6 +450,9 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
 
         boolean batchCorrelationValues = !macro.usesViewMacro() && viewRoots.size() <= correlationValues.size();
         FixedArrayList viewRootIds = new FixedArrayList(batchSize);
+        correlationKeyCount = correlationValues.size();
+        viewIdCount = viewRoots.size();
+        batchCorrelationMode = batchCorrelationValues ? BatchCorrelationMode.VALUES : correlationMode;
 
         if (batchCorrelationValues) {
             if (batchSize > 1) {
@@ -467,6 +558,62 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
         }
     }
 
+    private void submitBatchLoad(List<ConcurrentBatchLoad> concurrentBatchLoads, FixedArrayList batchParameters, String correlationRoot, int tupleOffset, Executor executor, EntityManagerFactory entityManagerFactory) {
+        // Entity managers aren't thread-safe, so the batch query is built for a new entity manager on the calling thread
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        ConcurrentBatchLoad batchLoad;
+        try {
+            // Entity references must belong to the entity manager of the batch query
+            List<Object> parameterValues = new ArrayList<>(batchParameters.realSize());
+            for (int i = 0; i < batchParameters.realSize(); i++) {
+                Object parameterValue = batchParameters.get(i);
+                if (correlationBasisEntity != null) {
+                    parameterValue = entityManager.getReference(correlationBasisEntity, jpaProvider.getIdentifier(parameterValue));
+                }
+                parameterValues.add(parameterValue);
+            }
+            Query batchQuery = createBatchQuery(entityManager, correlationRoot, tupleOffset, parameterValues);
+            batchLoad = new ConcurrentBatchLoad(entityManager, batchQuery, queryInstrumentation);
+        } catch (RuntimeException ex) {
+            entityManager.close();
+            throw ex;
+        }
+        // Register before submitting so that the batch is cancelled if anything fails afterwards
+        concurrentBatchLoads.add(batchLoad);
+        batchLoad.submit(executor);
+        batchParameters.reset();
+    }
+
+    private Query createBatchQuery(EntityManager entityManager, String correlationRoot, int tupleOffset, List<Object> parameterValues) {
+        CriteriaBuilder<?> originalCriteriaBuilder = criteriaBuilder;
+        CorrelatedSubqueryViewRootJpqlMacro originalViewRootJpqlMacro = viewRootJpqlMacro;
+        CorrelatedSubqueryEmbeddingViewJpqlMacro originalEmbeddingViewJpqlMacro = embeddingViewJpqlMacro;
+        try {
+            applyAndGetCorrelationRoot(BatchCorrelationMode.VALUES, entityManager);
+            // Nested correlations are executed sequentially on the thread executing the batch query
+            EntityViewConfiguration configuration = entityViewConfiguration.withoutConcurrentCorrelation();
+            ObjectBuilder<?> objectBuilder = correlator.finish(criteriaBuilder, configuration, 0, tupleOffset, correlationRoot, embeddingViewJpqlMacro, true);
+            criteriaBuilder.select(correlationSelectExpression);
+            if (indexCorrelator != null) {
+                ObjectBuilder<?> indexBuilder = indexCorrelator.finish(criteriaBuilder, configuration, tupleOffset, 0, indexExpression, embeddingViewJpqlMacro, true);
+                if (indexBuilder != null) {
+                    criteriaBuilder.selectNew(new LateAdditionalObjectBuilder(objectBuilder, indexBuilder, false));
+                }
+            }
+            populateParameters(criteriaBuilder);
+            Query batchQuery = criteriaBuilder.getQuery();
+            if (criteriaBuilder.containsParameter(correlationParamName)) {
+                criteriaBuilder.setParameter(correlationParamName, parameterValues);
+                batchQuery.setParameter(correlationParamName, parameterValues);
+            }
+            return batchQuery;
+        } finally {
+            criteriaBuilder = originalCriteriaBuilder;
+            viewRootJpqlMacro = originalViewRootJpqlMacro;
+            embeddingViewJpqlMacro = originalEmbeddingViewJpqlMacro;
+        }
+    }
+
     private void batchLoad(Map<Object, TuplePromise> correlationValues, FixedArrayList batchParameters, FixedArrayList viewRootIds, Object defaultKey, CorrelatedSubqueryViewRootJpqlMacro macro, BatchCorrelationMode batchCorrelationMode) {
         batchParameters.clearRest();
         if (criteriaBuilder.containsParameter(correlationParamName)) {
@@ -488,7 +635,19 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
             }
         }
 
-        populateResult(correlationValues, defaultKey, (List<Object>) query.getResultList());
+        List<Object> resultList;
+        if (queryInstrumentation.isEnabled() || statistics != null) {
+            long start = System.nanoTime();
+            resultList = (List<Object>) query.getResultList();
+            long nanos = System.nanoTime() - start;
+            if (queryInstrumentation.isEnabled()) {
+                queryInstrumentation.onPhase(QueryPhase.EXECUTE, QueryRole.CORRELATION, nanos, resultList.size());
+            }
+            recordQuery(nanos, resultList.size());
+        } else {
+            resultList = (List<Object>) query.getResultList();
+        }
+        populateResult(correlationValues, defaultKey, resultList);
 
         batchParameters.reset();
         if (viewRootIds != null) {
@@ -496,6 +655,31 @@ public abstract class AbstractCorrelatedBatchTupleListTransformer extends Abstra
         }
     }
 
+    private EntityViewCacheRegion getViewCacheRegion() {
+        EntityViewCache viewCache = entityViewConfiguration.getViewCache();
+        // Only singular subview correlations without fetches can be cached as a whole
+        if (viewCache == null || containerAccumulator != null || !(correlator instanceof SubviewCorrelator) || fetches != null && fetches.length != 0) {
+            return null;
+        }
+        // The result must only depend on the correlation key
+        for (Parameter<?> parameter : criteriaBuilder.getParameters()) {
+            if (!correlationParamName.equals(parameter.getName())) {
+                return null;
+            }
+        }
+        return viewCache.getRegion(((SubviewCorrelator) correlator).getManagedViewType().getJavaType());
+    }
+
+    protected Object getViewCacheKey(Object correlationValue) {
+        return EntityViewCache.correlationKey(viewRootType.getJavaType(), attributePath, correlationValue);
+    }
+
+    private void recordQuery(long nanos, int resultSize) {
+        queryCount++;
+        resultCount += resultSize;
+        queryNanos += nanos;
+    }
+
     protected void populateResult(Map<Object, TuplePromise> correlationValues, Object defaultKey, List<Object> list) {
         if (batchSize == 1) {
             if (indexCorrelator == null && indexExpression == null) {
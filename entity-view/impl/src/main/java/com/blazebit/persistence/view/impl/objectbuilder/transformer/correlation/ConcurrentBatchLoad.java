@@ -0,0 +1,130 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder.transformer.correlation;
+
+import com.blazebit.persistence.spi.QueryInstrumentation;
+import com.blazebit.persistence.spi.QueryPhase;
+import com.blazebit.persistence.spi.QueryRole;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.persistence.Query;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Executes the query of a correlation batch on a separate entity manager so that multiple batches can run concurrently.
+ * The query is created on the calling thread and only executed on the executor. The entity manager is closed
+ * by whoever claims the task first, the executing thread or a cancelling thread.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+final class ConcurrentBatchLoad implements Callable<List<Object>> {
+
+    private final EntityManager entityManager;
+    private final Query query;
+    private final QueryInstrumentation queryInstrumentation;
+    private final AtomicBoolean claimed = new AtomicBoolean();
+    private final FutureTask<List<Object>> future = new FutureTask<>(this);
+    private long queryNanos;
+
+    public ConcurrentBatchLoad(EntityManager entityManager, Query query, QueryInstrumentation queryInstrumentation) {
+        this.entityManager = entityManager;
+        this.query = query;
+        this.queryInstrumentation = queryInstrumentation;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Object> call() {
+        if (!claimed.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            long start = System.nanoTime();
+            List<Object> resultList = (List<Object>) query.getResultList();
+            queryNanos = System.nanoTime() - start;
+            if (queryInstrumentation.isEnabled()) {
+                queryInstrumentation.onPhase(QueryPhase.EXECUTE, QueryRole.CORRELATION, queryNanos, resultList.size());
+            }
+            return resultList;
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    /**
+     * Submits the batch query to the given executor.
+     *
+     * @param executor The executor to run the query on
+     */
+    public void submit(Executor executor) {
+        try {
+            executor.execute(future);
+        } catch (RuntimeException ex) {
+            cancel();
+            throw ex;
+        }
+    }
+
+    /**
+     * Cancels the batch query if it didn't start yet and closes the entity manager.
+     */
+    public void cancel() {
+        if (claimed.compareAndSet(false, true)) {
+            future.cancel(false);
+            entityManager.close();
+        }
+    }
+
+    /**
+     * Returns the execution time of the batch query in nanoseconds, which is only valid after {@link #await()} returned.
+     *
+     * @return The execution time in nanoseconds
+     */
+    public long getQueryNanos() {
+        return queryNanos;
+    }
+
+    /**
+     * Waits for the result list of the batch query.
+     *
+     * @return The result list
+     */
+    public List<Object> await() {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+            throw new PersistenceException("Interrupted while waiting for a concurrent correlation batch", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new PersistenceException("The concurrent correlation batch failed", cause);
+        }
+    }
+}
@@ -48,6 +48,9 @@ public class CorrelatedSingularBatchTupleListTransformer extends AbstractCorrela
                     return;
                 case 1:
                     correlationValues.get(defaultKey).onResult(list.get(0), this);
+                    if (viewCacheRegion != null && list.get(0) != null) {
+                        viewCacheRegion.put(getViewCacheKey(defaultKey), list.get(0));
+                    }
                     return;
                 default:
                     throw new NonUniqueResultException("Expected a single result for subquery!");
@@ -55,6 +58,9 @@ public class CorrelatedSingularBatchTupleListTransformer extends AbstractCorrela
         } else {
             for (Object[] element : (List<Object[]>) (List<?>) list) {
                 correlationValues.get(element[keyIndex]).onResult(element[valueIndex], this);
+                if (viewCacheRegion != null && element[valueIndex] != null) {
+                    viewCacheRegion.put(getViewCacheKey(element[keyIndex]), element[valueIndex]);
+                }
             }
         }
     }
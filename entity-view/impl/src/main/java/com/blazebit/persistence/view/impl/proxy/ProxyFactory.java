@@ -134,9 +134,12 @@ public class ProxyFactory {
     private final ConcurrentMap<Class<?>, Class<?>> proxyClasses = new ConcurrentHashMap<>();
     private final ConcurrentMap<Class<?>, Class<?>> unsafeProxyClasses = new ConcurrentHashMap<>();
     private final ConcurrentMap<Class<?>, Class<?>> proxyClassesToViewClasses = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, Class<?>> staticImplementations = new ConcurrentHashMap<>();
     private final Object proxyLock = new Object();
-    private final ClassPool pool;
+    // Created lazily so that Javassist is not initialized at all when static implementations exist for all entity views
+    private volatile ClassPool pool;
     private final boolean unsafeDisabled;
+    private final boolean staticImplementationPreferred;
     private final boolean strictCascadingCheck;
     private final PackageOpener packageOpener;
 
@@ -167,20 +170,44 @@ public class ProxyFactory {
     }
 
     public ProxyFactory(boolean unsafeDisabled, boolean strictCascadingCheck, PackageOpener packageOpener) {
-        ClassPool pool = new ClassPool((ClassPool) null);
-        pool.appendSystemPath();
-        this.pool = pool;
+        this(unsafeDisabled, false, strictCascadingCheck, packageOpener);
+    }
+
+    public ProxyFactory(boolean unsafeDisabled, boolean staticImplementationPreferred, boolean strictCascadingCheck, PackageOpener packageOpener) {
         this.unsafeDisabled = unsafeDisabled;
+        this.staticImplementationPreferred = staticImplementationPreferred;
         this.strictCascadingCheck = strictCascadingCheck;
         this.packageOpener = packageOpener;
     }
 
+    private ClassPool getClassPool() {
+        ClassPool pool = this.pool;
+        if (pool == null) {
+            synchronized (proxyLock) {
+                pool = this.pool;
+                if (pool == null) {
+                    pool = new ClassPool((ClassPool) null);
+                    pool.appendSystemPath();
+                    this.pool = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    @SuppressWarnings("unchecked")
     public <T> Class<? extends T> getProxy(EntityViewManager entityViewManager, ManagedViewTypeImplementor<T> viewType) {
         if (viewType.getConstructors().isEmpty() || unsafeDisabled) {
             return getProxy(entityViewManager, viewType, false);
-        } else {
-            return getProxy(entityViewManager, viewType, true);
         }
+        if (staticImplementationPreferred) {
+            // Static implementations can't initialize fields before the super constructor call, so this is opt-in
+            Class<? extends T> staticImplementation = (Class<? extends T>) staticImplementations.get(viewType.getJavaType());
+            if (staticImplementation != null) {
+                return staticImplementation;
+            }
+        }
+        return getProxy(entityViewManager, viewType, true);
     }
 
     public <T> Class<T> getEntityViewClass(Class<? extends T> implementationClass) {
@@ -237,6 +264,7 @@ public class ProxyFactory {
             }
             proxyClasses.put(javaType, entityViewImplementationClass);
             proxyClassesToViewClasses.put(entityViewImplementationClass, javaType);
+            staticImplementations.put(javaType, entityViewImplementationClass);
         } catch (Exception e) {
             StringWriter sw = new StringWriter();
             e.printStackTrace(new PrintWriter(sw));
@@ -301,14 +329,14 @@ public class ProxyFactory {
         }
 
         ClassPath classPath = new ClassClassPath(baseClass);
-        pool.insertClassPath(classPath);
+        getClassPool().insertClassPath(classPath);
         try {
             Class<?> proxyClass = baseClass;
             for (Class<?> classOfPackage : classesToBaseProxy.values()) {
-                CtClass superCc = pool.get(proxyClass.getName());
-                CtClass cc = pool.makeClass(classOfPackage.getName() + "_$$_javassist_proxybase_" + baseClass.getName().replace('.',  '_'));
+                CtClass superCc = getClassPool().get(proxyClass.getName());
+                CtClass cc = getClassPool().makeClass(classOfPackage.getName() + "_$$_javassist_proxybase_" + baseClass.getName().replace('.',  '_'));
                 cc.setSuperclass(superCc);
-                String genericSignature = pool.get(classOfPackage.getName()).getGenericSignature();
+                String genericSignature = getClassPool().get(classOfPackage.getName()).getGenericSignature();
                 if (genericSignature != null) {
                     cc.setGenericSignature(genericSignature);
                 }
@@ -316,7 +344,7 @@ public class ProxyFactory {
                 // Collect the protected and default visibility methods
                 Map<String, MethodInfo> methods = new TreeMap<>();
                 Map<String, String> classNameMapping = new HashMap<>();
-                CtClass ctClass = pool.get(classOfPackage.getName());
+                CtClass ctClass = getClassPool().get(classOfPackage.getName());
                 classNameMapping.put(classOfPackage.getName(), cc.getName());
                 for (CtMethod method : ctClass.getDeclaredMethods()) {
                     if (java.lang.reflect.Modifier.isAbstract(method.getModifiers()) && !java.lang.reflect.Modifier.isPublic(method.getModifiers()) && !java.lang.reflect.Modifier.isProtected(method.getModifiers()) && !java.lang.reflect.Modifier.isPrivate(method.getModifiers())) {
@@ -352,7 +380,7 @@ public class ProxyFactory {
         } catch (Exception ex) {
             throw new RuntimeException("Probably we did something wrong, please contact us if you see this message.", ex);
         } finally {
-            pool.removeClassPath(classPath);
+            getClassPool().removeClassPath(classPath);
         }
     }
 
@@ -365,7 +393,7 @@ public class ProxyFactory {
             try {
                 readsInjectorClass = classOfPackage.getClassLoader().loadClass(addReadsInjectorClassName);
             } catch (ClassNotFoundException ex) {
-                CtClass injectorCc = pool.getAndRename(AddReadsInjector.class.getName(), addReadsInjectorClassName);
+                CtClass injectorCc = getClassPool().getAndRename(AddReadsInjector.class.getName(), addReadsInjectorClassName);
                 readsInjectorClass = defineOrGetClass(proxyClass, classOfPackage, injectorCc);
             }
             Method addReadsModule = readsInjectorClass.getMethod("addReadsModule", Class.class);
@@ -380,15 +408,15 @@ public class ProxyFactory {
         String suffix = unsafe ? "unsafe_" : "";
         String baseName = clazz.getName();
         String proxyClassName = baseName + "_$$_javassist_entityview_" + suffix;
-        CtClass cc = pool.makeClass(proxyClassName);
+        CtClass cc = getClassPool().makeClass(proxyClassName);
         CtClass superCc;
 
         ClassPath classPath = new ClassClassPath(clazz);
-        pool.insertClassPath(classPath);
+        getClassPool().insertClassPath(classPath);
 
         try {
             addReadsModule(clazz, clazz, ProxyFactory.class);
-            superCc = pool.get(getProxyBase(clazz).getName());
+            superCc = getClassPool().get(getProxyBase(clazz).getName());
 
             if (clazz.isInterface()) {
                 cc.addInterface(superCc);
@@ -405,13 +433,13 @@ public class ProxyFactory {
             CtField mutableStateField = null;
             CtMethod markDirtyStub = null;
             long alwaysDirtyMask = 0L;
-            cc.addInterface(pool.get(EntityViewProxy.class.getName()));
+            cc.addInterface(getClassPool().get(EntityViewProxy.class.getName()));
             addGetJpaManagedClass(cc, managedViewType.getEntityClass());
             addGetJpaManagedBaseClass(cc, getJpaManagedBaseClass(managedViewType));
             addGetEntityViewClass(cc, clazz);
             addIsNewAndReferenceMembers(managedViewType, cc, clazz);
 
-            CtField evmField = new CtField(pool.get(EntityViewManager.class.getName()), SerializableEntityViewManager.EVM_FIELD_NAME, cc);
+            CtField evmField = new CtField(getClassPool().get(EntityViewManager.class.getName()), SerializableEntityViewManager.EVM_FIELD_NAME, cc);
             evmField.setModifiers(Modifier.PUBLIC | Modifier.STATIC | Modifier.VOLATILE);
             cc.addField(evmField);
 
@@ -419,17 +447,17 @@ public class ProxyFactory {
 
             if (managedViewType.isUpdatable() || managedViewType.isCreatable()) {
                 if (true || managedViewType.getFlushMode() == FlushMode.LAZY || managedViewType.getFlushMode() == FlushMode.PARTIAL) {
-                    cc.addInterface(pool.get(DirtyStateTrackable.class.getName()));
-                    initialStateField = new CtField(pool.get(Object[].class.getName()), "$$_initialState", cc);
+                    cc.addInterface(getClassPool().get(DirtyStateTrackable.class.getName()));
+                    initialStateField = new CtField(getClassPool().get(Object[].class.getName()), "$$_initialState", cc);
                     initialStateField.setModifiers(getModifiers(false));
                     cc.addField(initialStateField);
 
                     addGetter(cc, initialStateField, "$$_getInitialState");
                 }
 
-                cc.addInterface(pool.get(MutableStateTrackable.class.getName()));
-                cc.addInterface(pool.get(DirtyTracker.class.getName()));
-                mutableStateField = new CtField(pool.get(Object[].class.getName()), "$$_mutableState", cc);
+                cc.addInterface(getClassPool().get(MutableStateTrackable.class.getName()));
+                cc.addInterface(getClassPool().get(DirtyTracker.class.getName()));
+                mutableStateField = new CtField(getClassPool().get(Object[].class.getName()), "$$_mutableState", cc);
                 mutableStateField.setModifiers(getModifiers(false));
                 cc.addField(mutableStateField);
 
@@ -437,11 +465,11 @@ public class ProxyFactory {
                 initializedField.setModifiers(getModifiers(false));
                 cc.addField(initializedField);
 
-                readOnlyParentsField = new CtField(pool.get(List.class.getName()), "$$_readOnlyParents", cc);
+                readOnlyParentsField = new CtField(getClassPool().get(List.class.getName()), "$$_readOnlyParents", cc);
                 readOnlyParentsField.setModifiers(getModifiers(true));
                 readOnlyParentsField.setGenericSignature(Descriptor.of(List.class.getName()) + "<" + Descriptor.of(Object.class.getName()) + ">;");
                 cc.addField(readOnlyParentsField);
-                parentField = new CtField(pool.get(DirtyTracker.class.getName()), "$$_parent", cc);
+                parentField = new CtField(getClassPool().get(DirtyTracker.class.getName()), "$$_parent", cc);
                 parentField.setModifiers(getModifiers(true));
                 cc.addField(parentField);
                 parentIndexField = new CtField(CtClass.intType, "$$_parentIndex", cc);
@@ -626,7 +654,7 @@ public class ProxyFactory {
         } catch (Exception ex) {
             throw new RuntimeException("Probably we did something wrong, please contact us if you see this message.", ex);
         } finally {
-            pool.removeClassPath(classPath);
+            getClassPool().removeClassPath(classPath);
         }
     }
 
@@ -647,7 +675,7 @@ public class ProxyFactory {
             createSerializableClass(managedViewType, cc, serializableClassName, attributes, attributeTypes);
 
             ConstPool cp = cc.getClassFile().getConstPool();
-            MethodInfo minfo = new MethodInfo(cp, "createSelf", Descriptor.ofMethod(pool.get(managedViewType.getJavaType().getName()), attributeTypes));
+            MethodInfo minfo = new MethodInfo(cp, "createSelf", Descriptor.ofMethod(getClassPool().get(managedViewType.getJavaType().getName()), attributeTypes));
             CtMethod method = CtMethod.make(minfo, cc);
             minfo.setAccessFlags(AccessFlag.PUBLIC | AccessFlag.STATIC);
             StringBuilder sb = new StringBuilder();
@@ -667,17 +695,17 @@ public class ProxyFactory {
     }
 
     private void createSerializableClass(ManagedViewTypeImplementor<?> managedViewType, CtClass cc, String serializableClassName, Set<AbstractMethodAttribute<?, ?>> attributes, CtClass[] attributeTypes) throws Exception {
-        CtClass serializableClass = pool.makeClass(serializableClassName);
+        CtClass serializableClass = getClassPool().makeClass(serializableClassName);
         Class<?> clazz = managedViewType.getJavaType();
         if (clazz.isInterface()) {
             serializableClass.addInterface(cc.getSuperclass());
         } else {
             serializableClass.setSuperclass(cc.getSuperclass());
         }
-        serializableClass.addInterface(pool.get(Serializable.class.getName()));
+        serializableClass.addInterface(getClassPool().get(Serializable.class.getName()));
         int index = 0;
         for (AbstractMethodAttribute<?, ?> attribute : attributes) {
-            CtClass attributeType = pool.get(attribute.getJavaType().getName());
+            CtClass attributeType = getClassPool().get(attribute.getJavaType().getName());
             attributeTypes[index] = attributeType;
             CtField field = addMembersForAttribute(attribute, clazz, serializableClass, null, false, false, true);
             field.setModifiers((field.getModifiers() & ~Modifier.PRIVATE) | Modifier.PUBLIC);
@@ -714,7 +742,7 @@ public class ProxyFactory {
         emptyInstanceByteBuilder.append("new byte[]{ ");
         appendBytesAsHex(emptyInstanceByteBuilder, emptyInstanceBytes);
         emptyInstanceByteBuilder.setCharAt(emptyInstanceByteBuilder.length() - 1, '}');
-        CtField emptyBytesField = new CtField(pool.get("byte[]"), "EMPTY_INSTANCE_BYTES", serializableClass);
+        CtField emptyBytesField = new CtField(getClassPool().get("byte[]"), "EMPTY_INSTANCE_BYTES", serializableClass);
         emptyBytesField.setModifiers(Modifier.STATIC | Modifier.FINAL);
         serializableClass.addField(emptyBytesField, CtField.Initializer.byExpr(emptyInstanceByteBuilder.toString()));
         defineOrGetClass(clazz, clazz, serializableClass);
@@ -1037,7 +1065,7 @@ public class ProxyFactory {
                     || ex.getCause() instanceof InvocationTargetException && ex.getCause().getCause() instanceof LinkageError && (error = (LinkageError) ex.getCause().getCause()) != null
                     || ex.getCause() instanceof LinkageError && (error = (LinkageError) ex.getCause()) != null) {
                 try {
-                    return (Class<? extends T>) pool.getClassLoader().loadClass(cc.getName());
+                    return (Class<? extends T>) getClassPool().getClassLoader().loadClass(cc.getName());
                 } catch (ClassNotFoundException cnfe) {
                     // Something we can't handle happened
                     throw error;
@@ -1049,7 +1077,7 @@ public class ProxyFactory {
             // With Java 9 it's actually the case that Javassist doesn't throw the LinkageError but instead tries to define the class differently
             // Too bad that this different path lead to a NullPointerException
             try {
-                return (Class<? extends T>) pool.getClassLoader().loadClass(cc.getName());
+                return (Class<? extends T>) getClassPool().getClassLoader().loadClass(cc.getName());
             } catch (ClassNotFoundException cnfe) {
                 // Something we can't handle happened
                 throw ex;
@@ -1897,7 +1925,7 @@ public class ProxyFactory {
 
                         for (javax.persistence.metamodel.SingularAttribute<?, ?> idAttribute : JpaMetamodelUtils.getIdAttributes(identifiableType)) {
                             Class<?> idClass = JpaMetamodelUtils.resolveFieldClass(basicType.getJavaType(), idAttribute);
-                            String idAccessor = addIdAccessor(cc, identifiableType, idAttribute, pool.get(idClass.getName()));
+                            String idAccessor = addIdAccessor(cc, identifiableType, idAttribute, getClassPool().get(idClass.getName()));
                             sb.append(" && ");
                             sb.append("($1 == null || (tmp = ");
                             sb.append(idAccessor);
@@ -2333,7 +2361,7 @@ public class ProxyFactory {
 
     private CtMethod createGetterBridge(CtClass cc, Method getter, CtMethod attributeGetter) throws NotFoundException, CannotCompileException {
         ConstPool cp = cc.getClassFile2().getConstPool();
-        CtClass bridgeReturnType = pool.get(getter.getReturnType().getName());
+        CtClass bridgeReturnType = getClassPool().get(getter.getReturnType().getName());
         String desc = "()" + Descriptor.of(bridgeReturnType);
         MethodInfo bridge = new MethodInfo(cp, getter.getName(), desc);
         bridge.setAccessFlags(AccessFlag.PUBLIC | AccessFlag.BRIDGE | AccessFlag.SYNTHETIC);
@@ -2349,7 +2377,7 @@ public class ProxyFactory {
 
     private CtMethod createSetterBridge(CtClass cc, Method setter, CtMethod attributeSetter) throws NotFoundException, CannotCompileException {
         ConstPool cp = cc.getClassFile2().getConstPool();
-        CtClass bridgeParameterType = pool.get(setter.getParameterTypes()[0].getName());
+        CtClass bridgeParameterType = getClassPool().get(setter.getParameterTypes()[0].getName());
         String desc = "(" + Descriptor.of(bridgeParameterType) + ")V";
         MethodInfo bridge = new MethodInfo(cp, setter.getName(), desc);
         bridge.setAccessFlags(AccessFlag.PUBLIC | AccessFlag.BRIDGE | AccessFlag.SYNTHETIC);
@@ -2397,7 +2425,7 @@ public class ProxyFactory {
                                             AbstractMethodAttribute<?, ?>[] attributes, int mutableAttributeCount, ConstructorKind kind, CtField idField, long alwaysDirtyMask, boolean unsafe) throws CannotCompileException, NotFoundException, BadBytecode {
         CtClass[] parameterTypes;
         if (kind == ConstructorKind.CREATE) {
-            parameterTypes = new CtClass[]{ cc, pool.get(Map.class.getName()) };
+            parameterTypes = new CtClass[]{ cc, getClassPool().get(Map.class.getName()) };
         } else {
             parameterTypes = attributeTypes;
         }
@@ -2428,14 +2456,14 @@ public class ProxyFactory {
             parameterTypes = new CtClass[(superConstructorEnd - superConstructorStart) + 4];
             parameterTypes[0] = cc;
             parameterTypes[1] = CtClass.intType;
-            parameterTypes[2] = pool.get("int[]");
-            parameterTypes[3] = pool.get("java.lang.Object[]");
+            parameterTypes[2] = getClassPool().get("int[]");
+            parameterTypes[3] = getClassPool().get("java.lang.Object[]");
             System.arraycopy(attributeTypes, superConstructorStart, parameterTypes, 4, superConstructorEnd - superConstructorStart);
         } else {
             parameterTypes = new CtClass[(superConstructorEnd - superConstructorStart) + 3];
             parameterTypes[0] = cc;
             parameterTypes[1] = CtClass.intType;
-            parameterTypes[2] = pool.get("java.lang.Object[]");
+            parameterTypes[2] = getClassPool().get("java.lang.Object[]");
             System.arraycopy(attributeTypes, superConstructorStart, parameterTypes, 3, superConstructorEnd - superConstructorStart);
         }
         CtConstructor ctConstructor = new CtConstructor(parameterTypes, cc);
@@ -2492,7 +2520,7 @@ public class ProxyFactory {
                         cc.getField(postConstructField);
                     } catch (NotFoundException ex) {
                         cc.addMethod(CtMethod.make("private static java.lang.reflect.Method " + postConstructMethodName + "() { java.lang.reflect.Method m = " + postConstructMethod.getDeclaringClass().getName() + ".class.getDeclaredMethod(\"" + postConstructMethod.getName() + "\", " + args + "); m.setAccessible(true); return m; }", cc));
-                        CtField postConstruct = new CtField(pool.get(Method.class.getName()), postConstructField, cc);
+                        CtField postConstruct = new CtField(getClassPool().get(Method.class.getName()), postConstructField, cc);
                         postConstruct.setModifiers(Modifier.PRIVATE | Modifier.STATIC | Modifier.FINAL);
                         cc.addField(postConstruct, CtField.Initializer.byCall(cc, postConstructMethodName));
                     }
@@ -3453,7 +3481,7 @@ public class ProxyFactory {
     }
 
     private CtClass getType(Attribute<?, ?> attribute) throws NotFoundException {
-        return pool.get(attribute.getConvertedJavaType().getName());
+        return getClassPool().get(attribute.getConvertedJavaType().getName());
     }
 
     private int getModifiers(boolean hasSetter) {
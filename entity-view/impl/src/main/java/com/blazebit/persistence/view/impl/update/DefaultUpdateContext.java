@@ -179,6 +179,11 @@ public class DefaultUpdateContext implements UpdateContext, FlushOperationBuilde
         return view;
     }
 
+    @Override
+    public boolean hasPreUpdateListeners(Class<?> entityViewClass) {
+        return listenerManager.hasPreUpdateListeners(entityViewClass);
+    }
+
     @Override
     public boolean hasRemoveListeners(Class<?> entityClass) {
         return listenerManager.hasRemoveListeners(entityClass);
@@ -92,6 +92,7 @@ import com.blazebit.persistence.view.spi.type.EntityViewProxy;
 import com.blazebit.persistence.view.spi.type.MutableStateTrackable;
 import com.blazebit.persistence.view.spi.type.VersionBasicUserType;
 
+import javax.persistence.LockModeType;
 import javax.persistence.Query;
 import javax.persistence.metamodel.Attribute;
 import javax.persistence.metamodel.EmbeddableType;
@@ -117,6 +118,9 @@ import java.util.TreeMap;
 public class EntityViewUpdaterImpl implements EntityViewUpdater {
 
     public static final String WHERE_CLAUSE_PREFIX = "_";
+    // The maximum amount of views that are flushed through a single bulk update statement
+    private static final int BULK_UPDATE_SIZE = 50;
+    private static final String BULK_PARAMETER_PREFIX = "b";
 
     private final boolean rootUpdateAllowed;
     private final ManagedViewTypeImplementor<?> managedViewType;
@@ -125,6 +129,7 @@ public class EntityViewUpdaterImpl implements EntityViewUpdater {
     private final DirtyAttributeFlusher<?, Object, Object> idFlusher;
     private final VersionAttributeFlusher<Object, Object> versionFlusher;
     private final CompositeAttributeFlusher fullFlusher;
+    private final String entityName;
     private final String updatePrefixString;
     private final String updatePostfixString;
     private final String versionedUpdatePostfixString;
@@ -234,7 +239,8 @@ public class EntityViewUpdaterImpl implements EntityViewUpdater {
         int clauseEndIndex = -1;
 
         if (mutable && flushStrategy != FlushStrategy.ENTITY && jpaIdAttribute != null) {
-            this.updatePrefixString = "UPDATE " + entityType.getName() + " e SET ";
+            this.entityName = entityType.getName();
+            this.updatePrefixString = "UPDATE " + entityName + " e SET ";
             StringBuilder tmpSb = new StringBuilder();
             tmpSb.append(" WHERE ");
             idFlusher.appendUpdateQueryFragment(null, tmpSb, "e.", WHERE_CLAUSE_PREFIX, " AND ");
@@ -250,6 +256,7 @@ public class EntityViewUpdaterImpl implements EntityViewUpdater {
             sb.append(updatePrefixString);
             clauseEndIndex = sb.length();
         } else {
+            this.entityName = null;
             this.updatePrefixString = null;
             this.updatePostfixString = null;
             this.versionedUpdatePostfixString = null;
@@ -690,6 +697,184 @@ public class EntityViewUpdaterImpl implements EntityViewUpdater {
         return query;
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<MutableStateTrackable> executeUpdates(UpdateContext context, List<MutableStateTrackable> updatableProxies) {
+        List<MutableStateTrackable> failedViews = new ArrayList<>();
+        boolean bulkQueryFlush = flushStrategy != FlushStrategy.ENTITY && !context.isForceEntity() && updatePrefixString != null
+                // Pre-update listeners could change the dirty attributes during the flush
+                && !context.hasPreUpdateListeners(managedViewType.getJavaType());
+        Map<String, BulkUpdateGroup> groups = new LinkedHashMap<>();
+        for (int i = 0; i < updatableProxies.size(); i++) {
+            MutableStateTrackable updatableProxy = updatableProxies.get(i);
+            if (updatableProxy.$$_isNew()) {
+                executePersist(context, updatableProxy);
+                continue;
+            }
+            if (!rootUpdateAllowed) {
+                throw new IllegalArgumentException("Updating instances of the view type [" + updatableProxy.getClass().getName() + "] is not allowed because no entity id is known!");
+            }
+            DirtyAttributeFlusher<?, Object, Object> flusher = getNestedDirtyFlusher(context, updatableProxy, (DirtyAttributeFlusher) null);
+            if (flusher == null) {
+                continue;
+            }
+            if (bulkQueryFlush && flusher instanceof CompositeAttributeFlusher && ((CompositeAttributeFlusher) flusher).supportsBulkQueryFlush()) {
+                StringBuilder sb = new StringBuilder();
+                flusher.appendUpdateQueryFragment(context, sb, "e.", "", ", ");
+                if (sb.length() != 0) {
+                    boolean optimisticLocking = fullFlusher.hasVersionFlusher() && (flusher == fullFlusher || flusher.isOptimisticLockProtected());
+                    String setClause = sb.toString();
+                    // Views with the same dirty attributes can share an update statement
+                    String key = optimisticLocking ? setClause + versionedUpdatePostfixString : setClause + updatePostfixString;
+                    BulkUpdateGroup group = groups.get(key);
+                    if (group == null) {
+                        group = new BulkUpdateGroup((CompositeAttributeFlusher) flusher, setClause.length(), optimisticLocking);
+                        groups.put(key, group);
+                    }
+                    group.views.add(updatableProxy);
+                    group.flushers.add(flusher);
+                    continue;
+                }
+            }
+            try {
+                update(context, null, updatableProxy, flusher);
+            } catch (OptimisticLockException ex) {
+                failedViews.add(updatableProxy);
+            }
+        }
+
+        for (BulkUpdateGroup group : groups.values()) {
+            int size = group.views.size();
+            for (int start = 0; start < size; start += BULK_UPDATE_SIZE) {
+                int end = Math.min(start + BULK_UPDATE_SIZE, size);
+                executeBulkUpdate(context, group, group.views.subList(start, end), group.flushers.subList(start, end), failedViews);
+            }
+        }
+        return failedViews;
+    }
+
+    private void executeBulkUpdate(UpdateContext context, BulkUpdateGroup group, List<MutableStateTrackable> views, List<DirtyAttributeFlusher<?, Object, Object>> flushers, List<MutableStateTrackable> failedViews) {
+        if (group.optimisticLocking && views.size() > 1) {
+            // After the update, a row that was updated concurrently could have the same version as a row updated by us,
+            // so we determine the views with a version conflict before the update and lock the rows until the update is done
+            boolean[] matches = findMatchingRows(context, views, true, true);
+            List<MutableStateTrackable> matchingViews = new ArrayList<>(views.size());
+            List<DirtyAttributeFlusher<?, Object, Object>> matchingFlushers = new ArrayList<>(views.size());
+            for (int i = 0; i < matches.length; i++) {
+                if (matches[i]) {
+                    matchingViews.add(views.get(i));
+                    matchingFlushers.add(flushers.get(i));
+                } else {
+                    failedViews.add(views.get(i));
+                }
+            }
+            views = matchingViews;
+            flushers = matchingFlushers;
+        }
+
+        int size = views.size();
+        if (size == 0) {
+            return;
+        } else if (size == 1) {
+            MutableStateTrackable updatableProxy = views.get(0);
+            try {
+                update(context, null, updatableProxy, flushers.get(0));
+            } catch (OptimisticLockException ex) {
+                failedViews.add(updatableProxy);
+            }
+            return;
+        }
+
+        String[] idConditions = createBulkIdConditions(context, size);
+        // Every assignment is a CASE expression that selects the value of a view by its id
+        StringBuilder sb = new StringBuilder(updatePrefixString.length() + group.setClauseLength * size * 2);
+        sb.append(updatePrefixString);
+        group.flusher.appendBulkUpdateQueryFragment(sb, "e.", BULK_PARAMETER_PREFIX, idConditions, ", ");
+        appendBulkWhereClause(context, sb, idConditions, group.optimisticLocking);
+
+        int orphanRemovalStartIndex = context.getOrphanRemovalDeleters().size();
+        Query query = context.getEntityManager().createQuery(sb.toString());
+        bindBulkWhereParameters(context, query, views, group.optimisticLocking);
+        for (int i = 0; i < size; i++) {
+            MutableStateTrackable updatableProxy = views.get(i);
+            DirtyAttributeFlusher<?, Object, Object> flusher = flushers.get(i);
+            flusher.flushQuery(context, BULK_PARAMETER_PREFIX + i + "_", this, query, updatableProxy, updatableProxy, updatableProxy, null, flusher);
+        }
+        int updated = query.executeUpdate();
+        if (updated != size) {
+            // The flush set the new version on the views, so the rows that weren't updated are the ones without the new version
+            boolean[] matches = findMatchingRows(context, views, group.optimisticLocking, false);
+            for (int i = 0; i < matches.length; i++) {
+                if (!matches[i]) {
+                    failedViews.add(views.get(i));
+                }
+            }
+        }
+        context.removeOrphans(orphanRemovalStartIndex);
+    }
+
+    private boolean[] findMatchingRows(UpdateContext context, List<MutableStateTrackable> views, boolean optimisticLocking, boolean lock) {
+        int size = views.size();
+        String[] idConditions = createBulkIdConditions(context, size);
+        // Select the indexes of the views for which a row with the id and the version exists
+        StringBuilder sb = new StringBuilder(size * 100);
+        sb.append("SELECT CASE");
+        for (int i = 0; i < size; i++) {
+            sb.append(" WHEN ").append(idConditions[i]).append(" THEN ").append(i);
+        }
+        sb.append(" END FROM ").append(entityName).append(" e");
+        appendBulkWhereClause(context, sb, idConditions, optimisticLocking);
+
+        Query query = context.getEntityManager().createQuery(sb.toString());
+        bindBulkWhereParameters(context, query, views, optimisticLocking);
+        if (lock) {
+            query.setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        }
+        boolean[] matches = new boolean[size];
+        for (Object index : query.getResultList()) {
+            matches[((Number) index).intValue()] = true;
+        }
+        return matches;
+    }
+
+    private String[] createBulkIdConditions(UpdateContext context, int size) {
+        String[] idConditions = new String[size];
+        for (int i = 0; i < size; i++) {
+            StringBuilder sb = new StringBuilder();
+            sb.append('(');
+            idFlusher.appendUpdateQueryFragment(context, sb, "e.", WHERE_CLAUSE_PREFIX + BULK_PARAMETER_PREFIX + i + "_", " AND ");
+            sb.append(')');
+            idConditions[i] = sb.toString();
+        }
+        return idConditions;
+    }
+
+    private void appendBulkWhereClause(UpdateContext context, StringBuilder sb, String[] idConditions, boolean optimisticLocking) {
+        sb.append(" WHERE ");
+        for (int i = 0; i < idConditions.length; i++) {
+            if (i != 0) {
+                sb.append(" OR ");
+            }
+            sb.append('(').append(idConditions[i]);
+            if (optimisticLocking) {
+                sb.append(" AND ");
+                versionFlusher.appendUpdateQueryFragment(context, sb, "e.", WHERE_CLAUSE_PREFIX + BULK_PARAMETER_PREFIX + i + "_", " AND ");
+            }
+            sb.append(')');
+        }
+    }
+
+    private void bindBulkWhereParameters(UpdateContext context, Query query, List<MutableStateTrackable> views, boolean optimisticLocking) {
+        for (int i = 0; i < views.size(); i++) {
+            MutableStateTrackable updatableProxy = views.get(i);
+            String parameterPrefix = WHERE_CLAUSE_PREFIX + BULK_PARAMETER_PREFIX + i + "_";
+            idFlusher.flushQuery(context, parameterPrefix, null, query, updatableProxy, updatableProxy, updatableProxy.$$_getId(), null, null);
+            if (optimisticLocking) {
+                versionFlusher.flushQueryInitialVersion(context, parameterPrefix, query, updatableProxy, updatableProxy.$$_getVersion());
+            }
+        }
+    }
+
     private boolean update(UpdateContext context, Object entity, MutableStateTrackable updatableProxy) {
         if (!rootUpdateAllowed && entity == null) {
             throw new IllegalArgumentException("Updating instances of the view type [" + updatableProxy.getClass().getName() + "] is not allowed because no entity id is known!");
@@ -703,6 +888,10 @@ public class EntityViewUpdaterImpl implements EntityViewUpdater {
             return false;
         }
 
+        return update(context, entity, updatableProxy, flusher);
+    }
+
+    private boolean update(UpdateContext context, Object entity, MutableStateTrackable updatableProxy, DirtyAttributeFlusher<?, Object, Object> flusher) {
         if (flushStrategy == FlushStrategy.ENTITY || context.isForceEntity() || !flusher.supportsQueryFlush()) {
             return flusher.flushEntity(context, entity, updatableProxy, updatableProxy, updatableProxy, null);
         } else {
@@ -1431,4 +1620,25 @@ public class EntityViewUpdaterImpl implements EntityViewUpdater {
         );
     }
 
+    /**
+     * The views of a type that have the same dirty attributes and are thus flushed through common update statements.
+     *
+     * @author Christian Beikov
+     * @since 1.6.7
+     */
+    private static final class BulkUpdateGroup {
+
+        // The flusher of the first view which has the same dirty attributes as the other views of the group
+        private final CompositeAttributeFlusher flusher;
+        private final int setClauseLength;
+        private final boolean optimisticLocking;
+        private final List<MutableStateTrackable> views = new ArrayList<>();
+        private final List<DirtyAttributeFlusher<?, Object, Object>> flushers = new ArrayList<>();
+
+        public BulkUpdateGroup(CompositeAttributeFlusher flusher, int setClauseLength, boolean optimisticLocking) {
+            this.flusher = flusher;
+            this.setClauseLength = setClauseLength;
+            this.optimisticLocking = optimisticLocking;
+        }
+    }
 }
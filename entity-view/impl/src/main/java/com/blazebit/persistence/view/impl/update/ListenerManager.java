@@ -203,6 +203,23 @@ public class ListenerManager {
         return false;
     }
 
+    public boolean hasPreUpdateListeners(Class<?> entityViewClass) {
+        ManagedViewTypeImplementor<?> managedView = evm.getMetamodel().managedView(entityViewClass);
+        Listeners listeners = this.listeners.get(managedView.getJavaType());
+        if (listeners != null && listeners.hasPreUpdateListeners()) {
+            return true;
+        }
+        listeners = this.listeners.get(managedView.getEntityClass());
+        if (listeners != null && listeners.hasPreUpdateListeners()) {
+            return true;
+        }
+        listeners = customListeners.get(managedView.getEntityClass());
+        if (listeners != null && listeners.hasPreUpdateListeners()) {
+            return true;
+        }
+        return false;
+    }
+
     public boolean hasRemoveListeners(Class<?> entityClass) {
         Listeners listeners = this.listeners.get(entityClass);
         if (listeners != null && listeners.hasRemoveListeners()) {
@@ -260,6 +260,10 @@ public class Listeners {
         return !postRollbackListeners.isEmpty();
     }
 
+    public boolean hasPreUpdateListeners() {
+        return !preUpdateListeners.isEmpty();
+    }
+
     public boolean hasRemoveListeners() {
         if (!preRemoveListeners.isEmpty() || !postRemoveListeners.isEmpty()) {
             return true;
@@ -147,6 +147,11 @@ public class SimpleUpdateContext implements UpdateContext {
         return null;
     }
 
+    @Override
+    public boolean hasPreUpdateListeners(Class<?> entityViewClass) {
+        return false;
+    }
+
     @Override
     public boolean hasRemoveListeners(Class<?> elementEntityClass) {
         return false;
@@ -78,6 +78,8 @@ public interface UpdateContext {
 
     public EntityViewProxy getEntityView(Class<?> viewType, Class<?> entityClass, Object updatableProxy, boolean convertOnly, boolean prePhase, EntityManager entityManager);
 
+    public boolean hasPreUpdateListeners(Class<?> entityViewClass);
+
     public boolean hasRemoveListeners(Class<?> elementEntityClass);
 
     public boolean hasPossiblyCancellingRemoveListeners(Class<?> elementEntityClass);
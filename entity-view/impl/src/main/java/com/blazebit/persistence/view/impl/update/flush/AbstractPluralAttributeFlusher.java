@@ -16,6 +16,7 @@
 
 package com.blazebit.persistence.view.impl.update.flush;
 
+import com.blazebit.persistence.spi.ExtendedManagedType;
 import com.blazebit.persistence.view.FlushStrategy;
 import com.blazebit.persistence.view.impl.accessor.AttributeAccessor;
 import com.blazebit.persistence.view.impl.accessor.InitialValueAttributeAccessor;
@@ -32,7 +33,10 @@ import javax.persistence.Query;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 /**
  *
@@ -41,6 +45,10 @@ import java.util.List;
  */
 public abstract class AbstractPluralAttributeFlusher<X extends AbstractPluralAttributeFlusher<X, A, R, E, V>, A, R, E, V> extends AttributeFetchGraphNode<X> implements DirtyAttributeFlusher<X, E, V>, PluralDirtyChecker<V, E> {
 
+    // The maximum number of rows of a VALUES clause used for inserting collection elements in batches
+    protected static final int DML_BATCH_SIZE = 50;
+    private static final String PAIR_PARAMETER_PREFIX = "pair_";
+
     protected final Class<?> ownerEntityClass;
     protected final String ownerIdAttributeName;
     protected final String ownerMapping;
@@ -385,6 +393,118 @@ public abstract class AbstractPluralAttributeFlusher<X extends AbstractPluralAtt
         return jpaCollectionObject;
     }
 
+    /**
+     * Executes the queries of the given factory for chunks of the given values that are bound to the VALUES clause with the given alias.
+     * Every chunk is bound to a VALUES clause of exactly its size, so no null padding rows are inserted,
+     * even if {@link com.blazebit.persistence.ConfigurationProperties#VALUES_CLAUSE_FILTER_NULLS} is disabled.
+     *
+     * @param queryFactory The factory for a query with a VALUES clause of a given size
+     * @param valueAlias The alias of the VALUES clause
+     * @param values The values
+     */
+    protected static void executeBatched(ValuesQueryFactory queryFactory, String valueAlias, List<Object> values) {
+        Query query = null;
+        int queryValueCount = 0;
+        for (int start = 0; start < values.size(); start += DML_BATCH_SIZE) {
+            int valueCount = Math.min(DML_BATCH_SIZE, values.size() - start);
+            if (valueCount != queryValueCount) {
+                query = queryFactory.createQuery(valueCount);
+                queryValueCount = valueCount;
+            }
+            query.setParameter(valueAlias, values.subList(start, start + valueCount));
+            query.executeUpdate();
+        }
+    }
+
+    /**
+     * Renders a predicate that pairs the rows of two VALUES clauses, since a VALUES clause can only carry the element of a collection,
+     * but an insert into an indexed collection also needs the list index or the map key of the element.
+     * The predicate matches the qualifier row with the element row of every pair that is bound through {@link #bindPairedValues}.
+     *
+     * @param qualifierAlias The alias of the VALUES clause for the list indexes or map keys
+     * @param valueAlias The alias of the VALUES clause for the elements
+     * @param pairCount The number of pairs
+     * @return The predicate
+     */
+    protected static String createPairPredicate(String qualifierAlias, String valueAlias, int pairCount) {
+        StringBuilder sb = new StringBuilder(pairCount * (qualifierAlias.length() + valueAlias.length()) * 4);
+        for (int i = 0; i < pairCount; i++) {
+            if (i != 0) {
+                sb.append(" OR ");
+            }
+            sb.append('(').append(qualifierAlias).append(" = :").append(PAIR_PARAMETER_PREFIX).append(qualifierAlias).append('_').append(i);
+            sb.append(" AND ").append(valueAlias).append(" = :").append(PAIR_PARAMETER_PREFIX).append(valueAlias).append('_').append(i).append(')');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Binds the qualifiers and the elements to the VALUES clauses and the predicate rendered by {@link #createPairPredicate}.
+     * An element that occurs multiple times must only be bound once to the VALUES clause,
+     * otherwise every pair with that element would match multiple element rows.
+     *
+     * @param query The query
+     * @param qualifierAlias The alias of the VALUES clause for the list indexes or map keys
+     * @param qualifiers The list indexes or map keys
+     * @param valueAlias The alias of the VALUES clause for the elements
+     * @param values The elements
+     * @param distinctValues The distinct elements
+     */
+    protected static void bindPairedValues(Query query, String qualifierAlias, List<?> qualifiers, String valueAlias, List<?> values, List<?> distinctValues) {
+        query.setParameter(qualifierAlias, qualifiers);
+        query.setParameter(valueAlias, distinctValues);
+        for (int i = 0; i < values.size(); i++) {
+            query.setParameter(PAIR_PARAMETER_PREFIX + qualifierAlias + "_" + i, qualifiers.get(i));
+            query.setParameter(PAIR_PARAMETER_PREFIX + valueAlias + "_" + i, values.get(i));
+        }
+    }
+
+    /**
+     * Returns whether values of the given type can be paired through {@link #createPairPredicate}.
+     * The comparison in the predicate requires values that map to a single column, so only unconverted basic values
+     * and entities that are referenced through a single column primary identifier can be paired.
+     *
+     * @param context The update context
+     * @param typeDescriptor The type descriptor of the values
+     * @return whether the values can be paired
+     */
+    protected static boolean isPairable(UpdateContext context, TypeDescriptor typeDescriptor) {
+        if (typeDescriptor.isBasic()) {
+            return typeDescriptor.getConverter() == null;
+        }
+        String entityIdAttributeName = typeDescriptor.getEntityIdAttributeName();
+        if (entityIdAttributeName == null || !entityIdAttributeName.equals(typeDescriptor.getAttributeIdAttributeName())) {
+            return false;
+        }
+        ExtendedManagedType<?> managedType = context.getEntityViewManager().getMetamodel().getEntityMetamodel().getManagedType(ExtendedManagedType.class, typeDescriptor.getJpaType());
+        String[] columnNames = managedType.getAttribute(entityIdAttributeName).getColumnNames();
+        return columnNames != null && columnNames.length == 1;
+    }
+
+    /**
+     * Returns the distinct values in encounter order. Entities are compared by identity, which is unique within a persistence context,
+     * so that comparing them doesn't initialize entity proxies.
+     *
+     * @param typeDescriptor The type descriptor of the values
+     * @param values The values
+     * @return The distinct values
+     */
+    protected static List<Object> distinct(TypeDescriptor typeDescriptor, List<?> values) {
+        Set<Object> seen;
+        if (typeDescriptor.isBasic()) {
+            seen = new HashSet<>(values.size());
+        } else {
+            seen = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>(values.size()));
+        }
+        List<Object> distinctValues = new ArrayList<>(values.size());
+        for (Object value : values) {
+            if (seen.add(value)) {
+                distinctValues.add(value);
+            }
+        }
+        return distinctValues;
+    }
+
     protected static boolean identityContains(Collection<Object> addedElements, MutableStateTrackable element) {
         for (Object addedElement : addedElements) {
             if (addedElement == element) {
@@ -759,4 +879,21 @@ public abstract class AbstractPluralAttributeFlusher<X extends AbstractPluralAtt
         }
     }
 
+
+    /**
+     * Creates a DML query that uses a VALUES clause with a given number of rows.
+     *
+     * @author Christian Beikov
+     * @since 1.6.7
+     */
+    protected interface ValuesQueryFactory {
+
+        /**
+         * Creates the query with a VALUES clause of the given size.
+         *
+         * @param valueCount The number of rows of the VALUES clause
+         * @return The query
+         */
+        public Query createQuery(int valueCount);
+    }
 }
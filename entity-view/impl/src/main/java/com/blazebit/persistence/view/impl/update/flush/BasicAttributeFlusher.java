@@ -184,6 +184,32 @@ public class BasicAttributeFlusher<E, V> extends BasicDirtyChecker<V> implements
         return false;
     }
 
+    /**
+     * Appends the assignment for a bulk update statement that updates multiple views at once.
+     * The assigned value is selected through a CASE expression by the given id condition of a view,
+     * and is bound to a parameter that is prefixed with the parameter prefix followed by the index of the view.
+     * Must only be used if {@link #supportsBulkQueryFlush()} is <code>true</code>.
+     *
+     * @param sb The string builder to append to
+     * @param mappingPrefix The mapping prefix
+     * @param parameterPrefix The parameter prefix
+     * @param idConditions The id conditions of the views
+     * @return whether an assignment was appended
+     */
+    public boolean appendBulkUpdateQueryFragment(StringBuilder sb, String mappingPrefix, String parameterPrefix, String[] idConditions) {
+        if ((updatable || isPassThrough()) && (flushOperation == null || update) && inverseFlusher == null && updateFragment != null) {
+            sb.append(mappingPrefix).append(updateFragment).append(" = CASE");
+            for (int i = 0; i < idConditions.length; i++) {
+                sb.append(" WHEN ").append(idConditions[i]);
+                sb.append(" THEN :").append(parameterPrefix).append(i).append('_').append(parameterName);
+            }
+            sb.append(" ELSE ").append(mappingPrefix).append(updateFragment).append(" END");
+            return true;
+        }
+
+        return false;
+    }
+
     @Override
     public void appendFetchJoinQueryFragment(String base, StringBuilder sb) {
         if (fetch) {
@@ -472,6 +498,17 @@ public class BasicAttributeFlusher<E, V> extends BasicDirtyChecker<V> implements
         return elementDescriptor.getBasicUserType().isEqual(entityValue, newValue);
     }
 
+    /**
+     * Returns whether this flusher only binds a basic value to the update query without any further side effects,
+     * which allows to combine the updates of multiple views into a single update statement.
+     *
+     * @return whether the flusher supports flushing through a bulk update statement
+     */
+    public boolean supportsBulkQueryFlush() {
+        return supportsQueryFlush && elementDescriptor.isBasic() && componentFlushers == null && inverseFlusher == null && !orphanRemoval
+                && (flushOperation == null || flushOperation == BasicFlushOperation.NONE);
+    }
+
     @Override
     public boolean isPassThrough() {
         return !updatable && !elementDescriptor.shouldFlushMutations();
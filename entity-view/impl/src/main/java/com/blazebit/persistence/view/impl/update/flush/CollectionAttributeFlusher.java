@@ -45,7 +45,6 @@ import javax.persistence.EntityManager;
 import javax.persistence.Query;
 import javax.persistence.Tuple;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -466,12 +465,10 @@ public class CollectionAttributeFlusher<E, V extends Collection<?>> extends Abst
             }
         }
 
-        // TODO: Think about allowing to use batching when we implement #657
-
         return false;
     }
 
-    protected void addElements(UpdateContext context, Object ownerView, Object view, Collection<Object> removedAllObjects, boolean flushAtOnce, boolean removedAllWithoutCollectionActions, V value, List<Object> embeddablesToUpdate, FusedCollectionActions fusedCollectionActions, boolean initialKnown) {
+    protected void addElements(final UpdateContext context, final Object ownerView, final Object view, Collection<Object> removedAllObjects, boolean removedAllWithoutCollectionActions, V value, List<Object> embeddablesToUpdate, FusedCollectionActions fusedCollectionActions, boolean initialKnown) {
         Collection<Object> elementsToAdd;
         if (fusedCollectionActions == null || !removedAllObjects.isEmpty()) {
             if (elementDescriptor.getViewToEntityMapper() == null || inverseFlusher != null) {
@@ -492,61 +489,28 @@ public class CollectionAttributeFlusher<E, V extends Collection<?>> extends Abst
             return;
         }
 
-        String mapping = getMapping();
         if (inverseFlusher == null) {
-            InsertCriteriaBuilder<?> insertCb = context.getEntityViewManager().getCriteriaBuilderFactory().insertCollection(context.getEntityManager(), ownerEntityClass, mapping);
-
-            String entityIdAttributeName = elementDescriptor.getEntityIdAttributeName();
-            String attributeIdAttributeName = elementDescriptor.getAttributeIdAttributeName();
-            if (flushAtOnce) {
-                if (entityIdAttributeName == null) {
-                    insertCb.fromValues(ownerEntityClass, mapping, "val", elementsToAdd);
-                } else if (attributeIdAttributeName.equals(entityIdAttributeName)) {
-                    insertCb.fromIdentifiableValues((Class<Object>) elementDescriptor.getJpaType(), "val", elementsToAdd);
-                } else {
-                    insertCb.fromIdentifiableValues((Class<Object>) elementDescriptor.getJpaType(), attributeIdAttributeName, "val", elementsToAdd);
-                }
-            } else {
-                if (entityIdAttributeName == null) {
-                    insertCb.fromValues(ownerEntityClass, mapping, "val", 1);
-                } else if (attributeIdAttributeName.equals(entityIdAttributeName)) {
-                    insertCb.fromIdentifiableValues((Class<Object>) elementDescriptor.getJpaType(), "val", 1);
-                } else {
-                    insertCb.fromIdentifiableValues((Class<Object>) elementDescriptor.getJpaType(), attributeIdAttributeName, "val", 1);
+            boolean checkTransient = elementDescriptor.isJpaEntity() && !elementDescriptor.shouldJpaPersist();
+            List<Object> elements = new ArrayList<>(elementsToAdd.size());
+            for (Object o : elementsToAdd) {
+                if (o != null) {
+                    if (checkTransient && elementDescriptor.getBasicUserType().shouldPersist(o)) {
+                        throw new IllegalStateException("Collection " + attributeName + " references an unsaved transient instance - save the transient instance before flushing: " + o);
+                    }
+                    elements.add(o);
                 }
             }
-            for (int i = 0; i < ownerIdBindFragments.length; i += 2) {
-                insertCb.bind(ownerIdBindFragments[i]).select(ownerIdBindFragments[i + 1]);
+            if (elements.isEmpty()) {
+                return;
             }
-            insertCb.bind(mapping).select("val");
-            Query insertQuery = insertCb.getQuery();
-            ownerIdFlusher.flushQuery(context, null, null, insertQuery, ownerView, view, ownerIdFlusher.getViewAttributeAccessor().getValue(ownerView), null, null);
 
-            boolean checkTransient = elementDescriptor.isJpaEntity() && !elementDescriptor.shouldJpaPersist();
-            if (flushAtOnce) {
-                if (checkTransient) {
-                    for (Object o : elementsToAdd) {
-                        if (elementDescriptor.getBasicUserType().shouldPersist(o)) {
-                            throw new IllegalStateException("Collection " + attributeName + " references an unsaved transient instance - save the transient instance before flushing: " + o);
-                        }
-                    }
+            // The elements are inserted in chunks of a bounded size so that the SQL and the number of parameters stay bounded
+            executeBatched(new ValuesQueryFactory() {
+                @Override
+                public Query createQuery(int valueCount) {
+                    return createInsertQuery(context, ownerView, view, valueCount);
                 }
-                insertQuery.executeUpdate();
-            } else {
-                // TODO: Use batching when we implement #657
-                Object[] singletonArray = new Object[1];
-                List<Object> singletonList = Arrays.asList(singletonArray);
-                for (Object o : elementsToAdd) {
-                    if (o != null) {
-                        if (checkTransient && elementDescriptor.getBasicUserType().shouldPersist(o)) {
-                            throw new IllegalStateException("Collection " + attributeName + " references an unsaved transient instance - save the transient instance before flushing: " + o);
-                        }
-                        singletonArray[0] = o;
-                        insertQuery.setParameter("val", singletonList);
-                        insertQuery.executeUpdate();
-                    }
-                }
-            }
+            }, "val", elements);
         } else {
             if (removedAllWithoutCollectionActions) {
                 DirtyAttributeFlusher<?, E, Object> fullFlusher = (DirtyAttributeFlusher<?, E, Object>) elementDescriptor.getViewToEntityMapper().getFullGraphNode();
@@ -562,6 +526,28 @@ public class CollectionAttributeFlusher<E, V extends Collection<?>> extends Abst
         }
     }
 
+    private Query createInsertQuery(UpdateContext context, Object ownerView, Object view, int valueCount) {
+        String mapping = getMapping();
+        InsertCriteriaBuilder<?> insertCb = context.getEntityViewManager().getCriteriaBuilderFactory().insertCollection(context.getEntityManager(), ownerEntityClass, mapping);
+
+        String entityIdAttributeName = elementDescriptor.getEntityIdAttributeName();
+        String attributeIdAttributeName = elementDescriptor.getAttributeIdAttributeName();
+        if (entityIdAttributeName == null) {
+            insertCb.fromValues(ownerEntityClass, mapping, "val", valueCount);
+        } else if (attributeIdAttributeName.equals(entityIdAttributeName)) {
+            insertCb.fromIdentifiableValues((Class<Object>) elementDescriptor.getJpaType(), "val", valueCount);
+        } else {
+            insertCb.fromIdentifiableValues((Class<Object>) elementDescriptor.getJpaType(), attributeIdAttributeName, "val", valueCount);
+        }
+        for (int i = 0; i < ownerIdBindFragments.length; i += 2) {
+            insertCb.bind(ownerIdBindFragments[i]).select(ownerIdBindFragments[i + 1]);
+        }
+        insertCb.bind(mapping).select("val");
+        Query insertQuery = insertCb.getQuery();
+        ownerIdFlusher.flushQuery(context, null, null, insertQuery, ownerView, view, ownerIdFlusher.getViewAttributeAccessor().getValue(ownerView), null, null);
+        return insertQuery;
+    }
+
     @Override
     protected boolean canFlushSeparateCollectionOperations() {
         return !collectionInstantiator.allowsDuplicates();
@@ -595,7 +581,7 @@ public class CollectionAttributeFlusher<E, V extends Collection<?>> extends Abst
         } else {
             removedAllObjects = Collections.emptyList();
         }
-        addElements(context, ownerView, view, removedAllObjects, true, removedAllWithoutCollectionActions, value, embeddablesToUpdate, fusedCollectionActions, initialKnown);
+        addElements(context, ownerView, view, removedAllObjects, removedAllWithoutCollectionActions, value, embeddablesToUpdate, fusedCollectionActions, initialKnown);
         if (removeListener != null) {
             for (Object removedObject : removedAllObjects) {
                 removeListener.onCollectionRemove(context, removedObject);
@@ -1022,7 +1008,7 @@ public class CollectionAttributeFlusher<E, V extends Collection<?>> extends Abst
             } else {
                 removedAllObjects = Collections.emptyList();
             }
-            addElements(context, ownerView, view, removedAllObjects, true, removedAllWithoutCollectionActions, value, null, null, true);
+            addElements(context, ownerView, view, removedAllObjects, removedAllWithoutCollectionActions, value, null, null, true);
             if (removeListener != null) {
                 for (Object removedObject : removedAllObjects) {
                     removeListener.onCollectionRemove(context, removedObject);
@@ -334,11 +334,67 @@ public class CompositeAttributeFlusher extends CompositeAttributeFetchGraphNode<
         return wasDirty;
     }
 
+    /**
+     * Appends the set clause for a bulk update statement that updates the views with the given id conditions at once
+     * like {@link #appendUpdateQueryFragment(UpdateContext, StringBuilder, String, String, String)} does for a single view.
+     * Must only be used if {@link #supportsBulkQueryFlush()} is <code>true</code>.
+     *
+     * @param sb The string builder to append to
+     * @param mappingPrefix The mapping prefix
+     * @param parameterPrefix The parameter prefix which is followed by the index of a view
+     * @param idConditions The id conditions of the views
+     * @param separator The separator of the assignments
+     */
+    public void appendBulkUpdateQueryFragment(StringBuilder sb, String mappingPrefix, String parameterPrefix, String[] idConditions, String separator) {
+        boolean first = true;
+        boolean optimisticLock = false;
+        for (int i = 0; i < flushers.length; i++) {
+            BasicAttributeFlusher<?, ?> flusher = (BasicAttributeFlusher<?, ?>) flushers[i];
+            if (flusher != null) {
+                int endIndex = sb.length();
+                if (!first) {
+                    sb.append(separator);
+                }
+                if (flusher.appendBulkUpdateQueryFragment(sb, mappingPrefix, parameterPrefix, idConditions)) {
+                    first = false;
+                    optimisticLock |= flusher.isOptimisticLockProtected();
+                } else {
+                    sb.setLength(endIndex);
+                }
+            }
+        }
+        if (optimisticLock && optimisticLockProtected && versionFlusher != null) {
+            if (!first) {
+                sb.append(separator);
+            }
+            versionFlusher.appendBulkUpdateQueryFragment(sb, mappingPrefix, parameterPrefix, idConditions);
+        }
+    }
+
     @Override
     public boolean supportsQueryFlush() {
         return supportsQueryFlush;
     }
 
+    /**
+     * Returns whether all flushers only bind basic values to the update query,
+     * which allows to combine the updates of multiple views into a single update statement.
+     *
+     * @return whether the flusher supports flushing through a bulk update statement
+     */
+    public boolean supportsBulkQueryFlush() {
+        if (!supportsQueryFlush) {
+            return false;
+        }
+        for (int i = 0; i < flushers.length; i++) {
+            DirtyAttributeFlusher<?, Object, Object> flusher = flushers[i];
+            if (flusher != null && !(flusher instanceof BasicAttributeFlusher<?, ?> && ((BasicAttributeFlusher<?, ?>) flusher).supportsBulkQueryFlush())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public boolean loadForEntityFlush() {
         return loadForEntityFlush;
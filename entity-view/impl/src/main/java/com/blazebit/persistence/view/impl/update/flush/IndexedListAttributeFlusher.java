@@ -185,7 +185,7 @@ public class IndexedListAttributeFlusher<E, V extends List<?>> extends Collectio
     }
 
     @Override
-    protected void addElements(UpdateContext context, Object ownerView, Object view, Collection<Object> removedAllObjects, boolean flushAtOnce, boolean removedAllWithoutCollectionActions, V value, List<Object> embeddablesToUpdate, FusedCollectionActions fusedCollectionActions, boolean initialKnown) {
+    protected void addElements(UpdateContext context, Object ownerView, Object view, Collection<Object> removedAllObjects, boolean removedAllWithoutCollectionActions, V value, List<Object> embeddablesToUpdate, FusedCollectionActions fusedCollectionActions, boolean initialKnown) {
         Collection<Object> appends;
         int appendIndex;
         String mapping = getMapping();
@@ -259,39 +259,7 @@ public class IndexedListAttributeFlusher<E, V extends List<?>> extends Collectio
         }
 
         if (appends.size() > 1 || appends.size() == 1 && appends.iterator().next() != null) {
-            InsertCriteriaBuilder<?> insertCb = context.getEntityViewManager().getCriteriaBuilderFactory().insertCollection(context.getEntityManager(), ownerEntityClass, mapping);
-
-            String entityIdAttributeName = elementDescriptor.getEntityIdAttributeName();
-            String attributeIdAttributeName = elementDescriptor.getAttributeIdAttributeName();
-            if (entityIdAttributeName == null) {
-                insertCb.fromValues(ownerEntityClass, mapping, "val", 1);
-            } else if (entityIdAttributeName.equals(attributeIdAttributeName)) {
-                insertCb.fromIdentifiableValues((Class<Object>) elementDescriptor.getJpaType(), "val", 1);
-            } else {
-                insertCb.fromIdentifiableValues((Class<Object>) elementDescriptor.getJpaType(), attributeIdAttributeName, "val", 1);
-            }
-            if (initialKnown) {
-                insertCb.bind("INDEX(" + mapping + ")").select("FUNCTION('TREAT_INTEGER', :idx)");
-            } else {
-                SubqueryBuilder<? extends InsertCriteriaBuilder<?>> subquery = insertCb.bind("INDEX(" + mapping + ")")
-                        .selectSubquery("subquery", "COALESCE(subquery + 1, 0)")
-                        .from(ownerEntityClass, "sub")
-                        .select("MAX(INDEX(sub." + mapping + "))");
-                for (int i = 0; i < ownerIdBindFragments.length; i += 2) {
-                    subquery.where("sub." + ownerIdBindFragments[i]).eqExpression(ownerIdBindFragments[i + 1]);
-                }
-                subquery.end();
-            }
-            for (int i = 0; i < ownerIdBindFragments.length; i += 2) {
-                insertCb.bind(ownerIdBindFragments[i]).select(ownerIdBindFragments[i + 1]);
-            }
-            insertCb.bind(mapping).select("val");
-            Query query = insertCb.getQuery();
-            ownerIdFlusher.flushQuery(context, null, null, query, ownerView, view, ownerIdFlusher.getViewAttributeAccessor().getValue(ownerView), null, null);
-
-            // TODO: Use batching when we implement #657
-            Object[] singletonArray = new Object[1];
-            List<Object> singletonList = Arrays.asList(singletonArray);
+            List<Object> elements = new ArrayList<>(appends.size());
             if (elementDescriptor.getViewToEntityMapper() == null) {
                 boolean checkTransient = elementDescriptor.isJpaEntity() && !elementDescriptor.shouldJpaPersist();
                 for (Object object : appends) {
@@ -299,28 +267,99 @@ public class IndexedListAttributeFlusher<E, V extends List<?>> extends Collectio
                         if (checkTransient && elementDescriptor.getBasicUserType().shouldPersist(object)) {
                             throw new IllegalStateException("Collection " + attributeName + " references an unsaved transient instance - save the transient instance before flushing: " + object);
                         }
-                        singletonArray[0] = object;
-                        if (initialKnown) {
-                            query.setParameter("idx", appendIndex++);
-                        }
-                        query.setParameter("val", singletonList);
-                        query.executeUpdate();
+                        elements.add(object);
                     }
                 }
             } else {
                 ViewToEntityMapper loadOnlyViewToEntityMapper = elementDescriptor.getLoadOnlyViewToEntityMapper();
                 for (Object object : appends) {
                     if (object != null) {
-                        singletonArray[0] = loadOnlyViewToEntityMapper.applyToEntity(context, null, object);
-                        if (initialKnown) {
-                            query.setParameter("idx", appendIndex++);
-                        }
-                        query.setParameter("val", singletonList);
-                        query.executeUpdate();
+                        elements.add(loadOnlyViewToEntityMapper.applyToEntity(context, null, object));
                     }
                 }
             }
+
+            if (elements.size() == 1 || !isPairable(context, elementDescriptor)) {
+                // Elements that can't be compared in a predicate can't be paired with their index and are inserted one by one
+                Query query = createAppendQuery(context, ownerView, view, initialKnown, 0, 1);
+                Object[] singletonArray = new Object[1];
+                List<Object> singletonList = Arrays.asList(singletonArray);
+                for (int i = 0; i < elements.size(); i++) {
+                    singletonArray[0] = elements.get(i);
+                    if (initialKnown) {
+                        query.setParameter("idx", appendIndex + i);
+                    }
+                    query.setParameter("val", singletonList);
+                    query.executeUpdate();
+                }
+            } else {
+                // The elements are inserted in chunks of a bounded size along with their position within the chunk
+                List<Integer> positions = new ArrayList<>(DML_BATCH_SIZE);
+                Query query = null;
+                int queryPositionCount = 0;
+                int queryValueCount = 0;
+                for (int start = 0; start < elements.size(); start += DML_BATCH_SIZE) {
+                    List<Object> chunk = elements.subList(start, Math.min(start + DML_BATCH_SIZE, elements.size()));
+                    List<Object> distinctElements = distinct(elementDescriptor, chunk);
+                    while (positions.size() < chunk.size()) {
+                        positions.add(positions.size());
+                    }
+                    if (chunk.size() != queryPositionCount || distinctElements.size() != queryValueCount) {
+                        query = createAppendQuery(context, ownerView, view, initialKnown, chunk.size(), distinctElements.size());
+                        queryPositionCount = chunk.size();
+                        queryValueCount = distinctElements.size();
+                    }
+                    if (initialKnown) {
+                        query.setParameter("idx", appendIndex + start);
+                    }
+                    bindPairedValues(query, "pos", positions.subList(0, chunk.size()), "val", chunk, distinctElements);
+                    query.executeUpdate();
+                }
+            }
+        }
+    }
+
+    private Query createAppendQuery(UpdateContext context, Object ownerView, Object view, boolean initialKnown, int positionCount, int valueCount) {
+        String mapping = getMapping();
+        InsertCriteriaBuilder<?> insertCb = context.getEntityViewManager().getCriteriaBuilderFactory().insertCollection(context.getEntityManager(), ownerEntityClass, mapping);
+
+        String entityIdAttributeName = elementDescriptor.getEntityIdAttributeName();
+        String attributeIdAttributeName = elementDescriptor.getAttributeIdAttributeName();
+        if (entityIdAttributeName == null) {
+            insertCb.fromValues(ownerEntityClass, mapping, "val", valueCount);
+        } else if (entityIdAttributeName.equals(attributeIdAttributeName)) {
+            insertCb.fromIdentifiableValues((Class<Object>) elementDescriptor.getJpaType(), "val", valueCount);
+        } else {
+            insertCb.fromIdentifiableValues((Class<Object>) elementDescriptor.getJpaType(), attributeIdAttributeName, "val", valueCount);
+        }
+        String positionOffset;
+        if (positionCount == 0) {
+            positionOffset = "";
+        } else {
+            // A VALUES clause for a collection can only carry the element, so the positions are bound to a second VALUES clause
+            insertCb.fromValues(Integer.class, "pos", positionCount);
+            insertCb.whereExpression(createPairPredicate("pos", "val", positionCount));
+            positionOffset = " + pos";
+        }
+        if (initialKnown) {
+            insertCb.bind("INDEX(" + mapping + ")").select("FUNCTION('TREAT_INTEGER', :idx)" + positionOffset);
+        } else {
+            SubqueryBuilder<? extends InsertCriteriaBuilder<?>> subquery = insertCb.bind("INDEX(" + mapping + ")")
+                    .selectSubquery("subquery", "COALESCE(subquery + 1, 0)" + positionOffset)
+                    .from(ownerEntityClass, "sub")
+                    .select("MAX(INDEX(sub." + mapping + "))");
+            for (int i = 0; i < ownerIdBindFragments.length; i += 2) {
+                subquery.where("sub." + ownerIdBindFragments[i]).eqExpression(ownerIdBindFragments[i + 1]);
+            }
+            subquery.end();
+        }
+        for (int i = 0; i < ownerIdBindFragments.length; i += 2) {
+            insertCb.bind(ownerIdBindFragments[i]).select(ownerIdBindFragments[i + 1]);
         }
+        insertCb.bind(mapping).select("val");
+        Query query = insertCb.getQuery();
+        ownerIdFlusher.flushQuery(context, null, null, query, ownerView, view, ownerIdFlusher.getViewAttributeAccessor().getValue(ownerView), null, null);
+        return query;
     }
 
     @Override
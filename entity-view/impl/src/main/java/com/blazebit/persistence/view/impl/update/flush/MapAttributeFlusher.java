@@ -446,7 +446,7 @@ public class MapAttributeFlusher<E, V extends Map<?, ?>> extends AbstractPluralA
         return false;
     }
 
-    protected void addElements(UpdateContext context, Object ownerView, Object view, Map<Object, Object> removedAllObjects, boolean flushAtOnce, V value, Map<Object, Object> embeddablesToUpdate, FusedMapActions fusedCollectionActions, boolean initialKnown) {
+    protected void addElements(UpdateContext context, Object ownerView, Object view, Map<Object, Object> removedAllObjects, V value, Map<Object, Object> embeddablesToUpdate, FusedMapActions fusedCollectionActions, boolean initialKnown) {
         Map<Object, Object> appends;
         String mapping = getMapping();
         if (fusedCollectionActions == null || !removedAllObjects.isEmpty()) {
@@ -521,40 +521,8 @@ public class MapAttributeFlusher<E, V extends Map<?, ?>> extends AbstractPluralA
         }
 
         if (appends.size() > 0) {
-            InsertCriteriaBuilder<?> insertCb = context.getEntityViewManager().getCriteriaBuilderFactory().insertCollection(context.getEntityManager(), ownerEntityClass, mapping);
-
-            String keyEntityIdAttributeName = keyDescriptor.getEntityIdAttributeName();
-            String keyAttributeIdAttributeName = keyDescriptor.getAttributeIdAttributeName();
-            if (keyEntityIdAttributeName == null) {
-                insertCb.fromValues(ownerEntityClass, "KEY(" + mapping + ")", "key", 1);
-            } else if (keyEntityIdAttributeName.equals(keyAttributeIdAttributeName)) {
-                insertCb.fromIdentifiableValues((Class<Object>) keyDescriptor.getJpaType(), "key", 1);
-            } else {
-                insertCb.fromIdentifiableValues((Class<Object>) keyDescriptor.getJpaType(), keyAttributeIdAttributeName, "key", 1);
-            }
-
-            String entityIdAttributeName = elementDescriptor.getEntityIdAttributeName();
-            String attributeIdAttributeName = elementDescriptor.getAttributeIdAttributeName();
-            if (entityIdAttributeName == null) {
-                insertCb.fromValues(ownerEntityClass, mapping, "val", 1);
-            } else if (entityIdAttributeName.equals(attributeIdAttributeName)) {
-                insertCb.fromIdentifiableValues((Class<Object>) elementDescriptor.getJpaType(), "val", 1);
-            } else {
-                insertCb.fromIdentifiableValues((Class<Object>) elementDescriptor.getJpaType(), attributeIdAttributeName, "val", 1);
-            }
-            insertCb.bind("KEY(" + mapping + ")").select("key");
-            for (int i = 0; i < ownerIdBindFragments.length; i += 2) {
-                insertCb.bind(ownerIdBindFragments[i]).select(ownerIdBindFragments[i + 1]);
-            }
-            insertCb.bind(mapping).select("val");
-            Query query = insertCb.getQuery();
-            ownerIdFlusher.flushQuery(context, null, null, query, ownerView, view, ownerIdFlusher.getViewAttributeAccessor().getValue(ownerView), null, null);
-
-            // TODO: Use batching when we implement #657
-            Object[] singletonKeyArray = new Object[1];
-            Object[] singletonValueArray = new Object[1];
-            List<Object> singletonKeyList = Arrays.asList(singletonKeyArray);
-            List<Object> singletonValueList = Arrays.asList(singletonValueArray);
+            List<Object> keys = new ArrayList<>(appends.size());
+            List<Object> values = new ArrayList<>(appends.size());
             ViewToEntityMapper keyViewToEntityMapper = keyDescriptor.getLoadOnlyViewToEntityMapper();
             ViewToEntityMapper valueViewToEntityMapper = elementDescriptor.getLoadOnlyViewToEntityMapper();
             boolean checkTransient = elementDescriptor.isJpaEntity() && !elementDescriptor.shouldJpaPersist();
@@ -566,26 +534,100 @@ public class MapAttributeFlusher<E, V extends Map<?, ?>> extends AbstractPluralA
                         if (checkTransient && keyDescriptor.getBasicUserType().shouldPersist(k)) {
                             throw new IllegalStateException("Collection " + attributeName + " references an unsaved transient instance - save the transient instance before flushing: " + k);
                         }
-                        singletonKeyArray[0] = k;
+                        keys.add(k);
                     } else {
-                        singletonKeyArray[0] = keyViewToEntityMapper.applyToEntity(context, null, k);
+                        keys.add(keyViewToEntityMapper.applyToEntity(context, null, k));
                     }
                     if (valueViewToEntityMapper == null) {
                         if (checkTransient && elementDescriptor.getBasicUserType().shouldPersist(v)) {
                             throw new IllegalStateException("Collection " + attributeName + " references an unsaved transient instance - save the transient instance before flushing: " + v);
                         }
-                        singletonValueArray[0] = v;
+                        values.add(v);
                     } else {
-                        singletonValueArray[0] = valueViewToEntityMapper.applyToEntity(context, null, v);
+                        values.add(valueViewToEntityMapper.applyToEntity(context, null, v));
                     }
+                }
+            }
+
+            if (keys.size() == 1 || !isPairable(context, keyDescriptor) || !isPairable(context, elementDescriptor)) {
+                // Keys and values that can't be compared in a predicate can't be paired and are inserted one by one
+                Query query = createInsertQuery(context, ownerView, view, 1, 0);
+                Object[] singletonKeyArray = new Object[1];
+                Object[] singletonValueArray = new Object[1];
+                List<Object> singletonKeyList = Arrays.asList(singletonKeyArray);
+                List<Object> singletonValueList = Arrays.asList(singletonValueArray);
+                for (int i = 0; i < keys.size(); i++) {
+                    singletonKeyArray[0] = keys.get(i);
+                    singletonValueArray[0] = values.get(i);
                     query.setParameter("key", singletonKeyList);
                     query.setParameter("val", singletonValueList);
                     query.executeUpdate();
                 }
+            } else {
+                // The entries are inserted in chunks of a bounded size
+                Query query = null;
+                int queryKeyCount = 0;
+                int queryValueCount = 0;
+                for (int start = 0; start < keys.size(); start += DML_BATCH_SIZE) {
+                    int end = Math.min(start + DML_BATCH_SIZE, keys.size());
+                    List<Object> chunkKeys = keys.subList(start, end);
+                    List<Object> chunkValues = values.subList(start, end);
+                    List<Object> distinctValues = distinct(elementDescriptor, chunkValues);
+                    if (chunkKeys.size() != queryKeyCount || distinctValues.size() != queryValueCount) {
+                        query = createInsertQuery(context, ownerView, view, chunkKeys.size(), distinctValues.size());
+                        queryKeyCount = chunkKeys.size();
+                        queryValueCount = distinctValues.size();
+                    }
+                    bindPairedValues(query, "key", chunkKeys, "val", chunkValues, distinctValues);
+                    query.executeUpdate();
+                }
             }
         }
     }
 
+    private Query createInsertQuery(UpdateContext context, Object ownerView, Object view, int keyCount, int pairedValueCount) {
+        String mapping = getMapping();
+        InsertCriteriaBuilder<?> insertCb = context.getEntityViewManager().getCriteriaBuilderFactory().insertCollection(context.getEntityManager(), ownerEntityClass, mapping);
+
+        String keyEntityIdAttributeName = keyDescriptor.getEntityIdAttributeName();
+        String keyAttributeIdAttributeName = keyDescriptor.getAttributeIdAttributeName();
+        if (keyEntityIdAttributeName == null) {
+            if (pairedValueCount == 0) {
+                insertCb.fromValues(ownerEntityClass, "KEY(" + mapping + ")", "key", keyCount);
+            } else {
+                // The key of a VALUES clause for the map can't be used in a predicate, so we use a VALUES clause of the key type
+                insertCb.fromValues(keyDescriptor.getJpaType(), "key", keyCount);
+            }
+        } else if (keyEntityIdAttributeName.equals(keyAttributeIdAttributeName)) {
+            insertCb.fromIdentifiableValues((Class<Object>) keyDescriptor.getJpaType(), "key", keyCount);
+        } else {
+            insertCb.fromIdentifiableValues((Class<Object>) keyDescriptor.getJpaType(), keyAttributeIdAttributeName, "key", keyCount);
+        }
+
+        // A VALUES clause for a collection can only carry the key or the value, so the rows of the two VALUES clauses are paired through a predicate
+        int valueCount = pairedValueCount == 0 ? keyCount : pairedValueCount;
+        String entityIdAttributeName = elementDescriptor.getEntityIdAttributeName();
+        String attributeIdAttributeName = elementDescriptor.getAttributeIdAttributeName();
+        if (entityIdAttributeName == null) {
+            insertCb.fromValues(ownerEntityClass, mapping, "val", valueCount);
+        } else if (entityIdAttributeName.equals(attributeIdAttributeName)) {
+            insertCb.fromIdentifiableValues((Class<Object>) elementDescriptor.getJpaType(), "val", valueCount);
+        } else {
+            insertCb.fromIdentifiableValues((Class<Object>) elementDescriptor.getJpaType(), attributeIdAttributeName, "val", valueCount);
+        }
+        if (pairedValueCount != 0) {
+            insertCb.whereExpression(createPairPredicate("key", "val", keyCount));
+        }
+        insertCb.bind("KEY(" + mapping + ")").select("key");
+        for (int i = 0; i < ownerIdBindFragments.length; i += 2) {
+            insertCb.bind(ownerIdBindFragments[i]).select(ownerIdBindFragments[i + 1]);
+        }
+        insertCb.bind(mapping).select("val");
+        Query query = insertCb.getQuery();
+        ownerIdFlusher.flushQuery(context, null, null, query, ownerView, view, ownerIdFlusher.getViewAttributeAccessor().getValue(ownerView), null, null);
+        return query;
+    }
+
     protected void flushCollectionOperations(UpdateContext context, Object ownerView, Object view, V initial, V value, Map<Object, Object> embeddablesToUpdate, FusedMapActions fusedCollectionActions, boolean initialKnown) {
         boolean removeSpecific = fusedCollectionActions != null && fusedCollectionActions.operationCount() < value.size() + 1;
         Map<Object, Object> removedAllObjects;
@@ -602,7 +644,7 @@ public class MapAttributeFlusher<E, V extends Map<?, ?>> extends AbstractPluralA
         } else {
             removedAllObjects = Collections.emptyMap();
         }
-        addElements(context, ownerView, view, removedAllObjects, true, value, embeddablesToUpdate, fusedCollectionActions, initialKnown);
+        addElements(context, ownerView, view, removedAllObjects, value, embeddablesToUpdate, fusedCollectionActions, initialKnown);
         processRemovedObjects(context, removedAllObjects);
     }
 
@@ -1141,7 +1183,7 @@ public class MapAttributeFlusher<E, V extends Map<?, ?>> extends AbstractPluralA
             } else {
                 removedAllObjects = Collections.emptyMap();
             }
-            addElements(context, ownerView, view, removedAllObjects, true, value, null, null, true);
+            addElements(context, ownerView, view, removedAllObjects, value, null, null, true);
             processRemovedObjects(context, removedAllObjects);
         } else {
             if (entityAttributeAccessor != null) {
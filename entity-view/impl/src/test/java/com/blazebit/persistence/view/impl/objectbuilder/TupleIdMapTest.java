@@ -0,0 +1,68 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.impl.objectbuilder;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public class TupleIdMapTest {
+
+    @Test
+    public void testGetAndPutWithRehash() {
+        int[] idPositions = { 0, -1, 2 };
+        TupleIdMap<String> map = new TupleIdMap<>(idPositions, 0);
+        for (int i = 0; i < 1000; i++) {
+            Object[] tuple = { (long) i, "ignored", new byte[]{ (byte) i } };
+            Assert.assertNull(map.get(tuple));
+            map.putNew(tuple, "v" + i);
+        }
+        Assert.assertEquals(1000, map.size());
+        for (int i = 0; i < 1000; i++) {
+            // Equal id elements in a different tuple instance must match
+            Object[] tuple = { (long) i, "other", new byte[]{ (byte) i } };
+            Assert.assertEquals("v" + i, map.get(tuple));
+            Assert.assertEquals(new TupleId(idPositions, tuple).hashCode(), TupleId.hashCode(idPositions, tuple));
+        }
+        Assert.assertNull(map.get(new Object[]{ 1000L, null, new byte[]{ 0 } }));
+    }
+
+    @Test
+    public void testEmptyId() {
+        Object[] tuple = { null, "value", null };
+        Assert.assertTrue(TupleId.isEmpty(new int[]{ 0, 2 }, tuple));
+        Assert.assertFalse(TupleId.isEmpty(new int[]{ 0, 1 }, tuple));
+        Assert.assertFalse(TupleId.isEmpty(new int[]{ -1 }, tuple));
+    }
+
+    @Test
+    public void testTupleSet() {
+        TupleSet set = new TupleSet(0);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(set.add(new Object[]{ i, new int[]{ i } }));
+        }
+        for (int i = 0; i < 100; i++) {
+            Assert.assertFalse(set.add(new Object[]{ i, new int[]{ i } }));
+        }
+        Assert.assertTrue(set.add(new Object[]{ 0, null }));
+        Assert.assertEquals(101, set.size());
+    }
+}
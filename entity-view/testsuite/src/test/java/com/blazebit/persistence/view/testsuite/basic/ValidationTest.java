@@ -17,11 +17,14 @@
 package com.blazebit.persistence.view.testsuite.basic;
 
 import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.view.ConfigurationProperties;
 import com.blazebit.persistence.view.EntityView;
 import com.blazebit.persistence.view.Mapping;
 import com.blazebit.persistence.view.testsuite.basic.model.IdHolderView;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import com.blazebit.persistence.view.EntityViews;
 import com.blazebit.persistence.view.spi.EntityViewConfiguration;
@@ -31,6 +34,10 @@ import com.blazebit.persistence.view.testsuite.basic.model.PersonDuplicateCollec
 import com.blazebit.persistence.view.testsuite.basic.model.PersonInvalidMappingValidationView;
 import com.blazebit.persistence.view.testsuite.basic.model.PersonValidationView;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
 /**
  *
  * @author Christian Beikov
@@ -38,6 +45,9 @@ import com.blazebit.persistence.view.testsuite.basic.model.PersonValidationView;
  */
 public class ValidationTest extends AbstractEntityViewTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void testValidation() {
         build(
@@ -82,6 +92,89 @@ public class ValidationTest extends AbstractEntityViewTest {
         }
     }
 
+    @Test
+    public void testMetamodelSnapshot() throws Exception {
+        File snapshot = new File(temporaryFolder.getRoot(), "entity-views.snapshot");
+        createSnapshotEntityViewManager(snapshot, DocumentValidationView.class, PersonValidationView.class);
+        Assert.assertTrue(snapshot.isFile());
+
+        // An up-to-date snapshot is not written again
+        Assert.assertTrue(snapshot.setLastModified(1000L));
+        createSnapshotEntityViewManager(snapshot, DocumentValidationView.class, PersonValidationView.class);
+        Assert.assertEquals(1000L, snapshot.lastModified());
+
+        // A corrupt snapshot is replaced after a full validation
+        Files.write(snapshot.toPath(), "corrupt".getBytes(StandardCharsets.UTF_8));
+        createSnapshotEntityViewManager(snapshot, DocumentValidationView.class, PersonValidationView.class);
+        Assert.assertNotEquals(7L, snapshot.length());
+    }
+
+    @Test
+    public void testMetamodelSnapshotStale() {
+        File snapshot = new File(temporaryFolder.getRoot(), "entity-views.snapshot");
+        createSnapshotEntityViewManager(snapshot, PersonValidationView.class);
+        try {
+            createSnapshotEntityViewManager(snapshot, PersonValidationView.class, PersonInvalidMappingValidationView.class);
+            Assert.fail("Expected validation exception!");
+        } catch (IllegalArgumentException ex) {
+            if (!ex.getMessage().contains(PersonInvalidMappingValidationView.class.getSimpleName() + ".getName")) {
+                throw ex;
+            }
+        }
+    }
+
+    @Test
+    public void testMetamodelSnapshotConfigurationChange() {
+        File snapshot = new File(temporaryFolder.getRoot(), "entity-views.snapshot");
+        createSnapshotEntityViewManager(snapshot, PersonValidationView.class);
+        Assert.assertTrue(snapshot.setLastModified(1000L));
+
+        // A property that influences the metamodel building changes the fingerprint, so the snapshot is written again
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.METAMODEL_SNAPSHOT, snapshot.getAbsolutePath());
+        cfg.setProperty(ConfigurationProperties.UPDATER_ERROR_ON_INVALID_PLURAL_SETTER, "true");
+        cfg.addEntityView(PersonValidationView.class);
+        cfg.createEntityViewManager(cbf);
+        Assert.assertNotEquals(1000L, snapshot.lastModified());
+    }
+
+    @Test
+    public void testParallelBootstrap() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.BOOTSTRAP_THREADS, "4");
+        cfg.setProperty(ConfigurationProperties.TEMPLATE_EAGER_LOADING, "true");
+        cfg.addEntityView(DocumentValidationView.class);
+        cfg.addEntityView(PersonValidationView.class);
+        Assert.assertNotNull(cfg.createEntityViewManager(cbf));
+    }
+
+    @Test
+    public void testParallelValidationInvalidMapping() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.BOOTSTRAP_THREADS, "4");
+        cfg.addEntityView(DocumentValidationView.class);
+        cfg.addEntityView(PersonValidationView.class);
+        cfg.addEntityView(PersonInvalidMappingValidationView.class);
+        cfg.addEntityView(PersonInvalidCaseMappingValidationView.class);
+        try {
+            cfg.createEntityViewManager(cbf);
+            Assert.fail("Expected validation exception!");
+        } catch (IllegalArgumentException ex) {
+            if (!ex.getMessage().contains(PersonInvalidMappingValidationView.class.getSimpleName() + ".getName") || !ex.getMessage().contains(PersonInvalidCaseMappingValidationView.class.getSimpleName() + ".getValid")) {
+                throw ex;
+            }
+        }
+    }
+
+    private void createSnapshotEntityViewManager(File snapshot, Class<?>... entityViewClasses) {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.METAMODEL_SNAPSHOT, snapshot.getAbsolutePath());
+        for (Class<?> entityViewClass : entityViewClasses) {
+            cfg.addEntityView(entityViewClass);
+        }
+        cfg.createEntityViewManager(cbf);
+    }
+
     @EntityView(Person.class)
     public interface PersonInvalidCaseMappingValidationView extends IdHolderView<Long> {
 
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.cache;
+
+import com.blazebit.persistence.CacheStatistics;
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import com.blazebit.persistence.view.testsuite.cache.model.CacheableDocumentView;
+import com.blazebit.persistence.view.testsuite.cache.model.CacheableDocumentWithUpdatableOwnerView;
+import com.blazebit.persistence.view.testsuite.cache.model.CacheablePersonView;
+import com.blazebit.persistence.view.testsuite.cache.model.DocumentWithCacheableOwnerView;
+import com.blazebit.persistence.view.testsuite.cache.model.UpdatablePersonView;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public class CacheableEntityViewTest extends AbstractEntityViewTest {
+
+    private Person p1;
+    private Person p2;
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+
+            @Override
+            public void work(EntityManager em) {
+                Person o1 = new Person("pers1");
+                Person o2 = new Person("pers2");
+                em.persist(o1);
+                em.persist(o2);
+
+                Document doc1 = new Document("doc1", o1);
+                Document doc2 = new Document("doc2", o1);
+                Document doc3 = new Document("doc3", o2);
+                em.persist(doc1);
+                em.persist(doc2);
+                em.persist(doc3);
+            }
+        });
+    }
+
+    @Before
+    public void setUp() {
+        p1 = cbf.create(em, Person.class).where("name").eq("pers1").getSingleResult();
+        p2 = cbf.create(em, Person.class).where("name").eq("pers2").getSingleResult();
+    }
+
+    private EntityViewManager createEntityViewManager() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.addEntityView(CacheablePersonView.class);
+        cfg.addEntityView(DocumentWithCacheableOwnerView.class);
+        cfg.addEntityView(UpdatablePersonView.class);
+        cfg.addEntityView(CacheableDocumentView.class);
+        return cfg.createEntityViewManager(cbf);
+    }
+
+    @Test
+    public void testFindUsesCache() {
+        EntityViewManager evm = createEntityViewManager();
+        CacheablePersonView view = evm.find(em, CacheablePersonView.class, p1.getId());
+        CacheablePersonView cachedView = evm.find(em, CacheablePersonView.class, p1.getId());
+
+        assertSame(view, cachedView);
+        assertEquals("pers1", cachedView.getName());
+        CacheStatistics statistics = evm.getViewCacheStatistics().get(CacheablePersonView.class.getName());
+        assertEquals(1, statistics.getHitCount());
+        assertEquals(1, statistics.getMissCount());
+        assertEquals(1, statistics.getSize());
+
+        evm.evictViewCache(CacheablePersonView.class);
+        assertEquals(0, statistics.getSize());
+    }
+
+    @Test
+    public void testFindAsyncUsesCache() throws Exception {
+        EntityViewManager evm = createEntityViewManager();
+        CacheablePersonView view = evm.findAsync(CacheablePersonView.class, p1.getId()).toCompletableFuture().get(1, TimeUnit.MINUTES);
+        CacheablePersonView cachedView = evm.findAsync(CacheablePersonView.class, p1.getId()).toCompletableFuture().get(1, TimeUnit.MINUTES);
+
+        assertSame(view, cachedView);
+        assertEquals("pers1", view.getName());
+        assertSame(view, evm.find(em, CacheablePersonView.class, p1.getId()));
+        assertNull(evm.findAsync(CacheablePersonView.class, -1L).toCompletableFuture().get(1, TimeUnit.MINUTES));
+    }
+
+    @Test
+    public void testCorrelationUsesCache() {
+        EntityViewManager evm = createEntityViewManager();
+        List<DocumentWithCacheableOwnerView> list = getDocuments(evm);
+        assertEquals("pers1", list.get(0).getOwner().getName());
+        assertEquals("pers2", list.get(2).getOwner().getName());
+
+        List<DocumentWithCacheableOwnerView> cachedList = getDocuments(evm);
+        assertSame(list.get(0).getOwner(), cachedList.get(0).getOwner());
+        assertSame(list.get(2).getOwner(), cachedList.get(2).getOwner());
+        CacheStatistics statistics = evm.getViewCacheStatistics().get(CacheablePersonView.class.getName());
+        assertEquals(2, statistics.getHitCount());
+        assertEquals(2, statistics.getSize());
+    }
+
+    @Test
+    public void testDmlEvictsCache() {
+        final EntityViewManager evm = createEntityViewManager();
+        CacheablePersonView view = evm.find(em, CacheablePersonView.class, p2.getId());
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                cbf.update(em, Person.class)
+                        .set("name", "newPers2")
+                        .where("id").eq(p2.getId())
+                        .executeUpdate();
+            }
+        });
+
+        em.clear();
+        CacheablePersonView newView = evm.find(em, CacheablePersonView.class, p2.getId());
+        assertNotSame(view, newView);
+        assertEquals("newPers2", newView.getName());
+        restoreName(p2.getId(), "pers2");
+    }
+
+    @Test
+    public void testEntityViewFlushEvictsCache() {
+        final EntityViewManager evm = createEntityViewManager();
+        CacheablePersonView view = evm.find(em, CacheablePersonView.class, p2.getId());
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                UpdatablePersonView updatableView = evm.find(em, UpdatablePersonView.class, p2.getId());
+                updatableView.setName("newPers2");
+                evm.save(em, updatableView);
+            }
+        });
+
+        em.clear();
+        CacheablePersonView newView = evm.find(em, CacheablePersonView.class, p2.getId());
+        assertNotSame(view, newView);
+        assertEquals("newPers2", newView.getName());
+        restoreName(p2.getId(), "pers2");
+    }
+
+    @Test
+    public void testDmlOnEntityOfMappingPathEvictsCache() {
+        final EntityViewManager evm = createEntityViewManager();
+        final Long documentId = cbf.create(em, Long.class).from(Document.class, "d").select("d.id").where("d.name").eq("doc3").getSingleResult();
+        CacheableDocumentView view = evm.find(em, CacheableDocumentView.class, documentId);
+        assertEquals("pers2", view.getOwnerName());
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                cbf.update(em, Person.class)
+                        .set("name", "newPers2")
+                        .where("id").eq(p2.getId())
+                        .executeUpdate();
+            }
+        });
+
+        em.clear();
+        CacheableDocumentView newView = evm.find(em, CacheableDocumentView.class, documentId);
+        assertNotSame(view, newView);
+        assertEquals("newPers2", newView.getOwnerName());
+        restoreName(p2.getId(), "pers2");
+    }
+
+    @Test
+    public void testCacheableViewWithUpdatableSubviewFails() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.addEntityView(CacheableDocumentWithUpdatableOwnerView.class);
+        cfg.addEntityView(UpdatablePersonView.class);
+        try {
+            cfg.createEntityViewManager(cbf);
+            fail("Expected building to fail!");
+        } catch (IllegalArgumentException ex) {
+            assertTrue(ex.getMessage().contains(CacheableDocumentWithUpdatableOwnerView.class.getName()));
+            assertTrue(ex.getMessage().contains(UpdatablePersonView.class.getName()));
+        }
+    }
+
+    private List<DocumentWithCacheableOwnerView> getDocuments(EntityViewManager evm) {
+        CriteriaBuilder<Document> cb = cbf.create(em, Document.class).orderByAsc("id");
+        return evm.applySetting(EntityViewSetting.create(DocumentWithCacheableOwnerView.class), cb).getResultList();
+    }
+
+    private void restoreName(final Long id, final String name) {
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                cbf.update(em, Person.class)
+                        .set("name", name)
+                        .where("id").eq(id)
+                        .executeUpdate();
+            }
+        });
+    }
+}
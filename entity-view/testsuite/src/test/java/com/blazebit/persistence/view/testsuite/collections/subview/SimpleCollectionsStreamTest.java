@@ -0,0 +1,169 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.collections.subview;
+
+import static com.blazebit.persistence.view.testsuite.collections.subview.SubviewAssert.assertSubviewEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate42;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate43;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate50;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate51;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoHibernate52;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoOpenJPA;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViewSetting;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import com.blazebit.persistence.view.testsuite.collections.entity.simple.DocumentForCollections;
+import com.blazebit.persistence.view.testsuite.collections.entity.simple.PersonForCollections;
+import com.blazebit.persistence.view.testsuite.collections.subview.model.SubviewDocumentListSetMapView;
+import com.blazebit.persistence.view.testsuite.collections.subview.model.SubviewPersonForCollectionsView;
+
+/**
+ * Streaming requires JPA 2.2 for {@link javax.persistence.TypedQuery#getResultStream()}.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+@Category({ NoHibernate42.class, NoHibernate43.class, NoHibernate50.class, NoHibernate51.class, NoHibernate52.class, NoDatanucleus.class, NoOpenJPA.class })
+public class SimpleCollectionsStreamTest extends AbstractEntityViewTest {
+
+    private DocumentForCollections doc1;
+    private DocumentForCollections doc2;
+
+    @Override
+    protected Class<?>[] getEntityClasses() {
+        return new Class<?>[]{
+            DocumentForCollections.class,
+            PersonForCollections.class
+        };
+    }
+
+    @Override
+    public void setUpOnce() {
+        cleanDatabase();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                doc1 = new DocumentForCollections("doc1");
+                doc2 = new DocumentForCollections("doc2");
+
+                PersonForCollections o1 = new PersonForCollections("pers1");
+                PersonForCollections o2 = new PersonForCollections("pers2");
+                PersonForCollections o3 = new PersonForCollections("pers3");
+                PersonForCollections o4 = new PersonForCollections("pers4");
+                o1.setPartnerDocument(doc1);
+                o2.setPartnerDocument(doc2);
+                o3.setPartnerDocument(doc1);
+                o4.setPartnerDocument(doc2);
+
+                doc1.setOwner(o1);
+                doc2.setOwner(o2);
+
+                doc1.getContacts().put(1, o1);
+                doc2.getContacts().put(1, o2);
+                doc1.getContacts().put(2, o3);
+                doc2.getContacts().put(2, o4);
+
+                em.persist(o1);
+                em.persist(o2);
+                em.persist(o3);
+                em.persist(o4);
+
+                doc1.getPartners().add(o1);
+                doc1.getPartners().add(o3);
+                doc2.getPartners().add(o2);
+                doc2.getPartners().add(o4);
+
+                doc1.getPersonList().add(o1);
+                doc1.getPersonList().add(o2);
+                doc2.getPersonList().add(o3);
+                doc2.getPersonList().add(o4);
+
+                em.persist(doc1);
+                em.persist(doc2);
+            }
+        });
+    }
+
+    @Before
+    public void setUp() {
+        doc1 = cbf.create(em, DocumentForCollections.class).where("name").eq("doc1").getSingleResult();
+        doc2 = cbf.create(em, DocumentForCollections.class).where("name").eq("doc2").getSingleResult();
+    }
+
+    @Test
+    public void testCollectionsStream() {
+        EntityViewManager evm = build(
+                SubviewDocumentListSetMapView.class,
+                SubviewPersonForCollectionsView.class
+        );
+
+        CriteriaBuilder<DocumentForCollections> criteria = cbf.create(em, DocumentForCollections.class, "d")
+            .orderByAsc("id");
+        CriteriaBuilder<SubviewDocumentListSetMapView> cb = evm.applySetting(EntityViewSetting.create(SubviewDocumentListSetMapView.class), criteria);
+        List<SubviewDocumentListSetMapView> results;
+        try (Stream<SubviewDocumentListSetMapView> stream = cb.getResultStream()) {
+            results = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(2, results.size());
+        // Doc1
+        assertEquals(doc1.getName(), results.get(0).getName());
+        assertSubviewEquals(doc1.getContacts(), results.get(0).getContacts());
+        assertSubviewEquals(doc1.getPartners(), results.get(0).getPartners());
+        assertSubviewEquals(doc1.getPersonList(), results.get(0).getPersonList());
+
+        // Doc2
+        assertEquals(doc2.getName(), results.get(1).getName());
+        assertSubviewEquals(doc2.getContacts(), results.get(1).getContacts());
+        assertSubviewEquals(doc2.getPartners(), results.get(1).getPartners());
+        assertSubviewEquals(doc2.getPersonList(), results.get(1).getPersonList());
+    }
+
+    @Test
+    public void testCollectionsStreamFailsWithoutOrderBy() {
+        EntityViewManager evm = build(
+                SubviewDocumentListSetMapView.class,
+                SubviewPersonForCollectionsView.class
+        );
+
+        CriteriaBuilder<DocumentForCollections> criteria = cbf.create(em, DocumentForCollections.class, "d");
+        CriteriaBuilder<SubviewDocumentListSetMapView> cb = evm.applySetting(EntityViewSetting.create(SubviewDocumentListSetMapView.class), criteria);
+        try {
+            cb.getResultStream();
+            fail("Expected streaming to fail for a query that is not ordered by the view id");
+        } catch (IllegalStateException ex) {
+            assertTrue(ex.getMessage().contains("ordered by the id"));
+        }
+    }
+}
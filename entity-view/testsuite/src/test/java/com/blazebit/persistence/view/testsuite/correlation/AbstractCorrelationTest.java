@@ -17,10 +17,16 @@
 package com.blazebit.persistence.view.testsuite.correlation;
 
 import com.blazebit.persistence.CriteriaBuilder;
+import com.blazebit.persistence.PagedList;
+import com.blazebit.persistence.PaginatedQueryTemplate;
+import com.blazebit.persistence.QueryTemplate;
 import com.blazebit.persistence.testsuite.tx.TxVoidWork;
 import com.blazebit.persistence.view.EntityViewManager;
 import com.blazebit.persistence.view.EntityViewSetting;
 import com.blazebit.persistence.view.ConfigurationProperties;
+import com.blazebit.persistence.view.CorrelationBatchStatistics;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
 import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
 import com.blazebit.persistence.view.testsuite.correlation.model.DocumentCorrelationView;
 import com.blazebit.persistence.view.testsuite.correlation.model.SimpleDocumentCorrelatedView;
@@ -33,9 +39,16 @@ import org.junit.Before;
 
 import javax.persistence.EntityManager;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  *
@@ -90,6 +103,44 @@ public abstract class AbstractCorrelationTest extends AbstractEntityViewTest {
     }
 
     protected <T extends DocumentCorrelationView> void testCorrelation(Class<T> entityView, Integer batchSize) {
+        testCorrelation(EntityViews.createDefaultConfiguration(), entityView, batchSize, null);
+    }
+
+    protected <T extends DocumentCorrelationView> void testConcurrentCorrelation(Class<T> entityView, int batchSize) {
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        final AtomicInteger executedTasks = new AtomicInteger();
+        try {
+            testCorrelation(EntityViews.createDefaultConfiguration(), entityView, batchSize, new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    executedTasks.incrementAndGet();
+                    executorService.execute(command);
+                }
+            });
+        } finally {
+            executorService.shutdown();
+        }
+        assertTrue(executedTasks.get() > 0);
+    }
+
+    protected <T extends DocumentCorrelationView> void testAdaptiveCorrelation(Class<T> entityView) {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        cfg.setProperty(ConfigurationProperties.ADAPTIVE_BATCHING, "true");
+        // The first execution batches with the tuple count, the second one uses the batch size derived from the statistics
+        testCorrelation(cfg, entityView, null, null);
+        EntityViewManager evm = testCorrelation(cfg, entityView, null, null);
+
+        CorrelationBatchStatistics statistics = evm.getCorrelationBatchStatistics().get(entityView.getName() + "#ownerOnlyRelatedDocumentIds");
+        assertNotNull(statistics);
+        assertTrue(statistics.getExecutionCount() >= 2);
+        assertTrue(statistics.getQueryCount() >= 2);
+        // The 4 documents only have 2 distinct owners
+        assertEquals(2.0, statistics.getAverageCorrelationKeys(), 0.0);
+        assertEquals(2, statistics.getBatchSize());
+        assertEquals("values", statistics.getBatchMode());
+    }
+
+    protected <T extends DocumentCorrelationView> void testQueryTemplateCorrelation(Class<T> entityView) {
         EntityViewManager evm = build(
                 entityView,
                 SimpleDocumentCorrelatedView.class,
@@ -97,11 +148,91 @@ public abstract class AbstractCorrelationTest extends AbstractEntityViewTest {
                 SimpleVersionCorrelatedView.class
         );
 
+        // The template must not depend on the entity manager of the criteria builder, so we close it before using the template
+        QueryTemplate<T> template;
+        EntityManager templateEm = emf.createEntityManager();
+        try {
+            CriteriaBuilder<Document> criteria = cbf.create(templateEm, Document.class, "d").orderByAsc("id");
+            template = evm.applySetting(EntityViewSetting.create(entityView), criteria).createQueryTemplate();
+        } finally {
+            templateEm.close();
+        }
+
+        for (int i = 0; i < 2; i++) {
+            EntityManager otherEm = emf.createEntityManager();
+            try {
+                List<T> results = template.createQuery(otherEm).getResultList();
+
+                assertEquals(4, results.size());
+                assertEquals(doc1.getName(), results.get(0).getName());
+                assertEquals(0, results.get(0).getOwnerRelatedDocumentIds().size());
+                assertEquals(doc2.getName(), results.get(1).getName());
+                assertEquals(2, results.get(1).getOwnerRelatedDocumentIds().size());
+                assertExists(doc3.getId(), results.get(1).getOwnerRelatedDocumentIds());
+                assertExists(doc4.getId(), results.get(1).getOwnerRelatedDocumentIds());
+                assertEquals(3, results.get(3).getOwnerOnlyRelatedDocumentViews().size());
+                assertExistsByName(doc2.getName(), results.get(3).getOwnerOnlyRelatedDocumentViews());
+                assertEquals(doc4.getOwner().getId(), results.get(3).getCorrelatedOwnerId());
+            } finally {
+                otherEm.close();
+            }
+        }
+    }
+
+    protected <T extends DocumentCorrelationView> void testPaginatedQueryTemplateCorrelation(Class<T> entityView) {
+        EntityViewManager evm = build(
+                entityView,
+                SimpleDocumentCorrelatedView.class,
+                SimplePersonCorrelatedSubView.class,
+                SimpleVersionCorrelatedView.class
+        );
+
+        PaginatedQueryTemplate<T> template;
+        EntityManager templateEm = emf.createEntityManager();
+        try {
+            CriteriaBuilder<Document> criteria = cbf.create(templateEm, Document.class, "d").orderByAsc("id");
+            template = evm.applySetting(EntityViewSetting.create(entityView, 0, 2), criteria).createQueryTemplate();
+        } finally {
+            templateEm.close();
+        }
+
+        EntityManager otherEm = emf.createEntityManager();
+        try {
+            PagedList<T> results = template.createQuery(otherEm, Collections.<String, Object>emptyMap(), 2, 2).getResultList();
+
+            assertEquals(4, results.getTotalSize());
+            assertEquals(2, results.size());
+            assertEquals(doc3.getName(), results.get(0).getName());
+            assertEquals(2, results.get(0).getOwnerRelatedDocumentIds().size());
+            assertExists(doc2.getId(), results.get(0).getOwnerRelatedDocumentIds());
+            assertExists(doc4.getId(), results.get(0).getOwnerRelatedDocumentIds());
+            assertEquals(doc4.getName(), results.get(1).getName());
+            assertEquals(3, results.get(1).getOwnerOnlyRelatedDocumentViews().size());
+        } finally {
+            otherEm.close();
+        }
+    }
+
+    private <T extends DocumentCorrelationView> EntityViewManager testCorrelation(EntityViewConfiguration cfg, Class<T> entityView, Integer batchSize, Executor executor) {
+        EntityViewManager evm = build(
+                cfg,
+                entityView,
+                SimpleDocumentCorrelatedView.class,
+                SimplePersonCorrelatedSubView.class,
+                SimpleVersionCorrelatedView.class
+        );
+
         CriteriaBuilder<Document> criteria = cbf.create(em, Document.class, "d").orderByAsc("id");
         EntityViewSetting<T, CriteriaBuilder<T>> setting = EntityViewSetting.create(entityView);
         if (batchSize != null) {
             setting.setProperty(ConfigurationProperties.DEFAULT_BATCH_SIZE + ".ownerRelatedDocumentIds", batchSize);
         }
+        if (executor != null) {
+            // Batch all SELECT fetched correlations so that there are multiple full batches that are executed concurrently
+            setting.setProperty(ConfigurationProperties.DEFAULT_BATCH_SIZE, batchSize);
+            setting.setProperty(ConfigurationProperties.CORRELATION_EXECUTOR, executor);
+            setting.setProperty(ConfigurationProperties.CORRELATION_ENTITY_MANAGER_FACTORY, emf);
+        }
         CriteriaBuilder<T> cb = evm.applySetting(setting, criteria);
         List<T> results = cb.getResultList();
 
@@ -190,6 +321,7 @@ public abstract class AbstractCorrelationTest extends AbstractEntityViewTest {
         assertEquals(0, results.get(3).getThisCorrelatedEmptyIdList().size());
         assertEquals(0, results.get(3).getThisCorrelatedEmptyEntityList().size());
         assertEquals(0, results.get(3).getThisCorrelatedEmptyViewList().size());
+        return evm;
     }
 
     private void assertExistsByName(String expectedName, Collection<SimpleDocumentCorrelatedView> views) {
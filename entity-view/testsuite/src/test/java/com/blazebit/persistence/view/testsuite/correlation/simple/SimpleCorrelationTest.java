@@ -96,6 +96,34 @@ public class SimpleCorrelationTest extends AbstractCorrelationTest {
         testCorrelation(DocumentSimpleCorrelationViewSubqueryId.class, 20);
     }
 
+    @Test
+    // NOTE: Requires values clause which currently is only available for Hibernate
+    @Category({ NoDatanucleus4.class, NoDatanucleus.class, NoOpenJPA.class, NoEclipselink.class})
+    public void testSubqueryBatchedConcurrentCorrelationNormalSize2() {
+        testConcurrentCorrelation(DocumentSimpleCorrelationViewSubqueryNormal.class, 2);
+    }
+
+    @Test
+    // NOTE: Requires values clause which currently is only available for Hibernate
+    @Category({ NoDatanucleus4.class, NoDatanucleus.class, NoOpenJPA.class, NoEclipselink.class})
+    public void testSubqueryBatchedConcurrentCorrelationIdSize2() {
+        testConcurrentCorrelation(DocumentSimpleCorrelationViewSubqueryId.class, 2);
+    }
+
+    @Test
+    // NOTE: Requires values clause which currently is only available for Hibernate
+    @Category({ NoDatanucleus4.class, NoDatanucleus.class, NoOpenJPA.class, NoEclipselink.class})
+    public void testSubqueryAdaptiveBatchedCorrelationNormal() {
+        testAdaptiveCorrelation(DocumentSimpleCorrelationViewSubqueryNormal.class);
+    }
+
+    @Test
+    // NOTE: Requires values clause which currently is only available for Hibernate
+    @Category({ NoDatanucleus4.class, NoDatanucleus.class, NoOpenJPA.class, NoEclipselink.class})
+    public void testSubqueryAdaptiveBatchedCorrelationId() {
+        testAdaptiveCorrelation(DocumentSimpleCorrelationViewSubqueryId.class);
+    }
+
     // TODO: test batch correlation expectation configuration
     // TODO: make explicit test for correlation key batching with view root usage maybe via nested subviews through collections?
 
@@ -109,6 +137,25 @@ public class SimpleCorrelationTest extends AbstractCorrelationTest {
         testCorrelation(DocumentSimpleCorrelationViewSubselectId.class, null);
     }
 
+    @Test
+    // NOTE: Datenucleus issue: https://github.com/datanucleus/datanucleus-api-jpa/issues/77
+    @Category({ NoDatanucleus.class })
+    public void testQueryTemplateSubqueryCorrelationNormal() {
+        testQueryTemplateCorrelation(DocumentSimpleCorrelationViewSubqueryNormal.class);
+    }
+
+    @Test
+    public void testQueryTemplateSubselectCorrelationNormal() {
+        testQueryTemplateCorrelation(DocumentSimpleCorrelationViewSubselectNormal.class);
+    }
+
+    @Test
+    // NOTE: Datenucleus issue: https://github.com/datanucleus/datanucleus-api-jpa/issues/77
+    @Category({ NoDatanucleus.class })
+    public void testPaginatedQueryTemplateSubqueryCorrelationNormal() {
+        testPaginatedQueryTemplateCorrelation(DocumentSimpleCorrelationViewSubqueryNormal.class);
+    }
+
     @Test
     // NOTE: Requires entity joins which are supported since Hibernate 5.1, Datanucleus 5 and latest Eclipselink
     // NOTE: Eclipselink renders a cross join at the wrong position in the SQL
@@ -19,6 +19,7 @@ package com.blazebit.persistence.view.testsuite.pagination;
 import static org.junit.Assert.assertEquals;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.persistence.EntityManager;
 
@@ -85,4 +86,14 @@ public class BasicViewPaginationTest extends AbstractEntityViewTest {
         List<DocumentViewInterface> page = evm.applySetting(settings, cbf.create(em, Document.class).orderByAsc("id")).getResultList();
         assertEquals(1, page.size());
     }
+
+    @Test
+    public void testPagedResultStream() {
+        EntityViewSetting<DocumentViewInterface, PaginatedCriteriaBuilder<DocumentViewInterface>> settings = EntityViewSetting.create(DocumentViewInterface.class, 0, 1);
+        PaginatedCriteriaBuilder<DocumentViewInterface> pcb = evm.applySetting(settings, cbf.create(em, Document.class).orderByAsc("id"));
+        List<DocumentViewInterface> result = pcb.getPagedResultStream().collect(Collectors.<DocumentViewInterface>toList());
+        assertEquals(2, result.size());
+        assertEquals("doc1", result.get(0).getName());
+        assertEquals("doc2", result.get(1).getName());
+    }
 }
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.proxy;
+
+import com.blazebit.persistence.spi.PackageOpener;
+import com.blazebit.persistence.view.ConfigurationProperties;
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.EntityViews;
+import com.blazebit.persistence.view.impl.metamodel.ManagedViewTypeImplementor;
+import com.blazebit.persistence.view.impl.proxy.ProxyFactory;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import com.blazebit.persistence.view.testsuite.AbstractEntityViewTest;
+import com.blazebit.persistence.view.testsuite.proxy.model.StaticImplementationDocumentView;
+import com.blazebit.persistence.view.testsuite.proxy.model.StaticImplementationDocumentViewImpl;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+public class ProxyFactoryStaticImplementationTest extends AbstractEntityViewTest {
+
+    private ManagedViewTypeImplementor<StaticImplementationDocumentView> getViewType() {
+        EntityViewConfiguration cfg = EntityViews.createDefaultConfiguration();
+        // The static implementation is loaded into the proxy factories of the tests instead
+        cfg.setProperty(ConfigurationProperties.STATIC_IMPLEMENTATION_SCANNING_DISABLED, "true");
+        EntityViewManager evm = build(cfg, StaticImplementationDocumentView.class);
+        return (ManagedViewTypeImplementor<StaticImplementationDocumentView>) evm.getMetamodel().managedView(StaticImplementationDocumentView.class);
+    }
+
+    private Class<? extends StaticImplementationDocumentView> getProxy(boolean unsafeDisabled, boolean staticImplementationPreferred) {
+        ManagedViewTypeImplementor<StaticImplementationDocumentView> viewType = getViewType();
+        ProxyFactory proxyFactory = new ProxyFactory(unsafeDisabled, staticImplementationPreferred, false, PackageOpener.NOOP);
+        Set<String> errors = new HashSet<>();
+        proxyFactory.loadImplementation(errors, viewType, evm);
+        assertTrue(errors.toString(), errors.isEmpty());
+        return proxyFactory.getProxy(evm, viewType);
+    }
+
+    @Test
+    public void testUnsafeProxyPreferredByDefault() {
+        Class<? extends StaticImplementationDocumentView> proxyClass = getProxy(false, false);
+
+        assertNotSame(StaticImplementationDocumentViewImpl.class, proxyClass);
+        assertTrue(proxyClass.getName().endsWith("_$$_javassist_entityview_unsafe_"));
+    }
+
+    @Test
+    public void testStaticImplementationPreferred() {
+        Class<? extends StaticImplementationDocumentView> proxyClass = getProxy(false, true);
+
+        assertSame(StaticImplementationDocumentViewImpl.class, proxyClass);
+    }
+
+    @Test
+    public void testStaticImplementationUsedWhenUnsafeDisabled() {
+        Class<? extends StaticImplementationDocumentView> proxyClass = getProxy(true, false);
+
+        assertSame(StaticImplementationDocumentViewImpl.class, proxyClass);
+    }
+}
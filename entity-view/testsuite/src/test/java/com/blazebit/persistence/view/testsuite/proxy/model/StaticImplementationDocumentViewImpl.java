@@ -0,0 +1,51 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.proxy.model;
+
+import com.blazebit.persistence.view.EntityViewManager;
+import com.blazebit.persistence.view.StaticImplementation;
+
+/**
+ * A hand written stand-in for the implementation the annotation processor would generate.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+@StaticImplementation(StaticImplementationDocumentView.class)
+public class StaticImplementationDocumentViewImpl extends StaticImplementationDocumentView {
+
+    public static volatile EntityViewManager ENTITY_VIEW_MANAGER;
+
+    private final Long id;
+    private final String name;
+
+    public StaticImplementationDocumentViewImpl(Long id, String name, Long age) {
+        super(age);
+        this.id = id;
+        this.name = name;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+}
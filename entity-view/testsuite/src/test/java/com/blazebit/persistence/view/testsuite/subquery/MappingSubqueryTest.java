@@ -183,7 +183,7 @@ public class MappingSubqueryTest extends AbstractEntityViewTest {
         List<DocumentWithSubqueryViewRoot> list = evm.applySetting(setting, cb, "partnerDocument").getResultList();
 
         assertEquals("SELECT " +
-                singleValuedAssociationIdPath("partnerDocument_1.id", "partnerDocument_1") + " AS DocumentWithSubqueryViewRoot_id, " +
+                singleValuedAssociationIdPath("person.partnerDocument.id", "partnerDocument_1") + " AS DocumentWithSubqueryViewRoot_id, " +
                 "(SELECT COUNT(person_1.id) " +
                 "FROM Person person_1" +
                 singleValuedAssociationIdJoin("person_1.partnerDocument", "partnerDocument_2", true) +
@@ -112,9 +112,12 @@ public class EntityViewUpdateMutableBasicCollectionsTest extends AbstractEntityV
             assertReplaceAnd(builder);
         }
 
-        builder.assertInsert()
-                .forRelation(Document.class, "strings")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
+                    .forRelation(Document.class, "strings")
+                .and();
+        }
+        builder.validate();
 
         assertVersionDiff(oldVersion, docView.getVersion(), 1, 1);
         assertNoUpdateAndReload(docView);
@@ -154,9 +157,12 @@ public class EntityViewUpdateMutableBasicCollectionsTest extends AbstractEntityV
             assertReplaceAnd(builder);
         }
 
-        builder.assertInsert()
-                .forRelation(Document.class, "strings")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
+                    .forRelation(Document.class, "strings")
+                .and();
+        }
+        builder.validate();
 
         assertVersionDiff(oldVersion, docView.getVersion(), 1, 1);
         assertNoUpdateAndReload(docView);
@@ -251,11 +257,6 @@ public class EntityViewUpdateMutableBasicCollectionsTest extends AbstractEntityV
     @Override
     protected AssertStatementBuilder fullUpdate(AssertStatementBuilder builder) {
         assertReplaceAnd(builder);
-        if (doc1.getStrings().size() > 1) {
-            builder.assertInsert()
-                .forRelation(Document.class, "strings")
-                .and();
-        }
         return builder.assertUpdate()
                 .forEntity(Document.class)
                 .and();
@@ -116,9 +116,12 @@ public class EntityViewUpdateMutableBasicMapsTest extends AbstractEntityViewUpda
             builder.update(Document.class);
         }
 
-        builder.assertInsert()
-                .forRelation(Document.class, "stringMap")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
+                    .forRelation(Document.class, "stringMap")
+                .and();
+        }
+        builder.validate();
 
         assertVersionDiff(oldVersion, docView.getVersion(), 1, 1);
         assertNoUpdateAndReload(docView);
@@ -159,9 +162,12 @@ public class EntityViewUpdateMutableBasicMapsTest extends AbstractEntityViewUpda
             builder.update(Document.class);
         }
 
-        builder.assertInsert()
-                .forRelation(Document.class, "stringMap")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
+                    .forRelation(Document.class, "stringMap")
+                .and();
+        }
+        builder.validate();
 
         assertVersionDiff(oldVersion, docView.getVersion(), 1, 1);
         assertNoUpdateAndReload(docView);
@@ -260,9 +266,6 @@ public class EntityViewUpdateMutableBasicMapsTest extends AbstractEntityViewUpda
     @Override
     protected AssertStatementBuilder fullUpdate(AssertStatementBuilder builder) {
         assertReplaceAnd(builder);
-        if (doc1.getStringMap().size() > 1) {
-            builder.insert(Document.class, "stringMap");
-        }
         return builder.assertUpdate()
                 .forEntity(Document.class)
                 .and();
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.update.bulk;
+
+import com.blazebit.persistence.testsuite.base.jpa.assertion.AssertStatementBuilder;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.entity.Person;
+import com.blazebit.persistence.view.FlushMode;
+import com.blazebit.persistence.view.FlushStrategy;
+import com.blazebit.persistence.view.spi.type.MutableStateTrackable;
+import com.blazebit.persistence.view.testsuite.update.AbstractEntityViewUpdateDocumentTest;
+import com.blazebit.persistence.view.testsuite.update.basic.mutable.model.UpdatableDocumentBasicWithCollectionsView;
+import com.blazebit.persistence.view.testsuite.update.basic.mutable.model.UpdatableDocumentBasicWithMapsView;
+import com.blazebit.persistence.view.testsuite.update.entity.mutable.model.UpdatableDocumentEntityWithCollectionsView;
+import com.blazebit.persistence.view.testsuite.update.entity.mutable.model.UpdatableDocumentEntityWithMapsView;
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests that the elements added to lists and maps are inserted in chunks along with their index or key.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+@RunWith(Parameterized.class)
+// NOTE: No Datanucleus support yet
+@Category({ NoDatanucleus.class, NoEclipselink.class})
+public class EntityViewUpdateBulkInsertIndexedCollectionsTest extends AbstractEntityViewUpdateDocumentTest<UpdatableDocumentBasicWithCollectionsView> {
+
+    // One more than the chunk size so that the last chunk has a different size
+    private static final int ADDED_ELEMENTS = 51;
+
+    public EntityViewUpdateBulkInsertIndexedCollectionsTest(FlushMode mode, FlushStrategy strategy, boolean version) {
+        super(mode, strategy, version, UpdatableDocumentBasicWithCollectionsView.class, UpdatableDocumentBasicWithMapsView.class, UpdatableDocumentEntityWithCollectionsView.class, UpdatableDocumentEntityWithMapsView.class);
+    }
+
+    @Parameterized.Parameters(name = "{0} - {1} - VERSIONED={2}")
+    public static Object[][] combinations() {
+        return MODE_STRATEGY_VERSION_COMBINATIONS;
+    }
+
+    @Test
+    public void testAddManyToList() {
+        // Given
+        UpdatableDocumentBasicWithCollectionsView docView = getDoc1View();
+        List<String> expected = new ArrayList<>(doc1.getStrings());
+        for (int i = 0; i < ADDED_ELEMENTS; i++) {
+            // Every element occurs multiple times
+            docView.getStrings().add("s" + (i % 10));
+            expected.add("s" + (i % 10));
+        }
+        clearQueries();
+
+        // When
+        update(docView);
+
+        // Then
+        if (isQueryStrategy() && !isFullMode()) {
+            AssertStatementBuilder builder = assertUnorderedQuerySequence();
+            if (version) {
+                builder.update(Document.class);
+            }
+            builder.assertInsert()
+                    .forRelation(Document.class, "strings")
+                .and()
+                .assertInsert()
+                    .forRelation(Document.class, "strings")
+                .validate();
+        }
+        clearPersistenceContextAndReload();
+        assertEquals(expected, doc1.getStrings());
+    }
+
+    @Test
+    public void testAddToReferenceList() {
+        Assume.assumeFalse("Partial reference updates don't work in full mode", isFullMode());
+
+        // Given
+        UpdatableDocumentBasicWithCollectionsView docView = evm.getReference(UpdatableDocumentBasicWithCollectionsView.class, doc1.getId());
+        ((MutableStateTrackable) docView).$$_setVersion(doc1.getVersion());
+
+        // When
+        // The index of the elements is unknown, so it is determined from the maximum index of the collection
+        docView.getStrings().addAll(Arrays.asList("a", "b", "a"));
+        update(docView);
+
+        // Then
+        clearPersistenceContextAndReload();
+        assertEquals(Arrays.asList("a", "b", "a"), doc1.getStrings());
+    }
+
+    @Test
+    public void testAddManyToMap() {
+        // Given
+        UpdatableDocumentBasicWithMapsView docView = getDocumentView(doc1.getId(), UpdatableDocumentBasicWithMapsView.class);
+        Map<String, String> expected = new HashMap<>(doc1.getStringMap());
+        for (int i = 0; i < ADDED_ELEMENTS; i++) {
+            // Every value occurs for multiple keys
+            docView.getStringMap().put("k" + i, "v" + (i % 10));
+            expected.put("k" + i, "v" + (i % 10));
+        }
+        clearQueries();
+
+        // When
+        update(docView);
+
+        // Then
+        if (isQueryStrategy() && !isFullMode()) {
+            AssertStatementBuilder builder = assertUnorderedQuerySequence();
+            if (version) {
+                builder.update(Document.class);
+            }
+            builder.assertInsert()
+                    .forRelation(Document.class, "stringMap")
+                .and()
+                .assertInsert()
+                    .forRelation(Document.class, "stringMap")
+                .validate();
+        }
+        clearPersistenceContextAndReload();
+        assertEquals(expected, doc1.getStringMap());
+    }
+
+    @Test
+    public void testAddEntitiesToList() {
+        // Given
+        UpdatableDocumentEntityWithCollectionsView docView = getDocumentView(doc1.getId(), UpdatableDocumentEntityWithCollectionsView.class);
+        docView.getPeople().addAll(Arrays.asList(p2, p3, p4));
+
+        // When
+        update(docView);
+
+        // Then
+        clearPersistenceContextAndReload();
+        assertEquals(Arrays.asList(p1.getId(), p2.getId(), p3.getId(), p4.getId()), getIds(doc1.getPeople()));
+    }
+
+    @Test
+    public void testAddEntitiesToMap() {
+        // Given
+        UpdatableDocumentEntityWithMapsView docView = getDocumentView(doc1.getId(), UpdatableDocumentEntityWithMapsView.class);
+        docView.getContacts().put(2, p2);
+        docView.getContacts().put(3, p3);
+        docView.getContacts().put(4, p4);
+
+        // When
+        update(docView);
+
+        // Then
+        clearPersistenceContextAndReload();
+        assertEquals(4, doc1.getContacts().size());
+        assertEquals(p1.getId(), doc1.getContacts().get(1).getId());
+        assertEquals(p2.getId(), doc1.getContacts().get(2).getId());
+        assertEquals(p3.getId(), doc1.getContacts().get(3).getId());
+        assertEquals(p4.getId(), doc1.getContacts().get(4).getId());
+    }
+
+    private static List<Long> getIds(List<Person> people) {
+        List<Long> ids = new ArrayList<>(people.size());
+        for (Person person : people) {
+            ids.add(person.getId());
+        }
+        return ids;
+    }
+
+    @Override
+    protected String[] getFetchedCollections() {
+        return new String[] { "strings", "stringMap", "people", "contacts" };
+    }
+
+    @Override
+    protected AssertStatementBuilder fullFetch(AssertStatementBuilder builder) {
+        return builder.assertSelect()
+                .fetching(Document.class)
+                .fetching(Document.class, "strings")
+                .and();
+    }
+
+    @Override
+    protected AssertStatementBuilder versionUpdate(AssertStatementBuilder builder) {
+        return builder.update(Document.class);
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.update.bulk;
+
+import com.blazebit.persistence.testsuite.base.jpa.assertion.AssertStatementBuilder;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.testsuite.tx.TxVoidWork;
+import com.blazebit.persistence.view.BulkOptimisticLockException;
+import com.blazebit.persistence.view.FlushMode;
+import com.blazebit.persistence.view.FlushStrategy;
+import com.blazebit.persistence.view.testsuite.update.AbstractEntityViewUpdateDocumentTest;
+import com.blazebit.persistence.view.testsuite.update.bulk.model.UpdatableDocumentBulkView;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+@RunWith(Parameterized.class)
+// NOTE: No Datanucleus support yet
+@Category({ NoDatanucleus.class, NoEclipselink.class})
+public class EntityViewUpdateBulkTest extends AbstractEntityViewUpdateDocumentTest<UpdatableDocumentBulkView> {
+
+    public EntityViewUpdateBulkTest(FlushMode mode, FlushStrategy strategy, boolean version) {
+        super(mode, strategy, version, UpdatableDocumentBulkView.class);
+    }
+
+    @Parameterized.Parameters(name = "{0} - {1} - VERSIONED={2}")
+    public static Object[][] combinations() {
+        return MODE_STRATEGY_VERSION_COMBINATIONS;
+    }
+
+    @Test
+    public void testSaveAll() {
+        // Given
+        final UpdatableDocumentBulkView docView1 = getDoc1View();
+        final UpdatableDocumentBulkView docView2 = getDoc2View();
+        clearQueries();
+
+        // When
+        docView1.setName("newDoc1");
+        docView2.setName("newDoc2");
+        saveAll(Arrays.asList(docView1, docView2));
+
+        // Then
+        // With the query strategy, both documents are updated through a single statement after checking the versions
+        AssertStatementBuilder builder = assertUnorderedQuerySequence();
+        if (isQueryStrategy()) {
+            if (version) {
+                builder.select(Document.class);
+            }
+            builder.update(Document.class);
+        } else {
+            fullFetch(builder);
+            fullFetch(builder);
+            builder.update(Document.class);
+            builder.update(Document.class);
+        }
+        builder.validate();
+
+        clearPersistenceContextAndReload();
+        assertEquals("newDoc1", doc1.getName());
+        assertEquals("newDoc2", doc2.getName());
+        assertEquals(doc1.getVersion(), docView1.getVersion());
+        assertEquals(doc2.getVersion(), docView2.getVersion());
+    }
+
+    @Test
+    public void testSaveAllDifferentDirtyAttributes() {
+        // Given
+        final UpdatableDocumentBulkView docView1 = getDoc1View();
+        final UpdatableDocumentBulkView docView2 = getDoc2View();
+
+        // When
+        docView1.setName("newDoc1");
+        docView2.setLastModified(new Date(0));
+        saveAll(Arrays.asList(docView1, docView2));
+
+        // Then
+        clearPersistenceContextAndReload();
+        assertEquals("newDoc1", doc1.getName());
+        assertEquals(EPOCH_2K, doc1.getLastModified().getTime());
+        assertEquals("doc2", doc2.getName());
+        assertEquals(0, doc2.getLastModified().getTime());
+        assertEquals(doc1.getVersion(), docView1.getVersion());
+        assertEquals(doc2.getVersion(), docView2.getVersion());
+    }
+
+    @Test
+    public void testSaveAllOptimisticLockConflict() {
+        // Given
+        final UpdatableDocumentBulkView docView1 = getDoc1View();
+        final UpdatableDocumentBulkView docView2 = getDoc2View();
+        transactional(new TxVoidWork() {
+            @Override
+            public void work(EntityManager em) {
+                em.createQuery("UPDATE Document d SET d.version = d.version + 1 WHERE d.id = :id")
+                        .setParameter("id", doc2.getId())
+                        .executeUpdate();
+            }
+        });
+
+        // When
+        docView1.setName("newDoc1");
+        docView2.setName("newDoc2");
+        try {
+            saveAll(Arrays.asList(docView1, docView2));
+            if (version) {
+                fail("Expected optimistic lock exception");
+            }
+        } catch (BulkOptimisticLockException ex) {
+            if (!version) {
+                throw ex;
+            }
+            // Then
+            assertEquals(Collections.singletonList(doc2.getId()), ex.getEntityViewIds());
+            assertEquals(Collections.singletonList(docView2), ex.getEntityViews());
+        }
+
+        // Then
+        clearPersistenceContextAndReload();
+        if (version) {
+            // The transaction is rolled back
+            assertEquals("doc1", doc1.getName());
+            assertEquals("doc2", doc2.getName());
+        } else {
+            assertEquals("newDoc1", doc1.getName());
+            assertEquals("newDoc2", doc2.getName());
+        }
+    }
+
+    private void saveAll(final Collection<?> views) {
+        transactional(new TxVoidWork() {
+
+            @Override
+            public void work(EntityManager em) {
+                evm.saveAll(em, views);
+                em.flush();
+            }
+        });
+    }
+
+    @Override
+    protected AssertStatementBuilder fullFetch(AssertStatementBuilder builder) {
+        return builder.assertSelect()
+                .fetching(Document.class)
+                .and();
+    }
+
+    @Override
+    protected AssertStatementBuilder versionUpdate(AssertStatementBuilder builder) {
+        return builder.update(Document.class);
+    }
+}
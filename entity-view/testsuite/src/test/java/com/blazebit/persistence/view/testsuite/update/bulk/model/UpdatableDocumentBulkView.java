@@ -0,0 +1,48 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.update.bulk.model;
+
+import com.blazebit.persistence.testsuite.entity.Document;
+import com.blazebit.persistence.view.EntityView;
+import com.blazebit.persistence.view.IdMapping;
+import com.blazebit.persistence.view.UpdatableEntityView;
+
+import java.util.Date;
+
+/**
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+@UpdatableEntityView
+@EntityView(Document.class)
+public interface UpdatableDocumentBulkView {
+
+    @IdMapping
+    public Long getId();
+
+    public Long getVersion();
+
+    public String getName();
+
+    public void setName(String name);
+
+    public Date getLastModified();
+
+    public void setLastModified(Date date);
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2014 - 2022 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.persistence.view.testsuite.update.elementcollection;
+
+import com.blazebit.persistence.ConfigurationProperties;
+import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
+import com.blazebit.persistence.testsuite.base.jpa.assertion.AssertStatementBuilder;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
+import com.blazebit.persistence.testsuite.base.jpa.category.NoEclipselink;
+import com.blazebit.persistence.view.FlushMode;
+import com.blazebit.persistence.view.FlushStrategy;
+import com.blazebit.persistence.view.spi.EntityViewConfiguration;
+import com.blazebit.persistence.view.testsuite.collections.entity.simple.DocumentForElementCollections;
+import com.blazebit.persistence.view.testsuite.collections.entity.simple.PersonForElementCollections;
+import com.blazebit.persistence.view.testsuite.update.AbstractEntityViewUpdateTest;
+import com.blazebit.persistence.view.testsuite.update.elementcollection.model.DocumentForElementCollectionsEmbeddableElementsView;
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import javax.persistence.EntityManager;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests that the elements added to a non-indexed collection are inserted in chunks rather than one statement per element.
+ *
+ * @author Christian Beikov
+ * @since 1.6.7
+ */
+@RunWith(Parameterized.class)
+// NOTE: No EclipseLink and Datanucleus support yet
+@Category({ NoDatanucleus.class, NoEclipselink.class})
+public class ElementCollectionBatchInsertTest extends AbstractEntityViewUpdateTest<DocumentForElementCollectionsEmbeddableElementsView> {
+
+    // One more than the chunk size so that the last chunk has a different size
+    private static final int ADDED_ELEMENTS = 51;
+
+    private DocumentForElementCollections doc1;
+
+    public ElementCollectionBatchInsertTest(FlushMode mode, FlushStrategy strategy, boolean version) {
+        super(mode, strategy, version, DocumentForElementCollectionsEmbeddableElementsView.class);
+    }
+
+    @Parameterized.Parameters(name = "{0} - {1} - VERSIONED={2}")
+    public static Object[][] combinations() {
+        return MODE_STRATEGY_VERSION_COMBINATIONS;
+    }
+
+    @Override
+    protected Class<?>[] getEntityClasses() {
+        return new Class<?>[] {
+            DocumentForElementCollections.class,
+            PersonForElementCollections.class
+        };
+    }
+
+    @Override
+    protected void configure(CriteriaBuilderConfiguration config) {
+        super.configure(config);
+        // Padding the last chunk with null rows would insert null elements without the filter
+        config.setProperty(ConfigurationProperties.VALUES_CLAUSE_FILTER_NULLS, "false");
+    }
+
+    @Override
+    protected void registerViewTypes(EntityViewConfiguration cfg) {
+        cfg.addEntityView(DocumentForElementCollectionsEmbeddableElementsView.class);
+    }
+
+    @Override
+    protected void prepareData(EntityManager em) {
+        doc1 = new DocumentForElementCollections("doc1");
+        doc1.getPartners().add(new PersonForElementCollections("pers1"));
+        em.persist(doc1);
+    }
+
+    @Test
+    public void testAddManyElements() {
+        Assume.assumeTrue(isQueryStrategy() && !isFullMode());
+        DocumentForElementCollectionsEmbeddableElementsView docView = evm.find(em, DocumentForElementCollectionsEmbeddableElementsView.class, doc1.getId());
+        for (int i = 0; i < ADDED_ELEMENTS; i++) {
+            docView.getPartners().add(new PersonForElementCollections("added" + i));
+        }
+
+        clearQueries();
+        update(docView);
+
+        // Since more elements are added than the collection contains, the collection is recreated and all elements are inserted in chunks
+        assertUnorderedQuerySequence()
+                .assertDelete()
+                    .forRelation(DocumentForElementCollections.class, "partners")
+                .and()
+                .assertInsert()
+                    .forRelation(DocumentForElementCollections.class, "partners")
+                .and()
+                .assertInsert()
+                    .forRelation(DocumentForElementCollections.class, "partners")
+                .validate();
+
+        em.clear();
+        DocumentForElementCollections entity = em.find(DocumentForElementCollections.class, doc1.getId());
+        Set<String> names = new HashSet<>();
+        for (PersonForElementCollections partner : entity.getPartners()) {
+            names.add(partner.getFullname());
+        }
+        assertEquals(ADDED_ELEMENTS + 1, entity.getPartners().size());
+        assertEquals(ADDED_ELEMENTS + 1, names.size());
+    }
+
+    @Override
+    protected void reload() {
+    }
+
+    @Override
+    protected AssertStatementBuilder fullFetch(AssertStatementBuilder builder) {
+        return builder;
+    }
+
+    @Override
+    protected AssertStatementBuilder versionUpdate(AssertStatementBuilder builder) {
+        return builder;
+    }
+}
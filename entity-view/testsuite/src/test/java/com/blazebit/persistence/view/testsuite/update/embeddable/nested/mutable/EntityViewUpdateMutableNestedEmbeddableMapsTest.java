@@ -153,8 +153,10 @@ public class EntityViewUpdateMutableNestedEmbeddableMapsTest extends AbstractEnt
             }
         }
 
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(EmbeddableTestEntity.class, "embeddable.manyToMany");
+        }
         builder.insert(EmbeddableTestEntity.class, "embeddable.elementCollection")
-                .insert(EmbeddableTestEntity.class, "embeddable.manyToMany")
                 .validate();
 
         assertVersionDiff(oldVersion, docView.getVersion(), 1, 1);
@@ -164,8 +166,7 @@ public class EntityViewUpdateMutableNestedEmbeddableMapsTest extends AbstractEnt
         if (isFullMode()) {
             if (isQueryStrategy()) {
                 assertReplaceAnd(afterBuilder);
-                afterBuilder.insert(EmbeddableTestEntity.class, "embeddable.elementCollection")
-                        .insert(EmbeddableTestEntity.class, "embeddable.manyToMany");
+                afterBuilder.insert(EmbeddableTestEntity.class, "embeddable.elementCollection");
                 if (version) {
                     afterBuilder.update(EmbeddableTestEntity.class);
                 }
@@ -217,8 +218,10 @@ public class EntityViewUpdateMutableNestedEmbeddableMapsTest extends AbstractEnt
             }
         }
 
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(EmbeddableTestEntity.class, "embeddable.manyToMany");
+        }
         builder.insert(EmbeddableTestEntity.class, "embeddable.elementCollection")
-                .insert(EmbeddableTestEntity.class, "embeddable.manyToMany")
                 .validate();
 
         assertVersionDiff(oldVersion, docView.getVersion(), 1, 1);
@@ -228,8 +231,7 @@ public class EntityViewUpdateMutableNestedEmbeddableMapsTest extends AbstractEnt
         if (isFullMode()) {
             if (isQueryStrategy()) {
                 assertReplaceAnd(afterBuilder);
-                afterBuilder.insert(EmbeddableTestEntity.class, "embeddable.elementCollection")
-                        .insert(EmbeddableTestEntity.class, "embeddable.manyToMany");
+                afterBuilder.insert(EmbeddableTestEntity.class, "embeddable.elementCollection");
 
                 if (version) {
                     afterBuilder.update(EmbeddableTestEntity.class);
@@ -100,9 +100,12 @@ public class EntityViewUpdateCreatableEntityCollectionsTest extends AbstractEnti
         if (version || isQueryStrategy() && isFullMode()) {
             builder.update(Document.class);
         }
-        builder.assertInsert()
-                .forRelation(Document.class, "people")
-            .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
+                    .forRelation(Document.class, "people")
+                .and();
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertEquals(doc1.getPeople(), docView.getPeople());
@@ -131,9 +134,12 @@ public class EntityViewUpdateCreatableEntityCollectionsTest extends AbstractEnti
             builder.update(Document.class);
         }
 
-        builder.assertInsert()
-                .forRelation(Document.class, "people")
-            .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
+                    .forRelation(Document.class, "people")
+                .and();
+        }
+        builder.validate();
 
         // No need for an update since it isn't dirty
         assertNoUpdateAndReload(docView, true);
@@ -163,9 +169,12 @@ public class EntityViewUpdateCreatableEntityCollectionsTest extends AbstractEnti
             builder.update(Document.class);
         }
 
-        builder.assertInsert()
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
                     .forRelation(Document.class, "people")
-                .validate();
+                .and();
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertEquals(doc1.getPeople(), docView.getPeople());
@@ -195,9 +204,12 @@ public class EntityViewUpdateCreatableEntityCollectionsTest extends AbstractEnti
             builder.update(Document.class);
         }
 
-        builder.assertInsert()
-                .forRelation(Document.class, "people")
-            .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
+                    .forRelation(Document.class, "people")
+                .and();
+        }
+        builder.validate();
 
         // No need for an update since it isn't dirty
         assertNoUpdateAndReload(docView, true);
@@ -312,9 +324,12 @@ public class EntityViewUpdateCreatableEntityCollectionsTest extends AbstractEnti
         }
 
         builder.insert(Person.class);
-        builder.assertInsert()
-                .forRelation(Document.class, "people")
-            .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
+                    .forRelation(Document.class, "people")
+                .and();
+        }
+        builder.validate();
 
         // Since we don't need to merge elements, no need reload the collection
         assertNoUpdateAndReload(docView, true);
@@ -351,9 +366,6 @@ public class EntityViewUpdateCreatableEntityCollectionsTest extends AbstractEnti
                 builder.delete(Document.class, "people");
                 if (doc1.getPeople().size() > 0) {
                     builder.insert(Document.class, "people");
-                    if (doc1.getPeople().size() > 1) {
-                        builder.insert(Document.class, "people");
-                    }
                 }
             } else {
                 fullFetch(builder);
@@ -95,8 +95,10 @@ public class EntityViewUpdateCreatableEntityMapsTest extends AbstractEntityViewU
         if (version || isQueryStrategy() && isFullMode()) {
             versionUpdate(builder);
         }
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertEquals(doc1.getContacts(), docView.getContacts());
@@ -122,8 +124,10 @@ public class EntityViewUpdateCreatableEntityMapsTest extends AbstractEntityViewU
         if (version || isQueryStrategy() && isFullMode()) {
             versionUpdate(builder);
         }
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         // No need for an update since it isn't dirty
         assertNoUpdateAndReload(docView, true);
@@ -150,8 +154,10 @@ public class EntityViewUpdateCreatableEntityMapsTest extends AbstractEntityViewU
         if (version || isQueryStrategy() && isFullMode()) {
             versionUpdate(builder);
         }
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertEquals(doc1.getContacts(), docView.getContacts());
@@ -178,8 +184,10 @@ public class EntityViewUpdateCreatableEntityMapsTest extends AbstractEntityViewU
         if (version || isQueryStrategy() && isFullMode()) {
             versionUpdate(builder);
         }
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         // No need for an update since it isn't dirty
         assertNoUpdateAndReload(docView, true);
@@ -288,8 +296,10 @@ public class EntityViewUpdateCreatableEntityMapsTest extends AbstractEntityViewU
         if (version || isQueryStrategy() && isFullMode()) {
             versionUpdate(builder);
         }
-        builder.insert(Document.class, "contacts")
-                .insert(Person.class)
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.insert(Person.class)
                 .validate();
 
         // Since we don't need to merge elements, no need reload the collection
@@ -301,9 +311,6 @@ public class EntityViewUpdateCreatableEntityMapsTest extends AbstractEntityViewU
         builder.delete(Document.class, "contacts");
         if (doc1.getContacts().size() > 0) {
             builder.insert(Document.class, "contacts");
-            if (doc1.getContacts().size() > 1) {
-                builder.insert(Document.class, "contacts");
-            }
         }
         return builder;
     }
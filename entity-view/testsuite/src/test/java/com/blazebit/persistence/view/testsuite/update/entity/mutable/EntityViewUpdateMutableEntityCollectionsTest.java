@@ -116,8 +116,10 @@ public class EntityViewUpdateMutableEntityCollectionsTest extends AbstractEntity
         if (version || isQueryStrategy() && isFullMode()) {
             builder.update(Document.class);
         }
-        builder.insert(Document.class, "people")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "people");
+        }
+        builder.validate();
 
         // Unfortunately, even after an update, we have to reload the entity to merge again
         AssertStatementBuilder afterBuilder = assertQueriesAfterUpdate(docView);
@@ -126,7 +128,6 @@ public class EntityViewUpdateMutableEntityCollectionsTest extends AbstractEntity
             afterBuilder.select(Person.class);
             if (isFullMode()) {
                 afterBuilder.delete(Document.class, "people")
-                        .insert(Document.class, "people")
                         .insert(Document.class, "people");
             }
         } else {
@@ -163,8 +164,10 @@ public class EntityViewUpdateMutableEntityCollectionsTest extends AbstractEntity
         if (version || isQueryStrategy() && isFullMode()) {
             builder.update(Document.class);
         }
-        builder.insert(Document.class, "people")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "people");
+        }
+        builder.validate();
 
         // Unfortunately, even after an update, we have to reload the entity to merge again
         AssertStatementBuilder afterBuilder = assertQueriesAfterUpdate(docView);
@@ -173,7 +176,6 @@ public class EntityViewUpdateMutableEntityCollectionsTest extends AbstractEntity
             afterBuilder.select(Person.class);
             if (isFullMode()) {
                 afterBuilder.delete(Document.class, "people")
-                        .insert(Document.class, "people")
                         .insert(Document.class, "people");
             }
         } else {
@@ -211,8 +213,10 @@ public class EntityViewUpdateMutableEntityCollectionsTest extends AbstractEntity
         if (version || isQueryStrategy() && isFullMode()) {
             builder.update(Document.class);
         }
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "people");
+        }
         builder.update(Person.class)
-                .insert(Document.class, "people")
                 .validate();
 
         // Unfortunately, even after an update, we have to reload the entity to merge again
@@ -222,7 +226,6 @@ public class EntityViewUpdateMutableEntityCollectionsTest extends AbstractEntity
             afterBuilder.select(Person.class);
             if (isFullMode()) {
                 afterBuilder.delete(Document.class, "people")
-                        .insert(Document.class, "people")
                         .insert(Document.class, "people");
             }
         } else {
@@ -261,8 +264,10 @@ public class EntityViewUpdateMutableEntityCollectionsTest extends AbstractEntity
         if (version || isQueryStrategy() && isFullMode()) {
             builder.update(Document.class);
         }
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "people");
+        }
         builder.update(Person.class)
-                .insert(Document.class, "people")
                 .validate();
 
         // Unfortunately, even after an update, we have to reload the entity to merge again
@@ -272,7 +277,6 @@ public class EntityViewUpdateMutableEntityCollectionsTest extends AbstractEntity
             afterBuilder.select(Person.class);
             if (isFullMode()) {
                 afterBuilder.delete(Document.class, "people")
-                        .insert(Document.class, "people")
                         .insert(Document.class, "people");
             }
         } else {
@@ -452,8 +456,10 @@ public class EntityViewUpdateMutableEntityCollectionsTest extends AbstractEntity
         if (version || isQueryStrategy() && isFullMode()) {
             builder.update(Document.class);
         }
-        builder.insert(Document.class, "people")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "people");
+        }
+        builder.validate();
 
         // Unfortunately, even after an update, we have to reload the entity to merge again
         // This time we even have to re-load owned associations because they aren't lazy and could be dirty
@@ -463,7 +469,6 @@ public class EntityViewUpdateMutableEntityCollectionsTest extends AbstractEntity
             afterBuilder.select(Person.class);
             if (isFullMode()) {
                 afterBuilder.delete(Document.class, "people")
-                        .insert(Document.class, "people")
                         .insert(Document.class, "people");
             }
         } else {
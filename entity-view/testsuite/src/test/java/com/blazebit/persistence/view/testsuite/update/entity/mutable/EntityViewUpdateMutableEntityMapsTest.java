@@ -113,8 +113,10 @@ public class EntityViewUpdateMutableEntityMapsTest extends AbstractEntityViewUpd
         if (version || isQueryStrategy() && isFullMode()) {
             builder.update(Document.class);
         }
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         // Unfortunately, even after an update, we have to reload the entity to merge again
         AssertStatementBuilder afterBuilder = assertQueriesAfterUpdate(docView);
@@ -124,7 +126,6 @@ public class EntityViewUpdateMutableEntityMapsTest extends AbstractEntityViewUpd
             afterBuilder.select(Person.class);
             if (isFullMode()) {
                 afterBuilder.delete(Document.class, "contacts")
-                        .insert(Document.class, "contacts")
                         .insert(Document.class, "contacts");
             }
         } else {
@@ -161,8 +162,10 @@ public class EntityViewUpdateMutableEntityMapsTest extends AbstractEntityViewUpd
         if (version || isQueryStrategy() && isFullMode()) {
             builder.update(Document.class);
         }
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         // Unfortunately, even after an update, we have to reload the entity to merge again
         AssertStatementBuilder afterBuilder = assertQueriesAfterUpdate(docView);
@@ -171,7 +174,6 @@ public class EntityViewUpdateMutableEntityMapsTest extends AbstractEntityViewUpd
             afterBuilder.select(Person.class);
             if (isFullMode()) {
                 afterBuilder.delete(Document.class, "contacts")
-                        .insert(Document.class, "contacts")
                         .insert(Document.class, "contacts");
             }
         } else {
@@ -208,8 +210,10 @@ public class EntityViewUpdateMutableEntityMapsTest extends AbstractEntityViewUpd
         if (version || isQueryStrategy() && isFullMode()) {
             builder.update(Document.class);
         }
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
         builder.update(Person.class)
-                .insert(Document.class, "contacts")
                 .validate();
 
         // Unfortunately, even after an update, we have to reload the entity to merge again
@@ -220,7 +224,6 @@ public class EntityViewUpdateMutableEntityMapsTest extends AbstractEntityViewUpd
             afterBuilder.select(Person.class);
             if (isFullMode()) {
                 afterBuilder.delete(Document.class, "contacts")
-                        .insert(Document.class, "contacts")
                         .insert(Document.class, "contacts");
             }
         } else {
@@ -258,8 +261,10 @@ public class EntityViewUpdateMutableEntityMapsTest extends AbstractEntityViewUpd
         if (version || isQueryStrategy() && isFullMode()) {
             builder.update(Document.class);
         }
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
         builder.update(Person.class)
-                .insert(Document.class, "contacts")
                 .validate();
 
         // Unfortunately, even after an update, we have to reload the entity to merge again
@@ -270,7 +275,6 @@ public class EntityViewUpdateMutableEntityMapsTest extends AbstractEntityViewUpd
             afterBuilder.select(Person.class);
             if (isFullMode()) {
                 afterBuilder.delete(Document.class, "contacts")
-                        .insert(Document.class, "contacts")
                         .insert(Document.class, "contacts");
             }
         } else {
@@ -452,8 +456,10 @@ public class EntityViewUpdateMutableEntityMapsTest extends AbstractEntityViewUpd
         if (version || isQueryStrategy() && isFullMode()) {
             builder.update(Document.class);
         }
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
         builder.insert(Person.class)
-                .insert(Document.class, "contacts")
                 .validate();
 
         // Unfortunately, even after an update, we have to reload the entity to merge again
@@ -464,7 +470,6 @@ public class EntityViewUpdateMutableEntityMapsTest extends AbstractEntityViewUpd
             afterBuilder.select(Person.class);
             if (isFullMode()) {
                 afterBuilder.delete(Document.class, "contacts")
-                        .insert(Document.class, "contacts")
                         .insert(Document.class, "contacts");
             }
         } else {
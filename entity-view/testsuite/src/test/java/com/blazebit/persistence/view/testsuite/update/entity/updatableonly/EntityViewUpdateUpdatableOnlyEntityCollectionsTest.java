@@ -94,9 +94,11 @@ public class EntityViewUpdateUpdatableOnlyEntityCollectionsTest extends Abstract
         if (version || isQueryStrategy() && isFullMode()) {
             versionUpdate(builder);
         }
-        builder.assertInsert()
-                    .forRelation(Document.class, "people")
-                .and();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
+                        .forRelation(Document.class, "people")
+                    .and();
+        }
         builder.validate();
 
         assertNoUpdateAndReload(docView);
@@ -127,9 +129,11 @@ public class EntityViewUpdateUpdatableOnlyEntityCollectionsTest extends Abstract
         if (version || isQueryStrategy() && isFullMode()) {
             versionUpdate(builder);
         }
-        builder.assertInsert()
-                    .forRelation(Document.class, "people")
-                .and();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
+                        .forRelation(Document.class, "people")
+                    .and();
+        }
         builder.validate();
 
         assertNoUpdateAndReload(docView);
@@ -159,9 +163,12 @@ public class EntityViewUpdateUpdatableOnlyEntityCollectionsTest extends Abstract
         if (version || isQueryStrategy() && isFullMode()) {
             versionUpdate(builder);
         }
-        builder.assertInsert()
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
                     .forRelation(Document.class, "people")
-                .validate();
+                .and();
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView);
         assertEquals("pers2", p2.getName());
@@ -192,7 +199,9 @@ public class EntityViewUpdateUpdatableOnlyEntityCollectionsTest extends Abstract
             versionUpdate(builder);
         }
 
-        builder.insert(Document.class, "people");
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "people");
+        }
         builder.validate();
 
         assertNoUpdateAndReload(docView);
@@ -346,9 +355,6 @@ public class EntityViewUpdateUpdatableOnlyEntityCollectionsTest extends Abstract
             if (isQueryStrategy()) {
                 builder.delete(Document.class, "people")
                         .insert(Document.class, "people");
-                if (doc1.getPeople().size() > 1) {
-                    builder.insert(Document.class, "people");
-                }
             } else {
                 fullFetch(builder);
             }
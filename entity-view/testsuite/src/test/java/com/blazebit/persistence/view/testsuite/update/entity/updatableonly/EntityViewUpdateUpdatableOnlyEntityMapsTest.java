@@ -100,9 +100,11 @@ public class EntityViewUpdateUpdatableOnlyEntityMapsTest extends AbstractEntityV
         if (version || isQueryStrategy() && isFullMode()) {
             versionUpdate(builder);
         }
-        builder.assertInsert()
-                    .forRelation(Document.class, "contacts")
-                .and();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
+                        .forRelation(Document.class, "contacts")
+                    .and();
+        }
         builder.validate();
 
         assertNoUpdateAndReload(docView);
@@ -142,7 +144,9 @@ public class EntityViewUpdateUpdatableOnlyEntityMapsTest extends AbstractEntityV
         if (version || isQueryStrategy() && isFullMode()) {
             versionUpdate(builder);
         }
-        builder.insert(Document.class, "contacts");
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
         builder.validate();
 
         assertNoUpdateAndReload(docView);
@@ -170,8 +174,10 @@ public class EntityViewUpdateUpdatableOnlyEntityMapsTest extends AbstractEntityV
         if (version || isQueryStrategy() && isFullMode()) {
             versionUpdate(builder);
         }
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView);
         assertEquals("pers2", p2.getName());
@@ -210,7 +216,9 @@ public class EntityViewUpdateUpdatableOnlyEntityMapsTest extends AbstractEntityV
         if (version || isQueryStrategy() && isFullMode()) {
             versionUpdate(builder);
         }
-        builder.insert(Document.class, "contacts");
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
         builder.validate();
 
         assertNoUpdateAndReload(docView);
@@ -338,8 +346,8 @@ public class EntityViewUpdateUpdatableOnlyEntityMapsTest extends AbstractEntityV
 
             if (isQueryStrategy()) {
                 if (isFullMode()) {
-                    builder.delete(Document.class, "contacts")
-                            .insert(Document.class, "contacts");
+                    // The transient entity is detected before any of the entries is inserted
+                    builder.delete(Document.class, "contacts");
                 }
             } else {
                 fullFetch(builder);
@@ -366,9 +374,6 @@ public class EntityViewUpdateUpdatableOnlyEntityMapsTest extends AbstractEntityV
     protected AssertStatementBuilder fullUpdate(AssertStatementBuilder builder) {
         builder.delete(Document.class, "contacts")
                 .insert(Document.class, "contacts");
-        if (doc1.getContacts().size() > 1) {
-            builder.insert(Document.class, "contacts");
-        }
         return versionUpdate(builder);
     }
 
@@ -177,10 +177,8 @@ public class EntityViewOrphanRemoveNestedSubviewCollectionsTest extends Abstract
 
         if (isQueryStrategy()) {
             if (isFullMode()) {
-                builder.delete(Document.class, "people");
-                for (Person person : doc1.getPeople()) {
-                    builder.insert(Document.class, "people");
-                }
+                builder.delete(Document.class, "people")
+                        .insert(Document.class, "people");
             }
         } else {
             // Hibernate loads the entities before deleting?
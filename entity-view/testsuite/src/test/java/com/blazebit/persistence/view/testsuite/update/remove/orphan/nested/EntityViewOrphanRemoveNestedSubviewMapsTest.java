@@ -181,7 +181,6 @@ public class EntityViewOrphanRemoveNestedSubviewMapsTest extends AbstractEntityV
                 builder.update(Person.class);
                 // Re-insert since we will delete all first
                 builder.delete(Document.class, "contacts")
-                        .insert(Document.class, "contacts")
                         .insert(Document.class, "contacts");
             }
         } else {
@@ -91,8 +91,10 @@ public class EntityViewUpdateRollbackCollectionsTest extends AbstractEntityViewU
             builder.update(Document.class);
         }
 
-        builder.insert(Document.class, "strings")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "strings");
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView);
         assertEquals(doc1.getStrings(), docView.getStrings());
@@ -134,9 +136,12 @@ public class EntityViewUpdateRollbackCollectionsTest extends AbstractEntityViewU
             builder.update(Document.class);
         }
 
-        builder.assertInsert()
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
                     .forRelation(Document.class, "strings")
-                .validate();
+                .and();
+        }
+        builder.validate();
         assertNoUpdateAndReload(docView);
         assertEquals(doc1.getStrings(), docView.getStrings());
     }
@@ -144,9 +149,6 @@ public class EntityViewUpdateRollbackCollectionsTest extends AbstractEntityViewU
     private AssertStatementBuilder assertReplaceAnd(AssertStatementBuilder builder) {
         builder.delete(Document.class, "strings")
                 .insert(Document.class, "strings");
-        if (doc1.getStrings().size() > 1) {
-            builder.insert(Document.class, "strings");
-        }
         return builder;
     }
 
@@ -108,9 +108,7 @@ public class EntityViewUpdateSubviewGraphTest extends AbstractEntityViewUpdateDo
 
         if (isQueryStrategy()) {
             if (isFullMode()) {
-                builder.delete(Document.class, "people")
-                        .insert(Document.class, "people")
-                        .insert(Document.class, "people");
+                builder.delete(Document.class, "people");
                 builder.delete(Person.class, "favoriteDocuments");
                 builder.update(Person.class)
                         .update(Person.class)
@@ -189,8 +187,6 @@ public class EntityViewUpdateSubviewGraphTest extends AbstractEntityViewUpdateDo
         if (isQueryStrategy()) {
             if (isFullMode()) {
                 builder.delete(Document.class, "people")
-                        .insert(Document.class, "people")
-                        .insert(Document.class, "people")
                         .insert(Document.class, "people");
                 builder.delete(Person.class, "favoriteDocuments");
                 builder.update(Person.class);
@@ -246,8 +242,6 @@ public class EntityViewUpdateSubviewGraphTest extends AbstractEntityViewUpdateDo
         if (isFullMode()) {
             if (isQueryStrategy()) {
                 afterBuilder.delete(Document.class, "people")
-                        .insert(Document.class, "people")
-                        .insert(Document.class, "people")
                         .insert(Document.class, "people");
                 afterBuilder.delete(Person.class, "favoriteDocuments");
                 afterBuilder.update(Person.class)
@@ -330,8 +324,6 @@ public class EntityViewUpdateSubviewGraphTest extends AbstractEntityViewUpdateDo
     @Override
     protected AssertStatementBuilder fullUpdate(AssertStatementBuilder builder) {
         builder.delete(Document.class, "people")
-                .insert(Document.class, "people")
-                .insert(Document.class, "people")
                 .insert(Document.class, "people")
                 .delete(Person.class, "favoriteDocuments")
                 .update(Person.class)
@@ -126,9 +126,12 @@ public class EntityViewUpdateSubviewMultiParentJoinTableTest extends AbstractEnt
 
         builder.update(Document.class);
 
-        builder.assertInsert()
-                .forRelation(Document.class, "people")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
+                    .forRelation(Document.class, "people")
+                .and();
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getPeople(), docView.getPeople());
@@ -184,8 +187,10 @@ public class EntityViewUpdateSubviewMultiParentJoinTableTest extends AbstractEnt
 
         builder.update(Document.class);
 
-        builder.insert(Document.class, "people")
-                .insert(Person.class)
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "people");
+        }
+        builder.insert(Person.class)
                 .validate();
 
         assertNoUpdateAndReload(docView, true);
@@ -246,9 +251,6 @@ public class EntityViewUpdateSubviewMultiParentJoinTableTest extends AbstractEnt
     private AssertStatementBuilder assertReplaceAnd(AssertStatementBuilder builder) {
         builder.delete(Document.class, "people")
                 .insert(Document.class, "people");
-        if (doc1.getPeople().size() > 1) {
-            builder.insert(Document.class, "people");
-        }
         return builder;
     }
 
@@ -100,9 +100,12 @@ public class EntityViewUpdateNestedImmutableSubviewCollectionsTest extends Abstr
             builder.update(Document.class);
         }
 
-        builder.assertInsert()
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
                     .forRelation(Document.class, "people")
-                .validate();
+                .and();
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getPeople(), docView.getPeople());
@@ -140,9 +143,12 @@ public class EntityViewUpdateNestedImmutableSubviewCollectionsTest extends Abstr
             builder.update(Document.class);
         }
 
-        builder.assertInsert()
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
                     .forRelation(Document.class, "people")
-                .validate();
+                .and();
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getPeople(), docView.getPeople());
@@ -180,10 +186,12 @@ public class EntityViewUpdateNestedImmutableSubviewCollectionsTest extends Abstr
             builder.update(Document.class);
         }
 
-        builder.assertInsert()
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
                     .forRelation(Document.class, "people")
-                .and()
-                .validate();
+                .and();
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertEquals("pers4", p4.getName());
@@ -224,10 +232,12 @@ public class EntityViewUpdateNestedImmutableSubviewCollectionsTest extends Abstr
             builder.update(Document.class);
         }
 
-        builder.assertInsert()
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
                     .forRelation(Document.class, "people")
-                .and()
-                .validate();
+                .and();
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertEquals("pers4", p4.getName());
@@ -439,9 +449,6 @@ public class EntityViewUpdateNestedImmutableSubviewCollectionsTest extends Abstr
     private AssertStatementBuilder assertReplaceAnd(AssertStatementBuilder builder) {
         builder.delete(Document.class, "people")
                 .insert(Document.class, "people");
-        if (doc1.getPeople().size() > 1) {
-            builder.insert(Document.class, "people");
-        }
         return builder;
     }
 
@@ -100,8 +100,10 @@ public class EntityViewUpdateNestedImmutableSubviewMapsTest extends AbstractEnti
             builder.update(Document.class);
         }
 
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getContacts(), docView.getContacts());
@@ -139,8 +141,10 @@ public class EntityViewUpdateNestedImmutableSubviewMapsTest extends AbstractEnti
             builder.update(Document.class);
         }
 
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getContacts(), docView.getContacts());
@@ -178,8 +182,10 @@ public class EntityViewUpdateNestedImmutableSubviewMapsTest extends AbstractEnti
             builder.update(Document.class);
         }
 
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertEquals("pers4", p4.getName());
@@ -220,8 +226,10 @@ public class EntityViewUpdateNestedImmutableSubviewMapsTest extends AbstractEnti
             builder.update(Document.class);
         }
 
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertEquals("pers4", p4.getName());
@@ -432,8 +440,7 @@ public class EntityViewUpdateNestedImmutableSubviewMapsTest extends AbstractEnti
         assertReplaceAnd(builder);
         builder.update(Person.class);
         if (doc1.getContacts().size() > 1) {
-            builder.insert(Document.class, "contacts")
-                    .update(Person.class);
+            builder.update(Person.class);
         }
         builder.update(Document.class);
         return builder;
@@ -108,9 +108,12 @@ public class EntityViewUpdateNestedMutableSubviewCollectionsTest extends Abstrac
             }
         }
 
-        builder.assertInsert()
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
                     .forRelation(Document.class, "people")
-                .validate();
+                .and();
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getPeople(), docView.getPeople());
@@ -156,9 +159,12 @@ public class EntityViewUpdateNestedMutableSubviewCollectionsTest extends Abstrac
             }
         }
 
-        builder.assertInsert()
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
                     .forRelation(Document.class, "people")
-                .validate();
+                .and();
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getPeople(), docView.getPeople());
@@ -205,10 +211,12 @@ public class EntityViewUpdateNestedMutableSubviewCollectionsTest extends Abstrac
 
             builder.update(Person.class);
         }
-        builder.assertInsert()
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
                     .forRelation(Document.class, "people")
-                .and()
-                .validate();
+                .and();
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getPeople(), docView.getPeople());
@@ -257,10 +265,12 @@ public class EntityViewUpdateNestedMutableSubviewCollectionsTest extends Abstrac
 
             builder.update(Person.class);
         }
-        builder.assertInsert()
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
                     .forRelation(Document.class, "people")
-                .and()
-                .validate();
+                .and();
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getPeople(), docView.getPeople());
@@ -534,9 +544,6 @@ public class EntityViewUpdateNestedMutableSubviewCollectionsTest extends Abstrac
     private AssertStatementBuilder assertReplaceAnd(AssertStatementBuilder builder) {
         builder.delete(Document.class, "people")
                 .insert(Document.class, "people");
-        if (doc1.getPeople().size() > 1) {
-            builder.insert(Document.class, "people");
-        }
         return builder;
     }
 
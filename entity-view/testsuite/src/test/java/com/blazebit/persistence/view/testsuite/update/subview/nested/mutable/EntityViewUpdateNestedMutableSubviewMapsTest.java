@@ -116,8 +116,10 @@ public class EntityViewUpdateNestedMutableSubviewMapsTest extends AbstractEntity
             builder.update(Document.class);
         }
 
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getContacts(), docView.getContacts());
@@ -165,9 +167,12 @@ public class EntityViewUpdateNestedMutableSubviewMapsTest extends AbstractEntity
             builder.update(Document.class);
         }
 
-        builder.assertInsert()
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
                     .forRelation(Document.class, "contacts")
-                .validate();
+                .and();
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getContacts(), docView.getContacts());
@@ -210,8 +215,10 @@ public class EntityViewUpdateNestedMutableSubviewMapsTest extends AbstractEntity
             builder.update(Document.class);
         }
 
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getContacts(), docView.getContacts());
@@ -256,8 +263,10 @@ public class EntityViewUpdateNestedMutableSubviewMapsTest extends AbstractEntity
             builder.update(Document.class);
         }
 
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getContacts(), docView.getContacts());
@@ -522,8 +531,7 @@ public class EntityViewUpdateNestedMutableSubviewMapsTest extends AbstractEntity
                 .update(Person.class);
         assertReplaceAnd(builder);
         if (doc1.getContacts().size() > 1) {
-            builder.insert(Document.class, "contacts")
-                    .update(Person.class)
+            builder.update(Person.class)
                     .update(Person.class);
         }
         builder.update(Document.class);
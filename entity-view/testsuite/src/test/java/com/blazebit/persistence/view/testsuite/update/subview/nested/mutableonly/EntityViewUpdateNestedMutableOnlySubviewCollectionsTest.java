@@ -108,9 +108,12 @@ public class EntityViewUpdateNestedMutableOnlySubviewCollectionsTest extends Abs
             }
         }
 
-        builder.assertInsert()
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
                     .forRelation(Document.class, "people")
-                .validate();
+                .and();
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getPeople(), docView.getPeople());
@@ -156,9 +159,12 @@ public class EntityViewUpdateNestedMutableOnlySubviewCollectionsTest extends Abs
             }
         }
 
-        builder.assertInsert()
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
                     .forRelation(Document.class, "people")
-                .validate();
+                .and();
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getPeople(), docView.getPeople());
@@ -205,10 +211,12 @@ public class EntityViewUpdateNestedMutableOnlySubviewCollectionsTest extends Abs
             builder.update(Person.class);
         }
 
-        builder.assertInsert()
-                .forRelation(Document.class, "people")
-                .and()
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
+                    .forRelation(Document.class, "people")
+                .and();
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getPeople(), docView.getPeople());
@@ -256,10 +264,12 @@ public class EntityViewUpdateNestedMutableOnlySubviewCollectionsTest extends Abs
             }
             builder.update(Person.class);
         }
-        builder.assertInsert()
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
                     .forRelation(Document.class, "people")
-                .and()
-                .validate();
+                .and();
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getPeople(), docView.getPeople());
@@ -428,9 +438,6 @@ public class EntityViewUpdateNestedMutableOnlySubviewCollectionsTest extends Abs
                 .update(Person.class)
                 .update(Person.class)
                 .update(Person.class);
-        if (doc1.getPeople().size() > 1) {
-            builder.insert(Document.class, "people");
-        }
         builder.update(Document.class);
         return builder;
     }
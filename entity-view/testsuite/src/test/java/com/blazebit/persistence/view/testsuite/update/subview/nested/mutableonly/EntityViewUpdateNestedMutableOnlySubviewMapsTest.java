@@ -112,8 +112,10 @@ public class EntityViewUpdateNestedMutableOnlySubviewMapsTest extends AbstractEn
             }
         }
 
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getContacts(), docView.getContacts());
@@ -163,8 +165,10 @@ public class EntityViewUpdateNestedMutableOnlySubviewMapsTest extends AbstractEn
             }
         }
 
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getContacts(), docView.getContacts());
@@ -208,8 +212,10 @@ public class EntityViewUpdateNestedMutableOnlySubviewMapsTest extends AbstractEn
             builder.update(Person.class);
         }
 
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getContacts(), docView.getContacts());
@@ -255,8 +261,10 @@ public class EntityViewUpdateNestedMutableOnlySubviewMapsTest extends AbstractEn
             builder.update(Person.class);
         }
 
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getContacts(), docView.getContacts());
@@ -391,7 +399,6 @@ public class EntityViewUpdateNestedMutableOnlySubviewMapsTest extends AbstractEn
         builder.update(Person.class);
 
         if (doc1.getContacts().size() > 1) {
-            builder.insert(Document.class, "contacts");
             builder.update(Person.class);
             builder.update(Person.class);
         }
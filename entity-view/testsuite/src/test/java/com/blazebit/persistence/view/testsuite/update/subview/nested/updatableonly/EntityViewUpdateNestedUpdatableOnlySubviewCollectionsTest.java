@@ -101,9 +101,12 @@ public class EntityViewUpdateNestedUpdatableOnlySubviewCollectionsTest extends A
             builder.update(Document.class);
         }
 
-        builder.assertInsert()
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
                     .forRelation(Document.class, "people")
-                .validate();
+                .and();
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getPeople(), docView.getPeople());
@@ -141,9 +144,12 @@ public class EntityViewUpdateNestedUpdatableOnlySubviewCollectionsTest extends A
             builder.update(Document.class);
         }
 
-        builder.assertInsert()
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
                     .forRelation(Document.class, "people")
-                .validate();
+                .and();
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getPeople(), docView.getPeople());
@@ -181,10 +187,12 @@ public class EntityViewUpdateNestedUpdatableOnlySubviewCollectionsTest extends A
             builder.update(Document.class);
         }
 
-        builder.assertInsert()
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
                     .forRelation(Document.class, "people")
-                .and()
-                .validate();
+                .and();
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertEquals("pers4", p4.getName());
@@ -225,10 +233,12 @@ public class EntityViewUpdateNestedUpdatableOnlySubviewCollectionsTest extends A
             builder.update(Document.class);
         }
 
-        builder.assertInsert()
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
                     .forRelation(Document.class, "people")
-                .and()
-                .validate();
+                .and();
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertEquals("pers4", p4.getName());
@@ -373,10 +383,6 @@ public class EntityViewUpdateNestedUpdatableOnlySubviewCollectionsTest extends A
         builder.delete(Document.class, "people")
                 .insert(Document.class, "people");
 
-        if (doc1.getPeople().size() > 1) {
-            builder.insert(Document.class, "people");
-        }
-
         return builder;
     }
 
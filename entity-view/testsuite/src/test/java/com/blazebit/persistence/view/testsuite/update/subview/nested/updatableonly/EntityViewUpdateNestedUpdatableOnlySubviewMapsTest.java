@@ -102,8 +102,10 @@ public class EntityViewUpdateNestedUpdatableOnlySubviewMapsTest extends Abstract
             builder.update(Document.class);
         }
 
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getContacts(), docView.getContacts());
@@ -141,8 +143,10 @@ public class EntityViewUpdateNestedUpdatableOnlySubviewMapsTest extends Abstract
             builder.update(Document.class);
         }
 
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getContacts(), docView.getContacts());
@@ -181,8 +185,10 @@ public class EntityViewUpdateNestedUpdatableOnlySubviewMapsTest extends Abstract
             builder.update(Document.class);
         }
 
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertEquals("pers4", p4.getName());
@@ -223,8 +229,10 @@ public class EntityViewUpdateNestedUpdatableOnlySubviewMapsTest extends Abstract
             builder.update(Document.class);
         }
 
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertEquals("pers4", p4.getName());
@@ -354,7 +362,6 @@ public class EntityViewUpdateNestedUpdatableOnlySubviewMapsTest extends Abstract
         builder.update(Person.class);
 
         if (doc1.getContacts().size() > 1) {
-            builder.insert(Document.class, "contacts");
             builder.update(Person.class);
         }
 
@@ -102,8 +102,10 @@ public class EntityViewUpdateSimpleCreatableSubviewCollectionsTest extends Abstr
         if (version || isFullMode() && isQueryStrategy()) {
             builder.update(Document.class);
         }
-        builder.insert(Document.class, "people")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "people");
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertEquals(doc1.getPeople().get(1).getId(), personCreateView.getId());
@@ -137,9 +139,6 @@ public class EntityViewUpdateSimpleCreatableSubviewCollectionsTest extends Abstr
     private AssertStatementBuilder assertReplaceAnd(AssertStatementBuilder builder) {
         builder.delete(Document.class, "people")
                 .insert(Document.class, "people");
-        if (doc1.getPeople().size() > 1) {
-            builder.insert(Document.class, "people");
-        }
         return builder;
     }
 
@@ -99,8 +99,10 @@ public class EntityViewUpdateSimpleCreatableSubviewMapsTest extends AbstractEnti
         if (version || isQueryStrategy() && isFullMode()) {
             builder.update(Document.class);
         }
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertEquals(doc1.getContacts().get(2).getId(), personCreateView.getId());
@@ -136,7 +138,6 @@ public class EntityViewUpdateSimpleCreatableSubviewMapsTest extends AbstractEnti
     @Override
     protected AssertStatementBuilder fullUpdate(AssertStatementBuilder builder) {
         builder.delete(Document.class, "contacts")
-                .insert(Document.class, "contacts")
                 .insert(Document.class, "contacts");
         return versionUpdate(builder);
     }
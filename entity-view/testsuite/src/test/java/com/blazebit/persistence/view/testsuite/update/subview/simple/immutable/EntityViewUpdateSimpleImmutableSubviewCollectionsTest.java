@@ -126,9 +126,12 @@ public class EntityViewUpdateSimpleImmutableSubviewCollectionsTest extends Abstr
             builder.update(Document.class);
         }
 
-        builder.assertInsert()
-                .forRelation(Document.class, "people")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
+                    .forRelation(Document.class, "people")
+                .and();
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView);
         assertSubviewEquals(doc1.getPeople(), docView.getPeople());
@@ -170,9 +173,12 @@ public class EntityViewUpdateSimpleImmutableSubviewCollectionsTest extends Abstr
         if (version || isFullMode() && isQueryStrategy()) {
             builder.update(Document.class);
         }
-        builder.assertInsert()
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
                     .forRelation(Document.class, "people")
-                .validate();
+                .and();
+        }
+        builder.validate();
         assertNoUpdateAndReload(docView);
         assertSubviewEquals(doc1.getPeople(), docView.getPeople());
     }
@@ -240,9 +246,6 @@ public class EntityViewUpdateSimpleImmutableSubviewCollectionsTest extends Abstr
     private AssertStatementBuilder assertReplaceAnd(AssertStatementBuilder builder) {
         builder.delete(Document.class, "people")
                 .insert(Document.class, "people");
-        if (doc1.getPeople().size() > 1) {
-            builder.insert(Document.class, "people");
-        }
         return builder;
     }
 
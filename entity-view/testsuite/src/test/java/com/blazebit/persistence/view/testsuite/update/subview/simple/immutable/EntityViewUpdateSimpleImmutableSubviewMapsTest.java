@@ -125,8 +125,10 @@ public class EntityViewUpdateSimpleImmutableSubviewMapsTest extends AbstractEnti
             builder.update(Document.class);
         }
 
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView);
         assertSubviewEquals(doc1.getContacts(), docView.getContacts());
@@ -169,8 +171,10 @@ public class EntityViewUpdateSimpleImmutableSubviewMapsTest extends AbstractEnti
             builder.update(Document.class);
         }
 
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
         assertNoUpdateAndReload(docView);
         assertSubviewEquals(doc1.getContacts(), docView.getContacts());
     }
@@ -203,9 +207,6 @@ public class EntityViewUpdateSimpleImmutableSubviewMapsTest extends AbstractEnti
     private AssertStatementBuilder assertReplaceAnd(AssertStatementBuilder builder) {
         builder.delete(Document.class, "contacts")
                 .insert(Document.class, "contacts");
-        if (doc1.getContacts().size() > 1) {
-            builder.insert(Document.class, "contacts");
-        }
         return builder;
     }
 
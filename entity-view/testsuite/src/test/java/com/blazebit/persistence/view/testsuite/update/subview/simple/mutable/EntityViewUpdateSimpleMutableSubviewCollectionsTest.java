@@ -157,9 +157,12 @@ public class EntityViewUpdateSimpleMutableSubviewCollectionsTest extends Abstrac
             builder.update(Document.class);
         }
 
-        builder.assertInsert()
-                .forRelation(Document.class, "people")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
+                    .forRelation(Document.class, "people")
+                .and();
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getPeople(), docView.getPeople());
@@ -231,8 +234,7 @@ public class EntityViewUpdateSimpleMutableSubviewCollectionsTest extends Abstrac
         }
 
         if (isQueryStrategy() && isFullMode()) {
-            builder.insert(Document.class, "people")
-                    .update(Person.class)
+            builder.update(Person.class)
                     .update(Person.class);
         } else {
             builder.delete(Document.class, "people");
@@ -280,9 +282,12 @@ public class EntityViewUpdateSimpleMutableSubviewCollectionsTest extends Abstrac
             builder.update(Document.class);
         }
 
-        builder.assertInsert()
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
                     .forRelation(Document.class, "people")
-                .validate();
+                .and();
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getPeople(), docView.getPeople());
@@ -348,9 +353,12 @@ public class EntityViewUpdateSimpleMutableSubviewCollectionsTest extends Abstrac
             builder.update(Person.class);
         }
 
-        builder.assertInsert()
-                .forRelation(Document.class, "people")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
+                    .forRelation(Document.class, "people")
+                .and();
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getPeople(), docView.getPeople());
@@ -399,9 +407,12 @@ public class EntityViewUpdateSimpleMutableSubviewCollectionsTest extends Abstrac
             builder.update(Person.class);
         }
 
-        builder.assertInsert()
-                .forRelation(Document.class, "people")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
+                    .forRelation(Document.class, "people")
+                .and();
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getPeople(), docView.getPeople());
@@ -446,9 +457,6 @@ public class EntityViewUpdateSimpleMutableSubviewCollectionsTest extends Abstrac
         if (isQueryStrategy()) {
             builder.delete(Document.class, "people")
                     .insert(Document.class, "people");
-            if (doc1.getPeople().size() > 1) {
-                builder.insert(Document.class, "people");
-            }
         } else {
             fullFetch(builder);
         }
@@ -135,8 +135,10 @@ public class EntityViewUpdateSimpleMutableSubviewMapsTest extends AbstractEntity
             builder.update(Document.class);
         }
 
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getContacts(), docView.getContacts());
@@ -179,8 +181,10 @@ public class EntityViewUpdateSimpleMutableSubviewMapsTest extends AbstractEntity
             builder.update(Document.class);
         }
 
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getContacts(), docView.getContacts());
@@ -242,8 +246,10 @@ public class EntityViewUpdateSimpleMutableSubviewMapsTest extends AbstractEntity
             builder.update(Document.class);
         }
 
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getContacts(), docView.getContacts());
@@ -287,8 +293,10 @@ public class EntityViewUpdateSimpleMutableSubviewMapsTest extends AbstractEntity
             builder.update(Document.class);
         }
 
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
 
         assertNoUpdateAndReload(docView, true);
         assertSubviewEquals(doc1.getContacts(), docView.getContacts());
@@ -334,7 +342,6 @@ public class EntityViewUpdateSimpleMutableSubviewMapsTest extends AbstractEntity
         builder.update(Person.class)
                 .update(Person.class);
         builder.delete(Document.class, "contacts")
-                .insert(Document.class, "contacts")
                 .insert(Document.class, "contacts");
         versionUpdate(builder);
         return builder;
@@ -154,9 +154,12 @@ public class EntityViewUpdateSimpleUpdatableOnlySubviewCollectionsTest extends A
             builder.update(Document.class);
         }
 
-        builder.assertInsert()
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
                     .forRelation(Document.class, "people")
-                .validate();
+                .and();
+        }
+        builder.validate();
         assertNoUpdateAndReload(docView);
         assertSubviewEquals(doc1.getPeople(), docView.getPeople());
     }
@@ -253,9 +256,12 @@ public class EntityViewUpdateSimpleUpdatableOnlySubviewCollectionsTest extends A
             builder.update(Document.class);
         }
 
-        builder.assertInsert()
-                .forRelation(Document.class, "people")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.assertInsert()
+                    .forRelation(Document.class, "people")
+                .and();
+        }
+        builder.validate();
         assertNoUpdateAndReload(docView);
         assertEquals(doc1.getPeople().size(), docView.getPeople().size());
         assertEquals("pers2", p2.getName());
@@ -318,9 +324,6 @@ public class EntityViewUpdateSimpleUpdatableOnlySubviewCollectionsTest extends A
     private AssertStatementBuilder assertReplaceAnd(AssertStatementBuilder builder) {
         builder.delete(Document.class, "people")
                 .insert(Document.class, "people");
-        if (doc1.getPeople().size() > 1) {
-            builder.insert(Document.class, "people");
-        }
         return builder;
     }
 
@@ -150,8 +150,10 @@ public class EntityViewUpdateSimpleUpdatableOnlySubviewMapsTest extends Abstract
             builder.update(Document.class);
         }
 
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
         assertNoUpdateAndReload(docView);
         assertSubviewEquals(doc1.getContacts(), docView.getContacts());
     }
@@ -210,8 +212,10 @@ public class EntityViewUpdateSimpleUpdatableOnlySubviewMapsTest extends Abstract
             builder.update(Document.class);
         }
 
-        builder.insert(Document.class, "contacts")
-                .validate();
+        if (!isQueryStrategy() || !isFullMode()) {
+            builder.insert(Document.class, "contacts");
+        }
+        builder.validate();
         assertNoUpdateAndReload(docView);
         assertEquals(doc1.getContacts().size(), docView.getContacts().size());
         assertEquals("pers2", p2.getName());
@@ -273,9 +277,6 @@ public class EntityViewUpdateSimpleUpdatableOnlySubviewMapsTest extends Abstract
     private AssertStatementBuilder assertReplaceAnd(AssertStatementBuilder builder) {
         builder.delete(Document.class, "contacts")
                 .insert(Document.class, "contacts");
-        if (doc1.getContacts().size() > 1) {
-            builder.insert(Document.class, "contacts");
-        }
         return builder;
     }
 
@@ -612,4 +612,9 @@ public class DataNucleus51JpaProvider implements JpaProvider {
         return DataNucleus51JpaMetamodelAccessor.INSTANCE;
     }
 
+    @Override
+    public boolean cancelQuery(EntityManager em) {
+        return false;
+    }
+
 }
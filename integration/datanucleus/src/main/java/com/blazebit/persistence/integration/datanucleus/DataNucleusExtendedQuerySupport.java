@@ -110,6 +110,11 @@ public class DataNucleusExtendedQuerySupport implements ExtendedQuerySupport {
         // TODO: implement
         throw new UnsupportedOperationException("Not yet implemeneted!");
     }
+
+    @Override
+    public long getRowCountEstimate(com.blazebit.persistence.spi.ServiceProvider serviceProvider, Query countQuery) {
+        return -1L;
+    }
     
     private void applySql(Query query, String sqlOverride) {
         // TODO: parameter handling
@@ -659,4 +659,9 @@ public class DataNucleusJpaProvider implements JpaProvider {
         return DataNucleusJpaMetamodelAccessor.INSTANCE;
     }
 
+    @Override
+    public boolean cancelQuery(EntityManager em) {
+        return false;
+    }
+
 }
@@ -755,4 +755,9 @@ public class EclipseLinkJpaProvider implements JpaProvider {
         return JpaMetamodelAccessorImpl.INSTANCE;
     }
 
+    @Override
+    public boolean cancelQuery(EntityManager em) {
+        return false;
+    }
+
 }
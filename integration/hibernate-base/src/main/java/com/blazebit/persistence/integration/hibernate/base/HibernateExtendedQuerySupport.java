@@ -25,6 +25,9 @@ import com.blazebit.persistence.spi.CteQueryWrapper;
 import com.blazebit.persistence.spi.DbmsDialect;
 import com.blazebit.persistence.spi.DbmsStatementType;
 import com.blazebit.persistence.spi.ExtendedQuerySupport;
+import com.blazebit.persistence.spi.QueryInstrumentation;
+import com.blazebit.persistence.spi.QueryPhase;
+import com.blazebit.persistence.spi.QueryRole;
 import com.blazebit.reflection.ReflectionUtils;
 import org.hibernate.HibernateException;
 import org.hibernate.LockMode;
@@ -69,6 +72,11 @@ import javax.persistence.PersistenceException;
 import javax.persistence.Query;
 import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
@@ -99,6 +107,7 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
     private final ConcurrentMap<SessionFactoryImplementor, BoundedConcurrentHashMap<QueryPlanCacheKey, QueryPlanCacheValue>> queryPlanCachesCache = new ConcurrentHashMap<>();
     private final ConcurrentMap<FieldKey, Field> fieldCache = new ConcurrentHashMap<>();
     private final HibernateAccess hibernateAccess;
+    private volatile Method parameterSpecificationBindMethod;
     
     public HibernateExtendedQuerySupport() {
         Iterator<HibernateAccess> serviceIter = ServiceLoader.load(HibernateAccess.class).iterator();
@@ -390,7 +399,7 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         QueryParameters queryParameters = queryParametersEntry.queryParameters;
 
         QueryPlanCacheKey cacheKey = queryPlanCacheEnabled ? createCacheKey(finalSql, participatingQueries, queryStrings) : null;
-        CacheEntry<QueryPlanCacheValue> queryPlanEntry = getQueryPlan(sfi, query, cacheKey);
+        CacheEntry<QueryPlanCacheValue> queryPlanEntry = getQueryPlan(serviceProvider, sfi, query, cacheKey);
         QueryPlanCacheValue queryPlanCacheValue = queryPlanEntry.getValue();
         HQLQueryPlan queryPlan = queryPlanCacheValue.getQueryPlan();
         
@@ -421,7 +430,7 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         QueryParameters queryParameters = queryParametersEntry.queryParameters;
 
         QueryPlanCacheKey cacheKey = queryPlanCacheEnabled ? createCacheKey(finalSql, participatingQueries, queryStrings) : null;
-        CacheEntry<QueryPlanCacheValue> queryPlanEntry = getQueryPlan(sfi, query, cacheKey);
+        CacheEntry<QueryPlanCacheValue> queryPlanEntry = getQueryPlan(serviceProvider, sfi, query, cacheKey);
         QueryPlanCacheValue queryPlanCacheValue = queryPlanEntry.getValue();
         HQLQueryPlan queryPlan = queryPlanCacheValue.getQueryPlan();
 
@@ -464,7 +473,7 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         QueryParameters queryParameters = queryParametersEntry.queryParameters;
 
         QueryPlanCacheKey cacheKey = queryPlanCacheEnabled ? createCacheKey(finalSql, participatingQueries, queryStrings, firstResult, maxResults) : null;
-        CacheEntry<QueryPlanCacheValue> queryPlanEntry = getQueryPlan(sfi, query, cacheKey);
+        CacheEntry<QueryPlanCacheValue> queryPlanEntry = getQueryPlan(serviceProvider, sfi, query, cacheKey);
         QueryPlanCacheValue queryPlanCacheValue = queryPlanEntry.getValue();
         HQLQueryPlan queryPlan = queryPlanCacheValue.getQueryPlan();
 
@@ -541,7 +550,7 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         
         // Create plan for example query
         QueryPlanCacheKey cacheKey = queryPlanCacheEnabled ? createCacheKey(sqlOverride, participatingQueries, queryStrings) : null;
-        CacheEntry<QueryPlanCacheValue> queryPlanEntry = getQueryPlan(sfi, exampleQuery, cacheKey);
+        CacheEntry<QueryPlanCacheValue> queryPlanEntry = getQueryPlan(serviceProvider, sfi, exampleQuery, cacheKey);
         QueryPlanCacheValue queryPlanCacheValue = queryPlanEntry.getValue();
         HQLQueryPlan queryPlan = queryPlanCacheValue.getQueryPlan();
 
@@ -629,6 +638,66 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         }
     }
 
+    @Override
+    public long getRowCountEstimate(com.blazebit.persistence.spi.ServiceProvider serviceProvider, Query countQuery) {
+        DbmsDialect dbmsDialect = serviceProvider.getService(DbmsDialect.class);
+        EntityManager em = serviceProvider.getService(EntityManager.class);
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+
+        if (session.isClosed()) {
+            throw new PersistenceException("Entity manager is closed!");
+        }
+
+        Set<String> querySpaces = new HashSet<>();
+        QueryParamEntry queryParamEntry = getQueryParamEntries(em, Collections.singletonList(countQuery), querySpaces).get(0);
+        HQLQueryPlan queryPlan = session.getFactory().getQueryPlanCache().getHQLQueryPlan(queryParamEntry.queryString, false, Collections.EMPTY_MAP);
+        String estimateSql = dbmsDialect.getRowCountEstimateSql(queryPlan.getSqlStrings()[0]);
+        if (estimateSql == null) {
+            return -1L;
+        }
+
+        autoFlush(querySpaces, session);
+        try (PreparedStatement ps = session.connection().prepareStatement(estimateSql)) {
+            int position = 1;
+            for (ParameterSpecification specification : queryParamEntry.specifications) {
+                position += bind(specification, ps, queryParamEntry.queryParameters, session, position);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                return dbmsDialect.extractRowCountEstimate(rs);
+            }
+        } catch (SQLException ex) {
+            LOG.severe("Could not execute the following SQL query: " + estimateSql);
+            throw new PersistenceException(ex);
+        }
+    }
+
+    private int bind(ParameterSpecification specification, PreparedStatement ps, QueryParameters queryParameters, SessionImplementor session, int position) throws SQLException {
+        // The session parameter type of the bind method differs between Hibernate versions
+        Method bindMethod = parameterSpecificationBindMethod;
+        if (bindMethod == null) {
+            for (Method method : ParameterSpecification.class.getMethods()) {
+                if ("bind".equals(method.getName()) && method.getParameterTypes().length == 4) {
+                    bindMethod = method;
+                    break;
+                }
+            }
+            if (bindMethod == null) {
+                throw new IllegalStateException("Could not find the bind method of " + ParameterSpecification.class.getName());
+            }
+            parameterSpecificationBindMethod = bindMethod;
+        }
+        try {
+            return (Integer) bindMethod.invoke(specification, ps, queryParameters, session, position);
+        } catch (InvocationTargetException ex) {
+            if (ex.getCause() instanceof SQLException) {
+                throw (SQLException) ex.getCause();
+            }
+            throw new RuntimeException(ex.getCause());
+        } catch (IllegalAccessException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
     public void autoFlush(Set<String> querySpaces, SessionImplementor sessionImplementor) {
         AutoFlushEvent event = new AutoFlushEvent(querySpaces, (EventSource) sessionImplementor);
         for (AutoFlushEventListener listener : sessionImplementor.getFactory().getServiceRegistry().getService(EventListenerRegistry.class).getEventListenerGroup(EventType.AUTO_FLUSH).listeners()) {
@@ -1059,21 +1128,30 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         return i;
     }
 
-    private CacheEntry<QueryPlanCacheValue> getQueryPlan(SessionFactoryImplementor sfi, Query query, QueryPlanCacheKey cacheKey) {
+    private CacheEntry<QueryPlanCacheValue> getQueryPlan(com.blazebit.persistence.spi.ServiceProvider serviceProvider, SessionFactoryImplementor sfi, Query query, QueryPlanCacheKey cacheKey) {
+        // The instrumentation is resolved once by the query specification of the criteria builder, so this lookup is cheap
+        QueryInstrumentation instrumentation = serviceProvider.getService(QueryInstrumentation.class);
+        if (instrumentation == null) {
+            instrumentation = QueryInstrumentation.NOOP;
+        }
         QueryPlanCacheValue queryPlan;
         boolean fromCache;
         if (cacheKey == null) {
             fromCache = false;
-            queryPlan = createQueryPlan(sfi, query);
+            queryPlan = createQueryPlan(instrumentation, serviceProvider, sfi, query);
         } else {
             BoundedConcurrentHashMap<QueryPlanCacheKey, QueryPlanCacheValue> queryPlanCache = getQueryPlanCache(sfi);
             queryPlan = queryPlanCache.get(cacheKey);
             if (queryPlan == null) {
                 fromCache = false;
-                queryPlan = createQueryPlan(sfi, query);
+                queryPlan = createQueryPlan(instrumentation, serviceProvider, sfi, query);
             } else {
                 fromCache = true;
             }
+            if (instrumentation.isEnabled()) {
+                QueryRole role = serviceProvider.getService(QueryRole.class);
+                instrumentation.onQueryPlanCacheAccess(role == null ? QueryRole.QUERY : role, fromCache);
+            }
         }
         
         return new CacheEntry<>(queryPlan, fromCache);
@@ -1084,10 +1162,17 @@ public class HibernateExtendedQuerySupport implements ExtendedQuerySupport {
         return queryPlanCache.putIfAbsent(cacheKey, queryPlan);
     }
     
-    private QueryPlanCacheValue createQueryPlan(SessionFactoryImplementor sfi, Query query) {
+    private QueryPlanCacheValue createQueryPlan(QueryInstrumentation instrumentation, com.blazebit.persistence.spi.ServiceProvider serviceProvider, SessionFactoryImplementor sfi, Query query) {
         org.hibernate.Query hibernateQuery = query.unwrap(org.hibernate.Query.class);
         String queryString = hibernateQuery.getQueryString();
-        return new QueryPlanCacheValue(new HQLQueryPlan(queryString, false, Collections.EMPTY_MAP, sfi), null, null);
+        if (!instrumentation.isEnabled()) {
+            return new QueryPlanCacheValue(new HQLQueryPlan(queryString, false, Collections.EMPTY_MAP, sfi), null, null);
+        }
+        long start = System.nanoTime();
+        HQLQueryPlan queryPlan = new HQLQueryPlan(queryString, false, Collections.EMPTY_MAP, sfi);
+        QueryRole role = serviceProvider.getService(QueryRole.class);
+        instrumentation.onPhase(QueryPhase.PLAN, role == null ? QueryRole.QUERY : role, System.nanoTime() - start, -1);
+        return new QueryPlanCacheValue(queryPlan, null, null);
     }
     
     private BoundedConcurrentHashMap<QueryPlanCacheKey, QueryPlanCacheValue> getQueryPlanCache(SessionFactoryImplementor sfi) {
@@ -23,6 +23,7 @@ import com.blazebit.persistence.spi.JpaMetamodelAccessor;
 import com.blazebit.persistence.spi.JpaProvider;
 import org.hibernate.MappingException;
 import org.hibernate.QueryException;
+import org.hibernate.Session;
 import org.hibernate.engine.spi.CascadingAction;
 import org.hibernate.engine.spi.EntityKey;
 import org.hibernate.engine.spi.Mapping;
@@ -1789,4 +1790,10 @@ public class HibernateJpaProvider implements JpaProvider {
         return JpaMetamodelAccessorImpl.INSTANCE;
     }
 
+    @Override
+    public boolean cancelQuery(EntityManager em) {
+        em.unwrap(Session.class).cancelQuery();
+        return true;
+    }
+
 }
@@ -16,6 +16,7 @@
 
 package com.blazebit.persistence.integration.jaxrs.jackson;
 
+import com.blazebit.persistence.CacheStatistics;
 import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.FullQueryBuilder;
 import com.blazebit.persistence.integration.jackson.EntityViewAwareObjectMapper;
@@ -23,6 +24,7 @@ import com.blazebit.persistence.integration.jackson.EntityViewIdValueAccessor;
 import com.blazebit.persistence.integration.jaxrs.EntityViewId;
 import com.blazebit.persistence.view.ConvertOperationBuilder;
 import com.blazebit.persistence.view.ConvertOption;
+import com.blazebit.persistence.view.CorrelationBatchStatistics;
 import com.blazebit.persistence.view.EntityViewBuilder;
 import com.blazebit.persistence.view.EntityViewManager;
 import com.blazebit.persistence.view.EntityViewSetting;
@@ -62,6 +64,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -381,6 +384,18 @@ public class EntityViewMessageBodyReader implements MessageBodyReader<Object> {
             return entityViewManager.get().getOptionalParameters();
         }
 
+        public Map<String, CorrelationBatchStatistics> getCorrelationBatchStatistics() {
+            return entityViewManager.get().getCorrelationBatchStatistics();
+        }
+
+        public Map<String, CacheStatistics> getViewCacheStatistics() {
+            return entityViewManager.get().getViewCacheStatistics();
+        }
+
+        public void evictViewCache(Class<?> entityViewClass) {
+            entityViewManager.get().evictViewCache(entityViewClass);
+        }
+
         public <T> T find(EntityManager entityManager, Class<T> entityViewClass, Object entityId) {
             return entityViewManager.get().find(entityManager, entityViewClass, entityId);
         }
@@ -489,6 +504,14 @@ public class EntityViewMessageBodyReader implements MessageBodyReader<Object> {
             entityViewManager.get().saveFullTo(entityManager, view, entity);
         }
 
+        public void saveAll(EntityManager entityManager, Collection<?> views) {
+            entityViewManager.get().saveAll(entityManager, views);
+        }
+
+        public void saveAllFull(EntityManager entityManager, Collection<?> views) {
+            entityViewManager.get().saveAllFull(entityManager, views);
+        }
+
         @Deprecated
         public void update(EntityManager entityManager, Object view) {
             entityViewManager.get().update(entityManager, view);
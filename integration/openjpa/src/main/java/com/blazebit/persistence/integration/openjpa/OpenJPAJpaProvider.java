@@ -21,6 +21,7 @@ import com.blazebit.persistence.integration.jpa.JpaMetamodelAccessorImpl;
 import com.blazebit.persistence.spi.JoinTable;
 import com.blazebit.persistence.spi.JpaMetamodelAccessor;
 import com.blazebit.persistence.spi.JpaProvider;
+import org.apache.openjpa.persistence.OpenJPAEntityManager;
 import org.apache.openjpa.persistence.OpenJPAQuery;
 
 import javax.persistence.EntityManager;
@@ -496,4 +497,10 @@ public class OpenJPAJpaProvider implements JpaProvider {
         return JpaMetamodelAccessorImpl.INSTANCE;
     }
 
+    @Override
+    public boolean cancelQuery(EntityManager em) {
+        em.unwrap(OpenJPAEntityManager.class).cancelAll();
+        return true;
+    }
+
 }
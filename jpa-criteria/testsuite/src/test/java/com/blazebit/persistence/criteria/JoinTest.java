@@ -23,6 +23,7 @@ import javax.persistence.criteria.JoinType;
 import com.blazebit.persistence.testsuite.base.jpa.category.NoDatanucleus;
 import org.junit.Test;
 
+import com.blazebit.persistence.ConfigurationProperties;
 import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.testsuite.AbstractCoreTest;
 import com.blazebit.persistence.testsuite.entity.Document;
@@ -59,6 +60,7 @@ public class JoinTest extends AbstractCoreTest {
         cq.select(root.get(Document_.id));
         
         CriteriaBuilder<?> criteriaBuilder = cq.createCriteriaBuilder(em);
+        criteriaBuilder.setProperty(ConfigurationProperties.JOIN_ELIMINATION, "false");
         assertEquals("SELECT document.id FROM Document document JOIN document.owner owner1 JOIN owner1.partnerDocument partnerDoc LEFT JOIN document.owner owner2", criteriaBuilder.getQueryString());
     }
 
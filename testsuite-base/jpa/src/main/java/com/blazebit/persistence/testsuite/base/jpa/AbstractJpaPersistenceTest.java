@@ -19,11 +19,13 @@ package com.blazebit.persistence.testsuite.base.jpa;
 import com.blazebit.persistence.Criteria;
 import com.blazebit.persistence.CriteriaBuilderFactory;
 import com.blazebit.persistence.impl.CriteriaBuilderConfigurationImpl;
+import com.blazebit.persistence.spi.CountCache;
 import com.blazebit.persistence.spi.CriteriaBuilderConfiguration;
 import com.blazebit.persistence.spi.DbmsDialect;
 import com.blazebit.persistence.spi.ExtendedQuerySupport;
 import com.blazebit.persistence.spi.JoinTable;
 import com.blazebit.persistence.spi.JpaProvider;
+import com.blazebit.persistence.spi.QueryInstrumentation;
 import com.blazebit.persistence.testsuite.base.jpa.assertion.AssertStatementBuilder;
 import com.blazebit.persistence.testsuite.base.jpa.cleaner.DB2DatabaseCleaner;
 import com.blazebit.persistence.testsuite.base.jpa.cleaner.DatabaseCleaner;
@@ -923,11 +925,17 @@ public abstract class AbstractJpaPersistenceTest {
         private final Properties properties;
         private final Map<String, Class<?>> macros;
         private final Map<String, Class<?>> functions;
+        private final Map<String, Class<?>> dbmsDialects;
+        private final QueryInstrumentation queryInstrumentation;
+        private final CountCache countCache;
 
         private CriteriaBuilderConfigurationEqualityWrapper(CriteriaBuilderConfigurationImpl cfg) {
             this.properties = cfg.getProperties();
+            this.queryInstrumentation = cfg.getQueryInstrumentation();
+            this.countCache = cfg.getCountCache();
             this.macros = cfg.getMacros().entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().getClass()));
             this.functions = cfg.getFunctions().entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().getClass()));
+            this.dbmsDialects = cfg.getDbmsDialects().entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().getClass()));
         }
 
         @Override
@@ -941,12 +949,15 @@ public abstract class AbstractJpaPersistenceTest {
             CriteriaBuilderConfigurationEqualityWrapper that = (CriteriaBuilderConfigurationEqualityWrapper) o;
             return properties.equals(that.properties) &&
                     macros.equals(that.macros) &&
-                    functions.equals(that.functions);
+                    functions.equals(that.functions) &&
+                    dbmsDialects.equals(that.dbmsDialects) &&
+                    queryInstrumentation.equals(that.queryInstrumentation) &&
+                    Objects.equals(countCache, that.countCache);
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(properties, macros, functions);
+            return Objects.hash(properties, macros, functions, dbmsDialects, queryInstrumentation, countCache);
         }
     }
 }